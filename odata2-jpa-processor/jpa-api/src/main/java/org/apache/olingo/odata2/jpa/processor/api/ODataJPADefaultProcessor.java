@@ -36,8 +36,12 @@ import org.apache.olingo.odata2.api.uri.info.GetEntitySetUriInfo;
 import org.apache.olingo.odata2.api.uri.info.GetEntitySetLinksUriInfo;
 import org.apache.olingo.odata2.api.uri.info.GetEntityUriInfo;
 import org.apache.olingo.odata2.api.uri.info.GetFunctionImportUriInfo;
+import org.apache.olingo.odata2.api.uri.info.GetSimplePropertyUriInfo;
 import org.apache.olingo.odata2.api.uri.info.PostUriInfo;
 import org.apache.olingo.odata2.api.uri.info.PutMergePatchUriInfo;
+import java.io.Closeable;
+import java.io.FilterInputStream;
+import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.List;
@@ -52,12 +56,22 @@ public abstract class ODataJPADefaultProcessor extends ODataJPAProcessor {
   public ODataResponse readEntitySet(final GetEntitySetUriInfo uriParserResultView, final String contentType)
       throws ODataException {
     ODataResponse oDataResponse = null;
+    List<Object> jpaEntities = null;
     try {
       oDataJPAContext.setODataContext(getContext());
-      List<Object> jpaEntities = jpaProcessor.process(uriParserResultView);
+      jpaEntities = jpaProcessor.process(uriParserResultView);
       oDataResponse =
           responseBuilder.build(uriParserResultView, jpaEntities, contentType);
+      if (jpaEntities instanceof Closeable && oDataResponse.getEntity() instanceof InputStream) {
+        oDataResponse = ODataResponse.fromResponse(oDataResponse)
+            .entity(new ResultClosingInputStream((InputStream) oDataResponse.getEntity(), (Closeable) jpaEntities))
+            .build();
+      }
     } finally {
+      if (jpaEntities instanceof Closeable
+          && (oDataResponse == null || !(oDataResponse.getEntity() instanceof ResultClosingInputStream))) {
+        closeResult((Closeable) jpaEntities);
+      }
       close();
     }
     return oDataResponse;
@@ -78,6 +92,35 @@ public abstract class ODataJPADefaultProcessor extends ODataJPAProcessor {
     return oDataResponse;
   }
 
+  @Override
+  public ODataResponse readEntitySimplePropertyValue(final GetSimplePropertyUriInfo uriParserResultView,
+      final String contentType) throws ODataException {
+    if (!(responseBuilder instanceof ODataJPAPropertyValueResponseBuilder)) {
+      return super.readEntitySimplePropertyValue(uriParserResultView, contentType);
+    }
+    ODataResponse oDataResponse = null;
+    boolean isLocalTransaction = false;
+    try {
+      oDataJPAContext.setODataContext(getContext());
+      ODataJPATransaction transaction = oDataJPAContext.getODataJPATransaction();
+      if (!transaction.isActive()) {
+        transaction.begin();
+        isLocalTransaction = true;
+      }
+      Object jpaEntity = jpaProcessor.process((GetEntityUriInfo) uriParserResultView);
+      oDataResponse = ((ODataJPAPropertyValueResponseBuilder) responseBuilder).build(uriParserResultView, jpaEntity);
+      if (oDataResponse.getEntity() instanceof InputStream) {
+        oDataResponse = ODataResponse.fromResponse(oDataResponse)
+            .entity(new ClosingInputStream((InputStream) oDataResponse.getEntity(), isLocalTransaction)).build();
+      }
+    } finally {
+      if (oDataResponse == null || !(oDataResponse.getEntity() instanceof ClosingInputStream)) {
+        endReadTransaction(isLocalTransaction);
+      }
+    }
+    return oDataResponse;
+  }
+
   @Override
   public ODataResponse countEntitySet(final GetEntitySetCountUriInfo uriParserResultView, final String contentType)
       throws ODataException {
@@ -245,6 +288,81 @@ public abstract class ODataJPADefaultProcessor extends ODataJPAProcessor {
     }
   }
 
+  /*
+   * Commits the transaction a property value was read in and closes the persistence context
+   */
+  private void endReadTransaction(final boolean isLocalTransaction) {
+    try {
+      if (isLocalTransaction && oDataJPAContext.getODataJPATransaction().isActive()) {
+        oDataJPAContext.getODataJPATransaction().commit();
+      }
+    } finally {
+      close();
+    }
+  }
+
+  /**
+   * Keeps the transaction and the persistence context of a property value open until its content, which may be
+   * streamed from a LOB, has been written to the response.
+   */
+  private final class ClosingInputStream extends FilterInputStream {
+    private final boolean isLocalTransaction;
+    private boolean closed = false;
+
+    private ClosingInputStream(final InputStream content, final boolean isLocalTransaction) {
+      super(content);
+      this.isLocalTransaction = isLocalTransaction;
+    }
+
+    @Override
+    public void close() throws IOException {
+      if (closed) {
+        return;
+      }
+      closed = true;
+      try {
+        super.close();
+      } finally {
+        endReadTransaction(isLocalTransaction);
+      }
+    }
+  }
+
+  /*
+   * Closes a result that is read while the response body is written (e.g. on an entity manager of its own)
+   * together with the body.
+   */
+  private static final class ResultClosingInputStream extends FilterInputStream {
+    private final Closeable result;
+    private boolean closed = false;
+
+    private ResultClosingInputStream(final InputStream content, final Closeable result) {
+      super(content);
+      this.result = result;
+    }
+
+    @Override
+    public void close() throws IOException {
+      if (closed) {
+        return;
+      }
+      closed = true;
+      try {
+        super.close();
+      } finally {
+        result.close();
+      }
+    }
+  }
+
+  private static void closeResult(final Closeable result) {
+    try {
+      result.close();
+    } catch (IOException e) {
+      // nothing to do: the result has not been handed out
+    }
+  }
+
   @Override
   public ODataResponse executeBatch(final BatchHandler handler, final String contentType, final InputStream content)
       throws ODataException {
@@ -0,0 +1,45 @@
+/*******************************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ ******************************************************************************/
+package org.apache.olingo.odata2.jpa.processor.api;
+
+import org.apache.olingo.odata2.api.exception.ODataNotFoundException;
+import org.apache.olingo.odata2.api.processor.ODataResponse;
+import org.apache.olingo.odata2.api.uri.info.GetSimplePropertyUriInfo;
+import org.apache.olingo.odata2.jpa.processor.api.exception.ODataJPARuntimeException;
+
+/**
+ * Response builder which additionally builds the responses for the raw values of simple properties.
+ * <p>
+ * {@link ODataJPADefaultProcessor} serves <code>$value</code> requests of simple properties only if its
+ * response builder implements this interface; otherwise they are not implemented, as before.
+ */
+public interface ODataJPAPropertyValueResponseBuilder extends ODataJPAResponseBuilder {
+
+  /**
+   * The method builds an OData response for the raw value of a simple property of a read JPA Entity. The content of
+   * LOB properties is streamed from the database while the response is written.
+   * @param propertyValueUriInfo is an information about the request URI
+   * @param jpaEntity is a null or non null instances of read JPA Entity
+   * @return an instance of type {@link org.apache.olingo.odata2.api.processor.ODataResponse}
+   * @throws ODataJPARuntimeException
+   * @throws ODataNotFoundException
+   */
+  public ODataResponse build(final GetSimplePropertyUriInfo propertyValueUriInfo, final Object jpaEntity)
+      throws ODataJPARuntimeException, ODataNotFoundException;
+}
@@ -25,6 +25,7 @@ import org.apache.olingo.odata2.api.edm.provider.EdmProvider;
 import org.apache.olingo.odata2.api.exception.ODataException;
 import org.apache.olingo.odata2.api.processor.ODataContext;
 import org.apache.olingo.odata2.api.processor.ODataErrorCallback;
+import org.apache.olingo.odata2.api.processor.ODataRequestExecutor;
 import org.apache.olingo.odata2.api.processor.ODataSingleProcessor;
 import org.apache.olingo.odata2.jpa.processor.api.exception.ODataJPAErrorCallback;
 import org.apache.olingo.odata2.jpa.processor.api.exception.ODataJPARuntimeException;
@@ -82,6 +83,7 @@ public abstract class ODataJPAServiceFactory extends ODataServiceFactory {
   private boolean setDetailErrors = false;
   private OnJPAWriteContent onJPAWriteContent = null;
   private ODataJPATransaction oDataJPATransaction = null;
+  private ODataRequestExecutor oDataRequestExecutor = null;
 
   /**
    * Implement this method and initialize OData JPA Context. It is mandatory
@@ -181,6 +183,11 @@ public abstract class ODataJPAServiceFactory extends ODataServiceFactory {
         return (T) oDataJPATransaction;
       }
     }
+    if (oDataRequestExecutor != null) {
+      if (callbackInterface.isAssignableFrom(ODataRequestExecutor.class)) {
+        return (T) oDataRequestExecutor;
+      }
+    }
     return null;
   }
 
@@ -204,6 +211,17 @@ public abstract class ODataJPAServiceFactory extends ODataServiceFactory {
     this.oDataJPATransaction = oDataJPATransaction;
   }
 
+  /**
+   * The method sets the executor the requests of the service are processed on.
+   * For details refer to {@link ODataRequestExecutor}
+   * @param oDataRequestExecutor is an instance of type
+   * {@link org.apache.olingo.odata2.api.processor.ODataRequestExecutor}, e.g., the executor created by
+   * {@link org.apache.olingo.odata2.api.rt.RuntimeDelegate#createVirtualThreadRequestExecutor()}
+   */
+  protected void setODataRequestExecutor(final ODataRequestExecutor oDataRequestExecutor) {
+    this.oDataRequestExecutor = oDataRequestExecutor;
+  }
+
   /**
    * The method sets the context whether a detail error message should be thrown
    * or a less detail error message should be thrown by the library.
@@ -68,6 +68,36 @@ public final class ODataJPATombstoneContext {
     deltaTokenUTCTimeStamp.remove();
   }
 
+  /**
+   * Returns the tombstone state of the current thread, to be carried over to another thread with
+   * {@link #setState(Object)}.
+   * @return the delta token and the delta results of the current thread
+   */
+  public static Object getState() {
+    return new Object[] { deltaToken.get(), deltaTokenUTCTimeStamp.get(), deltas.get() };
+  }
+
+  /**
+   * Binds a tombstone state returned by {@link #getState()} to the current thread.
+   * @param state the state; <code>null</code> clears the state of the current thread
+   */
+  @SuppressWarnings("unchecked")
+  public static void setState(final Object state) {
+    cleanup();
+    if (state != null) {
+      Object[] values = (Object[]) state;
+      set(deltaToken, (String) values[0]);
+      set(deltaTokenUTCTimeStamp, (Long) values[1]);
+      set(deltas, (HashMap<String, List<Object>>) values[2]);
+    }
+  }
+
+  private static <T> void set(final ThreadLocal<T> threadLocal, final T value) {
+    if (value != null) {
+      threadLocal.set(value);
+    }
+  }
+
   public static Long getDeltaTokenUTCTimeStamp() {
     Long timestamp = deltaTokenUTCTimeStamp.get();
 
@@ -0,0 +1,105 @@
+/*******************************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ ******************************************************************************/
+package org.apache.olingo.odata2.jpa.processor.api;
+
+import java.util.concurrent.ExecutorService;
+
+/**
+ * The interface extends the {@link ODataJPAContext} by options tuning how the JPA processor reads data. The
+ * context returned by {@link ODataJPAServiceFactory#getODataJPAContext()} implements it, so the options can be set
+ * in {@link ODataJPAServiceFactory#initializeODataJPAContext()}:
+ * <pre>
+ * ODataJPATuningContext context = (ODataJPATuningContext) getODataJPAContext();
+ * context.setKeysetPaging(true);
+ * </pre>
+ * Custom implementations of {@link ODataJPAContext} which do not implement this interface keep working; the JPA
+ * processor then uses the defaults of all options.
+ */
+public interface ODataJPATuningContext extends ODataJPAContext {
+
+  /**
+   * The method enables keyset paging for server side paging. With keyset paging the skip token of the next
+   * link holds the key values of the last entity of the page and the next page is read with a key based
+   * predicate instead of skipping the rows of the previous pages. Keyset paging is used for requests
+   * without $orderby, $skip and $top only; all other requests fall back to offset based paging.
+   * @param keysetPaging
+   */
+  public void setKeysetPaging(boolean keysetPaging);
+
+  /**
+   * The method returns if keyset paging is enabled for server side paging
+   * @return true if keyset paging is enabled
+   */
+  public boolean isKeysetPaging();
+
+  /**
+   * The method enables streaming of unpaged entity set results. Requests without server side paging, $top,
+   * $skip, $orderby, $inlinecount, $expand, $select and navigation are then read in chunks ordered by the key
+   * properties while the feed is written, so the complete result is never held in memory. Each chunk after the
+   * first one is read with a key based predicate selecting the entities behind the last entity of the previous
+   * chunk. Streaming is disabled by default.
+   * <p>
+   * The chunks are read on a separate Entity Manager created from the
+   * {@link #getEntityManagerFactory() Entity Manager Factory}; without an Entity Manager Factory the result is
+   * not streamed. The chunks are separate queries which do not share a transaction or a snapshot of the
+   * database: entities changed, created or deleted while the feed is written may be missing or show the state
+   * of a later chunk, and changes of the transaction of the request are not visible.
+   * @param streaming
+   */
+  public void setStreaming(boolean streaming);
+
+  /**
+   * The method returns if unpaged entity set results are streamed
+   * @return true if streaming is enabled
+   */
+  public boolean isStreaming();
+
+  /**
+   * The method sets the executor the count query of <code>$inlinecount=allpages</code> requests is run on.
+   * The count query is then executed on a separate Entity Manager created from the
+   * {@link #getEntityManagerFactory() Entity Manager Factory} while the page is read, so the latency of the
+   * request is the maximum and not the sum of both queries. Without an executor (default) or an Entity
+   * Manager Factory the count query is run after the page query.
+   * @param executor
+   */
+  public void setInlineCountExecutor(ExecutorService executor);
+
+  /**
+   * The method returns the executor for the count query of <code>$inlinecount=allpages</code> requests
+   * @return an instance of type {@link java.util.concurrent.ExecutorService} or null
+   */
+  public ExecutorService getInlineCountExecutor();
+
+  /**
+   * The method enables the cache for the results of <code>$count</code> and <code>$inlinecount=allpages</code>
+   * requests. A count is reused for the given time if the same resource path and <code>$filter</code> is
+   * requested again; it is dropped earlier when the JPA processor writes to the persistence unit. Requests with
+   * the header <code>Cache-Control: no-cache</code> always read the exact count. The cache is disabled by
+   * default (time to live 0).
+   * @param timeToLive
+   * time to live of a cached count in milliseconds
+   */
+  public void setCountCacheTimeToLive(long timeToLive);
+
+  /**
+   * The method returns the time to live of cached counts
+   * @return time to live in milliseconds; 0 if counts are not cached
+   */
+  public long getCountCacheTimeToLive();
+}
@@ -127,6 +127,8 @@ public class JPQLStatement {
     public static final String LEFT_OUTER_JOIN = "LEFT OUTER JOIN";
     public static final String OUTER = "OUTER";
     public static final String JOIN = "JOIN";
+    public static final String FETCH = "FETCH";
+    public static final String IN = "IN";
     public static final String ORDERBY = "ORDER BY";
     public static final String COUNT = "COUNT";
     public static final String OFFSET = ".000";
@@ -0,0 +1,89 @@
+/*******************************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ ******************************************************************************/
+package org.apache.olingo.odata2.jpa.processor.core;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * State of the compilation of one JPQL statement.
+ * <p>
+ * The context keeps the positional parameters created by {@link ODataExpressionParser} for the expression parsed
+ * last and the next free parameter index of the statement. Each JPQL context owns its compile context and passes
+ * it to the parser explicitly, so statements can be built on any thread and in parallel without thread bound
+ * state. The context is confined to the build of one statement; it is not meant to be shared between threads.
+ */
+public final class JPQLCompileContext {
+
+  private Map<Integer, Object> positionalParameters = null;
+  private int nextIndex = 1;
+  private boolean substringOfComparison = false;
+
+  /**
+   * @return a copy of the positional parameters of the expression parsed last ordered by index
+   */
+  public Map<Integer, Object> getPositionalParameters() {
+    return positionalParameters == null ? new TreeMap<Integer, Object>()
+        : new TreeMap<Integer, Object>(positionalParameters);
+  }
+
+  /**
+   * @return the first positional parameter index not used by the statement yet
+   */
+  public int getNextIndex() {
+    return nextIndex;
+  }
+
+  /**
+   * @return <code>true</code> if an expression has created positional parameters
+   */
+  boolean hasPositionalParameters() {
+    return positionalParameters != null;
+  }
+
+  /**
+   * Sets the positional parameters of the expression being parsed
+   * @param parameters
+   * positional parameters of the expression
+   */
+  void setPositionalParameters(final Map<Integer, Object> parameters) {
+    positionalParameters = new TreeMap<Integer, Object>(parameters);
+    reserveIndex(positionalParameters);
+  }
+
+  /**
+   * Marks the indexes of the given parameters as used
+   */
+  void reserveIndex(final Map<Integer, Object> parameters) {
+    if (parameters != null && !parameters.isEmpty()) {
+      nextIndex = Math.max(nextIndex, new TreeMap<Integer, Object>(parameters).lastKey() + 1);
+    }
+  }
+
+  /**
+   * Marks that the next <code>substringof</code> method is the operand of an equality comparison
+   */
+  void setSubstringOfComparison(final boolean substringOfComparison) {
+    this.substringOfComparison = substringOfComparison;
+  }
+
+  boolean isSubstringOfComparison() {
+    return substringOfComparison;
+  }
+}
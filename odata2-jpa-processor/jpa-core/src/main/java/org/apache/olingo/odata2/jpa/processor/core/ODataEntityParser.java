@@ -29,6 +29,7 @@ import org.apache.olingo.odata2.api.edm.EdmEntitySet;
 import org.apache.olingo.odata2.api.ep.EntityProvider;
 import org.apache.olingo.odata2.api.ep.EntityProviderException;
 import org.apache.olingo.odata2.api.ep.EntityProviderReadProperties;
+import org.apache.olingo.odata2.api.ep.callback.OnReadInlineContent;
 import org.apache.olingo.odata2.api.ep.entry.ODataEntry;
 import org.apache.olingo.odata2.api.exception.ODataBadRequestException;
 import org.apache.olingo.odata2.api.exception.ODataException;
@@ -57,10 +58,16 @@ public final class ODataEntityParser {
   public final ODataEntry parseEntry(final EdmEntitySet entitySet,
       final InputStream content, final String requestContentType, final boolean merge)
       throws ODataBadRequestException {
+    return parseEntry(entitySet, content, requestContentType, merge, null);
+  }
+
+  public final ODataEntry parseEntry(final EdmEntitySet entitySet,
+      final InputStream content, final String requestContentType, final boolean merge,
+      final OnReadInlineContent callback) throws ODataBadRequestException {
     ODataEntry entryValues;
     try {
       EntityProviderReadProperties entityProviderProperties =
-          EntityProviderReadProperties.init().mergeSemantic(merge).build();
+          EntityProviderReadProperties.init().mergeSemantic(merge).callback(callback).build();
       entryValues = EntityProvider.readEntry(requestContentType, entitySet, content, entityProviderProperties);
     } catch (EntityProviderException e) {
       throw new ODataBadRequestException(ODataBadRequestException.BODY, e);
@@ -72,8 +72,16 @@ import org.apache.olingo.odata2.jpa.processor.core.model.JPAEdmMappingImpl;
 public class ODataExpressionParser {
 
   public static final String EMPTY = ""; //$NON-NLS-1$
+  /**
+   * @deprecated no longer used; the state of a parse is kept in its {@link JPQLCompileContext}
+   */
+  @Deprecated
   public static final ThreadLocal<Integer> methodFlag = new ThreadLocal<Integer>();
   public static final Character[] EMPTY_CHARACTER_ARRAY = new Character[0];
+  /**
+   * @deprecated only maintained by the methods without {@link JPQLCompileContext} parameter
+   */
+  @Deprecated
   public static final ThreadLocal<Map<Integer, Object>> positionalParameters = new ThreadLocal<Map<Integer,Object>>();
   
   /**
@@ -88,18 +96,47 @@ public class ODataExpressionParser {
    */
   public static String parseToJPAWhereExpression(final CommonExpression whereExpression, final String tableAlias)
       throws ODataException {
+    JPQLCompileContext compileContext = createThreadLocalCompileContext();
+    String jpqlExpression = parseToJPAWhereExpression(whereExpression, tableAlias, compileContext);
+    publishThreadLocalCompileContext(compileContext);
+    return jpqlExpression;
+  }
+
+  /**
+   * This method returns the parsed where condition corresponding to the filter input in the user query.
+   *
+   * @param whereExpression
+   * @param tableAlias
+   * @param compileContext
+   * collects the positional parameters of the statement
+   *
+   * @return Parsed where condition String
+   * @throws ODataException
+   */
+  public static String parseToJPAWhereExpression(final CommonExpression whereExpression, final String tableAlias,
+      final JPQLCompileContext compileContext) throws ODataException {
     EdmMapping edmMapping = null;
     return parseToJPAWhereExpression(whereExpression, tableAlias, 1, 
-        new ConcurrentHashMap<Integer,Object>(), edmMapping);
+        new ConcurrentHashMap<Integer,Object>(), edmMapping, compileContext);
   }
-  
+
   public static String parseToJPAWhereExpression(final CommonExpression whereExpression, final String tableAlias, 
       int index, Map<Integer,Object> positionalParameters,EdmMapping edmMapping) throws ODataException {
+    JPQLCompileContext compileContext = createThreadLocalCompileContext();
+    String jpqlExpression = parseToJPAWhereExpression(whereExpression, tableAlias, index, positionalParameters,
+        edmMapping, compileContext);
+    publishThreadLocalCompileContext(compileContext);
+    return jpqlExpression;
+  }
+
+  public static String parseToJPAWhereExpression(final CommonExpression whereExpression, final String tableAlias,
+      int index, Map<Integer, Object> positionalParameters, EdmMapping edmMapping,
+      final JPQLCompileContext compileContext) throws ODataException {
     switch (whereExpression.getKind()) {
     case UNARY:
       final UnaryExpression unaryExpression = (UnaryExpression) whereExpression;
       final String operand = parseToJPAWhereExpression(unaryExpression.getOperand(), tableAlias, 
-          index, positionalParameters, edmMapping);
+          index, positionalParameters, edmMapping, compileContext);
 
       switch (unaryExpression.getOperator()) {
       case NOT:
@@ -117,7 +154,7 @@ public class ODataExpressionParser {
 
     case FILTER:
       return parseToJPAWhereExpression(((FilterExpression) whereExpression).getExpression(), tableAlias, 
-          index, positionalParameters, edmMapping);
+          index, positionalParameters, edmMapping, compileContext);
     case BINARY:
       final BinaryExpression binaryExpression = (BinaryExpression) whereExpression;
       MethodOperator operator = null;
@@ -127,14 +164,14 @@ public class ODataExpressionParser {
       if (operator != null && ((binaryExpression.getOperator() == BinaryOperator.EQ) ||
           (binaryExpression.getOperator() == BinaryOperator.NE))) {
         if (operator == MethodOperator.SUBSTRINGOF) {
-          methodFlag.set(1);
+          compileContext.setSubstringOfComparison(true);
         }
       }
       final String left = parseToJPAWhereExpression(binaryExpression.getLeftOperand(), tableAlias, 
-          getIndexValue(index, positionalParameters), positionalParameters, edmMapping);
+          getIndexValue(index, positionalParameters), positionalParameters, edmMapping, compileContext);
       edmMapping = getEdmMapping(binaryExpression);
       final String right = parseToJPAWhereExpression(binaryExpression.getRightOperand(), tableAlias, 
-          getIndexValue(index, positionalParameters), positionalParameters, edmMapping);
+          getIndexValue(index, positionalParameters), positionalParameters, edmMapping, compileContext);
 
       // Special handling for STARTSWITH and ENDSWITH method expression
       if (operator != null && (operator == MethodOperator.STARTSWITH || operator == MethodOperator.ENDSWITH)) {
@@ -244,26 +281,28 @@ public class ODataExpressionParser {
       EdmLiteral uriLiteral = EdmSimpleTypeKind.parseUriLiteral(literal.getUriLiteral());
       Class<?> edmMap = edmMapping != null ?((JPAEdmMappingImpl)edmMapping).getJPAType(): null;
       return evaluateComparingExpression(uriLiteral.getLiteral(), literalType, edmMap,
-          positionalParameters, index);
+          positionalParameters, index, compileContext);
 
     case METHOD:
       final MethodExpression methodExpression = (MethodExpression) whereExpression;
       String first = parseToJPAWhereExpression(methodExpression.getParameters().get(0), tableAlias, 
-          getIndexValue(index, positionalParameters), positionalParameters, edmMapping);
+          getIndexValue(index, positionalParameters), positionalParameters, edmMapping, compileContext);
       String second =
           methodExpression.getParameterCount() > 1 ? parseToJPAWhereExpression(methodExpression.getParameters().get(1),
-              tableAlias, getIndexValue(index, positionalParameters), positionalParameters, edmMapping) : null;
+              tableAlias, getIndexValue(index, positionalParameters), positionalParameters, edmMapping,
+              compileContext) : null;
       String third =
           methodExpression.getParameterCount() > 2 ? parseToJPAWhereExpression(methodExpression.getParameters().get(2),
-              tableAlias, getIndexValue(index, positionalParameters), positionalParameters, edmMapping) : null;
+              tableAlias, getIndexValue(index, positionalParameters), positionalParameters, edmMapping,
+              compileContext) : null;
 
       switch (methodExpression.getMethod()) {
       case SUBSTRING:
         third = third != null ? ", " + third : "";
         return String.format("SUBSTRING(%s, %s + 1 %s)", first, second, third);
       case SUBSTRINGOF:
-        if (methodFlag.get() != null && methodFlag.get() == 1) {
-          methodFlag.set(null);
+        if (compileContext.isSubstringOfComparison()) {
+          compileContext.setSubstringOfComparison(false);
           return String.format("(CASE WHEN (%s LIKE CONCAT('%%',CONCAT(%s,'%%')) ESCAPE '\\') "
               + "THEN TRUE ELSE FALSE END)",
               second, first);
@@ -386,8 +425,8 @@ public class ODataExpressionParser {
 
         try {
           if (orderBy.getExpression().getKind() == ExpressionKind.MEMBER) {
-            orderByField = parseToJPAWhereExpression(orderBy.getExpression(), tableAlias, 1, 
-                new ConcurrentHashMap<Integer, Object>(), null);
+            orderByField = parseToJPAWhereExpression(orderBy.getExpression(), tableAlias, 1,
+                new ConcurrentHashMap<Integer, Object>(), null, new JPQLCompileContext());
           } else {
             orderByField = tableAlias + JPQLStatement.DELIMITER.PERIOD + getPropertyName(orderBy.getExpression());
           }
@@ -421,6 +460,23 @@ public class ODataExpressionParser {
 
   public static String parseKeyPredicates(final List<KeyPredicate> keyPredicates, final String tableAlias)
       throws ODataJPARuntimeException {
+    JPQLCompileContext compileContext = createThreadLocalCompileContext();
+    String keyFilters = parseKeyPredicates(keyPredicates, tableAlias, compileContext);
+    publishThreadLocalCompileContext(compileContext);
+    return keyFilters;
+  }
+
+  /**
+   * This method evaluated the where expression for read of an entity based on the keys specified in the query.
+   *
+   * @param keyPredicates
+   * @param tableAlias
+   * @param compileContext
+   * collects the positional parameters of the statement
+   * @return the evaluated where expression
+   */
+  public static String parseKeyPredicates(final List<KeyPredicate> keyPredicates, final String tableAlias,
+      final JPQLCompileContext compileContext) throws ODataJPARuntimeException {
     Map<Integer, Object> positionalParameters = new ConcurrentHashMap<Integer, Object>(); 
     String literal = null;
     String propertyName = null;
@@ -429,9 +485,7 @@ public class ODataExpressionParser {
     StringBuilder keyFilters = new StringBuilder();
     int i = 0;
     for (KeyPredicate keyPredicate : keyPredicates) {
-	  int index = null == getPositionalParametersThreadLocal() ||
-	    getPositionalParametersThreadLocal().size() == 0 ? 1 :
-		getIndexValue(1, getPositionalParametersThreadLocal());
+      int index = compileContext.getNextIndex();
       if (i > 0) {
         keyFilters.append(JPQLStatement.DELIMITER.SPACE + JPQLStatement.Operator.AND + JPQLStatement.DELIMITER.SPACE);
       }
@@ -445,7 +499,8 @@ public class ODataExpressionParser {
         throw ODataJPARuntimeException.throwException(ODataJPARuntimeException.GENERAL.addContent(e.getMessage()), e);
       }
 
-      literal = evaluateComparingExpression(literal, edmSimpleType, edmMappedType, positionalParameters, index);
+      literal = evaluateComparingExpression(literal, edmSimpleType, edmMappedType, positionalParameters, index,
+          compileContext);
 
       if(edmSimpleType == EdmSimpleTypeKind.String.getEdmSimpleTypeInstance()){
         keyFilters.append(tableAlias + JPQLStatement.DELIMITER.PERIOD + propertyName + JPQLStatement.DELIMITER.SPACE
@@ -510,11 +565,13 @@ public class ODataExpressionParser {
    * @param edmMappedType 
    * @param index 
    * @param positionalParameter
+   * @param compileContext
    * @return the evaluated expression
    * @throws ODataJPARuntimeException
    */
   private static String evaluateComparingExpression(String uriLiteral, final EdmSimpleType edmSimpleType,
-      Class<?> edmMappedType, Map<Integer, Object> positionalParameters, int index) throws ODataJPARuntimeException {
+      Class<?> edmMappedType, Map<Integer, Object> positionalParameters, int index,
+      final JPQLCompileContext compileContext) throws ODataJPARuntimeException {
     if (EdmSimpleTypeKind.String.getEdmSimpleTypeInstance().isCompatible(edmSimpleType)
         || EdmSimpleTypeKind.Guid.getEdmSimpleTypeInstance().isCompatible(edmSimpleType)) {
       uriLiteral = updateValueIfWildcards(uriLiteral);
@@ -569,8 +626,7 @@ public class ODataExpressionParser {
       uriLiteral = evaluateExpressionForNumbers(uriLiteral, edmSimpleType, edmMappedType, 
           positionalParameters, index);
     }
-    removePositionalParametersThreadLocal();
-    setPositionalParametersThreadLocal(positionalParameters);
+    compileContext.setPositionalParameters(positionalParameters);
     return uriLiteral;
   }
 
@@ -661,6 +717,23 @@ public class ODataExpressionParser {
 
     return mapping != null ? mapping.getInternalName() : edmProperty.getName();
   }
+  private static JPQLCompileContext createThreadLocalCompileContext() {
+    JPQLCompileContext compileContext = new JPQLCompileContext();
+    compileContext.reserveIndex(getPositionalParametersThreadLocal());
+    return compileContext;
+  }
+
+  private static void publishThreadLocalCompileContext(final JPQLCompileContext compileContext) {
+    if (compileContext.hasPositionalParameters()) {
+      removePositionalParametersThreadLocal();
+      setPositionalParametersThreadLocal(compileContext.getPositionalParameters());
+    }
+  }
+
+  /**
+   * @deprecated build statements with a {@link JPQLCompileContext} instead
+   */
+  @Deprecated
   public static void setPositionalParametersThreadLocal(final Map<Integer, Object> parameter) {
     if (null != getPositionalParametersThreadLocal() && 
         getPositionalParametersThreadLocal().size() > 0) {
@@ -670,10 +743,18 @@ public class ODataExpressionParser {
     positionalParameters.set(map);
   }
   
+  /**
+   * @deprecated use {@link JPQLCompileContext#getPositionalParameters()}
+   */
+  @Deprecated
   public static Map<Integer, Object> getPositionalParametersThreadLocal() {
     return positionalParameters.get();
   }
   
+  /**
+   * @deprecated build statements with a {@link JPQLCompileContext} instead
+   */
+  @Deprecated
   public static void removePositionalParametersThreadLocal() {
     positionalParameters.remove();
   }
@@ -18,6 +18,8 @@
  ******************************************************************************/
 package org.apache.olingo.odata2.jpa.processor.core;
 
+import java.util.concurrent.ExecutorService;
+
 import javax.persistence.EntityManager;
 import javax.persistence.EntityManagerFactory;
 
@@ -26,10 +28,12 @@ import org.apache.olingo.odata2.api.processor.ODataContext;
 import org.apache.olingo.odata2.api.processor.ODataProcessor;
 import org.apache.olingo.odata2.jpa.processor.api.ODataJPAContext;
 import org.apache.olingo.odata2.jpa.processor.api.ODataJPATransaction;
+import org.apache.olingo.odata2.jpa.processor.api.ODataJPATuningContext;
 import org.apache.olingo.odata2.jpa.processor.api.access.JPAPaging;
 import org.apache.olingo.odata2.jpa.processor.api.model.JPAEdmExtension;
+import org.apache.olingo.odata2.jpa.processor.core.access.data.JPACountCacheTransaction;
 
-public class ODataJPAContextImpl implements ODataJPAContext {
+public class ODataJPAContextImpl implements ODataJPATuningContext {
 
   private String pUnitName;
   private EntityManagerFactory emf;
@@ -40,7 +44,11 @@ public class ODataJPAContextImpl implements ODataJPAContext {
   private String jpaEdmMappingModelName;
   private JPAEdmExtension jpaEdmExtension;
   private int pageSize = 0;
+  private boolean keysetPaging = false;
   private JPAPaging jpaPaging;
+  private ExecutorService inlineCountExecutor;
+  private long countCacheTimeToLive = 0;
+  private boolean streaming = false;
   private static final ThreadLocal<ODataContext> oDataContextThreadLocal = new ThreadLocal<ODataContext>();
   private boolean defaultNaming = true;
   private ODataJPATransaction transaction = null;
@@ -160,6 +168,26 @@ public class ODataJPAContextImpl implements ODataJPAContext {
     pageSize = size;
   }
 
+  @Override
+  public void setKeysetPaging(final boolean keysetPaging) {
+    this.keysetPaging = keysetPaging;
+  }
+
+  @Override
+  public boolean isKeysetPaging() {
+    return keysetPaging;
+  }
+
+  @Override
+  public void setStreaming(final boolean streaming) {
+    this.streaming = streaming;
+  }
+
+  @Override
+  public boolean isStreaming() {
+    return streaming;
+  }
+
   @Override
   public void setPaging(final JPAPaging paging) {
     jpaPaging = paging;
@@ -170,6 +198,26 @@ public class ODataJPAContextImpl implements ODataJPAContext {
     return jpaPaging;
   }
 
+  @Override
+  public void setInlineCountExecutor(final ExecutorService executor) {
+    inlineCountExecutor = executor;
+  }
+
+  @Override
+  public ExecutorService getInlineCountExecutor() {
+    return inlineCountExecutor;
+  }
+
+  @Override
+  public void setCountCacheTimeToLive(final long timeToLive) {
+    countCacheTimeToLive = timeToLive;
+  }
+
+  @Override
+  public long getCountCacheTimeToLive() {
+    return countCacheTimeToLive;
+  }
+
   @Override
   public ODataJPATransaction getODataJPATransaction() {
     if (transaction == null) {
@@ -183,6 +231,9 @@ public class ODataJPAContextImpl implements ODataJPAContext {
           transaction = new ODataJPATransactionLocalDefault(getEntityManager());
         }
       }
+      if (countCacheTimeToLive > 0) {
+        transaction = new JPACountCacheTransaction(transaction);
+      }
     }
     return transaction;
   }
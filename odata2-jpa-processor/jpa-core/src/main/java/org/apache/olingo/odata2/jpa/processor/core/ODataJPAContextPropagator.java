@@ -0,0 +1,58 @@
+/*******************************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ ******************************************************************************/
+package org.apache.olingo.odata2.jpa.processor.core;
+
+import org.apache.olingo.odata2.api.processor.ODataContext;
+import org.apache.olingo.odata2.api.processor.ODataContextPropagator;
+import org.apache.olingo.odata2.jpa.processor.api.ODataJPATombstoneContext;
+
+/**
+ * Carries the request state bound to the request thread over to the threads the request is processed on, e.g., the
+ * thread running the count query of <code>$inlinecount</code>: the OData context bound by {@link ODataJPAContextImpl}
+ * and the delta token and delta results of {@link ODataJPATombstoneContext}.
+ * <p>
+ * The entity manager bound to the request thread is not carried over since an entity manager must not be used by
+ * several threads; tasks running on other threads use entity managers of their own.
+ */
+public class ODataJPAContextPropagator implements ODataContextPropagator {
+
+  @Override
+  public Object capture() {
+    return new Object[] { ODataJPAContextImpl.getContextInThreadLocal(), ODataJPATombstoneContext.getState() };
+  }
+
+  @Override
+  public Object install(final Object state) {
+    Object previousState = capture();
+    restore(state);
+    return previousState;
+  }
+
+  @Override
+  public void restore(final Object previousState) {
+    Object[] states = (Object[]) previousState;
+    ODataContext context = (ODataContext) states[0];
+    if (context == null) {
+      ODataJPAContextImpl.unsetContextInThreadLocal();
+    } else {
+      ODataJPAContextImpl.setContextInThreadLocal(context);
+    }
+    ODataJPATombstoneContext.setState(states[1]);
+  }
+}
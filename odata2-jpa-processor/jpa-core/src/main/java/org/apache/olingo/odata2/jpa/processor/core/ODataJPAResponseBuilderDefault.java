@@ -19,12 +19,15 @@
 package org.apache.olingo.odata2.jpa.processor.core;
 
 import java.net.URI;
+import java.sql.Blob;
+import java.sql.Clob;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
 import org.apache.olingo.odata2.api.ODataCallback;
+import org.apache.olingo.odata2.api.commons.HttpContentType;
 import org.apache.olingo.odata2.api.commons.HttpStatusCodes;
 import org.apache.olingo.odata2.api.commons.InlineCount;
 import org.apache.olingo.odata2.api.edm.EdmEntitySet;
@@ -60,20 +63,26 @@ import org.apache.olingo.odata2.api.uri.info.GetEntitySetLinksUriInfo;
 import org.apache.olingo.odata2.api.uri.info.GetEntitySetUriInfo;
 import org.apache.olingo.odata2.api.uri.info.GetEntityUriInfo;
 import org.apache.olingo.odata2.api.uri.info.GetFunctionImportUriInfo;
+import org.apache.olingo.odata2.api.uri.info.GetSimplePropertyUriInfo;
 import org.apache.olingo.odata2.api.uri.info.PostUriInfo;
 import org.apache.olingo.odata2.api.uri.info.PutMergePatchUriInfo;
+import org.apache.olingo.odata2.core.commons.Encoder;
+import org.apache.olingo.odata2.core.exception.ODataRuntimeException;
 import org.apache.olingo.odata2.core.uri.UriInfoImpl;
 import org.apache.olingo.odata2.jpa.processor.api.ODataJPAContext;
-import org.apache.olingo.odata2.jpa.processor.api.ODataJPAResponseBuilder;
+import org.apache.olingo.odata2.jpa.processor.api.ODataJPAPropertyValueResponseBuilder;
 import org.apache.olingo.odata2.jpa.processor.api.ODataJPATombstoneContext;
 import org.apache.olingo.odata2.jpa.processor.api.access.JPAPaging;
 import org.apache.olingo.odata2.jpa.processor.api.exception.ODataJPARuntimeException;
 import org.apache.olingo.odata2.jpa.processor.core.access.data.JPAEntityParser;
+import org.apache.olingo.odata2.jpa.processor.core.access.data.JPALobInputStream;
+import org.apache.olingo.odata2.jpa.processor.core.access.data.JPAPage;
+import org.apache.olingo.odata2.jpa.processor.core.access.data.JPAStreamingResultList;
 import org.apache.olingo.odata2.jpa.processor.core.callback.JPAExpandCallBack;
 import org.apache.olingo.odata2.jpa.processor.core.callback.JPATombstoneCallBack;
 import org.apache.olingo.odata2.jpa.processor.core.callback.JPATombstoneCallBackFI;
 
-public final class ODataJPAResponseBuilderDefault implements ODataJPAResponseBuilder {
+public final class ODataJPAResponseBuilderDefault implements ODataJPAPropertyValueResponseBuilder {
 
   private static final String COUNT = "count";
   private final ODataJPAContext oDataJPAContext;
@@ -118,10 +127,18 @@ public final class ODataJPAResponseBuilderDefault implements ODataJPAResponseBui
       EntityProviderWriteProperties feedProperties = null;
 
       feedProperties = getEntityProviderProperties(oDataJPAContext, resultsView, edmEntityList);
+      if (jpaEntities instanceof JPAStreamingResultList) {
+        feedProperties = EntityProviderWriteProperties.fromProperties(feedProperties).streaming(true).build();
+      }
       odataResponse =
           EntityProvider.writeFeed(contentType, resultsView.getTargetEntitySet(), edmEntityList, feedProperties);
       odataResponse = ODataResponse.fromResponse(odataResponse).status(HttpStatusCodes.OK).build();
 
+    } catch (ODataRuntimeException e) {
+      if (e.getCause() instanceof ODataJPARuntimeException) {
+        throw (ODataJPARuntimeException) e.getCause();
+      }
+      throw e;
     } catch (EntityProviderException e) {
       throw ODataJPARuntimeException.throwException(ODataJPARuntimeException.GENERAL.addContent(e.getMessage()), e);
     } catch (EdmException e) {
@@ -196,6 +213,38 @@ public final class ODataJPAResponseBuilderDefault implements ODataJPAResponseBui
     return odataResponse;
   }
 
+  /* Response for Read Property Value ($value) */
+  @Override
+  public ODataResponse build(final GetSimplePropertyUriInfo resultsView, final Object jpaEntity)
+      throws ODataJPARuntimeException, ODataNotFoundException {
+    if (jpaEntity == null) {
+      throw new ODataNotFoundException(ODataNotFoundException.ENTITY);
+    }
+    List<EdmProperty> propertyPath = resultsView.getPropertyPath();
+    EdmProperty property = propertyPath.get(propertyPath.size() - 1);
+    ODataResponse odataResponse = null;
+    try {
+      Object value = new JPAEntityParser().getPropertyPathValue(jpaEntity, propertyPath);
+      if (value instanceof Blob) {
+        String mimeType = property.getMimeType() == null ? HttpContentType.APPLICATION_OCTET_STREAM
+            : property.getMimeType();
+        odataResponse = ODataResponse.status(HttpStatusCodes.OK).entity(new JPALobInputStream((Blob) value))
+            .contentHeader(mimeType).build();
+      } else if (value instanceof Clob) {
+        odataResponse = ODataResponse.status(HttpStatusCodes.OK).entity(new JPALobInputStream((Clob) value))
+            .contentHeader(HttpContentType.TEXT_PLAIN_UTF8).build();
+      } else {
+        odataResponse = EntityProvider.writePropertyValue(property, JPAEntityParser.getPropertyValue(value));
+        odataResponse = ODataResponse.fromResponse(odataResponse).status(HttpStatusCodes.OK).build();
+      }
+    } catch (EntityProviderException e) {
+      throw ODataJPARuntimeException.throwException(ODataJPARuntimeException.GENERAL.addContent(e.getMessage()), e);
+    } catch (EdmException e) {
+      throw ODataJPARuntimeException.throwException(ODataJPARuntimeException.GENERAL.addContent(e.getMessage()), e);
+    }
+    return odataResponse;
+  }
+
   /* Response for Create Entity */
   @Override
   public ODataResponse build(final PostUriInfo uriInfo, final Object createdObject,
@@ -517,7 +566,7 @@ public final class ODataJPAResponseBuilderDefault implements ODataJPAResponseBui
             serviceRoot.relativize(pathInfo.getRequestUri()).toString();
         nextLink = percentEncodeNextLink(nextLink);
         nextLink += (nextLink != null ? nextLink.contains("?") ? "&" : "?" : "?")
-            + "$skiptoken=" + odataJPAContext.getPaging().getNextPage();
+            + "$skiptoken=" + getNextSkipToken(paging);
         entityFeedPropertiesBuilder.nextLink(nextLink);
       }
       entityFeedPropertiesBuilder.inlineCount(count);
@@ -574,7 +623,7 @@ public final class ODataJPAResponseBuilderDefault implements ODataJPAResponseBui
             serviceRoot.relativize(pathInfo.getRequestUri()).toString();
         nextLink = percentEncodeNextLink(nextLink);
         nextLink += (nextLink != null ? nextLink.contains("?") ? "&" : "?" : "?")
-            + "$skiptoken=" + odataJPAContext.getPaging().getNextPage();
+            + "$skiptoken=" + getNextSkipToken(paging);
         entityFeedPropertiesBuilder.nextLink(nextLink);
       }
       entityFeedPropertiesBuilder.inlineCount(count);
@@ -604,6 +653,13 @@ public final class ODataJPAResponseBuilderDefault implements ODataJPAResponseBui
     return entityFeedPropertiesBuilder.build();
   }
 
+  private static String getNextSkipToken(final JPAPaging paging) {
+    if (paging instanceof JPAPage && ((JPAPage) paging).getNextSkipToken() != null) {
+      return Encoder.encode(((JPAPage) paging).getNextSkipToken());
+    }
+    return String.valueOf(paging.getNextPage());
+  }
+
   private static String percentEncodeNextLink(final String link) {
     if (link == null) {
       return null;
@@ -0,0 +1,166 @@
+/*******************************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ ******************************************************************************/
+package org.apache.olingo.odata2.jpa.processor.core.access.data;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.SoftReference;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Process wide cache of the access modifiers (getters and setters) of JPA entity and embeddable types.
+ * <p>
+ * {@link Class#getMethod(String, Class...)} copies the public methods of the class on every call and
+ * {@link Method#setAccessible(boolean)} runs a security check, so both are done once per class and method
+ * signature instead of once per request. The returned methods are already accessible. Lookups of methods that
+ * do not exist are cached as well. {@link JPAEntityParser} looks up the methods once per parser and entity type,
+ * so the cache is not on the path of every row.
+ * <p>
+ * The classes are weakly referenced and the methods of a class softly, so the cache does not keep the class
+ * loader of a redeployed application alive. Lookups do not lock.
+ */
+final class JPAAccessModifierCache {
+
+  private static final Object NO_SUCH_METHOD = new Object();
+  private static final MethodCache METHODS = new MethodCache();
+  private static final MethodCache DECLARED_METHODS = new MethodCache();
+
+  private JPAAccessModifierCache() {}
+
+  /**
+   * Cached {@link Class#getMethod(String, Class...)}
+   */
+  static Method getMethod(final Class<?> type, final String name, final Class<?>... parameterTypes)
+      throws NoSuchMethodException {
+    return lookup(METHODS, type, name, parameterTypes, false);
+  }
+
+  /**
+   * Cached {@link Class#getDeclaredMethod(String, Class...)}
+   */
+  static Method getDeclaredMethod(final Class<?> type, final String name, final Class<?>... parameterTypes)
+      throws NoSuchMethodException {
+    return lookup(DECLARED_METHODS, type, name, parameterTypes, true);
+  }
+
+  private static Method lookup(final MethodCache cache, final Class<?> type, final String name,
+      final Class<?>[] parameterTypes, final boolean declared) throws NoSuchMethodException {
+    ConcurrentMap<String, Object> methods = cache.getMethods(type);
+    String signature = getSignature(name, parameterTypes);
+    Object method = methods.get(signature);
+    if (method == null) {
+      try {
+        Method reflected = declared ? type.getDeclaredMethod(name, parameterTypes)
+            : type.getMethod(name, parameterTypes);
+        reflected.setAccessible(true);
+        method = reflected;
+      } catch (NoSuchMethodException e) {
+        method = NO_SUCH_METHOD;
+      }
+      methods.putIfAbsent(signature, method);
+    }
+    if (method == NO_SUCH_METHOD) {
+      throw new NoSuchMethodException(type.getName() + "." + signature);
+    }
+    return (Method) method;
+  }
+
+  private static String getSignature(final String name, final Class<?>[] parameterTypes) {
+    StringBuilder signature = new StringBuilder(name).append('(');
+    if (parameterTypes != null) {
+      for (int i = 0; i < parameterTypes.length; i++) {
+        if (i > 0) {
+          signature.append(',');
+        }
+        signature.append(parameterTypes[i] == null ? null : parameterTypes[i].getName());
+      }
+    }
+    return signature.append(')').toString();
+  }
+
+  /**
+   * Methods per class; classes which have been collected are removed on the next lookup.
+   */
+  private static final class MethodCache {
+    private final ConcurrentMap<TypeKey, SoftReference<ConcurrentMap<String, Object>>> types =
+        new ConcurrentHashMap<TypeKey, SoftReference<ConcurrentMap<String, Object>>>();
+    private final ReferenceQueue<Class<?>> collected = new ReferenceQueue<Class<?>>();
+
+    ConcurrentMap<String, Object> getMethods(final Class<?> type) {
+      removeCollected();
+      SoftReference<ConcurrentMap<String, Object>> reference = types.get(new TypeKey(type, null));
+      ConcurrentMap<String, Object> methods = reference == null ? null : reference.get();
+      if (methods == null) {
+        methods = new ConcurrentHashMap<String, Object>();
+        TypeKey key = new TypeKey(type, collected);
+        SoftReference<ConcurrentMap<String, Object>> created =
+            new SoftReference<ConcurrentMap<String, Object>>(methods);
+        reference = types.putIfAbsent(key, created);
+        ConcurrentMap<String, Object> existing = reference == null ? null : reference.get();
+        if (existing != null) {
+          return existing;
+        }
+        if (reference != null) {
+          // the methods of the class have been collected; a concurrent lookup may replace them as well
+          types.put(key, created);
+        }
+      }
+      return methods;
+    }
+
+    private void removeCollected() {
+      Reference<? extends Class<?>> reference;
+      while ((reference = collected.poll()) != null) {
+        types.remove(reference);
+      }
+    }
+  }
+
+  /**
+   * Weak reference to a class; equal to the references to the same class.
+   */
+  private static final class TypeKey extends WeakReference<Class<?>> {
+    private final int hashCode;
+
+    private TypeKey(final Class<?> type, final ReferenceQueue<Class<?>> queue) {
+      super(type, queue);
+      hashCode = System.identityHashCode(type);
+    }
+
+    @Override
+    public int hashCode() {
+      return hashCode;
+    }
+
+    @Override
+    public boolean equals(final Object other) {
+      if (this == other) {
+        return true;
+      }
+      if (!(other instanceof TypeKey)) {
+        return false;
+      }
+      Class<?> type = get();
+      return type != null && type == ((TypeKey) other).get();
+    }
+  }
+}
@@ -0,0 +1,198 @@
+/*******************************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ ******************************************************************************/
+package org.apache.olingo.odata2.jpa.processor.core.access.data;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.apache.olingo.odata2.api.edm.EdmException;
+import org.apache.olingo.odata2.api.uri.KeyPredicate;
+import org.apache.olingo.odata2.api.uri.NavigationSegment;
+import org.apache.olingo.odata2.api.uri.UriInfo;
+import org.apache.olingo.odata2.jpa.processor.api.model.JPAEdmMapping;
+
+/**
+ * Process wide cache of the results of <code>$count</code> and <code>$inlinecount=allpages</code> queries.
+ * <p>
+ * A count is cached per persistence unit, entity manager factory, resource path (entity set, key predicates and
+ * navigation segments) and <code>$filter</code> for the time to live configured at the
+ * {@link org.apache.olingo.odata2.jpa.processor.api.ODataJPATuningContext#setCountCacheTimeToLive(long) context}.
+ * The cache keeps the {@link #MAX_ENTRIES} most recently used counts. All counts of a persistence unit are
+ * dropped when the JPA processor creates, updates or deletes an entity or a link of that persistence unit, and
+ * all counts are dropped by the {@link JPACountCacheEntityListener}. Entity sets with a tombstone or query
+ * extension listener are not cached because the listener may restrict the query per request.
+ * <p>
+ * The entity manager factory is part of the key, so tenants sharing the persistence unit name but using their
+ * own factory never see each other's counts. Writes within a transaction the processor has not started itself
+ * drop the counts again when the {@link JPACountCacheTransaction} ends.
+ */
+final class JPACountCache {
+
+  static final int MAX_ENTRIES = 1000;
+  private static final char SEPARATOR = '|';
+
+  private static final Map<String, CachedCount> COUNTS = new LinkedHashMap<String, CachedCount>(16, 0.75f, true) {
+    private static final long serialVersionUID = 1L;
+
+    @Override
+    protected boolean removeEldestEntry(final Map.Entry<String, CachedCount> eldest) {
+      return size() > MAX_ENTRIES;
+    }
+  };
+
+  private static final Map<EntityManagerFactory, Integer> FACTORY_IDS =
+      new WeakHashMap<EntityManagerFactory, Integer>();
+  private static int nextFactoryId = 1;
+
+  private JPACountCache() {}
+
+  /**
+   * @param persistenceUnitName
+   * persistence unit of the request
+   * @param entityManagerFactory
+   * entity manager factory of the request
+   * @param uriInfo
+   * count or entity set request
+   * @return the cache key or <code>null</code> if the count must not be cached
+   * @throws EdmException
+   */
+  static String getKey(final String persistenceUnitName, final EntityManagerFactory entityManagerFactory,
+      final UriInfo uriInfo) throws EdmException {
+    JPAEdmMapping mapping = (JPAEdmMapping) uriInfo.getTargetEntitySet().getEntityType().getMapping();
+    if (mapping != null && mapping.getODataJPATombstoneEntityListener() != null) {
+      return null;
+    }
+    StringBuilder key = new StringBuilder();
+    key.append(persistenceUnitName).append(SEPARATOR).append(getFactoryId(entityManagerFactory)).append(SEPARATOR)
+        .append(uriInfo.getStartEntitySet().getName());
+    appendKeyPredicates(key, uriInfo.getKeyPredicates());
+    if (uriInfo.getNavigationSegments() != null) {
+      for (NavigationSegment navigationSegment : uriInfo.getNavigationSegments()) {
+        key.append('/').append(navigationSegment.getNavigationProperty().getName());
+        appendKeyPredicates(key, navigationSegment.getKeyPredicates());
+      }
+    }
+    key.append(SEPARATOR);
+    if (uriInfo.getFilter() != null) {
+      key.append(uriInfo.getFilter().getExpressionString());
+    }
+    return key.toString();
+  }
+
+  /**
+   * @return the cached count or <code>null</code> if the count is not cached or has expired
+   */
+  static Long get(final String key) {
+    synchronized (COUNTS) {
+      CachedCount count = COUNTS.get(key);
+      if (count == null) {
+        return null;
+      }
+      if (count.expires < System.currentTimeMillis()) {
+        COUNTS.remove(key);
+        return null;
+      }
+      return count.count;
+    }
+  }
+
+  static void put(final String key, final long count, final long timeToLive) {
+    synchronized (COUNTS) {
+      COUNTS.put(key, new CachedCount(count, System.currentTimeMillis() + timeToLive));
+    }
+  }
+
+  /**
+   * Drops the counts of the given persistence unit
+   */
+  static void invalidate(final String persistenceUnitName) {
+    String prefix = persistenceUnitName + SEPARATOR;
+    synchronized (COUNTS) {
+      Iterator<String> keys = COUNTS.keySet().iterator();
+      while (keys.hasNext()) {
+        if (keys.next().startsWith(prefix)) {
+          keys.remove();
+        }
+      }
+    }
+  }
+
+  /**
+   * Drops all counts
+   */
+  static void clear() {
+    synchronized (COUNTS) {
+      COUNTS.clear();
+    }
+  }
+
+  static boolean isEmpty() {
+    synchronized (COUNTS) {
+      return COUNTS.isEmpty();
+    }
+  }
+
+  /*
+   * Identifies the factory by a number instead of holding it in the keys, so closed factories are not kept alive
+   */
+  private static int getFactoryId(final EntityManagerFactory entityManagerFactory) {
+    if (entityManagerFactory == null) {
+      return 0;
+    }
+    synchronized (FACTORY_IDS) {
+      Integer id = FACTORY_IDS.get(entityManagerFactory);
+      if (id == null) {
+        id = nextFactoryId++;
+        FACTORY_IDS.put(entityManagerFactory, id);
+      }
+      return id;
+    }
+  }
+
+  private static void appendKeyPredicates(final StringBuilder key, final List<KeyPredicate> keyPredicates)
+      throws EdmException {
+    if (keyPredicates == null || keyPredicates.isEmpty()) {
+      return;
+    }
+    key.append('(');
+    for (int i = 0; i < keyPredicates.size(); i++) {
+      if (i > 0) {
+        key.append(',');
+      }
+      KeyPredicate keyPredicate = keyPredicates.get(i);
+      key.append(keyPredicate.getProperty().getName()).append('=').append(keyPredicate.getLiteral());
+    }
+    key.append(')');
+  }
+
+  private static final class CachedCount {
+    private final long count;
+    private final long expires;
+
+    private CachedCount(final long count, final long expires) {
+      this.count = count;
+      this.expires = expires;
+    }
+  }
+}
@@ -0,0 +1,41 @@
+/*******************************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ ******************************************************************************/
+package org.apache.olingo.odata2.jpa.processor.core.access.data;
+
+import javax.persistence.PostPersist;
+import javax.persistence.PostRemove;
+import javax.persistence.PostUpdate;
+
+/**
+ * JPA entity listener dropping the cached counts of <code>$count</code> and <code>$inlinecount</code> requests.
+ * <p>
+ * The JPA processor invalidates the cached counts on its own writes. Applications writing the entities outside
+ * of the OData service can register this class with <code>@EntityListeners</code> or as default entity
+ * listener in the <code>orm.xml</code>, so the counts are dropped on every insert, update and delete instead of
+ * expiring after their time to live.
+ */
+public class JPACountCacheEntityListener {
+
+  @PostPersist
+  @PostUpdate
+  @PostRemove
+  public void invalidateCounts(final Object entity) {
+    JPACountCache.clear();
+  }
+}
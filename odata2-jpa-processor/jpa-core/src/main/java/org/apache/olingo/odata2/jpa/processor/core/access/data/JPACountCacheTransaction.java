@@ -0,0 +1,85 @@
+/*******************************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ ******************************************************************************/
+package org.apache.olingo.odata2.jpa.processor.core.access.data;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.apache.olingo.odata2.jpa.processor.api.ODataJPATransaction;
+
+/**
+ * Transaction dropping the cached counts of the persistence units written within the transaction once the
+ * transaction has ended.
+ * <p>
+ * The JPA processor drops the cached counts right after a write. If the write is part of a transaction the
+ * processor has not started itself, e.g. a change set of a batch request or a JTA transaction, a count read
+ * before the commit would be cached with the old value. The processor therefore registers the persistence unit
+ * with {@link #invalidateCountsOnCompletion(String)} and the counts are dropped again after commit or rollback.
+ */
+public final class JPACountCacheTransaction implements ODataJPATransaction {
+
+  private final ODataJPATransaction transaction;
+  private final Set<String> persistenceUnitNames = new HashSet<String>();
+
+  public JPACountCacheTransaction(final ODataJPATransaction transaction) {
+    this.transaction = transaction;
+  }
+
+  /**
+   * Drops the cached counts of the given persistence unit when the transaction ends
+   */
+  public synchronized void invalidateCountsOnCompletion(final String persistenceUnitName) {
+    persistenceUnitNames.add(persistenceUnitName);
+  }
+
+  @Override
+  public void begin() {
+    transaction.begin();
+  }
+
+  @Override
+  public void commit() {
+    try {
+      transaction.commit();
+    } finally {
+      invalidateCounts();
+    }
+  }
+
+  @Override
+  public void rollback() {
+    try {
+      transaction.rollback();
+    } finally {
+      invalidateCounts();
+    }
+  }
+
+  @Override
+  public boolean isActive() {
+    return transaction.isActive();
+  }
+
+  private synchronized void invalidateCounts() {
+    for (String persistenceUnitName : persistenceUnitNames) {
+      JPACountCache.invalidate(persistenceUnitName);
+    }
+    persistenceUnitNames.clear();
+  }
+}
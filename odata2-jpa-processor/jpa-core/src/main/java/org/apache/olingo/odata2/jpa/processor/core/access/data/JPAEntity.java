@@ -70,6 +70,8 @@ public class JPAEntity {
   private List<String> relatedJPAEntityLink = new ArrayList<String>();
   private HashMap<String, List<Object>> relatedJPAEntityMap = null;
   private EdmNavigationProperty viaNavigationProperty;
+  private boolean inlineEntriesCreated = false;
+  private HashMap<String, List<ODataEntry>> inlineLinkEntries = null;
 
   public JPAEntity(final EdmEntityType oDataEntityType, final EdmEntitySet oDataEntitySet,
       final ODataJPAContext context) {
@@ -123,7 +125,8 @@ public class JPAEntity {
         normalizeInlineEntries(oDataEntryProperties);
       }
 
-      if (oDataEntry.getProperties().size() > 0) {
+      // an entry whose inline feeds have been handed over entry by entry may have no properties left
+      if (oDataEntry.getProperties().size() > 0 || inlineEntriesCreated) {
 
         write(oDataEntryProperties, true);
 
@@ -152,6 +155,9 @@ public class JPAEntity {
         }
       }
       if (!relatedJPAEntityLink.isEmpty()) {
+        if (inlineLinkEntries != null) {
+          oDataEntryProperties.putAll(inlineLinkEntries);
+        }
         JPALink link = new JPALink(oDataJPAContext);
         link.setSourceJPAEntity(jpaEntity);
         link.create(oDataEntitySet, oDataEntry, relatedJPAEntityLink);
@@ -167,6 +173,77 @@ public class JPAEntity {
     }
   }
 
+  /**
+   * Creates the JPA entity of a single inline entry while the entry this JPA entity is created from is still being
+   * read. The inline entry is linked to this JPA entity when {@link #create(ODataEntry)} is called with the
+   * enclosing entry, which then must not contain the inline entries itself. Only the created JPA entity is kept, so
+   * the read inline entry can be discarded afterwards.
+   * 
+   * @param navProperty the navigation property of the inline entry
+   * @param oDataEntry the inline entry
+   * @throws ODataJPARuntimeException
+   */
+  public void createInlineEntry(final EdmNavigationProperty navProperty, final ODataEntry oDataEntry)
+      throws ODataJPARuntimeException {
+    try {
+      if (!inlineEntriesCreated) {
+        jpaEntity = instantiateJPAEntity();
+        inlineEntriesCreated = true;
+      }
+      if (relatedJPAEntityMap == null) {
+        relatedJPAEntityMap = new HashMap<String, List<Object>>();
+      }
+      List<Object> relatedJPAEntities = relatedJPAEntityMap.get(navProperty.getName());
+      if (relatedJPAEntities == null) {
+        relatedJPAEntities = new ArrayList<Object>();
+      }
+      if (oDataEntry.getProperties().isEmpty()) {
+        // entries only linking existing entities are resolved with the enclosing entry
+        if (inlineLinkEntries == null) {
+          inlineLinkEntries = new HashMap<String, List<ODataEntry>>();
+        }
+        if (!inlineLinkEntries.containsKey(navProperty.getName())) {
+          inlineLinkEntries.put(navProperty.getName(), new ArrayList<ODataEntry>());
+        }
+        inlineLinkEntries.get(navProperty.getName()).add(oDataEntry);
+      }
+      createRelatedEntity((EdmEntityType) navProperty.getType(), oDataEntitySet.getRelatedEntitySet(navProperty),
+          navProperty, oDataEntry, relatedJPAEntities);
+      if (!relatedJPAEntities.isEmpty()) {
+        relatedJPAEntityMap.put(navProperty.getName(), relatedJPAEntities);
+      }
+    } catch (EdmException e) {
+      throw ODataJPARuntimeException
+          .throwException(ODataJPARuntimeException.GENERAL
+              .addContent(e.getMessage()), e);
+    } catch (InstantiationException e) {
+      throw ODataJPARuntimeException
+          .throwException(ODataJPARuntimeException.GENERAL
+              .addContent(e.getMessage()), e);
+    } catch (IllegalAccessException e) {
+      throw ODataJPARuntimeException
+          .throwException(ODataJPARuntimeException.GENERAL
+              .addContent(e.getMessage()), e);
+    }
+  }
+
+  private void createRelatedEntity(final EdmEntityType relatedEntityType, final EdmEntitySet relatedEntitySet,
+      final EdmNavigationProperty navProperty, final ODataEntry oDataEntry, final List<Object> relatedJPAEntities)
+      throws ODataJPARuntimeException, EdmException {
+    JPAEntity relatedEntity = new JPAEntity(relatedEntityType, relatedEntitySet, oDataJPAContext);
+    relatedEntity.setParentJPAEntity(this);
+    relatedEntity.setViaNavigationProperty(navProperty);
+    relatedEntity.create(oDataEntry);
+    if (oDataEntry.getProperties().size() == 0) {
+      if (!oDataEntry.getMetadata().getUri().isEmpty()
+          && !relatedJPAEntityLink.contains(navProperty.getName())) {
+        relatedJPAEntityLink.add(navProperty.getName());
+      }
+    } else {
+      relatedJPAEntities.add(relatedEntity.getJPAEntity());
+    }
+  }
+
   public EdmEntitySet getEdmEntitySet() {
     return oDataEntitySet;
   }
@@ -314,9 +391,9 @@ public class JPAEntity {
       EdmStructuralType structuralType = null;
       final List<String> keyNames = oDataEntityType.getKeyPropertyNames();
 
-      if (isCreate) {
+      if (isCreate && !inlineEntriesCreated) {
         jpaEntity = instantiateJPAEntity();
-      } else if (jpaEntity == null) {
+      } else if (!isCreate && jpaEntity == null) {
         throw ODataJPARuntimeException
             .throwException(ODataJPARuntimeException.RESOURCE_NOT_FOUND, null);
       }
@@ -401,19 +478,8 @@ public class JPAEntity {
             }
             List<Object> relatedJPAEntities = new ArrayList<Object>();
             for (ODataEntry oDataEntry : relatedEntries) {
-              JPAEntity relatedEntity =
-                  new JPAEntity((EdmEntityType) structuralType, edmRelatedEntitySet, oDataJPAContext);
-              relatedEntity.setParentJPAEntity(this);
-              relatedEntity.setViaNavigationProperty(navProperty);
-              relatedEntity.create(oDataEntry);
-              if (oDataEntry.getProperties().size() == 0) {
-                if (!oDataEntry.getMetadata().getUri().isEmpty()
-                    && !relatedJPAEntityLink.contains(navProperty.getName())) {
-                  relatedJPAEntityLink.add(navProperty.getName());
-                }
-              } else {
-                relatedJPAEntities.add(relatedEntity.getJPAEntity());
-              }
+              createRelatedEntity((EdmEntityType) structuralType, edmRelatedEntitySet, navProperty, oDataEntry,
+                  relatedJPAEntities);
             }
             if (!relatedJPAEntities.isEmpty()) {
               relatedJPAEntityMap.put(navProperty.getName(), relatedJPAEntities);
@@ -512,7 +578,7 @@ public class JPAEntity {
           String setterName = method.getName();
       	  String getterName = setterName.replace("set", "get");
       	  try {
-            Method getMethod = entity.getClass().getDeclaredMethod(getterName);
+            Method getMethod = JPAAccessModifierCache.getDeclaredMethod(entity.getClass(), getterName);
             if(getMethod.isAnnotationPresent(XmlJavaTypeAdapter.class)) {
               XmlAdapter xmlAdapter = getMethod.getAnnotation(XmlJavaTypeAdapter.class)
                   .value().newInstance();
@@ -30,6 +30,7 @@ import java.sql.Clob;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -59,6 +60,7 @@ public final class JPAEntityParser {
 
   private HashMap<String, HashMap<String, Method>> jpaEntityAccessMap = null;
   private HashMap<String, HashMap<String, String>> jpaEmbeddableKeyMap = null;
+  private final Map<Class<?>, PropertyReaders> propertyReaders = new HashMap<Class<?>, PropertyReaders>();
 
   public JPAEntityParser() {
     jpaEntityAccessMap = new HashMap<String, HashMap<String, Method>>(
@@ -81,6 +83,9 @@ public final class JPAEntityParser {
     if (jpaEntityList == null) {
       return null;
     }
+    if (jpaEntityList instanceof JPAStreamingResultList) {
+      return ((JPAStreamingResultList) jpaEntityList).toEdmEntityList(this, properties);
+    }
     List<Map<String, Object>> edmEntityList = new ArrayList<Map<String, Object>>();
     for (Object item : jpaEntityList) {
       edmEntityList.add(parse2EdmPropertyValueMap(item, properties));
@@ -93,55 +98,102 @@ public final class JPAEntityParser {
       final List<EdmProperty> selectPropertyList) throws ODataJPARuntimeException {
 
     HashMap<String, Object> edmEntity = new HashMap<String, Object>();
-    HashMap<String, Method> accessModifierMap = null;
-    Object propertyValue = null;
-    String jpaEntityAccessKey = null;
+    if (jpaEntity instanceof JPAProjectionRow) {
+      JPAProjectionRow row = (JPAProjectionRow) jpaEntity;
+      for (EdmProperty property : selectPropertyList) {
+        try {
+          edmEntity.put(property.getName(), row.getPropertyValue(property.getName()));
+        } catch (EdmException e) {
+          throw ODataJPARuntimeException.throwException(ODataJPARuntimeException.INNER_EXCEPTION, e);
+        }
+      }
+      return edmEntity;
+    }
+    PropertyReader[] readers = getPropertyReaders(jpaEntity.getClass(), selectPropertyList);
+    for (PropertyReader reader : readers) {
+      Object propertyValue = jpaEntity;
+      if (reader.method != null) {
+        propertyValue = getPropertyValue(reader.method, reader.withName, propertyValue, reader.name);
+      } else if (reader.embeddableMethodName != null) {
+        propertyValue = getEmbeddablePropertyValue(reader.embeddableMethodName, propertyValue, reader.virtualAccess);
+      }
+      if (reader.complexType != null) {
+        propertyValue = parse2EdmPropertyValueMap(propertyValue, reader.complexType);
+      }
+      edmEntity.put(reader.name, propertyValue);
+    }
+
+    return edmEntity;
+  }
+
+  /**
+   * Resolves the getters of the selected properties once per entity type, so reading a row does not look up
+   * methods and mappings again for every property.
+   */
+  private PropertyReader[] getPropertyReaders(final Class<?> jpaType, final List<EdmProperty> selectPropertyList)
+      throws ODataJPARuntimeException {
+    PropertyReaders cached = propertyReaders.get(jpaType);
+    if (cached != null && (cached.properties == selectPropertyList || cached.properties.equals(selectPropertyList))) {
+      return cached.readers;
+    }
 
-    jpaEntityAccessKey = jpaEntity.getClass().getName();
+    HashMap<String, Method> accessModifierMap = null;
+    String jpaEntityAccessKey = jpaType.getName();
     if (!jpaEntityAccessMap.containsKey(jpaEntityAccessKey)) {
-      accessModifierMap =
-          getAccessModifiers((List<EdmProperty>) selectPropertyList, jpaEntity.getClass(), ACCESS_MODIFIER_GET);
+      accessModifierMap = getAccessModifiers((List<EdmProperty>) selectPropertyList, jpaType, ACCESS_MODIFIER_GET);
     } else {
       accessModifierMap = jpaEntityAccessMap.get(jpaEntityAccessKey);
     }
 
+    PropertyReader[] readers = new PropertyReader[selectPropertyList.size()];
+    int index = 0;
     for (EdmProperty property : selectPropertyList) {
-      propertyValue = jpaEntity;
-
       try {
-        String propertyName = property.getName();
-        Method method = accessModifierMap.get(propertyName);
-        if (method == null) {
-          String methodName = jpaEmbeddableKeyMap.get(jpaEntityAccessKey).get(propertyName);
-          if (methodName != null) {
-        	  boolean isVirtualAccess = false; 
-        	  if (property.getMapping() != null && property.getMapping() instanceof JPAEdmMappingImpl) {
-        		  isVirtualAccess = ((JPAEdmMappingImpl) property.getMapping()).isVirtualAccess();
-        	  }
-        	if (isVirtualAccess) {
-        		propertyValue = getEmbeddablePropertyValue(methodName, propertyValue, true);
-        	} else {
-        		propertyValue = getEmbeddablePropertyValue(methodName, propertyValue);
-        	}
+        PropertyReader reader = new PropertyReader(property.getName());
+        reader.method = accessModifierMap.get(reader.name);
+        if (reader.method == null) {
+          reader.embeddableMethodName = jpaEmbeddableKeyMap.get(jpaEntityAccessKey).get(reader.name);
+          if (property.getMapping() instanceof JPAEdmMappingImpl) {
+            reader.virtualAccess = ((JPAEdmMappingImpl) property.getMapping()).isVirtualAccess();
           }
         } else {
-          propertyValue = getPropertyValue(accessModifierMap.get(propertyName), propertyValue, propertyName);
+          reader.withName = reader.method.getParameterTypes().length > 0;
         }
-        if (property.getType().getKind()
-            .equals(EdmTypeKind.COMPLEX)) {
-          propertyValue = parse2EdmPropertyValueMap(propertyValue, (EdmStructuralType) property.getType());
+        if (property.getType().getKind().equals(EdmTypeKind.COMPLEX)) {
+          reader.complexType = (EdmStructuralType) property.getType();
         }
-        edmEntity.put(propertyName, propertyValue);
+        readers[index++] = reader;
       } catch (EdmException e) {
         throw ODataJPARuntimeException.throwException(ODataJPARuntimeException.INNER_EXCEPTION, e);
       } catch (SecurityException e) {
         throw ODataJPARuntimeException.throwException(ODataJPARuntimeException.INNER_EXCEPTION, e);
-      } catch (IllegalArgumentException e) {
-        throw ODataJPARuntimeException.throwException(ODataJPARuntimeException.INNER_EXCEPTION, e);
       }
     }
+    propertyReaders.put(jpaType, new PropertyReaders(selectPropertyList, readers));
+    return readers;
+  }
+
+  private static final class PropertyReader {
+    private final String name;
+    private Method method;
+    private boolean withName;
+    private String embeddableMethodName;
+    private boolean virtualAccess;
+    private EdmStructuralType complexType;
+
+    private PropertyReader(final String name) {
+      this.name = name;
+    }
+  }
 
-    return edmEntity;
+  private static final class PropertyReaders {
+    private final List<EdmProperty> properties;
+    private final PropertyReader[] readers;
+
+    private PropertyReaders(final List<EdmProperty> properties, final PropertyReader[] readers) {
+      this.properties = properties;
+      this.readers = readers;
+    }
   }
 
   public final List<Map<String, Object>> parse2EdmEntityList(final Collection<Object> jpaEntityList,
@@ -150,6 +202,9 @@ public final class JPAEntityParser {
       return null;
     }
     List<EdmProperty> edmProperties = getEdmProperties(structuralType);
+    if (jpaEntityList instanceof JPAStreamingResultList) {
+      return ((JPAStreamingResultList) jpaEntityList).toEdmEntityList(this, edmProperties);
+    }
     List<Map<String, Object>> edmEntityList = new ArrayList<Map<String, Object>>();
     for (Object jpaEntity : jpaEntityList) {
       edmEntityList.add(parse2EdmPropertyValueMap(jpaEntity, edmProperties));
@@ -185,13 +240,12 @@ public final class JPAEntityParser {
     			Method getterMethod = null;
     			JPAEdmMapping jpaEdmMapping = (JPAEdmMapping)navigationProperty.getMapping();
     			if(jpaEdmMapping != null && jpaEdmMapping.isVirtualAccess()) {
-    				getterMethod = jpaEntity.getClass().getMethod(ACCESS_MODIFIER_GET, String.class);
+    				getterMethod = JPAAccessModifierCache.getMethod(jpaEntity.getClass(),
+    						ACCESS_MODIFIER_GET, String.class);
     			}else{
-    				getterMethod = jpaEntity.getClass()
-    						.getMethod(methodName, (Class<?>[]) null);
+    				getterMethod = JPAAccessModifierCache.getMethod(jpaEntity.getClass(),
+    						methodName, (Class<?>[]) null);
     			}
-
-    			getterMethod.setAccessible(true);
     			result = getPropertyValue(getterMethod, jpaEntity,
     					navigationProperty.getMapping().getInternalName());
     			navigationMap.put(navigationProperty.getName(), result);
@@ -215,9 +269,9 @@ public final class JPAEntityParser {
     Method method = null;
 
     try {
-      method = jpaType.getMethod(methodNameGet, (Class<?>[]) null);
+      method = JPAAccessModifierCache.getMethod(jpaType, methodNameGet, (Class<?>[]) null);
       Class<?> parameterType = method.getReturnType();
-      method = jpaType.getMethod(methodName, new Class<?>[] { parameterType });
+      method = JPAAccessModifierCache.getMethod(jpaType, methodName, new Class<?>[] { parameterType });
     } catch (NoSuchMethodException e) {
       throw ODataJPARuntimeException.throwException(ODataJPARuntimeException.INNER_EXCEPTION, e);
     } catch (SecurityException e) {
@@ -234,41 +288,43 @@ public final class JPAEntityParser {
 
   public static Object getPropertyValue(final Method method, final Object entity, String propertyName) 
 		  throws ODataJPARuntimeException {
-    Object propertyValue = null;
     if (method == null) {
       return null;
     }
-    try {
+    if (!method.isAccessible()) {
       method.setAccessible(true);
+    }
+    return getPropertyValue(method, method.getParameterTypes().length > 0, entity, propertyName);
+  }
+
+  private static Object getPropertyValue(final Method method, final boolean withName, final Object entity,
+      final String propertyName) throws ODataJPARuntimeException {
+    Object propertyValue = null;
+    try {
+      Object value = withName ? method.invoke(entity, propertyName) : method.invoke(entity);
       Class<?> returnType = method.getReturnType();
 
-      if (returnType.equals(char[].class)) {
-        char[] ch = (char[]) method.invoke(entity);
-        if (ch != null) {
-          propertyValue = (String) String.valueOf((char[]) method.invoke(entity));
+      if (returnType == char[].class) {
+        if (value != null) {
+          propertyValue = String.valueOf((char[]) value);
         }
-      } else if (returnType.equals(Character[].class)) {
-        propertyValue = (String) toString((Character[]) method.invoke(entity));
-      } else if (returnType.equals(char.class)) {
-        char c = (Character) method.invoke(entity);
+      } else if (returnType == Character[].class) {
+        propertyValue = toString((Character[]) value);
+      } else if (returnType == char.class) {
+        char c = (Character) value;
         if (c != '\u0000') {
-          propertyValue = (String) String.valueOf(c);
+          propertyValue = String.valueOf(c);
         }
-      } else if (returnType.equals(Character.class)) {
-        Character c = (Character) method.invoke(entity);
-        if (c != null) {
-          propertyValue = toString(new Character[] { c });
+      } else if (returnType == Character.class) {
+        if (value != null) {
+          propertyValue = toString(new Character[] { (Character) value });
         }
-      } else if (returnType.equals(Blob.class)) {
-        propertyValue = getBytes((Blob) method.invoke(entity));
-      } else if (returnType.equals(Clob.class)) {
-        propertyValue = getString((Clob) method.invoke(entity));
+      } else if (returnType == Blob.class) {
+        propertyValue = getBytes((Blob) value);
+      } else if (returnType == Clob.class) {
+        propertyValue = getString((Clob) value);
       } else {
-    	  if(method.getParameterTypes().length>0) {
-    		  propertyValue = method.invoke(entity,propertyName);
-    	  } else {
-    		  propertyValue = method.invoke(entity);
-    	  }
+        propertyValue = value;
       }
     } catch (IllegalAccessException e) {
       throw ODataJPARuntimeException.throwException(ODataJPARuntimeException.INNER_EXCEPTION, e);
@@ -283,6 +339,66 @@ public final class JPAEntityParser {
     return propertyValue;
   }
 
+  /**
+   * Converts a value read by a JPQL projection the same way as
+   * {@link #getPropertyValue(Method, Object, String)} converts the value of a getter.
+   */
+  public static Object getPropertyValue(final Object value) throws ODataJPARuntimeException {
+    if (value instanceof char[]) {
+      return String.valueOf((char[]) value);
+    } else if (value instanceof Character[]) {
+      return toString((Character[]) value);
+    } else if (value instanceof Character) {
+      return ((Character) value).charValue() == '\u0000' ? null : toString(new Character[] { (Character) value });
+    } else if (value instanceof Blob) {
+      return getBytes((Blob) value);
+    } else if (value instanceof Clob) {
+      return getString((Clob) value);
+    }
+    return value;
+  }
+
+  /**
+   * Reads the value of the property at the end of the given property path of a JPA entity. Unlike
+   * {@link #parse2EdmPropertyValueMap(Object, List)} the content of {@link Blob} and {@link Clob} values is not
+   * read, so the caller can stream it.
+   * @param jpaEntity
+   * JPA entity
+   * @param propertyPath
+   * complex properties leading to the property and the property itself
+   * @return the value of the property or <code>null</code>
+   * @throws ODataJPARuntimeException
+   */
+  public Object getPropertyPathValue(final Object jpaEntity, final List<EdmProperty> propertyPath)
+      throws ODataJPARuntimeException {
+    Object value = jpaEntity;
+    try {
+      for (EdmProperty property : propertyPath) {
+        if (value == null) {
+          break;
+        }
+        String propertyName = property.getName();
+        Method method = getAccessModifiers(Collections.singletonList(property), value.getClass(),
+            ACCESS_MODIFIER_GET).get(propertyName);
+        if (method == null) {
+          value = parse2EdmPropertyValueMap(value, Collections.singletonList(property)).get(propertyName);
+          continue;
+        }
+        if (!method.isAccessible()) {
+          method.setAccessible(true);
+        }
+        value = method.getParameterTypes().length > 0 ? method.invoke(value, propertyName) : method.invoke(value);
+      }
+    } catch (EdmException e) {
+      throw ODataJPARuntimeException.throwException(ODataJPARuntimeException.INNER_EXCEPTION, e);
+    } catch (IllegalAccessException e) {
+      throw ODataJPARuntimeException.throwException(ODataJPARuntimeException.INNER_EXCEPTION, e);
+    } catch (InvocationTargetException e) {
+      throw ODataJPARuntimeException.throwException(ODataJPARuntimeException.INNER_EXCEPTION, e);
+    }
+    return value;
+  }
+
   public static String getString(final Clob clob) throws ODataJPARuntimeException {
     Reader stringReader = null;
     try {
@@ -415,12 +531,11 @@ public final class JPAEntityParser {
         }
         if (isVirtualAccess) {
 
-        	method = propertyValue.getClass().getMethod(ACCESS_MODIFIER_GET, String.class);
+        	method = JPAAccessModifierCache.getMethod(propertyValue.getClass(), ACCESS_MODIFIER_GET, String.class);
         	namePart = namePart.replaceFirst(ACCESS_MODIFIER_GET, "");
         } else {
-        	method = propertyValue.getClass().getMethod(namePart, (Class<?>[]) null);
+        	method = JPAAccessModifierCache.getMethod(propertyValue.getClass(), namePart, (Class<?>[]) null);
         }
-        method.setAccessible(true);
         propertyValue = getPropertyValue(method, propertyValue,namePart);
       }
     } catch (NoSuchMethodException e) {
@@ -524,7 +639,7 @@ public final class JPAEntityParser {
       Class<?>[] params = null;
       if (navPropMapping != null && navPropMapping.isVirtualAccess()) {
   
-    	  return jpaEntityType.getMethod(ACCESS_MODIFIER_SET, String.class, Object.class);
+    	  return JPAAccessModifierCache.getMethod(jpaEntityType, ACCESS_MODIFIER_SET, String.class, Object.class);
       } else {
 	      name = getAccessModifierName(navigationProperty.getName(), (EdmMapping) navPropMapping, accessModifier);
 	
@@ -542,7 +657,7 @@ public final class JPAEntityParser {
 	          break;
 	        }
 	      }
-	      return jpaEntityType.getMethod(name, params);
+	      return JPAAccessModifierCache.getMethod(jpaEntityType, name, params);
       }
 
     } catch (NoSuchMethodException e) {
@@ -587,19 +702,21 @@ public final class JPAEntityParser {
         	  if (accessModifier.equals(ACCESS_MODIFIER_SET)) {
         		  JPAEdmMapping jpaEdmMapping = (JPAEdmMapping) property.getMapping();
         		  if(jpaEdmMapping != null && jpaEdmMapping.isVirtualAccess()) {
-        			  accessModifierMap.put(propertyName, jpaEntityType.getMethod(ACCESS_MODIFIER_SET,
-        					  new Class<?>[] { String.class,Object.class }));
+        			  accessModifierMap.put(propertyName, JPAAccessModifierCache.getMethod(jpaEntityType,
+        			  		ACCESS_MODIFIER_SET, new Class<?>[] { String.class,Object.class }));
         		  }else {
-        			  accessModifierMap.put(propertyName, jpaEntityType.getMethod(methodName,
-        					  new Class<?>[] { jpaEdmMapping != null ? 
+        			  accessModifierMap.put(propertyName, JPAAccessModifierCache.getMethod(jpaEntityType,
+        			  		methodName, new Class<?>[] { jpaEdmMapping != null ? 
         					      jpaEdmMapping.getJPAType() : null }));
         		  }
         	  } else {
         		  JPAEdmMapping jpaEdmMapping = (JPAEdmMapping) property.getMapping();
         		  if(jpaEdmMapping != null && jpaEdmMapping.isVirtualAccess()) {
-        			  method = jpaEntityType.getMethod(ACCESS_MODIFIER_GET, String.class);
+        			  method = JPAAccessModifierCache.getMethod(jpaEntityType,
+        			  		ACCESS_MODIFIER_GET, String.class);
         		  }else{
-        			  method = jpaEntityType.getMethod(methodName, (Class<?>[]) null);
+        			  method = JPAAccessModifierCache.getMethod(jpaEntityType,
+        			  		methodName, (Class<?>[]) null);
         		  }
         	  }
           }
@@ -612,7 +729,7 @@ public final class JPAEntityParser {
                 && accessModifier.equals(ACCESS_MODIFIER_GET)) {
               String nameWithIs = getAccessModifierName(property.getName(),
                   property.getMapping(), ACCESS_MODIFIER_IS);
-              method = jpaEntityType.getMethod(nameWithIs, (Class<?>[]) null);
+              method = JPAAccessModifierCache.getMethod(jpaEntityType, nameWithIs, (Class<?>[]) null);
             } else {
               throw ODataJPARuntimeException.throwException(ODataJPARuntimeException.INNER_EXCEPTION, e1);
             }
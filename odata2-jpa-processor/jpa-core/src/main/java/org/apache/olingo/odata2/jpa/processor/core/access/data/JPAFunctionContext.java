@@ -147,7 +147,7 @@ public class JPAFunctionContext extends JPAMethodContext {
 
       Class<?> type = ((JPAEdmMapping) mapping).getJPAType();
       Method method;
-      method = type.getMethod(mapping.getInternalName(), parameterTypes);
+      method = JPAAccessModifierCache.getMethod(type, mapping.getInternalName(), parameterTypes);
 
       return method;
     }
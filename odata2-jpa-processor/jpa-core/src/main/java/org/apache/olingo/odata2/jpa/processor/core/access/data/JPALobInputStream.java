@@ -0,0 +1,162 @@
+/*******************************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ ******************************************************************************/
+package org.apache.olingo.odata2.jpa.processor.core.access.data;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.sql.Blob;
+import java.sql.Clob;
+import java.sql.SQLException;
+
+import org.apache.olingo.odata2.jpa.processor.api.exception.ODataJPARuntimeException;
+
+/**
+ * Input stream reading the content of a {@link Blob} or a {@link Clob} while it is written to the response.
+ * <p>
+ * The content of a BLOB is passed through as is, the characters of a CLOB are encoded as UTF-8 in chunks of
+ * {@link #BUFFER_SIZE} characters. Unlike {@link JPAEntityParser#getBytes(Blob)} and
+ * {@link JPAEntityParser#getString(Clob)} the LOB is never copied into the heap as a whole. The LOB is released
+ * when the stream is closed; the persistence context the LOB was read in has to stay open until then.
+ */
+public final class JPALobInputStream extends InputStream {
+
+  static final int BUFFER_SIZE = 8192;
+  private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+  private final Blob blob;
+  private final Clob clob;
+  private final InputStream binaryStream;
+  private final Reader characterStream;
+  private CharsetEncoder encoder;
+  private CharBuffer chars;
+  private ByteBuffer bytes;
+  private boolean endOfInput = false;
+  private boolean flushed = false;
+
+  public JPALobInputStream(final Blob blob) throws ODataJPARuntimeException {
+    this.blob = blob;
+    clob = null;
+    characterStream = null;
+    try {
+      binaryStream = blob.getBinaryStream();
+    } catch (SQLException e) {
+      throw ODataJPARuntimeException.throwException(ODataJPARuntimeException.INNER_EXCEPTION, e);
+    }
+  }
+
+  public JPALobInputStream(final Clob clob) throws ODataJPARuntimeException {
+    blob = null;
+    this.clob = clob;
+    binaryStream = null;
+    try {
+      characterStream = clob.getCharacterStream();
+    } catch (SQLException e) {
+      throw ODataJPARuntimeException.throwException(ODataJPARuntimeException.INNER_EXCEPTION, e);
+    }
+    encoder = UTF_8.newEncoder().onMalformedInput(CodingErrorAction.REPLACE)
+        .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    chars = CharBuffer.allocate(BUFFER_SIZE);
+    bytes = ByteBuffer.allocate((int) (BUFFER_SIZE * encoder.maxBytesPerChar()));
+    bytes.flip();
+  }
+
+  @Override
+  public int read() throws IOException {
+    byte[] single = new byte[1];
+    int count = read(single, 0, 1);
+    return count == -1 ? -1 : single[0] & 0xFF;
+  }
+
+  @Override
+  public int read(final byte[] b, final int off, final int len) throws IOException {
+    if (binaryStream != null) {
+      return binaryStream.read(b, off, len);
+    }
+    if (len == 0) {
+      return 0;
+    }
+    if (!encode()) {
+      return -1;
+    }
+    int count = Math.min(len, bytes.remaining());
+    bytes.get(b, off, count);
+    return count;
+  }
+
+  @Override
+  public void close() throws IOException {
+    try {
+      if (binaryStream != null) {
+        binaryStream.close();
+      } else {
+        characterStream.close();
+      }
+    } finally {
+      free();
+    }
+  }
+
+  /*
+   * Encodes characters of the CLOB until encoded bytes are available; returns false at the end of the CLOB
+   */
+  private boolean encode() throws IOException {
+    while (!bytes.hasRemaining()) {
+      if (flushed) {
+        return false;
+      }
+      bytes.clear();
+      if (!endOfInput) {
+        int count = characterStream.read(chars.array(), chars.position(), chars.remaining());
+        if (count == -1) {
+          endOfInput = true;
+        } else {
+          chars.position(chars.position() + count);
+        }
+      }
+      chars.flip();
+      CoderResult result = encoder.encode(chars, bytes, endOfInput);
+      chars.compact();
+      if (endOfInput && result.isUnderflow()) {
+        encoder.flush(bytes);
+        flushed = true;
+      }
+      bytes.flip();
+    }
+    return true;
+  }
+
+  private void free() {
+    try {
+      if (blob != null) {
+        blob.free();
+      } else {
+        clob.free();
+      }
+    } catch (SQLException e) {
+      // the LOB is released with the persistence context
+    }
+  }
+}
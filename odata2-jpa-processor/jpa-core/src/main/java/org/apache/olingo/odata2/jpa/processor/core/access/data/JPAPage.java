@@ -24,6 +24,7 @@ import java.util.List;
 import javax.persistence.Query;
 
 import org.apache.olingo.odata2.jpa.processor.api.access.JPAPaging;
+import org.apache.olingo.odata2.jpa.processor.core.jpql.JPQLKeyset;
 
 public class JPAPage implements JPAPaging {
 
@@ -31,6 +32,7 @@ public class JPAPage implements JPAPaging {
   private int startPage;
   private int nextPage;
   private List<Object> pagedEntries;
+  private String nextSkipToken;
 
   protected JPAPage(final int startPage, final int nextPage, final List<Object> pagedEntities, final int pageSize) {
     this.pageSize = pageSize;
@@ -59,6 +61,18 @@ public class JPAPage implements JPAPaging {
     return startPage;
   }
 
+  /**
+   * @return the keyset skip token of the next page or <code>null</code> if the next page is addressed by
+   * {@link #getNextPage()}
+   */
+  public String getNextSkipToken() {
+    return nextSkipToken;
+  }
+
+  void setNextSkipToken(final String nextSkipToken) {
+    this.nextSkipToken = nextSkipToken;
+  }
+
   public static class JPAPageBuilder {
 
     private int pageSize;
@@ -67,6 +81,7 @@ public class JPAPage implements JPAPaging {
     private int top = -1;
     private int skip;
     private int skipToken;
+    private boolean keysetPaging;
     private Query query;
     private List<Object> entities;
     private List<Object> pagedEntities;
@@ -190,8 +205,17 @@ public class JPAPage implements JPAPaging {
       return this;
     }
 
+    /**
+     * Enables keyset paging. A keyset skip token then addresses the first page of the result of the keyset
+     * query. Has to be set before {@link #skipToken(String)}.
+     */
+    public JPAPageBuilder keysetPaging(final boolean keysetPaging) {
+      this.keysetPaging = keysetPaging;
+      return this;
+    }
+
     public JPAPageBuilder skipToken(final String skipToken) throws NumberFormatException {
-      if (skipToken == null) {
+      if (skipToken == null || (keysetPaging && JPQLKeyset.isKeysetSkipToken(skipToken))) {
         this.skipToken = 0;
       } else {
         this.skipToken = new Integer(skipToken).intValue();
@@ -22,10 +22,18 @@ import java.io.InputStream;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
 import javax.persistence.PersistenceException;
 import javax.persistence.Query;
 
@@ -35,8 +43,10 @@ import org.apache.olingo.odata2.api.edm.EdmEntityType;
 import org.apache.olingo.odata2.api.edm.EdmException;
 import org.apache.olingo.odata2.api.edm.EdmMapping;
 import org.apache.olingo.odata2.api.edm.EdmMultiplicity;
+import org.apache.olingo.odata2.api.edm.EdmProperty;
 import org.apache.olingo.odata2.api.ep.entry.ODataEntry;
 import org.apache.olingo.odata2.api.exception.ODataBadRequestException;
+import org.apache.olingo.odata2.api.processor.ODataContext;
 import org.apache.olingo.odata2.api.uri.UriInfo;
 import org.apache.olingo.odata2.api.uri.info.DeleteUriInfo;
 import org.apache.olingo.odata2.api.uri.info.GetEntityCountUriInfo;
@@ -48,10 +58,13 @@ import org.apache.olingo.odata2.api.uri.info.GetEntityUriInfo;
 import org.apache.olingo.odata2.api.uri.info.GetFunctionImportUriInfo;
 import org.apache.olingo.odata2.api.uri.info.PostUriInfo;
 import org.apache.olingo.odata2.api.uri.info.PutMergePatchUriInfo;
+import org.apache.olingo.odata2.core.processor.ODataContextPropagation;
+import org.apache.olingo.odata2.core.uri.UriInfoImpl;
 import org.apache.olingo.odata2.jpa.processor.api.ODataJPAContext;
 import org.apache.olingo.odata2.jpa.processor.api.ODataJPATombstoneContext;
 import org.apache.olingo.odata2.jpa.processor.api.ODataJPATombstoneEntityListener;
 import org.apache.olingo.odata2.jpa.processor.api.ODataJPATransaction;
+import org.apache.olingo.odata2.jpa.processor.api.ODataJPATuningContext;
 import org.apache.olingo.odata2.jpa.processor.api.access.JPAFunction;
 import org.apache.olingo.odata2.jpa.processor.api.access.JPAMethodContext;
 import org.apache.olingo.odata2.jpa.processor.api.access.JPAProcessor;
@@ -62,15 +75,22 @@ import org.apache.olingo.odata2.jpa.processor.api.model.JPAEdmMapping;
 import org.apache.olingo.odata2.jpa.processor.core.ODataEntityParser;
 import org.apache.olingo.odata2.jpa.processor.core.access.data.JPAPage.JPAPageBuilder;
 import org.apache.olingo.odata2.jpa.processor.core.access.data.JPAQueryBuilder.JPAQueryInfo;
+import org.apache.olingo.odata2.jpa.processor.core.callback.JPAInlineEntryCallBack;
+import org.apache.olingo.odata2.jpa.processor.core.jpql.JPQLKeyset;
+import org.apache.olingo.odata2.jpa.processor.core.jpql.JPQLSelectProjection;
 
 public class JPAProcessorImpl implements JPAProcessor {
 
   private static final String DELTATOKEN = "!deltatoken";
+  private static final String CACHE_CONTROL = "Cache-Control";
+  private static final String NO_CACHE = "no-cache";
   ODataJPAContext oDataJPAContext;
+  private final ODataJPATuningContext tuningContext;
   EntityManager em;
 
   public JPAProcessorImpl(final ODataJPAContext oDataJPAContext) {
     this.oDataJPAContext = oDataJPAContext;
+    tuningContext = oDataJPAContext instanceof ODataJPATuningContext ? (ODataJPATuningContext) oDataJPAContext : null;
     em = oDataJPAContext.getEntityManager();
   }
 
@@ -142,13 +162,21 @@ public class JPAProcessorImpl implements JPAProcessor {
       return new ArrayList<Object>();
     }
 
+    CountQuery countResult = null;
+    String countCacheKey = null;
+    Long cachedCount = null;
+    EntityManager streamingEntityManager = null;
     try {
       JPAEdmMapping mapping = (JPAEdmMapping) uriParserResultView.getTargetEntitySet().getEntityType().getMapping();
       JPAQueryBuilder queryBuilder = new JPAQueryBuilder(oDataJPAContext);
-      JPAQueryInfo queryInfo = queryBuilder.build(uriParserResultView);
-      Query query = queryInfo.getQuery();
       ODataJPATombstoneEntityListener listener =
           queryBuilder.getODataJPATombstoneEntityListener((UriInfo) uriParserResultView);
+      if (listener == null && isStreamable(uriParserResultView)) {
+        streamingEntityManager = createStreamingEntityManager();
+      }
+      JPAQueryInfo queryInfo = streamingEntityManager == null ? queryBuilder.build(uriParserResultView)
+          : new JPAQueryBuilder(streamingEntityManager, JPAStreamingResultList.CHUNK_SIZE).build(uriParserResultView);
+      Query query = queryInfo.getQuery();
       Map<String, String> customQueryOptions = uriParserResultView.getCustomQueryOptions();
       String deltaToken = null;
       if (customQueryOptions != null) {
@@ -157,19 +185,50 @@ public class JPAProcessorImpl implements JPAProcessor {
       if (deltaToken != null) {
         ODataJPATombstoneContext.setDeltaToken(deltaToken);
       }
+      if (InlineCount.ALLPAGES.equals(uriParserResultView.getInlineCount())) {
+        countCacheKey = getCountCacheKey((UriInfo) uriParserResultView);
+        cachedCount = getCachedCount(countCacheKey);
+        if (cachedCount == null) {
+          countResult = submitCountQuery(uriParserResultView);
+        }
+      }
       if (listener != null && (!queryInfo.isTombstoneQuery() && listener.isTombstoneSupported())) {
         query.getResultList();
         List<Object> deltaResult =
             (List<Object>) ODataJPATombstoneContext.getDeltaResult(((EdmMapping) mapping).getInternalName());
         result = handlePaging(deltaResult, uriParserResultView);
+      } else if (streamingEntityManager != null) {
+        result = new JPAStreamingResultList(streamingEntityManager, query,
+            new KeysetSeekQuery(streamingEntityManager, uriParserResultView));
+        streamingEntityManager = null;
       } else {
-        result = handlePaging(query, uriParserResultView);
+        boolean keysetPaging = !queryInfo.isTombstoneQuery() && isKeysetPaging(uriParserResultView);
+        result = handlePaging(query, uriParserResultView, keysetPaging);
+        List<EdmProperty> projectedProperties = queryInfo.isTombstoneQuery() ? null
+            : JPQLSelectProjection.getProjectedProperties(uriParserResultView);
+        if (projectedProperties != null) {
+          result = toProjectionRows(result, projectedProperties);
+        } else {
+          queryBuilder.fetchExpand(result, uriParserResultView.getExpand());
+        }
+        if (keysetPaging) {
+          setNextSkipToken(result, uriParserResultView);
+        }
       }
       if (listener != null && listener.isTombstoneSupported()) {
         ODataJPATombstoneContext.setDeltaToken(listener.generateDeltaToken((List<Object>) result, query));
       }
-      if(InlineCount.ALLPAGES.equals(uriParserResultView.getInlineCount())){
-        queryBuilder.getCount(uriParserResultView);
+      if (cachedCount != null) {
+        JPAQueryBuilder.setCount(uriParserResultView, Collections.singletonList(cachedCount));
+      } else if (countResult != null) {
+        List<?> countList = getCountResult(countResult);
+        JPAQueryBuilder.setCount(uriParserResultView, countList);
+        countResult = null;
+        cacheCount(countCacheKey, countList);
+      } else if(InlineCount.ALLPAGES.equals(uriParserResultView.getInlineCount())){
+        List<?> countList = queryBuilder.buildCountQuery(uriParserResultView).getResultList();
+        JPAQueryBuilder.setCount(uriParserResultView, countList);
+        cacheCount(countCacheKey, countList);
       }
       return result == null ? new ArrayList<Object>() : result;
     } catch (EdmException e) {
@@ -181,6 +240,13 @@ public class JPAProcessorImpl implements JPAProcessor {
     } catch (IllegalAccessException e) {
       throw ODataJPARuntimeException.throwException(
           ODataJPARuntimeException.ERROR_JPQL_QUERY_CREATE, e);
+    } finally {
+      if (countResult != null) {
+        countResult.cancel();
+      }
+      if (streamingEntityManager != null) {
+        streamingEntityManager.close();
+      }
     }
   }
 
@@ -188,7 +254,12 @@ public class JPAProcessorImpl implements JPAProcessor {
   @Override
   public <T> Object process(GetEntityUriInfo uriParserResultView)
       throws ODataJPAModelException, ODataJPARuntimeException {
-    return readEntity(new JPAQueryBuilder(oDataJPAContext).build(uriParserResultView));
+    JPAQueryBuilder queryBuilder = new JPAQueryBuilder(oDataJPAContext);
+    Object selectedObject = readEntity(queryBuilder.build(uriParserResultView));
+    if (selectedObject != null) {
+      queryBuilder.fetchExpand(Collections.singletonList(selectedObject), uriParserResultView.getExpand());
+    }
+    return selectedObject;
   }
 
   /* Process $count for Get Entity Set Request */
@@ -196,10 +267,17 @@ public class JPAProcessorImpl implements JPAProcessor {
   public long process(final GetEntitySetCountUriInfo resultsView)
       throws ODataJPAModelException, ODataJPARuntimeException {
 
+    String countCacheKey = getCountCacheKey((UriInfo) resultsView);
+    Long cachedCount = getCachedCount(countCacheKey);
+    if (cachedCount != null) {
+      return cachedCount;
+    }
+
     JPAQueryBuilder queryBuilder = new JPAQueryBuilder(oDataJPAContext);
     Query query = queryBuilder.build(resultsView);
     List<?> resultList = query.getResultList();
     if (resultList != null && resultList.size() == 1) {
+      cacheCount(countCacheKey, resultList);
       return Long.valueOf(resultList.get(0).toString());
     }
 
@@ -265,6 +343,7 @@ public class JPAProcessorImpl implements JPAProcessor {
         if (isLocalTransaction) {
           oDataJPAContext.getODataJPATransaction().commit();
         }
+        invalidateCountCache();
       } catch(PersistenceException e){
         em.getTransaction().rollback();
         throw ODataJPARuntimeException.throwException(
@@ -296,6 +375,7 @@ public class JPAProcessorImpl implements JPAProcessor {
     JPALink link = new JPALink(oDataJPAContext);
     link.create(uriInfo, content, requestContentType, contentType);
     link.save();
+    invalidateCountCache();
   }
 
   @Override
@@ -306,6 +386,7 @@ public class JPAProcessorImpl implements JPAProcessor {
     JPALink link = new JPALink(oDataJPAContext);
     link.update(putUriInfo, content, requestContentType, contentType);
     link.save();
+    invalidateCountCache();
 
   }
 
@@ -332,8 +413,8 @@ public class JPAProcessorImpl implements JPAProcessor {
 
       if (content != null) {
         final ODataEntityParser oDataEntityParser = new ODataEntityParser(oDataJPAContext);
-        final ODataEntry oDataEntry =
-            oDataEntityParser.parseEntry(oDataEntitySet, content, requestedContentType, false);
+        final ODataEntry oDataEntry = oDataEntityParser.parseEntry(oDataEntitySet, content, requestedContentType,
+            false, new JPAInlineEntryCallBack(virtualJPAEntity));
         virtualJPAEntity.create(oDataEntry);
       } else if (properties != null) {
         virtualJPAEntity.create(properties);
@@ -349,6 +430,7 @@ public class JPAProcessorImpl implements JPAProcessor {
         if (isLocalTransaction) {
           oDataJPAContext.getODataJPATransaction().commit();
         }
+        invalidateCountCache();
         return jpaEntity;
       }
     } catch (ODataBadRequestException e) {
@@ -393,6 +475,7 @@ public class JPAProcessorImpl implements JPAProcessor {
       if (isLocalTransaction) {
         oDataJPAContext.getODataJPATransaction().commit();
       }
+      invalidateCountCache();
     } catch (ODataBadRequestException e) {
       throw ODataJPARuntimeException.throwException(
           ODataJPARuntimeException.ERROR_JPQL_QUERY_CREATE, e);
@@ -415,6 +498,7 @@ public class JPAProcessorImpl implements JPAProcessor {
     JPALink link = new JPALink(oDataJPAContext);
     link.delete(uriParserResultView);
     link.save();
+    invalidateCountCache();
     return link.getTargetJPAEntity();
   }
 
@@ -442,11 +526,13 @@ public class JPAProcessorImpl implements JPAProcessor {
     return page.getPagedEntities();
   }
 
-  private List<Object> handlePaging(final Query query, final GetEntitySetUriInfo uriParserResultView) {
+  private List<Object> handlePaging(final Query query, final GetEntitySetUriInfo uriParserResultView,
+      final boolean keysetPaging) {
 
     JPAPageBuilder pageBuilder = new JPAPageBuilder();
     pageBuilder.pageSize(oDataJPAContext.getPageSize())
         .query(query)
+        .keysetPaging(keysetPaging)
         .skipToken(uriParserResultView.getSkipToken());
 
     // $top/$skip with $inlinecount case handled in response builder to avoid multiple DB call
@@ -465,6 +551,219 @@ public class JPAProcessorImpl implements JPAProcessor {
 
   }
 
+  /*
+   * Keyset paging is used for server side paging of plain entity set requests only. Requests with $orderby,
+   * $skip or $top keep the offset based skip token.
+   */
+  private boolean isKeysetPaging(final GetEntitySetUriInfo uriParserResultView) {
+    return oDataJPAContext.getPageSize() > 0 && tuningContext != null && tuningContext.isKeysetPaging()
+        && uriParserResultView.getOrderBy() == null && uriParserResultView.getSkip() == null
+        && uriParserResultView.getTop() == null
+        && (uriParserResultView.getNavigationSegments() == null
+        || uriParserResultView.getNavigationSegments().isEmpty());
+  }
+
+  /*
+   * Runs the count query of $inlinecount=allpages on a separate entity manager while the page is read.
+   * Returns null if no executor is configured; the count query is then run after the page query.
+   */
+  private CountQuery submitCountQuery(final GetEntitySetUriInfo uriParserResultView)
+      throws ODataJPARuntimeException {
+    ExecutorService executor = tuningContext == null ? null : tuningContext.getInlineCountExecutor();
+    EntityManagerFactory emf = executor == null ? null : oDataJPAContext.getEntityManagerFactory();
+    if (emf == null) {
+      return null;
+    }
+    EntityManager countEntityManager = emf.createEntityManager();
+    try {
+      CountQuery countQuery = new CountQuery(countEntityManager,
+          new JPAQueryBuilder(oDataJPAContext, countEntityManager).buildCountQuery(uriParserResultView));
+      countQuery.result = executor.submit(ODataContextPropagation.wrap(countQuery));
+      return countQuery;
+    } catch (RejectedExecutionException e) {
+      countEntityManager.close();
+      return null;
+    } catch (ODataJPARuntimeException e) {
+      countEntityManager.close();
+      throw e;
+    } catch (RuntimeException e) {
+      countEntityManager.close();
+      throw e;
+    }
+  }
+
+  private List<?> getCountResult(final CountQuery countResult) throws ODataJPARuntimeException {
+    try {
+      return countResult.result.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw ODataJPARuntimeException.throwException(ODataJPARuntimeException.GENERAL.addContent(e.getMessage()), e);
+    } catch (ExecutionException e) {
+      throw ODataJPARuntimeException.throwException(
+          ODataJPARuntimeException.GENERAL.addContent(e.getCause().getMessage()), e.getCause());
+    }
+  }
+
+  /*
+   * Count query running on an entity manager of its own. Either the task or the canceling caller closes the entity
+   * manager, depending on whether the task has been started when it is canceled.
+   */
+  private static final class CountQuery implements Callable<List<?>> {
+    private final EntityManager em;
+    private final Query query;
+    private final AtomicBoolean started = new AtomicBoolean();
+    private Future<List<?>> result;
+
+    private CountQuery(final EntityManager em, final Query query) {
+      this.em = em;
+      this.query = query;
+    }
+
+    @Override
+    public List<?> call() {
+      if (!started.compareAndSet(false, true)) {
+        return null;
+      }
+      try {
+        return query.getResultList();
+      } finally {
+        em.close();
+      }
+    }
+
+    private void cancel() {
+      result.cancel(true);
+      if (started.compareAndSet(false, true)) {
+        em.close();
+      }
+    }
+  }
+
+  /*
+   * If streaming is enabled, unpaged requests without $top, $skip, $orderby, $skiptoken, $inlinecount, $expand,
+   * $select projection and navigation are streamed from the query result into the feed, if an entity manager
+   * factory is available for the dedicated entity manager of the stream. The result is then ordered by the key
+   * properties only, which the chunks are read by.
+   */
+  private boolean isStreamable(final GetEntitySetUriInfo uriParserResultView) throws EdmException {
+    return tuningContext != null && tuningContext.isStreaming()
+        && oDataJPAContext.getPageSize() <= 0 && uriParserResultView.getTop() == null
+        && uriParserResultView.getSkip() == null && uriParserResultView.getOrderBy() == null
+        && uriParserResultView.getSkipToken() == null
+        && (uriParserResultView.getNavigationSegments() == null
+        || uriParserResultView.getNavigationSegments().isEmpty())
+        && !InlineCount.ALLPAGES.equals(uriParserResultView.getInlineCount())
+        && (uriParserResultView.getExpand() == null || uriParserResultView.getExpand().isEmpty())
+        && JPQLSelectProjection.getProjectedProperties(uriParserResultView) == null;
+  }
+
+  private EntityManager createStreamingEntityManager() {
+    EntityManagerFactory emf = oDataJPAContext.getEntityManagerFactory();
+    return emf == null ? null : emf.createEntityManager();
+  }
+
+  /*
+   * Query of the next chunk of a streamed result. The keyset predicate of server side paging is built from a
+   * keyset skip token pointing behind the last entity of the previous chunk.
+   */
+  private static final class KeysetSeekQuery implements JPAStreamingResultList.SeekQuery {
+    private final EntityManager em;
+    private final GetEntitySetUriInfo uriInfo;
+
+    private KeysetSeekQuery(final EntityManager em, final GetEntitySetUriInfo uriInfo) {
+      this.em = em;
+      this.uriInfo = uriInfo;
+    }
+
+    @Override
+    public Query create(final Object lastEntity) throws ODataJPARuntimeException {
+      UriInfoImpl uriInfoImpl = (UriInfoImpl) uriInfo;
+      String skipToken = uriInfoImpl.getSkipToken();
+      try {
+        List<EdmProperty> keyProperties = uriInfo.getTargetEntitySet().getEntityType().getKeyProperties();
+        uriInfoImpl.setSkipToken(JPQLKeyset.createSkipToken(
+            new JPAEntityParser().parse2EdmPropertyValueMap(lastEntity, keyProperties), keyProperties));
+        return new JPAQueryBuilder(em, JPAStreamingResultList.CHUNK_SIZE).build(uriInfo).getQuery();
+      } catch (EdmException e) {
+        throw ODataJPARuntimeException.throwException(ODataJPARuntimeException.GENERAL.addContent(e.getMessage()), e);
+      } finally {
+        uriInfoImpl.setSkipToken(skipToken);
+      }
+    }
+  }
+
+  private void setNextSkipToken(final List<Object> result, final GetEntitySetUriInfo uriParserResultView)
+      throws ODataJPARuntimeException, EdmException {
+    JPAPage page = (JPAPage) oDataJPAContext.getPaging();
+    if (page.getNextPage() > 0 && result != null && !result.isEmpty()) {
+      List<EdmProperty> keyProperties = uriParserResultView.getTargetEntitySet().getEntityType().getKeyProperties();
+      Map<String, Object> keyValues =
+          new JPAEntityParser().parse2EdmPropertyValueMap(result.get(result.size() - 1), keyProperties);
+      page.setNextSkipToken(JPQLKeyset.createSkipToken(keyValues, keyProperties));
+    }
+  }
+
+  private List<Object> toProjectionRows(final List<Object> tuples, final List<EdmProperty> projectedProperties)
+      throws ODataJPARuntimeException {
+    if (tuples == null) {
+      return null;
+    }
+    List<Object> rows = new ArrayList<Object>(tuples.size());
+    for (Object tuple : tuples) {
+      rows.add(JPAProjectionRow.create(tuple, projectedProperties));
+    }
+    return rows;
+  }
+
+  /*
+   * Returns the key of the count of the request in the count cache or null if counts are not cached
+   */
+  private String getCountCacheKey(final UriInfo uriInfo) throws ODataJPARuntimeException {
+    if (getCountCacheTimeToLive() <= 0) {
+      return null;
+    }
+    try {
+      EntityManagerFactory emf = oDataJPAContext.getEntityManagerFactory();
+      return JPACountCache.getKey(oDataJPAContext.getPersistenceUnitName(),
+          emf == null ? em.getEntityManagerFactory() : emf, uriInfo);
+    } catch (EdmException e) {
+      throw ODataJPARuntimeException.throwException(ODataJPARuntimeException.GENERAL.addContent(e.getMessage()), e);
+    }
+  }
+
+  private Long getCachedCount(final String countCacheKey) {
+    if (countCacheKey == null) {
+      return null;
+    }
+    ODataContext odataContext = oDataJPAContext.getODataContext();
+    String cacheControl = odataContext == null ? null : odataContext.getRequestHeader(CACHE_CONTROL);
+    if (cacheControl != null && cacheControl.contains(NO_CACHE)) {
+      return null;
+    }
+    return JPACountCache.get(countCacheKey);
+  }
+
+  private void cacheCount(final String countCacheKey, final List<?> countList) {
+    if (countCacheKey != null && countList != null && !countList.isEmpty()) {
+      JPACountCache.put(countCacheKey, Long.valueOf(countList.get(0).toString()), getCountCacheTimeToLive());
+    }
+  }
+
+  private long getCountCacheTimeToLive() {
+    return tuningContext == null ? 0 : tuningContext.getCountCacheTimeToLive();
+  }
+
+  private void invalidateCountCache() {
+    if (!JPACountCache.isEmpty()) {
+      JPACountCache.invalidate(oDataJPAContext.getPersistenceUnitName());
+    }
+    // the write is part of a transaction started outside of the processor: drop the counts again after commit
+    ODataJPATransaction transaction = oDataJPAContext.getODataJPATransaction();
+    if (transaction instanceof JPACountCacheTransaction && transaction.isActive()) {
+      ((JPACountCacheTransaction) transaction).invalidateCountsOnCompletion(oDataJPAContext.getPersistenceUnitName());
+    }
+  }
+
   private boolean setTransaction() {
     ODataJPATransaction transaction = oDataJPAContext.getODataJPATransaction();
     if (!transaction.isActive()) {
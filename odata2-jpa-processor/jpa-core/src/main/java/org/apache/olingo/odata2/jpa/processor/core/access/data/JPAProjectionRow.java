@@ -0,0 +1,71 @@
+/*******************************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ ******************************************************************************/
+package org.apache.olingo.odata2.jpa.processor.core.access.data;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.olingo.odata2.api.edm.EdmException;
+import org.apache.olingo.odata2.api.edm.EdmProperty;
+import org.apache.olingo.odata2.jpa.processor.api.exception.ODataJPARuntimeException;
+
+/**
+ * Result row of a JPQL projection query. Instead of a managed JPA entity the row holds the
+ * values of the selected properties only, keyed by their EDM property name.
+ */
+public final class JPAProjectionRow {
+
+  private final Map<String, Object> properties;
+
+  private JPAProjectionRow(final Map<String, Object> properties) {
+    this.properties = properties;
+  }
+
+  /**
+   * Creates a row from one result of a projection query.
+   * @param tuple
+   * either an <code>Object[]</code> or, for a single selected property, the value itself
+   * @param projectedProperties
+   * properties in the order of the select clause
+   * @return the row
+   * @throws ODataJPARuntimeException
+   */
+  public static JPAProjectionRow create(final Object tuple, final List<EdmProperty> projectedProperties)
+      throws ODataJPARuntimeException {
+    Object[] values = tuple instanceof Object[] ? (Object[]) tuple : new Object[] { tuple };
+    Map<String, Object> properties = new HashMap<String, Object>();
+    try {
+      for (int i = 0; i < projectedProperties.size(); i++) {
+        properties.put(projectedProperties.get(i).getName(), JPAEntityParser.getPropertyValue(values[i]));
+      }
+    } catch (EdmException e) {
+      throw ODataJPARuntimeException.throwException(ODataJPARuntimeException.INNER_EXCEPTION, e);
+    }
+    return new JPAProjectionRow(properties);
+  }
+
+  public Object getPropertyValue(final String propertyName) {
+    return properties.get(propertyName);
+  }
+
+  public Map<String, Object> getProperties() {
+    return properties;
+  }
+}
@@ -20,8 +20,14 @@ package org.apache.olingo.odata2.jpa.processor.core.access.data;
 
 import java.sql.Time;
 import java.sql.Timestamp;
+import java.util.ArrayList;
 import java.util.Calendar;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -30,12 +36,19 @@ import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import javax.persistence.EntityManager;
+import javax.persistence.PersistenceUnitUtil;
 import javax.persistence.Query;
 import javax.persistence.TemporalType;
 import javax.persistence.metamodel.Attribute;
 import javax.persistence.metamodel.EntityType;
+import javax.persistence.metamodel.Metamodel;
+import javax.persistence.metamodel.SingularAttribute;
 
+import org.apache.olingo.odata2.api.edm.EdmEntityType;
 import org.apache.olingo.odata2.api.edm.EdmException;
+import org.apache.olingo.odata2.api.edm.EdmMapping;
+import org.apache.olingo.odata2.api.edm.EdmNavigationProperty;
+import org.apache.olingo.odata2.api.uri.NavigationPropertySegment;
 import org.apache.olingo.odata2.api.uri.UriInfo;
 import org.apache.olingo.odata2.api.uri.info.DeleteUriInfo;
 import org.apache.olingo.odata2.api.uri.info.GetEntityCountUriInfo;
@@ -70,6 +83,13 @@ public class JPAQueryBuilder {
     Delete
   }
 
+  /**
+   * Maximum number of keys bound to one IN predicate while fetching expanded navigation properties
+   */
+  static final int EXPAND_FETCH_BATCH_SIZE = 500;
+  private static final String EXPAND_FETCH_ALIAS = "E1";
+  private static final String EXPAND_FETCH_KEYS = "keys";
+
   private EntityManager em = null;
   private int pageSize = 0;
 
@@ -78,6 +98,23 @@ public class JPAQueryBuilder {
     this.pageSize = odataJPAContext.getPageSize();
   }
 
+  /**
+   * Query builder creating its queries on the given entity manager instead of the one of the context
+   */
+  JPAQueryBuilder(ODataJPAContext odataJPAContext, EntityManager em) {
+    this.em = em;
+    this.pageSize = odataJPAContext.getPageSize();
+  }
+
+  /**
+   * Query builder creating its queries on the given entity manager; entity set queries are ordered by the key
+   * like the queries of pages with the given size
+   */
+  JPAQueryBuilder(EntityManager em, int pageSize) {
+    this.em = em;
+    this.pageSize = pageSize;
+  }
+
   public JPAQueryInfo build(GetEntitySetUriInfo uriInfo) throws ODataJPARuntimeException {
     JPAQueryInfo queryInfo = new JPAQueryInfo();
     Query query = null;
@@ -106,6 +143,13 @@ public class JPAQueryBuilder {
 
 
   public void getCount(GetEntitySetUriInfo uriInfo) throws ODataJPARuntimeException {
+    setCount(uriInfo, buildCountQuery(uriInfo).getResultList());
+  }
+
+  /**
+   * Builds the COUNT query of an entity set request without executing it
+   */
+  Query buildCountQuery(GetEntitySetUriInfo uriInfo) throws ODataJPARuntimeException {
     JPAQueryInfo queryInfo = new JPAQueryInfo();
     Query query = null;
     UriInfoImpl info = (UriInfoImpl)uriInfo;
@@ -134,16 +178,21 @@ public class JPAQueryBuilder {
     } finally {
       JPQLContext.removeJPQLContext();
       ODataExpressionParser.removePositionalParametersThreadLocal();
+      info.setCount(count);
     }
     queryInfo.setQuery(query);
-    Query countQuery = queryInfo.getQuery();
-    List<Object> countList = countQuery.getResultList();
-    info.setCount(count);
+    return queryInfo.getQuery();
+  }
+
+  /**
+   * Hands the result of the COUNT query over to the response builder
+   */
+  static void setCount(GetEntitySetUriInfo uriInfo, List<?> countList) {
     if(countList!= null && !countList.isEmpty()){
       String countNumber = countList.get(0).toString();
       Map<String, String> customQueryOptions = new HashMap<String, String>();
       customQueryOptions.put("count", countNumber);
-      info.setCustomQueryOptions(customQueryOptions);
+      ((UriInfoImpl) uriInfo).setCustomQueryOptions(customQueryOptions);
     }
   }
 
@@ -258,6 +307,149 @@ public class JPAQueryBuilder {
     return query;
   }
 
+  /**
+   * Loads the navigation properties of an $expand for all given entities up front.
+   * For every navigation level one JPQL query
+   * <code>SELECT DISTINCT E1 FROM Entity E1 LEFT OUTER JOIN FETCH E1.relation WHERE E1.key IN :keys</code>
+   * is executed (in batches of {@link #EXPAND_FETCH_BATCH_SIZE} keys). The fetched relations are attached to
+   * the already managed entities, so the expand callbacks do not trigger lazy loading per entity.
+   * Entities without a single basic key attribute are left to lazy loading.
+   * 
+   * @param entities
+   * managed JPA entities of the current page
+   * @param expandList
+   * navigation paths of the $expand system query option
+   * @throws ODataJPARuntimeException
+   */
+  public void fetchExpand(final List<Object> entities, final List<ArrayList<NavigationPropertySegment>> expandList)
+      throws ODataJPARuntimeException {
+    if (entities == null || entities.isEmpty() || expandList == null || expandList.isEmpty()) {
+      return;
+    }
+    Set<String> fetchedPaths = new HashSet<String>();
+    JPAEntityParser entityParser = new JPAEntityParser();
+    try {
+      for (List<NavigationPropertySegment> segments : expandList) {
+        Collection<Object> parents = entities;
+        StringBuilder path = new StringBuilder();
+        for (int i = 0; i < segments.size() && !parents.isEmpty(); i++) {
+          EdmNavigationProperty navigationProperty = segments.get(i).getNavigationProperty();
+          path.append(JPQLStatement.DELIMITER.PERIOD).append(navigationProperty.getName());
+          if (fetchedPaths.add(path.toString())) {
+            fetchNavigation(parents, navigationProperty);
+          }
+          if (i < segments.size() - 1) {
+            parents = getNavigationTargets(entityParser, parents, navigationProperty);
+          }
+        }
+      }
+    } catch (EdmException e) {
+      throw ODataJPARuntimeException.throwException(
+          ODataJPARuntimeException.ERROR_JPQL_QUERY_CREATE, e);
+    }
+  }
+
+  private void fetchNavigation(final Collection<Object> parents, final EdmNavigationProperty navigationProperty)
+      throws EdmException {
+    EdmEntityType fromEntityType =
+        navigationProperty.getRelationship().getEnd(navigationProperty.getFromRole()).getEntityType();
+    String entityName = getInternalName(fromEntityType.getMapping(), fromEntityType.getName());
+    String keyName = getSingleKeyAttributeName(entityName);
+    if (keyName == null) {
+      return;
+    }
+    String relationShipName = getInternalName(navigationProperty.getMapping(), navigationProperty.getName());
+
+    PersistenceUnitUtil persistenceUnitUtil = em.getEntityManagerFactory().getPersistenceUnitUtil();
+    Set<Object> keys = new LinkedHashSet<Object>();
+    for (Object parent : parents) {
+      Object key = persistenceUnitUtil.getIdentifier(parent);
+      if (key != null) {
+        keys.add(key);
+      }
+    }
+    if (keys.isEmpty()) {
+      return;
+    }
+
+    Query query = em.createQuery(buildExpandFetchStatement(entityName, relationShipName, keyName));
+    List<Object> batch = new ArrayList<Object>(Math.min(keys.size(), EXPAND_FETCH_BATCH_SIZE));
+    for (Object key : keys) {
+      batch.add(key);
+      if (batch.size() == EXPAND_FETCH_BATCH_SIZE) {
+        query.setParameter(EXPAND_FETCH_KEYS, batch);
+        query.getResultList();
+        batch = new ArrayList<Object>(EXPAND_FETCH_BATCH_SIZE);
+      }
+    }
+    if (!batch.isEmpty()) {
+      query.setParameter(EXPAND_FETCH_KEYS, batch);
+      query.getResultList();
+    }
+  }
+
+  static String buildExpandFetchStatement(final String entityName, final String relationShipName,
+      final String keyName) {
+    StringBuilder statement = new StringBuilder();
+    statement.append(JPQLStatement.KEYWORD.SELECT_DISTINCT).append(JPQLStatement.DELIMITER.SPACE)
+        .append(EXPAND_FETCH_ALIAS).append(JPQLStatement.DELIMITER.SPACE)
+        .append(JPQLStatement.KEYWORD.FROM).append(JPQLStatement.DELIMITER.SPACE)
+        .append(entityName).append(JPQLStatement.DELIMITER.SPACE).append(EXPAND_FETCH_ALIAS)
+        .append(JPQLStatement.DELIMITER.SPACE)
+        .append(JPQLStatement.KEYWORD.LEFT_OUTER_JOIN).append(JPQLStatement.DELIMITER.SPACE)
+        .append(JPQLStatement.KEYWORD.FETCH).append(JPQLStatement.DELIMITER.SPACE)
+        .append(EXPAND_FETCH_ALIAS).append(JPQLStatement.DELIMITER.PERIOD).append(relationShipName)
+        .append(JPQLStatement.DELIMITER.SPACE)
+        .append(JPQLStatement.KEYWORD.WHERE).append(JPQLStatement.DELIMITER.SPACE)
+        .append(EXPAND_FETCH_ALIAS).append(JPQLStatement.DELIMITER.PERIOD).append(keyName)
+        .append(JPQLStatement.DELIMITER.SPACE)
+        .append(JPQLStatement.KEYWORD.IN).append(JPQLStatement.DELIMITER.SPACE)
+        .append(JPQLStatement.DELIMITER.COLON).append(EXPAND_FETCH_KEYS);
+    return statement.toString();
+  }
+
+  private String getSingleKeyAttributeName(final String entityName) {
+    for (EntityType<?> type : em.getMetamodel().getEntities()) {
+      if (entityName.equals(type.getName())) {
+        if (!type.hasSingleIdAttribute()) {
+          return null;
+        }
+        for (SingularAttribute<?, ?> attribute : type.getSingularAttributes()) {
+          if (attribute.isId() && attribute.getPersistentAttributeType() == Attribute.PersistentAttributeType.BASIC) {
+            return attribute.getName();
+          }
+        }
+        return null;
+      }
+    }
+    return null;
+  }
+
+  private static String getInternalName(final EdmMapping mapping, final String name) {
+    if (mapping != null && mapping.getInternalName() != null) {
+      return mapping.getInternalName();
+    }
+    return name;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static Collection<Object> getNavigationTargets(final JPAEntityParser entityParser,
+      final Collection<Object> parents, final EdmNavigationProperty navigationProperty)
+      throws ODataJPARuntimeException, EdmException {
+    List<EdmNavigationProperty> navigationPropertyList = Collections.singletonList(navigationProperty);
+    Collection<Object> targets = Collections.newSetFromMap(new IdentityHashMap<Object, Boolean>());
+    for (Object parent : parents) {
+      Object target = entityParser.parse2EdmNavigationValueMap(parent, navigationPropertyList)
+          .get(navigationProperty.getName());
+      if (target instanceof Collection) {
+        targets.addAll((Collection<Object>) target);
+      } else if (target != null) {
+        targets.add(target);
+      }
+    }
+    return targets;
+  }
+
   private Query buildQuery(UriInfo uriParserResultView, UriInfoType type)
       throws EdmException,
       ODataJPAModelException, ODataJPARuntimeException {
@@ -402,7 +594,9 @@ public class JPAQueryBuilder {
   private static final Pattern JOIN_ALIAS_PATTERN = Pattern.compile(".*\\sJOIN\\s(\\S*\\s\\S*).*");
 
   private static String normalizeMembers(EntityManager em, String jpqlQuery) {  
-    
+    if (JPQLStatementCache.isNormalized(jpqlQuery)) {
+      return jpqlQuery;
+    }
     //check if clause values are string with x.y.z format
     //starting with quotes;
     String query = checkConditionValues(jpqlQuery);
@@ -413,13 +607,26 @@ public class JPAQueryBuilder {
     // starting with space or parenthesis)
     Matcher normalizationNeededMatcher = NORMALIZATION_NEEDED_PATTERN.matcher(query);
     if (!normalizationNeededMatcher.find()) {
+      JPQLStatementCache.putNormalized(jpqlQuery);
       return jpqlQuery;
     }
 
-    if (containsEmbeddedAttributes(em, jpqlQuery)) {
+    Metamodel metamodel = em.getMetamodel();
+    String normalizedJpqlQuery = JPQLStatementCache.get(metamodel, jpqlQuery);
+    if (normalizedJpqlQuery == null) {
+      normalizedJpqlQuery = normalizeMembers(metamodel, jpqlQuery, normalizationNeededMatcher);
+      JPQLStatementCache.put(metamodel, jpqlQuery, normalizedJpqlQuery);
+    }
+    return normalizedJpqlQuery;
+  }
+
+  private static String normalizeMembers(Metamodel metamodel, String jpqlQuery,
+      Matcher normalizationNeededMatcher) {
+    if (containsEmbeddedAttributes(metamodel, jpqlQuery)) {
       return jpqlQuery;
     }
     
+    String query;
     String normalizedJpqlQuery = jpqlQuery;
     Map<String, String> joinAliases = new HashMap<String, String>();
 
@@ -511,18 +718,18 @@ public class JPAQueryBuilder {
   }
 
   /**
-   * Verify via {@link EntityManager} if one of the attributes of the selected entity
+   * Verify via {@link Metamodel} if one of the attributes of the selected entity
    * contains a embedded attribute.
    * Return true if at least one embedded attribute is found or false if non embedded
    * attribute is found.
    *
-   * @param em according entity manager
+   * @param metamodel metamodel of the according entity manager
    * @param jpqlQuery query to verify
    * @return true if at least one embedded attribute is found or false if non embedded
    * attribute is found.
    */
-  private static boolean containsEmbeddedAttributes(EntityManager em, String jpqlQuery) {
-    Set<EntityType<?>> types = em.getMetamodel().getEntities();
+  private static boolean containsEmbeddedAttributes(Metamodel metamodel, String jpqlQuery) {
+    Set<EntityType<?>> types = metamodel.getEntities();
     int pos = jpqlQuery.indexOf("FROM ") + 5;
     int lastpos = jpqlQuery.indexOf(" ", pos);
     final String queriedEntity = jpqlQuery.substring(pos, lastpos);
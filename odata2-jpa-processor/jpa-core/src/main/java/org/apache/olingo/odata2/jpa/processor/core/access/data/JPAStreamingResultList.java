@@ -0,0 +1,231 @@
+/*******************************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ ******************************************************************************/
+package org.apache.olingo.odata2.jpa.processor.core.access.data;
+
+import java.io.Closeable;
+import java.util.AbstractList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Query;
+
+import org.apache.olingo.odata2.api.edm.EdmProperty;
+import org.apache.olingo.odata2.core.exception.ODataRuntimeException;
+import org.apache.olingo.odata2.jpa.processor.api.exception.ODataJPARuntimeException;
+
+/**
+ * Result of an entity set query that is read while the feed is written.
+ * <p>
+ * The query is ordered by the key properties and runs on an entity manager of its own, which is closed with
+ * {@link #close()}. Iterating the list reads the result in chunks of {@link #CHUNK_SIZE} entities
+ * ({@link Query#setMaxResults(int)}) and clears the persistence context before the next chunk is read. The
+ * chunks after the first one are read by the {@link SeekQuery} selecting the entities behind the last entity
+ * of the previous chunk, so the database does not have to skip the rows already read.
+ * <p>
+ * Each chunk is a query of its own; the chunks do not share a transaction or a snapshot of the database.
+ * <p>
+ * {@link #toEdmEntityList(JPAEntityParser, List)} converts each entity to its property map only when the feed
+ * producer asks for the next entry, so neither the entities nor the property maps of the complete result are
+ * held in memory. Conversion errors are thrown as {@link ODataRuntimeException} with the
+ * {@link ODataJPARuntimeException} as cause.
+ * <p>
+ * The result can be streamed once. Random access ({@link #get(int)}, {@link #size()}) before the first
+ * iteration reads the complete result as before.
+ */
+public final class JPAStreamingResultList extends AbstractList<Object> implements Closeable {
+
+  static final int CHUNK_SIZE = 1000;
+
+  /**
+   * Creates the query of the chunk following an entity
+   */
+  interface SeekQuery {
+    /**
+     * @param lastEntity
+     * last entity of the previous chunk
+     * @return query of the entities behind the given entity ordered by the key properties
+     * @throws ODataJPARuntimeException
+     */
+    Query create(Object lastEntity) throws ODataJPARuntimeException;
+  }
+
+  private final EntityManager em;
+  private final Query query;
+  private final SeekQuery seekQuery;
+  private List<Object> resultList;
+  private boolean streamed;
+
+  /**
+   * @param em the entity manager the query has been created on; it is closed with the list
+   * @param query the query ordered by the key of the entity type
+   * @param seekQuery creates the queries of the following chunks
+   */
+  JPAStreamingResultList(final EntityManager em, final Query query, final SeekQuery seekQuery) {
+    this.em = em;
+    this.query = query;
+    this.seekQuery = seekQuery;
+  }
+
+  @Override
+  public Iterator<Object> iterator() {
+    if (resultList != null) {
+      return resultList.iterator();
+    }
+    return new ResultIterator();
+  }
+
+  @Override
+  public Object get(final int index) {
+    return getResultList().get(index);
+  }
+
+  @Override
+  public int size() {
+    return getResultList().size();
+  }
+
+  /**
+   * Closes the entity manager of the query.
+   */
+  @Override
+  public void close() {
+    if (em.isOpen()) {
+      em.close();
+    }
+  }
+
+  /**
+   * Converts the entities to EDM property maps while they are read.
+   * @param parser
+   * parser converting one entity
+   * @param properties
+   * EDM properties of the entries
+   * @return list of property maps to be iterated once
+   */
+  public List<Map<String, Object>> toEdmEntityList(final JPAEntityParser parser, final List<EdmProperty> properties) {
+    return new AbstractList<Map<String, Object>>() {
+
+      @Override
+      public Iterator<Map<String, Object>> iterator() {
+        final Iterator<Object> entities = JPAStreamingResultList.this.iterator();
+        return new Iterator<Map<String, Object>>() {
+
+          @Override
+          public boolean hasNext() {
+            return entities.hasNext();
+          }
+
+          @Override
+          public Map<String, Object> next() {
+            return parse(parser, entities.next(), properties);
+          }
+
+          @Override
+          public void remove() {
+            throw new UnsupportedOperationException();
+          }
+        };
+      }
+
+      @Override
+      public Map<String, Object> get(final int index) {
+        return parse(parser, JPAStreamingResultList.this.get(index), properties);
+      }
+
+      @Override
+      public int size() {
+        return JPAStreamingResultList.this.size();
+      }
+    };
+  }
+
+  private static Map<String, Object> parse(final JPAEntityParser parser, final Object entity,
+      final List<EdmProperty> properties) {
+    try {
+      return parser.parse2EdmPropertyValueMap(entity, properties);
+    } catch (ODataJPARuntimeException e) {
+      throw new ODataRuntimeException(e);
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private List<Object> getResultList() {
+    if (resultList == null) {
+      if (streamed) {
+        throw new IllegalStateException("Query result has already been streamed");
+      }
+      resultList = query.getResultList();
+    }
+    return resultList;
+  }
+
+  private class ResultIterator implements Iterator<Object> {
+
+    private Iterator<?> chunk;
+    private Object lastEntity;
+    private boolean lastChunk = false;
+
+    @Override
+    public boolean hasNext() {
+      if (chunk == null) {
+        if (streamed) {
+          throw new IllegalStateException("Query result has already been streamed");
+        }
+        streamed = true;
+        readChunk();
+      }
+      if (!chunk.hasNext() && !lastChunk) {
+        em.clear();
+        readChunk();
+      }
+      return chunk.hasNext();
+    }
+
+    @Override
+    public Object next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      return chunk.next();
+    }
+
+    @Override
+    public void remove() {
+      throw new UnsupportedOperationException();
+    }
+
+    private void readChunk() {
+      Query chunkQuery = query;
+      if (lastEntity != null) {
+        try {
+          chunkQuery = seekQuery.create(lastEntity);
+        } catch (ODataJPARuntimeException e) {
+          throw new ODataRuntimeException(e);
+        }
+      }
+      List<?> results = chunkQuery.setMaxResults(CHUNK_SIZE).getResultList();
+      lastChunk = results.size() < CHUNK_SIZE;
+      lastEntity = results.isEmpty() ? null : results.get(results.size() - 1);
+      chunk = results.iterator();
+    }
+  }
+}
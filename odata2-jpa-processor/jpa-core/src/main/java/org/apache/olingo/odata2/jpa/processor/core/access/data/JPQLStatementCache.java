@@ -0,0 +1,131 @@
+/*******************************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ ******************************************************************************/
+package org.apache.olingo.odata2.jpa.processor.core.access.data;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Process wide cache of the JPQL statements passed to the entity manager.
+ * <p>
+ * The statements rendered by the JPQL builders contain positional parameters instead of literals, so requests
+ * of the same shape (entity set, navigation, $filter, $orderby, paging) render the same statement. The
+ * normalization of member paths into joins runs several regular expressions and may inspect the metamodel;
+ * its result is cached per rendered statement. Statements whose normalization depends on the metamodel are
+ * cached per metamodel, the others independent of it. Each scope keeps up to {@link #MAX_STATEMENTS} statements
+ * and drops the oldest statements first; lookups do not lock.
+ * <p>
+ * Since the normalized statement text is stable, the query plan caches of the JPA providers, which are keyed
+ * by the JPQL text, are hit as well.
+ */
+final class JPQLStatementCache {
+
+  static final int MAX_STATEMENTS = 1000;
+  private static final Statements NORMALIZED = new Statements();
+  private static final Map<Object, Statements> STATEMENTS = new WeakHashMap<Object, Statements>();
+
+  private JPQLStatementCache() {}
+
+  /**
+   * @param jpqlStatement
+   * rendered JPQL statement
+   * @return <code>true</code> if the statement is known to be used without normalization
+   */
+  static boolean isNormalized(final String jpqlStatement) {
+    return jpqlStatement.equals(NORMALIZED.get(jpqlStatement));
+  }
+
+  /**
+   * Records that the statement is used without normalization
+   */
+  static void putNormalized(final String jpqlStatement) {
+    NORMALIZED.put(jpqlStatement, jpqlStatement);
+  }
+
+  /**
+   * @param metamodel
+   * metamodel the statement has been normalized with
+   * @param jpqlStatement
+   * rendered JPQL statement
+   * @return the normalized statement or <code>null</code> if it is not cached
+   */
+  static String get(final Object metamodel, final String jpqlStatement) {
+    Statements statements = getStatements(metamodel, false);
+    return statements == null ? null : statements.get(jpqlStatement);
+  }
+
+  static void put(final Object metamodel, final String jpqlStatement, final String normalizedStatement) {
+    getStatements(metamodel, true).put(jpqlStatement, normalizedStatement);
+  }
+
+  /**
+   * Drops all cached statements
+   */
+  static void clear() {
+    NORMALIZED.clear();
+    synchronized (STATEMENTS) {
+      STATEMENTS.clear();
+    }
+  }
+
+  private static Statements getStatements(final Object metamodel, final boolean create) {
+    synchronized (STATEMENTS) {
+      Statements statements = STATEMENTS.get(metamodel);
+      if (statements == null && create) {
+        statements = new Statements();
+        STATEMENTS.put(metamodel, statements);
+      }
+      return statements;
+    }
+  }
+
+  /*
+   * Statements of one scope; the insertion order is kept in a queue so the oldest statements are dropped first.
+   */
+  private static final class Statements {
+    private final ConcurrentMap<String, String> statements = new ConcurrentHashMap<String, String>();
+    private final Queue<String> insertionOrder = new ConcurrentLinkedQueue<String>();
+
+    void clear() {
+      statements.clear();
+      insertionOrder.clear();
+    }
+
+    String get(final String jpqlStatement) {
+      return statements.get(jpqlStatement);
+    }
+
+    void put(final String jpqlStatement, final String normalizedStatement) {
+      if (statements.putIfAbsent(jpqlStatement, normalizedStatement) == null) {
+        insertionOrder.offer(jpqlStatement);
+        while (statements.size() > MAX_STATEMENTS) {
+          final String oldest = insertionOrder.poll();
+          if (oldest == null) {
+            return;
+          }
+          statements.remove(oldest);
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,84 @@
+/*******************************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ ******************************************************************************/
+package org.apache.olingo.odata2.jpa.processor.core.callback;
+
+import java.util.Locale;
+
+import org.apache.olingo.odata2.api.edm.EdmNavigationProperty;
+import org.apache.olingo.odata2.api.ep.EntityProviderReadProperties;
+import org.apache.olingo.odata2.api.ep.callback.OnReadInlineFeedEntry;
+import org.apache.olingo.odata2.api.ep.callback.ReadEntryResult;
+import org.apache.olingo.odata2.api.ep.callback.ReadFeedResult;
+import org.apache.olingo.odata2.api.ep.entry.ODataEntry;
+import org.apache.olingo.odata2.api.exception.ODataApplicationException;
+import org.apache.olingo.odata2.jpa.processor.api.exception.ODataJPARuntimeException;
+import org.apache.olingo.odata2.jpa.processor.core.access.data.JPAEntity;
+
+/**
+ * Callback creating the JPA entities of the inline entries of a deep insert request while the request payload is
+ * read. Each inline entry of the created entity is turned into a JPA entity as soon as it has been read, so the
+ * de-serialized inline entries of large inline feeds are not held in memory together. Inline entries of deeper
+ * levels are read as usual and created with the JPA entity of their enclosing inline entry.
+ */
+public class JPAInlineEntryCallBack implements OnReadInlineFeedEntry {
+
+  private final JPAEntity jpaEntity;
+
+  public JPAInlineEntryCallBack(final JPAEntity jpaEntity) {
+    this.jpaEntity = jpaEntity;
+  }
+
+  @Override
+  public EntityProviderReadProperties receiveReadProperties(final EntityProviderReadProperties readProperties,
+      final EdmNavigationProperty navigationProperty) throws ODataApplicationException {
+    return EntityProviderReadProperties.init()
+        .mergeSemantic(readProperties.getMergeSemantic())
+        .isValidatingFacets(readProperties.isValidatingFacets())
+        .build();
+  }
+
+  @Override
+  public void handleReadFeedEntry(final ReadEntryResult readEntryResult) throws ODataApplicationException {
+    createInlineEntry(readEntryResult.getNavigationProperty(), readEntryResult.getResult());
+  }
+
+  @Override
+  public void handleReadEntry(final ReadEntryResult readEntryResult) throws ODataApplicationException {
+    if (readEntryResult.getResult() != null) {
+      createInlineEntry(readEntryResult.getNavigationProperty(), readEntryResult.getResult());
+    }
+  }
+
+  @Override
+  public void handleReadFeed(final ReadFeedResult readFeedResult) throws ODataApplicationException {
+    // the feed only contains entries which have not been handed over one at a time
+    for (ODataEntry entry : readFeedResult.getResult().getEntries()) {
+      createInlineEntry(readFeedResult.getNavigationProperty(), entry);
+    }
+  }
+
+  private void createInlineEntry(final EdmNavigationProperty navigationProperty, final ODataEntry entry)
+      throws ODataApplicationException {
+    try {
+      jpaEntity.createInlineEntry(navigationProperty, entry);
+    } catch (ODataJPARuntimeException e) {
+      throw new ODataApplicationException(e.getMessage(), Locale.getDefault(), e);
+    }
+  }
+}
@@ -101,11 +101,11 @@ public class JPQLJoinSelectContext extends JPQLSelectContext implements JPQLJoin
       Map<String, Map<Integer, Object>> parameterizedExpressionMap = 
           new HashMap<String, Map<Integer,Object>>();
       String entityAlias = generateJPAEntityAlias();
-      joinCondition = ODataExpressionParser.parseKeyPredicates(entitySetView.getKeyPredicates(), entityAlias);
+      joinCondition = ODataExpressionParser.parseKeyPredicates(entitySetView.getKeyPredicates(), entityAlias,
+          compileContext);
       
       if (joinCondition != null) { 
-        parameterizedExpressionMap.put(joinCondition, 
-            ODataExpressionParser.getPositionalParametersThreadLocal());
+        parameterizedExpressionMap.put(joinCondition, compileContext.getPositionalParameters());
       }
       
       EdmEntityType entityType = entitySetView.getStartEntitySet().getEntityType();
@@ -129,11 +129,11 @@ public class JPQLJoinSelectContext extends JPQLSelectContext implements JPQLJoin
         String relationShipAlias = generateRelationShipAlias();
 
         joinCondition =
-            ODataExpressionParser.parseKeyPredicates(navigationSegment.getKeyPredicates(), relationShipAlias);
+            ODataExpressionParser.parseKeyPredicates(navigationSegment.getKeyPredicates(), relationShipAlias,
+                compileContext);
 
         if (joinCondition != null) { 
-          parameterizedExpressionMap.put(joinCondition, 
-              ODataExpressionParser.getPositionalParametersThreadLocal());
+          parameterizedExpressionMap.put(joinCondition, compileContext.getPositionalParameters());
         }
         
         jpaOuterJoinClause =
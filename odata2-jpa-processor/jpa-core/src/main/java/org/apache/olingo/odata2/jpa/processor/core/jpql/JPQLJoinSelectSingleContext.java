@@ -82,11 +82,11 @@ public class JPQLJoinSelectSingleContext extends JPQLSelectSingleContext impleme
       Map<String, Map<Integer, Object>> parameterizedExpressionMap = 
           new HashMap<String, Map<Integer,Object>>();
       String entityAlias = generateJPAEntityAlias();
-      joinCondition = ODataExpressionParser.parseKeyPredicates(entityView.getKeyPredicates(), entityAlias);
+      joinCondition = ODataExpressionParser.parseKeyPredicates(entityView.getKeyPredicates(), entityAlias,
+          compileContext);
 
       if (joinCondition != null) { 
-        parameterizedExpressionMap.put(joinCondition, 
-            ODataExpressionParser.getPositionalParametersThreadLocal());
+        parameterizedExpressionMap.put(joinCondition, compileContext.getPositionalParameters());
       }
       
       EdmEntityType entityType = entityView.getStartEntitySet().getEntityType();
@@ -110,11 +110,11 @@ public class JPQLJoinSelectSingleContext extends JPQLSelectSingleContext impleme
         String relationShipAlias = generateRelationShipAlias();
 
         joinCondition =
-            ODataExpressionParser.parseKeyPredicates(navigationSegment.getKeyPredicates(), relationShipAlias);
+            ODataExpressionParser.parseKeyPredicates(navigationSegment.getKeyPredicates(), relationShipAlias,
+                compileContext);
 
         if (joinCondition != null) { 
-          parameterizedExpressionMap.put(joinCondition, 
-              ODataExpressionParser.getPositionalParametersThreadLocal());
+          parameterizedExpressionMap.put(joinCondition, compileContext.getPositionalParameters());
         }
         
         jpaOuterJoinClause =
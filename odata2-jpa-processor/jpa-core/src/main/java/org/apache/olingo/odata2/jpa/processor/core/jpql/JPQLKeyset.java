@@ -0,0 +1,206 @@
+/*******************************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ ******************************************************************************/
+package org.apache.olingo.odata2.jpa.processor.core.jpql;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.olingo.odata2.api.edm.EdmException;
+import org.apache.olingo.odata2.api.edm.EdmLiteralKind;
+import org.apache.olingo.odata2.api.edm.EdmMapping;
+import org.apache.olingo.odata2.api.edm.EdmProperty;
+import org.apache.olingo.odata2.api.edm.EdmSimpleType;
+import org.apache.olingo.odata2.api.edm.EdmSimpleTypeException;
+import org.apache.olingo.odata2.jpa.processor.api.exception.ODataJPARuntimeException;
+import org.apache.olingo.odata2.jpa.processor.api.jpql.JPQLStatement;
+import org.apache.olingo.odata2.jpa.processor.api.model.JPAEdmMapping;
+
+/**
+ * Skip token and JPQL predicate for keyset (seek) paging.
+ * <p>
+ * In keyset mode the skip token holds the key values of the last entity of the previous page as
+ * comma separated URI literals behind the prefix {@value #PREFIX} (e.g. <code>key:'A',5L</code>); the
+ * prefix tells keyset tokens apart from page offsets also for numeric keys like <code>key:42</code>. The
+ * next page is read with the predicate <code>(E1.k1 &gt; ?1 OR (E1.k1 = ?2 AND E1.k2 &gt; ?3))</code>
+ * ordered by the key properties, so the database does not have to skip the rows of all previous pages.
+ * Skip tokens without the prefix keep their meaning as offset of the page.
+ */
+public final class JPQLKeyset {
+
+  /** Prefix of keyset skip tokens */
+  public static final String PREFIX = "key:";
+
+  private static final char QUOTE = '\'';
+
+  private JPQLKeyset() {}
+
+  /**
+   * @param skipToken
+   * $skiptoken of the request
+   * @return <code>true</code> if the skip token is a keyset token and not a page offset
+   */
+  public static boolean isKeysetSkipToken(final String skipToken) {
+    return skipToken != null && skipToken.startsWith(PREFIX);
+  }
+
+  /**
+   * Creates the skip token pointing behind the given entity.
+   * @param keyValues
+   * key property values of the last entity of the page keyed by EDM property name
+   * @param keyProperties
+   * key properties of the entity type
+   * @return the skip token
+   * @throws ODataJPARuntimeException
+   */
+  public static String createSkipToken(final Map<String, Object> keyValues, final List<EdmProperty> keyProperties)
+      throws ODataJPARuntimeException {
+    StringBuilder skipToken = new StringBuilder(PREFIX);
+    try {
+      for (EdmProperty keyProperty : keyProperties) {
+        if (skipToken.length() > PREFIX.length()) {
+          skipToken.append(JPQLStatement.DELIMITER.COMMA);
+        }
+        skipToken.append(((EdmSimpleType) keyProperty.getType()).valueToString(keyValues.get(keyProperty.getName()),
+            EdmLiteralKind.URI, keyProperty.getFacets()));
+      }
+    } catch (EdmException e) {
+      throw ODataJPARuntimeException.throwException(ODataJPARuntimeException.GENERAL.addContent(e.getMessage()), e);
+    }
+    return skipToken.toString();
+  }
+
+  /**
+   * Parses a skip token created by {@link #createSkipToken(Map, List)}.
+   * @param skipToken
+   * keyset skip token
+   * @param keyProperties
+   * key properties of the entity type
+   * @return key values in the order of the key properties
+   * @throws ODataJPARuntimeException if the skip token does not match the key properties
+   */
+  public static List<Object> parseSkipToken(final String skipToken, final List<EdmProperty> keyProperties)
+      throws ODataJPARuntimeException {
+    if (!isKeysetSkipToken(skipToken)) {
+      throw ODataJPARuntimeException.throwException(ODataJPARuntimeException.GENERAL.addContent(skipToken), null);
+    }
+    List<String> literals = split(skipToken.substring(PREFIX.length()));
+    if (literals.size() != keyProperties.size()) {
+      throw ODataJPARuntimeException.throwException(ODataJPARuntimeException.GENERAL.addContent(skipToken), null);
+    }
+    List<Object> keyValues = new ArrayList<Object>(literals.size());
+    try {
+      for (int i = 0; i < literals.size(); i++) {
+        EdmProperty keyProperty = keyProperties.get(i);
+        EdmSimpleType type = (EdmSimpleType) keyProperty.getType();
+        keyValues.add(type.valueOfString(literals.get(i), EdmLiteralKind.URI, keyProperty.getFacets(),
+            getJavaType(keyProperty, type)));
+      }
+    } catch (EdmSimpleTypeException e) {
+      throw ODataJPARuntimeException.throwException(ODataJPARuntimeException.GENERAL.addContent(skipToken), e);
+    } catch (EdmException e) {
+      throw ODataJPARuntimeException.throwException(ODataJPARuntimeException.GENERAL.addContent(e.getMessage()), e);
+    }
+    return keyValues;
+  }
+
+  /**
+   * Creates the predicate selecting all entities behind the given key values.
+   * @param keyProperties
+   * key properties in the order of the ORDER BY clause
+   * @param keyValues
+   * key values parsed from the skip token
+   * @param tableAlias
+   * alias of the entity
+   * @param index
+   * first free positional parameter index
+   * @param positionalParameters
+   * map the parameter values are added to
+   * @return the JPQL predicate
+   * @throws ODataJPARuntimeException
+   */
+  public static String createWhereExpression(final List<EdmProperty> keyProperties, final List<Object> keyValues,
+      final String tableAlias, final int index, final Map<Integer, Object> positionalParameters)
+      throws ODataJPARuntimeException {
+    List<String> keyFields = new ArrayList<String>(keyProperties.size());
+    try {
+      for (EdmProperty keyProperty : keyProperties) {
+        EdmMapping mapping = keyProperty.getMapping();
+        String name = mapping != null && mapping.getInternalName() != null ? mapping.getInternalName()
+            : keyProperty.getName();
+        keyFields.add(tableAlias + JPQLStatement.DELIMITER.PERIOD + name);
+      }
+    } catch (EdmException e) {
+      throw ODataJPARuntimeException.throwException(ODataJPARuntimeException.GENERAL.addContent(e.getMessage()), e);
+    }
+
+    int parameterIndex = index;
+    StringBuilder whereExpression = new StringBuilder();
+    whereExpression.append(JPQLStatement.DELIMITER.PARENTHESIS_LEFT);
+    for (int i = 0; i < keyFields.size(); i++) {
+      if (i > 0) {
+        whereExpression.append(JPQLStatement.DELIMITER.SPACE).append(JPQLStatement.Operator.OR)
+            .append(JPQLStatement.DELIMITER.SPACE).append(JPQLStatement.DELIMITER.PARENTHESIS_LEFT);
+      }
+      for (int j = 0; j < i; j++) {
+        whereExpression.append(keyFields.get(j)).append(JPQLStatement.DELIMITER.SPACE)
+            .append(JPQLStatement.Operator.EQ).append(" ?").append(parameterIndex)
+            .append(JPQLStatement.DELIMITER.SPACE).append(JPQLStatement.Operator.AND)
+            .append(JPQLStatement.DELIMITER.SPACE);
+        positionalParameters.put(parameterIndex++, keyValues.get(j));
+      }
+      whereExpression.append(keyFields.get(i)).append(JPQLStatement.DELIMITER.SPACE)
+          .append(JPQLStatement.Operator.GT).append(" ?").append(parameterIndex);
+      positionalParameters.put(parameterIndex++, keyValues.get(i));
+      if (i > 0) {
+        whereExpression.append(JPQLStatement.DELIMITER.PARENTHESIS_RIGHT);
+      }
+    }
+    whereExpression.append(JPQLStatement.DELIMITER.PARENTHESIS_RIGHT);
+    return whereExpression.toString();
+  }
+
+  private static Class<?> getJavaType(final EdmProperty keyProperty, final EdmSimpleType type) throws EdmException {
+    EdmMapping mapping = keyProperty.getMapping();
+    if (mapping instanceof JPAEdmMapping && ((JPAEdmMapping) mapping).getJPAType() != null) {
+      Class<?> jpaType = ((JPAEdmMapping) mapping).getJPAType();
+      if (!jpaType.isPrimitive()) {
+        return jpaType;
+      }
+    }
+    return type.getDefaultType();
+  }
+
+  private static List<String> split(final String skipToken) {
+    List<String> literals = new ArrayList<String>();
+    boolean inString = false;
+    int start = 0;
+    for (int i = 0; i < skipToken.length(); i++) {
+      char c = skipToken.charAt(i);
+      if (c == QUOTE) {
+        inString = !inString;
+      } else if (c == JPQLStatement.DELIMITER.COMMA && !inString) {
+        literals.add(skipToken.substring(start, i));
+        start = i + 1;
+      }
+    }
+    literals.add(skipToken.substring(start));
+    return literals;
+  }
+}
@@ -19,6 +19,7 @@
 package org.apache.olingo.odata2.jpa.processor.core.jpql;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.concurrent.ConcurrentHashMap;
@@ -26,6 +27,7 @@ import java.util.concurrent.ConcurrentHashMap;
 import org.apache.olingo.odata2.api.edm.EdmEntityType;
 import org.apache.olingo.odata2.api.edm.EdmException;
 import org.apache.olingo.odata2.api.edm.EdmMapping;
+import org.apache.olingo.odata2.api.edm.EdmProperty;
 import org.apache.olingo.odata2.api.exception.ODataException;
 import org.apache.olingo.odata2.api.uri.info.GetEntitySetUriInfo;
 import org.apache.olingo.odata2.jpa.processor.api.exception.ODataJPAModelException;
@@ -33,6 +35,8 @@ import org.apache.olingo.odata2.jpa.processor.api.exception.ODataJPARuntimeExcep
 import org.apache.olingo.odata2.jpa.processor.api.jpql.JPQLContext;
 import org.apache.olingo.odata2.jpa.processor.api.jpql.JPQLContextType;
 import org.apache.olingo.odata2.jpa.processor.api.jpql.JPQLSelectContextView;
+import org.apache.olingo.odata2.jpa.processor.api.jpql.JPQLStatement;
+import org.apache.olingo.odata2.jpa.processor.core.JPQLCompileContext;
 import org.apache.olingo.odata2.jpa.processor.core.ODataExpressionParser;
 
 public class JPQLSelectContext extends JPQLContext implements JPQLSelectContextView {
@@ -42,6 +46,7 @@ public class JPQLSelectContext extends JPQLContext implements JPQLSelectContextV
   protected String whereCondition;
   protected Map<String, Map<Integer, Object>> parameterizedQueryMap;
   protected String jpqlStatement;
+  protected final JPQLCompileContext compileContext = new JPQLCompileContext();
 
   protected boolean isCountOnly = false;// Support for $count
 
@@ -145,6 +150,13 @@ public class JPQLSelectContext extends JPQLContext implements JPQLSelectContextV
      * Generate Select Clause
      */
     protected String generateSelectExpression() throws EdmException {
+      if (!isCountOnly) {
+        List<EdmProperty> projectedProperties = JPQLSelectProjection.getProjectedProperties(entitySetView);
+        if (projectedProperties != null) {
+          return ODataExpressionParser.parseToJPASelectExpression(getJPAEntityAlias(),
+              JPQLSelectProjection.getSelectedFields(projectedProperties));
+        }
+      }
       return getJPAEntityAlias();
     }
 
@@ -172,6 +184,53 @@ public class JPQLSelectContext extends JPQLContext implements JPQLSelectContextV
      * Generate Where Clause Expression
      */
     protected String generateWhereExpression() throws ODataException {
+      String whereExpression = generateFilterExpression();
+      String keysetExpression = generateKeysetExpression();
+      if (keysetExpression == null) {
+        return whereExpression;
+      } else if (whereExpression == null) {
+        return keysetExpression;
+      } else {
+        return JPQLStatement.DELIMITER.PARENTHESIS_LEFT + whereExpression
+            + JPQLStatement.DELIMITER.PARENTHESIS_RIGHT + JPQLStatement.DELIMITER.SPACE
+            + JPQLStatement.Operator.AND + JPQLStatement.DELIMITER.SPACE + keysetExpression;
+      }
+    }
+
+    /*
+     * Generate keyset predicate for the page following the $skiptoken
+     */
+    private String generateKeysetExpression() throws ODataException {
+      if (!pagingRequested || isCountOnly || getType() != JPQLContextType.SELECT) {
+        return null;
+      }
+      String skipToken = entitySetView.getSkipToken();
+      if (!JPQLKeyset.isKeysetSkipToken(skipToken) || entitySetView.getOrderBy() != null
+          || entitySetView.getTop() != null || entitySetView.getSkip() != null) {
+        return null;
+      }
+      List<EdmProperty> keyProperties = entitySetView.getTargetEntitySet().getEntityType().getKeyProperties();
+      int index = 1;
+      if (parameterizedQueryMap != null) {
+        for (Map<Integer, Object> parameters : parameterizedQueryMap.values()) {
+          if (parameters != null) {
+            for (Integer parameterIndex : parameters.keySet()) {
+              index = Math.max(index, parameterIndex + 1);
+            }
+          }
+        }
+      }
+      Map<Integer, Object> positionalParameters = new HashMap<Integer, Object>();
+      String keysetExpression = JPQLKeyset.createWhereExpression(keyProperties,
+          JPQLKeyset.parseSkipToken(skipToken, keyProperties), getJPAEntityAlias(), index,
+          positionalParameters);
+      Map<String, Map<Integer, Object>> parameterizedExpressionMap = new HashMap<String, Map<Integer, Object>>();
+      parameterizedExpressionMap.put(keysetExpression, positionalParameters);
+      setParameterizedQueryMap(parameterizedExpressionMap);
+      return keysetExpression;
+    }
+
+    private String generateFilterExpression() throws ODataException {
       if (entitySetView.getFilter() != null) {
         String whereExpression = null;
         if (null != parameterizedQueryMap && !parameterizedQueryMap.isEmpty()) {
@@ -185,15 +244,14 @@ public class JPQLSelectContext extends JPQLContext implements JPQLSelectContextV
           }
           whereExpression = ODataExpressionParser.parseToJPAWhereExpression(
               entitySetView.getFilter(), getJPAEntityAlias(), 
-              previousIndex, new ConcurrentHashMap<Integer, Object>(), null);
+              previousIndex, new ConcurrentHashMap<Integer, Object>(), null, compileContext);
         } else {
           whereExpression = ODataExpressionParser.parseToJPAWhereExpression(
-              entitySetView.getFilter(), getJPAEntityAlias());
+              entitySetView.getFilter(), getJPAEntityAlias(), compileContext);
         }
         Map<String, Map<Integer, Object>> parameterizedExpressionMap = 
             new HashMap<String, Map<Integer,Object>>();
-        parameterizedExpressionMap.put(whereExpression, 
-            ODataExpressionParser.getPositionalParametersThreadLocal());
+        parameterizedExpressionMap.put(whereExpression, compileContext.getPositionalParameters());
         setParameterizedQueryMap(parameterizedExpressionMap);
         return whereExpression;
       }
@@ -218,6 +276,13 @@ public class JPQLSelectContext extends JPQLContext implements JPQLSelectContextV
     return parameterizedQueryMap;
   }
 
+  /**
+   * @return the compile context collecting the positional parameters of the statement
+   */
+  public JPQLCompileContext getCompileContext() {
+    return compileContext;
+  }
+
   @Override
   public void setJPQLStatement(String jpqlStatement) {
     this.jpqlStatement = jpqlStatement;
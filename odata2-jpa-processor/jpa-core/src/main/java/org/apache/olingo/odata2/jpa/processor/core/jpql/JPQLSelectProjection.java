@@ -0,0 +1,132 @@
+/*******************************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ ******************************************************************************/
+package org.apache.olingo.odata2.jpa.processor.core.jpql;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.olingo.odata2.api.edm.EdmEntityType;
+import org.apache.olingo.odata2.api.edm.EdmException;
+import org.apache.olingo.odata2.api.edm.EdmMapping;
+import org.apache.olingo.odata2.api.edm.EdmProperty;
+import org.apache.olingo.odata2.api.edm.EdmTypeKind;
+import org.apache.olingo.odata2.api.edm.EdmTyped;
+import org.apache.olingo.odata2.api.uri.SelectItem;
+import org.apache.olingo.odata2.api.uri.expression.CommonExpression;
+import org.apache.olingo.odata2.api.uri.expression.ExpressionKind;
+import org.apache.olingo.odata2.api.uri.expression.OrderExpression;
+import org.apache.olingo.odata2.api.uri.expression.PropertyExpression;
+import org.apache.olingo.odata2.api.uri.info.GetEntitySetUriInfo;
+import org.apache.olingo.odata2.jpa.processor.api.jpql.JPQLStatement;
+import org.apache.olingo.odata2.jpa.processor.api.model.JPAEdmMapping;
+
+/**
+ * Decides if the $select of an entity set request can be pushed down into the JPQL select clause.
+ * <p>
+ * A projection <code>SELECT E1.a, E1.b FROM ...</code> is used if the request selects simple properties of
+ * the target entity set only, does not navigate and has neither $expand nor a tombstone/query extension
+ * listener. Key properties and the properties of a simple $orderby are always part of the projection.
+ * In all other cases the complete entities are read.
+ */
+public final class JPQLSelectProjection {
+
+  private JPQLSelectProjection() {}
+
+  /**
+   * @param uriInfo
+   * entity set request
+   * @return the properties of the projection in the order of the select clause or <code>null</code> if the
+   * entities have to be read completely
+   * @throws EdmException
+   */
+  public static List<EdmProperty> getProjectedProperties(final GetEntitySetUriInfo uriInfo) throws EdmException {
+    List<SelectItem> selectItems = uriInfo.getSelect();
+    if (selectItems == null || selectItems.isEmpty()) {
+      return null;
+    }
+    EdmEntityType entityType = uriInfo.getTargetEntitySet().getEntityType();
+    EdmMapping entityMapping = entityType.getMapping();
+    if (entityMapping instanceof JPAEdmMapping
+        && ((JPAEdmMapping) entityMapping).getODataJPATombstoneEntityListener() != null) {
+      return null;
+    }
+
+    List<EdmProperty> properties = new ArrayList<EdmProperty>();
+    for (EdmProperty keyProperty : entityType.getKeyProperties()) {
+      if (!addProperty(properties, keyProperty)) {
+        return null;
+      }
+    }
+    for (SelectItem selectItem : selectItems) {
+      if (selectItem.isStar() || !selectItem.getNavigationPropertySegments().isEmpty()
+          || !addProperty(properties, selectItem.getProperty())) {
+        return null;
+      }
+    }
+    if ((uriInfo.getNavigationSegments() != null && !uriInfo.getNavigationSegments().isEmpty())
+        || (uriInfo.getExpand() != null && !uriInfo.getExpand().isEmpty())) {
+      return null;
+    }
+    if (uriInfo.getOrderBy() != null && uriInfo.getOrderBy().getOrders() != null) {
+      for (OrderExpression order : uriInfo.getOrderBy().getOrders()) {
+        CommonExpression expression = order.getExpression();
+        if (expression.getKind() != ExpressionKind.PROPERTY) {
+          return null;
+        }
+        EdmTyped orderProperty = ((PropertyExpression) expression).getEdmProperty();
+        if (!(orderProperty instanceof EdmProperty) || !addProperty(properties, (EdmProperty) orderProperty)) {
+          return null;
+        }
+      }
+    }
+    return properties;
+  }
+
+  /**
+   * @param properties
+   * projected properties
+   * @return the JPA attribute names of the properties
+   * @throws EdmException
+   */
+  public static ArrayList<String> getSelectedFields(final List<EdmProperty> properties) throws EdmException {
+    ArrayList<String> fields = new ArrayList<String>(properties.size());
+    for (EdmProperty property : properties) {
+      fields.add(property.getMapping().getInternalName());
+    }
+    return fields;
+  }
+
+  private static boolean addProperty(final List<EdmProperty> properties, final EdmProperty property)
+      throws EdmException {
+    if (property == null) {
+      return false;
+    }
+    EdmMapping mapping = property.getMapping();
+    if (mapping == null || mapping.getInternalName() == null
+        || mapping.getInternalName().indexOf(JPQLStatement.DELIMITER.PERIOD) >= 0
+        || (mapping instanceof JPAEdmMapping && ((JPAEdmMapping) mapping).isVirtualAccess())
+        || property.getType().getKind() != EdmTypeKind.SIMPLE) {
+      return false;
+    }
+    if (!properties.contains(property)) {
+      properties.add(property);
+    }
+    return true;
+  }
+}
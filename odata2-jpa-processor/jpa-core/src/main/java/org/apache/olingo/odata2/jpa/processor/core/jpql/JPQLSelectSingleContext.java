@@ -31,6 +31,7 @@ import org.apache.olingo.odata2.jpa.processor.api.exception.ODataJPARuntimeExcep
 import org.apache.olingo.odata2.jpa.processor.api.jpql.JPQLContext;
 import org.apache.olingo.odata2.jpa.processor.api.jpql.JPQLContextType;
 import org.apache.olingo.odata2.jpa.processor.api.jpql.JPQLSelectSingleContextView;
+import org.apache.olingo.odata2.jpa.processor.core.JPQLCompileContext;
 
 public class JPQLSelectSingleContext extends JPQLContext implements JPQLSelectSingleContextView {
 
@@ -38,6 +39,7 @@ public class JPQLSelectSingleContext extends JPQLContext implements JPQLSelectSi
   private List<KeyPredicate> keyPredicates;
   protected Map<String, Map<Integer, Object>> parameterizedQueryMap;
   protected String jpqlStatement;
+  protected final JPQLCompileContext compileContext = new JPQLCompileContext();
 
   protected void setKeyPredicates(final List<KeyPredicate> keyPredicates) {
     this.keyPredicates = keyPredicates;
@@ -66,6 +68,13 @@ public class JPQLSelectSingleContext extends JPQLContext implements JPQLSelectSi
   public Map<String, Map<Integer, Object>> getParameterizedQueryMap() {
     return parameterizedQueryMap;
   }
+
+  /**
+   * @return the compile context collecting the positional parameters of the statement
+   */
+  public JPQLCompileContext getCompileContext() {
+    return compileContext;
+  }
   
   public class JPQLSelectSingleContextBuilder extends
   org.apache.olingo.odata2.jpa.processor.api.jpql.JPQLContext.JPQLContextBuilder {
@@ -26,6 +26,7 @@ import org.apache.olingo.odata2.jpa.processor.api.jpql.JPQLContextView;
 import org.apache.olingo.odata2.jpa.processor.api.jpql.JPQLSelectSingleContextView;
 import org.apache.olingo.odata2.jpa.processor.api.jpql.JPQLStatement;
 import org.apache.olingo.odata2.jpa.processor.api.jpql.JPQLStatement.JPQLStatementBuilder;
+import org.apache.olingo.odata2.jpa.processor.core.JPQLCompileContext;
 import org.apache.olingo.odata2.jpa.processor.core.ODataExpressionParser;
 
 public class JPQLSelectSingleStatementBuilder extends JPQLStatementBuilder {
@@ -59,13 +60,13 @@ public class JPQLSelectSingleStatementBuilder extends JPQLStatementBuilder {
     if (context.getKeyPredicates() != null && !context.getKeyPredicates().isEmpty()) {
       jpqlQuery.append(JPQLStatement.DELIMITER.SPACE);
       jpqlQuery.append(JPQLStatement.KEYWORD.WHERE).append(JPQLStatement.DELIMITER.SPACE);
+      JPQLCompileContext compileContext = ((JPQLSelectSingleContext) this.context).getCompileContext();
       String keyString = ODataExpressionParser
-          .parseKeyPredicates(context.getKeyPredicates(), context.getJPAEntityAlias());
+          .parseKeyPredicates(context.getKeyPredicates(), context.getJPAEntityAlias(), compileContext);
       Map<String, Map<Integer, Object>> parameterizedExpressionMap = 
           new HashMap<String, Map<Integer,Object>>();
       if (keyString != null) { 
-        parameterizedExpressionMap.put(keyString, 
-            ODataExpressionParser.getPositionalParametersThreadLocal());
+        parameterizedExpressionMap.put(keyString, compileContext.getPositionalParameters());
         ((JPQLSelectSingleContext)this.context).setParameterizedQueryMap(parameterizedExpressionMap);
       }
       jpqlQuery.append(keyString);
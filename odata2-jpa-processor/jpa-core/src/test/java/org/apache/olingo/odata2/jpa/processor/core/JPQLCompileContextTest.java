@@ -0,0 +1,127 @@
+/*******************************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ ******************************************************************************/
+package org.apache.olingo.odata2.jpa.processor.core;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.olingo.odata2.api.edm.Edm;
+import org.apache.olingo.odata2.api.edm.EdmEntitySet;
+import org.apache.olingo.odata2.api.ep.EntityProvider;
+import org.apache.olingo.odata2.api.uri.NavigationSegment;
+import org.apache.olingo.odata2.api.uri.UriParser;
+import org.apache.olingo.odata2.api.uri.expression.FilterExpression;
+import org.apache.olingo.odata2.api.uri.info.GetEntitySetUriInfo;
+import org.apache.olingo.odata2.jpa.processor.api.jpql.JPQLContext;
+import org.apache.olingo.odata2.jpa.processor.api.jpql.JPQLContextType;
+import org.apache.olingo.odata2.jpa.processor.api.jpql.JPQLStatement;
+import org.apache.olingo.odata2.jpa.processor.core.jpql.JPQLSelectContext;
+import org.easymock.EasyMock;
+import org.junit.Test;
+
+public class JPQLCompileContextTest {
+
+  private static final int QUERIES = 4000;
+  private static final int THREADS = 8;
+  private static final String STATEMENT =
+      "SELECT E1 FROM Note E1 WHERE ((E1.id LIKE ?1 ESCAPE '\\') AND (E1.soId > ?2))";
+
+  @Test
+  public void positionalParametersAreCollectedPerContext() throws Exception {
+    Edm edm = readEdm();
+    FilterExpression filter = UriParser.parseFilter(edm, edm.getEntityType("SalesOrderProcessing", "Note"),
+        "id eq 'A' and soId gt 1L");
+    JPQLCompileContext compileContext = new JPQLCompileContext();
+    assertEquals(1, compileContext.getNextIndex());
+    ODataExpressionParser.parseToJPAWhereExpression(filter, "E1", compileContext);
+
+    Map<Integer, Object> expected = new TreeMap<Integer, Object>();
+    expected.put(1, "A");
+    expected.put(2, 1L);
+    assertEquals(expected, compileContext.getPositionalParameters());
+    assertEquals(3, compileContext.getNextIndex());
+  }
+
+  @Test
+  public void filterQueriesAreBuiltInParallel() throws Exception {
+    Edm edm = readEdm();
+    final EdmEntitySet entitySet = edm.getDefaultEntityContainer().getEntitySet("Notes");
+    final List<FilterExpression> filters = new ArrayList<FilterExpression>(QUERIES);
+    for (int i = 0; i < QUERIES; i++) {
+      filters.add(UriParser.parseFilter(edm, entitySet.getEntityType(), "id eq 'N" + i + "' and soId gt " + i + "L"));
+    }
+
+    ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+    try {
+      List<Future<JPQLSelectContext>> results = new ArrayList<Future<JPQLSelectContext>>(QUERIES);
+      for (int i = 0; i < QUERIES; i++) {
+        final FilterExpression filter = filters.get(i);
+        results.add(executor.submit(new Callable<JPQLSelectContext>() {
+          @Override
+          public JPQLSelectContext call() throws Exception {
+            JPQLContext context = JPQLContext.createBuilder(JPQLContextType.SELECT, mockUriInfo(entitySet, filter))
+                .build();
+            JPQLStatement.createBuilder(context).build();
+            return (JPQLSelectContext) context;
+          }
+        }));
+      }
+
+      for (int i = 0; i < QUERIES; i++) {
+        JPQLSelectContext context = results.get(i).get();
+        assertEquals(STATEMENT, context.getJPQLStatement());
+        Map<Integer, Object> expected = new TreeMap<Integer, Object>();
+        expected.put(1, "N" + i);
+        expected.put(2, Long.valueOf(i));
+        assertEquals(expected, context.getParameterizedQueryMap().get(context.getWhereExpression()));
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private static Edm readEdm() throws Exception {
+    InputStream metadataStream = JPQLCompileContextTest.class.getClassLoader().getResourceAsStream("metadata.xml");
+    return EntityProvider.readMetadata(metadataStream, true);
+  }
+
+  private static GetEntitySetUriInfo mockUriInfo(final EdmEntitySet entitySet, final FilterExpression filter) {
+    GetEntitySetUriInfo uriInfo = EasyMock.createMock(GetEntitySetUriInfo.class);
+    EasyMock.expect(uriInfo.getTargetEntitySet()).andStubReturn(entitySet);
+    EasyMock.expect(uriInfo.getFilter()).andStubReturn(filter);
+    EasyMock.expect(uriInfo.getSelect()).andStubReturn(null);
+    EasyMock.expect(uriInfo.getExpand()).andStubReturn(null);
+    EasyMock.expect(uriInfo.getNavigationSegments()).andStubReturn(new ArrayList<NavigationSegment>());
+    EasyMock.expect(uriInfo.getOrderBy()).andStubReturn(null);
+    EasyMock.expect(uriInfo.getTop()).andStubReturn(null);
+    EasyMock.expect(uriInfo.getSkip()).andStubReturn(null);
+    EasyMock.expect(uriInfo.getSkipToken()).andStubReturn(null);
+    EasyMock.replay(uriInfo);
+    return uriInfo;
+  }
+}
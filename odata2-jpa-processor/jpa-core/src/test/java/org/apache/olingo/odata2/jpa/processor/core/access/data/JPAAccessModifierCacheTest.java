@@ -0,0 +1,69 @@
+/*******************************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ ******************************************************************************/
+package org.apache.olingo.odata2.jpa.processor.core.access.data;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.Method;
+
+import org.junit.Test;
+
+public class JPAAccessModifierCacheTest {
+
+  public static class Entity {
+    private String name;
+
+    public String getName() {
+      return name;
+    }
+
+    public void setName(final String name) {
+      this.name = name;
+    }
+  }
+
+  @Test
+  public void methodIsCachedAndAccessible() throws Exception {
+    Method getter = JPAAccessModifierCache.getMethod(Entity.class, "getName", (Class<?>[]) null);
+    assertSame(getter, JPAAccessModifierCache.getMethod(Entity.class, "getName"));
+    assertTrue(getter.isAccessible());
+
+    Method setter = JPAAccessModifierCache.getMethod(Entity.class, "setName", String.class);
+    Entity entity = new Entity();
+    setter.invoke(entity, "A");
+    assertEquals("A", getter.invoke(entity));
+  }
+
+  @Test
+  public void declaredMethod() throws Exception {
+    assertSame(JPAAccessModifierCache.getDeclaredMethod(Entity.class, "getName"),
+        JPAAccessModifierCache.getDeclaredMethod(Entity.class, "getName"));
+  }
+
+  @Test(expected = NoSuchMethodException.class)
+  public void missingMethod() throws Exception {
+    try {
+      JPAAccessModifierCache.getMethod(Entity.class, "setName", Integer.class);
+    } catch (NoSuchMethodException e) {
+      JPAAccessModifierCache.getMethod(Entity.class, "setName", Integer.class);
+    }
+  }
+}
@@ -0,0 +1,81 @@
+/*******************************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ ******************************************************************************/
+package org.apache.olingo.odata2.jpa.processor.core.access.data;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.apache.olingo.odata2.jpa.processor.core.ODataJPATransactionContainerManaged;
+import org.junit.After;
+import org.junit.Test;
+
+public class JPACountCacheTest {
+
+  private static final String ORDERS = "salesorderprocessing|SalesOrders|";
+  private static final String FILTERED_ORDERS = "salesorderprocessing|SalesOrders|SoId gt 2";
+  private static final String NOTES = "notes|Notes|";
+
+  @After
+  public void tearDown() {
+    JPACountCache.clear();
+  }
+
+  @Test
+  public void countIsCachedUntilExpiry() {
+    JPACountCache.put(ORDERS, 5L, 60000);
+    JPACountCache.put(FILTERED_ORDERS, 3L, -1);
+    assertEquals(Long.valueOf(5), JPACountCache.get(ORDERS));
+    assertNull(JPACountCache.get(FILTERED_ORDERS));
+  }
+
+  @Test
+  public void countsAreInvalidatedPerPersistenceUnit() {
+    JPACountCache.put(ORDERS, 5L, 60000);
+    JPACountCache.put(FILTERED_ORDERS, 3L, 60000);
+    JPACountCache.put(NOTES, 2L, 60000);
+    JPACountCache.invalidate("salesorderprocessing");
+    assertNull(JPACountCache.get(ORDERS));
+    assertNull(JPACountCache.get(FILTERED_ORDERS));
+    assertEquals(Long.valueOf(2), JPACountCache.get(NOTES));
+  }
+
+  @Test
+  public void entityListenerDropsAllCounts() {
+    JPACountCache.put(ORDERS, 5L, 60000);
+    JPACountCache.put(NOTES, 2L, 60000);
+    new JPACountCacheEntityListener().invalidateCounts(new Object());
+    assertTrue(JPACountCache.isEmpty());
+  }
+
+  @Test
+  public void countsAreInvalidatedWhenTransactionEnds() {
+    JPACountCacheTransaction transaction = new JPACountCacheTransaction(new ODataJPATransactionContainerManaged());
+    transaction.invalidateCountsOnCompletion("salesorderprocessing");
+    JPACountCache.put(ORDERS, 5L, 60000);
+    JPACountCache.put(NOTES, 2L, 60000);
+    transaction.commit();
+    assertNull(JPACountCache.get(ORDERS));
+    assertEquals(Long.valueOf(2), JPACountCache.get(NOTES));
+
+    JPACountCache.put(ORDERS, 5L, 60000);
+    transaction.commit();
+    assertEquals(Long.valueOf(5), JPACountCache.get(ORDERS));
+  }
+}
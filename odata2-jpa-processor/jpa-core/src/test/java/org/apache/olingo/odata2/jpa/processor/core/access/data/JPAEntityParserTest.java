@@ -26,6 +26,7 @@ import static org.junit.Assert.fail;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -113,6 +114,33 @@ public class JPAEntityParserTest {
 
   }
 
+  @Test
+  public void getterIsResolvedOncePerEntityType() throws Exception {
+    JPAEntityParser resultParser = new JPAEntityParser();
+    EdmProperty property = EasyMock.createMock(EdmProperty.class);
+    EdmType edmType = EasyMock.createMock(EdmType.class);
+    JPAEdmMappingImpl edmMapping = EasyMock.createMock(JPAEdmMappingImpl.class);
+    EasyMock.expect(edmType.getKind()).andReturn(EdmTypeKind.SIMPLE).once();
+    EasyMock.replay(edmType);
+    EasyMock.expect(edmMapping.getInternalName()).andStubReturn("id");
+    EasyMock.expect(edmMapping.isVirtualAccess()).andStubReturn(false);
+    EasyMock.replay(edmMapping);
+    EasyMock.expect(property.getName()).andStubReturn("identifier");
+    EasyMock.expect(property.getType()).andStubReturn(edmType);
+    EasyMock.expect(property.getMapping()).andStubReturn(edmMapping);
+    EasyMock.replay(property);
+
+    List<Object> jpaEntities = new ArrayList<Object>();
+    jpaEntities.add(new demoItem("abc", 10));
+    jpaEntities.add(new demoItem("def", 20));
+    List<Map<String, Object>> result =
+        resultParser.parse2EdmEntityList(jpaEntities, Collections.singletonList(property));
+
+    assertEquals("abc", result.get(0).get("identifier"));
+    assertEquals("def", result.get(1).get("identifier"));
+    EasyMock.verify(edmType);
+  }
+
   @Test
   public void testparse2EdmPropertyValueMapEdmExcep() {
     JPAEntityParser resultParser = new JPAEntityParser();
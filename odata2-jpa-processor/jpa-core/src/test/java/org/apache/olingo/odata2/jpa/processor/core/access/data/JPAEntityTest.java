@@ -21,16 +21,22 @@ package org.apache.olingo.odata2.jpa.processor.core.access.data;
 import static org.hamcrest.CoreMatchers.is;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import static org.junit.matchers.JUnitMatchers.either;
 
 import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.HashMap;
 
 import org.apache.olingo.odata2.api.edm.EdmEntitySet;
 import org.apache.olingo.odata2.api.edm.EdmEntityType;
 import org.apache.olingo.odata2.api.edm.EdmException;
+import org.apache.olingo.odata2.api.edm.EdmNavigationProperty;
+import org.apache.olingo.odata2.api.ep.entry.EntryMetadata;
+import org.apache.olingo.odata2.api.ep.entry.ODataEntry;
 import org.apache.olingo.odata2.api.exception.ODataException;
 import org.apache.olingo.odata2.api.processor.ODataContext;
 import org.apache.olingo.odata2.jpa.processor.api.ODataJPAContext;
@@ -46,6 +52,7 @@ import org.apache.olingo.odata2.jpa.processor.core.mock.data.JPATypeMock.JPARela
 import org.apache.olingo.odata2.jpa.processor.core.mock.data.JPATypeMock.JPATypeEmbeddableMock;
 import org.apache.olingo.odata2.jpa.processor.core.mock.data.JPATypeMock.JPATypeEmbeddableMock2;
 import org.apache.olingo.odata2.jpa.processor.core.mock.data.ODataEntryMockUtil;
+import org.easymock.EasyMock;
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -166,6 +173,52 @@ public class JPAEntityTest {
     assertEquals(relatedType.getMLong(), ODataEntryMockUtil.VALUE_MLONG);
   }
 
+  @Test
+  public void testCreateODataEntryWithInlineEntryCreatedWhileReading() throws Exception {
+    EdmEntitySet edmEntitySet = EdmMockUtilV2.mockEdmEntitySet(JPATypeMock.ENTITY_NAME, false);
+    EdmEntityType edmEntityType = edmEntitySet.getEntityType();
+    EdmNavigationProperty navigationProperty =
+        (EdmNavigationProperty) edmEntityType.getProperty(JPATypeMock.NAVIGATION_PROPERTY_X);
+
+    jpaEntity = new JPAEntity(edmEntityType, edmEntitySet, mockODataJPAContext());
+    jpaEntity.createInlineEntry(navigationProperty, ODataEntryMockUtil.mockODataEntry(JPARelatedTypeMock.ENTITY_NAME));
+    JPATypeMock jpaTypeMock = (JPATypeMock) jpaEntity.getJPAEntity();
+    jpaEntity.create(ODataEntryMockUtil.mockODataEntry(JPATypeMock.ENTITY_NAME));
+
+    // the JPA entity the inline entry was linked to is completed with the enclosing entry
+    assertSame(jpaTypeMock, jpaEntity.getJPAEntity());
+    assertEquals(ODataEntryMockUtil.VALUE_MINT, jpaTypeMock.getMInt());
+    JPARelatedTypeMock relatedType = jpaTypeMock.getMRelatedEntity();
+    assertNotNull(relatedType);
+    assertEquals(ODataEntryMockUtil.VALUE_MLONG, relatedType.getMLong());
+  }
+
+  @Test
+  public void testCreateODataEntryWithOnlyInlineEntriesCreatedWhileReading() throws Exception {
+    EdmEntitySet edmEntitySet = EdmMockUtilV2.mockEdmEntitySet(JPATypeMock.ENTITY_NAME, false);
+    EdmEntityType edmEntityType = edmEntitySet.getEntityType();
+    EdmNavigationProperty navigationProperty =
+        (EdmNavigationProperty) edmEntityType.getProperty(JPATypeMock.NAVIGATION_PROPERTY_X);
+    EntryMetadata entryMetadata = EasyMock.createMock(EntryMetadata.class);
+    EasyMock.expect(entryMetadata.getAssociationUris(EasyMock.isA(String.class)))
+        .andStubReturn(new ArrayList<String>());
+    EasyMock.replay(entryMetadata);
+    ODataEntry oDataEntry = EasyMock.createMock(ODataEntry.class);
+    EasyMock.expect(oDataEntry.getProperties()).andStubReturn(new HashMap<String, Object>());
+    EasyMock.expect(oDataEntry.containsInlineEntry()).andStubReturn(false);
+    EasyMock.expect(oDataEntry.getMetadata()).andStubReturn(entryMetadata);
+    EasyMock.replay(oDataEntry);
+
+    jpaEntity = new JPAEntity(edmEntityType, edmEntitySet, mockODataJPAContext());
+    jpaEntity.createInlineEntry(navigationProperty, ODataEntryMockUtil.mockODataEntry(JPARelatedTypeMock.ENTITY_NAME));
+    jpaEntity.create(oDataEntry);
+
+    // the inline feed was the only content of the enclosing entry
+    JPARelatedTypeMock relatedType = ((JPATypeMock) jpaEntity.getJPAEntity()).getMRelatedEntity();
+    assertNotNull(relatedType);
+    assertEquals(ODataEntryMockUtil.VALUE_MLONG, relatedType.getMLong());
+  }
+
   @Test
   public void testCreateODataEntryProperty() {
     try {
@@ -0,0 +1,73 @@
+/*******************************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ ******************************************************************************/
+package org.apache.olingo.odata2.jpa.processor.core.access.data;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import javax.sql.rowset.serial.SerialBlob;
+import javax.sql.rowset.serial.SerialClob;
+
+import org.junit.Test;
+
+public class JPALobInputStreamTest {
+
+  @Test
+  public void blobIsPassedThrough() throws Exception {
+    byte[] content = new byte[3 * JPALobInputStream.BUFFER_SIZE + 17];
+    for (int i = 0; i < content.length; i++) {
+      content[i] = (byte) i;
+    }
+    InputStream stream = new JPALobInputStream(new SerialBlob(content));
+    assertArrayEquals(content, readAll(stream, 1000));
+  }
+
+  @Test
+  public void clobIsEncodedAsUtf8() throws Exception {
+    StringBuilder builder = new StringBuilder();
+    while (builder.length() < 3 * JPALobInputStream.BUFFER_SIZE) {
+      builder.append("Stra\u00dfe \u20ac \ud83d\ude00 ");
+    }
+    String content = builder.toString();
+    InputStream stream = new JPALobInputStream(new SerialClob(content.toCharArray()));
+    assertArrayEquals(content.getBytes("UTF-8"), readAll(stream, 7));
+  }
+
+  @Test
+  public void emptyClob() throws Exception {
+    InputStream stream = new JPALobInputStream(new SerialClob(new char[0]));
+    assertEquals(-1, stream.read());
+    stream.close();
+  }
+
+  private static byte[] readAll(final InputStream stream, final int chunkSize) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    byte[] buffer = new byte[chunkSize];
+    int read;
+    while ((read = stream.read(buffer)) != -1) {
+      out.write(buffer, 0, read);
+    }
+    stream.close();
+    return out.toByteArray();
+  }
+}
@@ -20,6 +20,7 @@ package org.apache.olingo.odata2.jpa.processor.core.access.data;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.fail;
 
 import java.util.ArrayList;
@@ -135,6 +136,23 @@ public class JPAPageBuilderTest {
     fail("Exception Expected");
   }
 
+  @Test
+  public void testBuildWithKeysetSkipToken() {
+    JPAPageBuilder pageBuilder = new JPAPageBuilder();
+    Query query = mockQuery(false);
+
+    JPAPage page = pageBuilder.query(query)
+        .pageSize(PAGE_SIZE)
+        .keysetPaging(true)
+        .skipToken("key:'AB',10L")
+        .build();
+
+    assertEquals(0, page.getStartPage());
+    assertNull(page.getNextSkipToken());
+    assertEquals(0, query.getFirstResult());
+    assertEquals(10, query.getMaxResults());
+  }
+
   @Test
   public void testBuildWithTop() {
     JPAPageBuilder pageBuilder = new JPAPageBuilder();
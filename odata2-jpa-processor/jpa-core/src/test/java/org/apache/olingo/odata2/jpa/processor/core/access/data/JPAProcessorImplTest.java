@@ -28,6 +28,8 @@ import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.Set;
 
 import javax.persistence.EntityManager;
@@ -76,6 +78,7 @@ import org.apache.olingo.odata2.jpa.processor.api.ODataJPAContext;
 import org.apache.olingo.odata2.jpa.processor.api.ODataJPAQueryExtensionEntityListener;
 import org.apache.olingo.odata2.jpa.processor.api.ODataJPATombstoneEntityListener;
 import org.apache.olingo.odata2.jpa.processor.api.ODataJPATransaction;
+import org.apache.olingo.odata2.jpa.processor.api.ODataJPATuningContext;
 import org.apache.olingo.odata2.jpa.processor.api.access.JPAPaging;
 import org.apache.olingo.odata2.jpa.processor.api.exception.ODataJPAModelException;
 import org.apache.olingo.odata2.jpa.processor.api.exception.ODataJPARuntimeException;
@@ -151,6 +154,28 @@ public class JPAProcessorImplTest {
     }
   }
   
+  @Test
+  public void testProcessGetEntitySetLinksUriInfoWithInlineCountExecutor() throws Exception {
+    EntityManager countEntityManager = EasyMock.createMock(EntityManager.class);
+    EasyMock.expect(countEntityManager.createQuery("SELECT COUNT ( E1 ) FROM SalesOrderHeaders E1")).andReturn(
+        getQueryForSelectCount());
+    countEntityManager.close();
+    EasyMock.replay(countEntityManager);
+    EntityManagerFactory emf = EasyMock.createMock(EntityManagerFactory.class);
+    EasyMock.expect(emf.getMetamodel()).andStubReturn(mockMetaModel());
+    EasyMock.expect(emf.createEntityManager()).andReturn(countEntityManager);
+    EasyMock.replay(emf);
+
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      objJPAProcessorImpl = new JPAProcessorImpl(getLocalmockODataJPAContext(emf, executor));
+      Assert.assertNotNull(objJPAProcessorImpl.process(getEntitySetLinksUriInfo()));
+    } finally {
+      executor.shutdown();
+    }
+    EasyMock.verify(countEntityManager, emf);
+  }
+
   @Test
   public void testProcessGetEntityLinkUriInfo() {
     try {
@@ -256,12 +281,13 @@ public class JPAProcessorImplTest {
     EasyMock.expect(objUriInfo.getOrderBy()).andStubReturn(getOrderByExpression());
     EasyMock.expect(objUriInfo.getTop()).andStubReturn(getTop());
     EasyMock.expect(objUriInfo.getSkip()).andStubReturn(getSkip());
-    EasyMock.expect(objUriInfo.getSkipToken()).andReturn("5");
+    EasyMock.expect(objUriInfo.getSkipToken()).andReturn("5").anyTimes();
     EasyMock.expect(objUriInfo.getInlineCount()).andStubReturn(getInlineCount());
     EasyMock.expect(objUriInfo.getFilter()).andStubReturn(getFilter());
     EasyMock.expect(objUriInfo.getFunctionImport()).andStubReturn(null);
     EasyMock.expect(objUriInfo.getCustomQueryOptions()).andStubReturn(null);
     EasyMock.expect(objUriInfo.getNavigationSegments()).andStubReturn(new ArrayList<NavigationSegment>());
+    EasyMock.expect(objUriInfo.getExpand()).andStubReturn(null);
     EasyMock.replay(objUriInfo);
     return objUriInfo;
   }
@@ -281,6 +307,7 @@ public class JPAProcessorImplTest {
     EasyMock.expect(objUriInfo.getFunctionImport()).andStubReturn(null);
     EasyMock.expect(objUriInfo.getCustomQueryOptions()).andStubReturn(null);
     EasyMock.expect(objUriInfo.getNavigationSegments()).andStubReturn(new ArrayList<NavigationSegment>());
+    EasyMock.expect(objUriInfo.getExpand()).andStubReturn(null);
     EasyMock.replay(objUriInfo);
     return objUriInfo;
   }
@@ -294,13 +321,14 @@ public class JPAProcessorImplTest {
     EasyMock.expect(objUriInfo.getOrderBy()).andStubReturn(getOrderByExpression());
     EasyMock.expect(objUriInfo.getTop()).andStubReturn(2);
     EasyMock.expect(objUriInfo.getSkip()).andStubReturn(1);
-    EasyMock.expect(objUriInfo.getSkipToken()).andReturn("5");
+    EasyMock.expect(objUriInfo.getSkipToken()).andReturn("5").anyTimes();
     EasyMock.expect(objUriInfo.getInlineCount()).andStubReturn(InlineCount.ALLPAGES);
     EasyMock.expect(objUriInfo.getFilter()).andStubReturn(getFilter());
     EasyMock.expect(objUriInfo.getFunctionImport()).andStubReturn(null);
     EasyMock.expect(objUriInfo.isCount()).andStubReturn(false);
     EasyMock.expect(objUriInfo.getCustomQueryOptions()).andStubReturn(null);
     EasyMock.expect(objUriInfo.getNavigationSegments()).andStubReturn(new ArrayList<NavigationSegment>());
+    EasyMock.expect(objUriInfo.getExpand()).andStubReturn(null);
     objUriInfo.setCount(true);
     EasyMock.expectLastCall().times(1);
     objUriInfo.setCount(false);
@@ -420,13 +448,22 @@ public class JPAProcessorImplTest {
   }
 
   private ODataJPAContext getLocalmockODataJPAContext() {
-    ODataJPAContext odataJPAContext = EasyMock.createMock(ODataJPAContext.class);
+    return getLocalmockODataJPAContext(mockEntityManagerFactory(), null);
+  }
+
+  private ODataJPAContext getLocalmockODataJPAContext(final EntityManagerFactory emf,
+      final ExecutorService inlineCountExecutor) {
+    ODataJPATuningContext odataJPAContext = EasyMock.createMock(ODataJPATuningContext.class);
     EasyMock.expect(odataJPAContext.getPersistenceUnitName()).andStubReturn("salesorderprocessing");
-    EasyMock.expect(odataJPAContext.getEntityManagerFactory()).andStubReturn(mockEntityManagerFactory());
+    EasyMock.expect(odataJPAContext.getEntityManagerFactory()).andStubReturn(emf);
     EasyMock.expect(odataJPAContext.getODataJPATransaction()).andStubReturn(getLocalJpaTransaction());
     EasyMock.expect(odataJPAContext.getODataContext()).andStubReturn(getLocalODataContext());
     EasyMock.expect(odataJPAContext.getEntityManager()).andStubReturn(getLocalEntityManager());
     EasyMock.expect(odataJPAContext.getPageSize()).andReturn(10).anyTimes();
+    EasyMock.expect(odataJPAContext.isKeysetPaging()).andReturn(false).anyTimes();
+    EasyMock.expect(odataJPAContext.isStreaming()).andStubReturn(false);
+    EasyMock.expect(odataJPAContext.getInlineCountExecutor()).andStubReturn(inlineCountExecutor);
+    EasyMock.expect(odataJPAContext.getCountCacheTimeToLive()).andStubReturn(0L);
     odataJPAContext.setPaging(EasyMock.isA(JPAPaging.class));
     EasyMock.expectLastCall();
     EasyMock.replay(odataJPAContext);
@@ -792,7 +829,7 @@ public class JPAProcessorImplTest {
     EasyMock.expect(objUriInfo.getOrderBy()).andStubReturn(getOrderByExpression());
     EasyMock.expect(objUriInfo.getTop()).andStubReturn(1);
     EasyMock.expect(objUriInfo.getSkip()).andStubReturn(1);
-    EasyMock.expect(objUriInfo.getSkipToken()).andReturn("5");
+    EasyMock.expect(objUriInfo.getSkipToken()).andReturn("5").anyTimes();
     EasyMock.expect(objUriInfo.getFilter()).andStubReturn(getFilter());
     EasyMock.expect(objUriInfo.getFunctionImport()).andStubReturn(null);
     Map<String, String> delta = new HashMap<String, String>();
@@ -24,14 +24,22 @@ import static org.junit.Assert.fail;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 
 import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.PersistenceUnitUtil;
 import javax.persistence.Query;
+import javax.persistence.metamodel.Attribute;
+import javax.persistence.metamodel.EntityType;
+import javax.persistence.metamodel.Metamodel;
+import javax.persistence.metamodel.SingularAttribute;
 
 import org.apache.olingo.odata2.api.commons.InlineCount;
 import org.apache.olingo.odata2.api.edm.EdmAssociation;
@@ -47,6 +55,7 @@ import org.apache.olingo.odata2.api.edm.EdmSimpleTypeKind;
 import org.apache.olingo.odata2.api.exception.ODataException;
 import org.apache.olingo.odata2.api.processor.ODataContext;
 import org.apache.olingo.odata2.api.uri.KeyPredicate;
+import org.apache.olingo.odata2.api.uri.NavigationPropertySegment;
 import org.apache.olingo.odata2.api.uri.NavigationSegment;
 import org.apache.olingo.odata2.api.uri.UriInfo;
 import org.apache.olingo.odata2.api.uri.expression.BinaryExpression;
@@ -77,7 +86,9 @@ import org.apache.olingo.odata2.jpa.processor.core.access.data.JPAQueryBuilder.U
 import org.apache.olingo.odata2.jpa.processor.core.common.ODataJPATestConstants;
 import org.apache.olingo.odata2.jpa.processor.core.mock.ODataContextMock;
 import org.apache.olingo.odata2.jpa.processor.core.mock.ODataJPAContextMock;
+import org.apache.olingo.odata2.jpa.processor.core.mock.data.SalesOrderHeader;
 import org.apache.olingo.odata2.jpa.processor.core.model.JPAEdmMappingImpl;
+import org.easymock.Capture;
 import org.easymock.EasyMock;
 import org.junit.Before;
 import org.junit.Test;
@@ -155,6 +166,7 @@ public class JPAQueryBuilderTest {
     EdmEntitySet edmEntitySet = EasyMock.createMock(EdmEntitySet.class);
     EasyMock.expect(edmEntitySet.getEntityType()).andStubReturn(edmEntityType);
     EasyMock.expect(uriInfo.getTargetEntitySet()).andStubReturn(edmEntitySet);
+    EasyMock.expect(uriInfo.getSelect()).andStubReturn(null);
     List<KeyPredicate> keyPreds = new ArrayList<KeyPredicate>();
     
     EdmProperty edmProperty1 = mockEdmProperty(mapping, "Decimal");
@@ -571,6 +583,111 @@ public class JPAQueryBuilderTest {
   }
   
   @SuppressWarnings("unchecked")
+  @Test
+  public void buildExpandFetchStatement() {
+    assertEquals("SELECT DISTINCT E1 FROM SalesOrderHeader E1 LEFT OUTER JOIN FETCH E1.salesOrderLineItems "
+        + "WHERE E1.id IN :keys",
+        JPAQueryBuilder.buildExpandFetchStatement("SalesOrderHeader", "salesOrderLineItems", "id"));
+  }
+
+  @Test
+  public void fetchExpandUsesOneQueryPerNavigation() throws Exception {
+    List<Object> entities = new ArrayList<Object>();
+    for (int i = 0; i <= JPAQueryBuilder.EXPAND_FETCH_BATCH_SIZE; i++) {
+      entities.add(new SalesOrderHeader(i, "Order " + i));
+    }
+
+    Query query = EasyMock.createMock(Query.class);
+    EasyMock.expect(query.setParameter(EasyMock.eq("keys"), EasyMock.anyObject())).andReturn(query).times(2);
+    EasyMock.expect(query.getResultList()).andReturn(new ArrayList<Object>()).times(2);
+    Capture<String> statement = new Capture<String>();
+    EntityManager em = mockEntityManagerForExpand(entities, query, statement);
+    ODataJPAContext odataJPAContext = EasyMock.createMock(ODataJPAContext.class);
+    EasyMock.expect(odataJPAContext.getEntityManager()).andStubReturn(em);
+    EasyMock.expect(odataJPAContext.getPageSize()).andStubReturn(0);
+    EasyMock.replay(query, odataJPAContext);
+
+    // the same navigation appears in two expand paths but is fetched once
+    List<ArrayList<NavigationPropertySegment>> expandList = new ArrayList<ArrayList<NavigationPropertySegment>>();
+    expandList.add(new ArrayList<NavigationPropertySegment>(Arrays.asList(mockExpandSegment())));
+    expandList.add(new ArrayList<NavigationPropertySegment>(Arrays.asList(mockExpandSegment())));
+    new JPAQueryBuilder(odataJPAContext).fetchExpand(entities, expandList);
+
+    assertEquals(JPAQueryBuilder.buildExpandFetchStatement("SalesOrderHeader", "salesOrderLineItems", "id"),
+        statement.getValue());
+    EasyMock.verify(query, em);
+  }
+
+  @Test
+  public void fetchExpandWithoutExpand() throws Exception {
+    List<Object> entities = new ArrayList<Object>();
+    entities.add(new SalesOrderHeader(1, "Order"));
+    builder.fetchExpand(entities, null);
+    builder.fetchExpand(entities, new ArrayList<ArrayList<NavigationPropertySegment>>());
+  }
+
+  @SuppressWarnings({ "unchecked", "rawtypes" })
+  private EntityManager mockEntityManagerForExpand(final List<Object> entities, final Query query,
+      final Capture<String> statement) {
+    SingularAttribute idAttribute = EasyMock.createMock(SingularAttribute.class);
+    EasyMock.expect(idAttribute.isId()).andStubReturn(true);
+    EasyMock.expect(idAttribute.getPersistentAttributeType()).andStubReturn(
+        Attribute.PersistentAttributeType.BASIC);
+    EasyMock.expect(idAttribute.getName()).andStubReturn("id");
+    EntityType entityType = EasyMock.createMock(EntityType.class);
+    EasyMock.expect(entityType.getName()).andStubReturn("SalesOrderHeader");
+    EasyMock.expect(entityType.hasSingleIdAttribute()).andStubReturn(true);
+    EasyMock.expect(entityType.getSingularAttributes()).andStubReturn((Set) Collections.singleton(idAttribute));
+    Metamodel metamodel = EasyMock.createMock(Metamodel.class);
+    EasyMock.expect(metamodel.getEntities()).andStubReturn((Set) Collections.singleton(entityType));
+
+    PersistenceUnitUtil persistenceUnitUtil = EasyMock.createMock(PersistenceUnitUtil.class);
+    for (Object entity : entities) {
+      EasyMock.expect(persistenceUnitUtil.getIdentifier(entity)).andStubReturn(((SalesOrderHeader) entity).getId());
+    }
+    EntityManagerFactory emf = EasyMock.createMock(EntityManagerFactory.class);
+    EasyMock.expect(emf.getPersistenceUnitUtil()).andStubReturn(persistenceUnitUtil);
+
+    EntityManager em = EasyMock.createMock(EntityManager.class);
+    EasyMock.expect(em.getMetamodel()).andStubReturn(metamodel);
+    EasyMock.expect(em.getEntityManagerFactory()).andStubReturn(emf);
+    EasyMock.expect(em.createQuery(EasyMock.capture(statement))).andReturn(query).once();
+    EasyMock.replay(idAttribute, entityType, metamodel, persistenceUnitUtil, emf, em);
+    return em;
+  }
+
+  private NavigationPropertySegment mockExpandSegment() throws EdmException {
+    EdmEntityType entityType = EasyMock.createMock(EdmEntityType.class);
+    EasyMock.expect(entityType.getMapping()).andStubReturn((EdmMapping) mockExpandEntityMapping());
+    EasyMock.expect(entityType.getName()).andStubReturn("SalesOrder");
+    EdmAssociationEnd associationEnd = EasyMock.createMock(EdmAssociationEnd.class);
+    EasyMock.expect(associationEnd.getEntityType()).andStubReturn(entityType);
+    EdmAssociation association = EasyMock.createMock(EdmAssociation.class);
+    EasyMock.expect(association.getEnd("SalesOrder")).andStubReturn(associationEnd);
+
+    EdmNavigationProperty navigationProperty = EasyMock.createMock(EdmNavigationProperty.class);
+    EasyMock.expect(navigationProperty.getName()).andStubReturn("SalesOrderLineItemDetails");
+    EasyMock.expect(navigationProperty.getFromRole()).andStubReturn("SalesOrder");
+    EasyMock.expect(navigationProperty.getRelationship()).andStubReturn(association);
+    EasyMock.expect(navigationProperty.getMapping()).andStubReturn((EdmMapping) mockExpandNavigationMapping());
+    NavigationPropertySegment segment = EasyMock.createMock(NavigationPropertySegment.class);
+    EasyMock.expect(segment.getNavigationProperty()).andStubReturn(navigationProperty);
+    EasyMock.replay(entityType, associationEnd, association, navigationProperty, segment);
+    return segment;
+  }
+
+  private JPAEdmMapping mockExpandEntityMapping() {
+    JPAEdmMappingImpl mockedEdmMapping = new JPAEdmMappingImpl();
+    mockedEdmMapping.setInternalName("SalesOrderHeader");
+    return mockedEdmMapping;
+  }
+
+  private JPAEdmMapping mockExpandNavigationMapping() {
+    JPAEdmMappingImpl mockedEdmMapping = new JPAEdmMappingImpl();
+    mockedEdmMapping.setInternalName("salesOrderLineItems");
+    return mockedEdmMapping;
+  }
+
   private GetEntityUriInfo mockURIInfoWithTopSkip(EdmMapping mapping) throws EdmException {
     UriInfo uriInfo = EasyMock.createMock(UriInfo.class);
     List<NavigationSegment> navSegments = new ArrayList<NavigationSegment>();
@@ -580,6 +697,7 @@ public class JPAQueryBuilderTest {
     EdmEntitySet edmEntitySet = EasyMock.createMock(EdmEntitySet.class);
     EasyMock.expect(edmEntitySet.getEntityType()).andStubReturn(edmEntityType);
     EasyMock.expect(uriInfo.getTargetEntitySet()).andStubReturn(edmEntitySet);
+    EasyMock.expect(uriInfo.getSelect()).andStubReturn(null);
     List<KeyPredicate> keyPreds = EasyMock.createMock(ArrayList.class);
     EasyMock.expect(uriInfo.getKeyPredicates()).andStubReturn(keyPreds); 
     EasyMock.expect(uriInfo.getOrderBy()).andStubReturn(null);
@@ -603,6 +721,7 @@ public class JPAQueryBuilderTest {
     EdmEntitySet edmEntitySet = EasyMock.createMock(EdmEntitySet.class);
     EasyMock.expect(edmEntitySet.getEntityType()).andStubReturn(edmEntityType);
     EasyMock.expect(uriInfo.getTargetEntitySet()).andStubReturn(edmEntitySet);
+    EasyMock.expect(uriInfo.getSelect()).andStubReturn(null);
     List<KeyPredicate> keyPreds = EasyMock.createMock(ArrayList.class);
     EasyMock.expect(uriInfo.getKeyPredicates()).andStubReturn(keyPreds); 
     EasyMock.expect(uriInfo.getOrderBy()).andStubReturn(null);
@@ -635,6 +754,7 @@ public class JPAQueryBuilderTest {
     EdmEntitySet edmEntitySet = EasyMock.createMock(EdmEntitySet.class);
     EasyMock.expect(edmEntitySet.getEntityType()).andStubReturn(edmEntityType);
     EasyMock.expect(uriInfo.getTargetEntitySet()).andStubReturn(edmEntitySet);
+    EasyMock.expect(uriInfo.getSelect()).andStubReturn(null);
     EasyMock.expect(uriInfo.getNavigationSegments()).andReturn(null);
     EasyMock.expect(uriInfo.getKeyPredicates()).andStubReturn(null);
     EasyMock.expect(uriInfo.getStartEntitySet()).andStubReturn(edmEntitySet);
@@ -671,6 +791,7 @@ public class JPAQueryBuilderTest {
     EdmEntitySet edmEntitySet = EasyMock.createMock(EdmEntitySet.class);
     EasyMock.expect(edmEntitySet.getEntityType()).andStubReturn(edmEntityType);
     EasyMock.expect(uriInfo.getTargetEntitySet()).andStubReturn(edmEntitySet);
+    EasyMock.expect(uriInfo.getSelect()).andStubReturn(null);
     EasyMock.expect(uriInfo.getNavigationSegments()).andReturn(null);
     EasyMock.expect(uriInfo.getKeyPredicates()).andStubReturn(null);
     EasyMock.expect(uriInfo.getStartEntitySet()).andStubReturn(edmEntitySet);
@@ -699,6 +820,7 @@ public class JPAQueryBuilderTest {
     EdmEntitySet targetEntitySet = EasyMock.createMock(EdmEntitySet.class);
     EasyMock.expect(targetEntitySet.getEntityType()).andStubReturn(targetEntityType);
     EasyMock.expect(uriInfo.getTargetEntitySet()).andStubReturn(targetEntitySet);
+    EasyMock.expect(uriInfo.getSelect()).andStubReturn(null);
     
     List<KeyPredicate> keyPreds = new ArrayList<KeyPredicate>();
     EdmProperty edmProperty = mockEdmProperty((EdmMapping) mockMappingWithType("uuid"), "uuid");
@@ -768,6 +890,7 @@ public class JPAQueryBuilderTest {
     EdmEntitySet edmEntitySet = EasyMock.createMock(EdmEntitySet.class);
     EasyMock.expect(edmEntitySet.getEntityType()).andStubReturn(edmEntityType);
     EasyMock.expect(uriInfo.getTargetEntitySet()).andStubReturn(edmEntitySet);
+    EasyMock.expect(uriInfo.getSelect()).andStubReturn(null);
     List<KeyPredicate> keyPreds =EasyMock.createMock(ArrayList.class);
     EdmProperty edmProperty = EasyMock.createMock(EdmProperty.class);
     EasyMock.expect(edmProperty.getMapping()).andStubReturn(mapping);
@@ -797,6 +920,7 @@ public class JPAQueryBuilderTest {
     EdmEntitySet edmEntitySet = EasyMock.createMock(EdmEntitySet.class);
     EasyMock.expect(edmEntitySet.getEntityType()).andStubReturn(edmEntityType);
     EasyMock.expect(uriInfo.getTargetEntitySet()).andStubReturn(edmEntitySet);
+    EasyMock.expect(uriInfo.getSelect()).andStubReturn(null);
     
     List<KeyPredicate> keyPreds = new ArrayList<KeyPredicate>();
     EdmProperty edmProperty1 = mockEdmProperty(mapping, "DateTime");
@@ -866,6 +990,7 @@ public class JPAQueryBuilderTest {
     EasyMock.expect(edmEntitySet.getEntityType()).andStubReturn(edmEntityType);
     EasyMock.expect(uriInfo.getStartEntitySet()).andStubReturn(edmEntitySet);
     EasyMock.expect(uriInfo.getTargetEntitySet()).andStubReturn(navEntitySet);
+    EasyMock.expect(uriInfo.getSelect()).andStubReturn(null);
     EasyMock.expect(navEntitySet.getEntityType()).andStubReturn(navEntityType);
     EasyMock.expect(navEntityType.getMapping()).andStubReturn((EdmMapping) mockNavEdmMappingForProperty());
     List<KeyPredicate> keyPreds = new ArrayList<KeyPredicate>();
@@ -904,6 +1029,7 @@ public class JPAQueryBuilderTest {
     EdmEntitySet edmEntitySet = EasyMock.createMock(EdmEntitySet.class);
     EasyMock.expect(edmEntitySet.getEntityType()).andStubReturn(edmEntityType);
     EasyMock.expect(uriInfo.getTargetEntitySet()).andStubReturn(edmEntitySet);
+    EasyMock.expect(uriInfo.getSelect()).andStubReturn(null);
     List<KeyPredicate> keyPreds =EasyMock.createMock(ArrayList.class);
     EasyMock.expect(uriInfo.getKeyPredicates()).andStubReturn(keyPreds); 
     OrderByExpression orderbyExpression = mockOrderByExpressions(uriInfo);
@@ -924,6 +1050,7 @@ public class JPAQueryBuilderTest {
     EdmEntitySet edmEntitySet = EasyMock.createMock(EdmEntitySet.class);
     EasyMock.expect(edmEntitySet.getEntityType()).andStubReturn(edmEntityType);
     EasyMock.expect(uriInfo.getTargetEntitySet()).andStubReturn(edmEntitySet);
+    EasyMock.expect(uriInfo.getSelect()).andStubReturn(null);
     EdmProperty edmProperty = EasyMock.createMock(EdmProperty.class);
     EasyMock.expect(edmProperty.getMapping()).andStubReturn((EdmMapping)mockEdmMappingForProperty());
     
@@ -1019,6 +1146,7 @@ public class JPAQueryBuilderTest {
     EdmEntitySet edmEntitySet = EasyMock.createMock(EdmEntitySet.class);
     EasyMock.expect(edmEntitySet.getEntityType()).andStubReturn(edmEntityType);
     EasyMock.expect(uriInfo.getTargetEntitySet()).andStubReturn(edmEntitySet);
+    EasyMock.expect(uriInfo.getSelect()).andStubReturn(null);
     EdmProperty edmProperty = EasyMock.createMock(EdmProperty.class);
     EasyMock.expect(edmProperty.getMapping()).andStubReturn((EdmMapping)mockEdmMappingForProperty());
     OrderByExpression orderbyExpression = EasyMock.createMock(OrderByExpression.class);
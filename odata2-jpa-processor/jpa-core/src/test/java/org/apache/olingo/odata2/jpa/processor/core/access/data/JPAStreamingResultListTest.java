@@ -0,0 +1,136 @@
+/*******************************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ ******************************************************************************/
+package org.apache.olingo.odata2.jpa.processor.core.access.data;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Query;
+
+import org.apache.olingo.odata2.api.edm.EdmProperty;
+import org.easymock.EasyMock;
+import org.junit.Test;
+
+public class JPAStreamingResultListTest {
+
+  private static final int ENTITIES = 2 * JPAStreamingResultList.CHUNK_SIZE + 1;
+
+  @Test
+  public void streamedInChunksWithPersistenceContextCleared() throws Exception {
+    final List<Object> entities = createEntities();
+    final Map<Object, Query> seekQueries = new IdentityHashMap<Object, Query>();
+    Query query = null;
+    for (int position = 0; position < ENTITIES; position += JPAStreamingResultList.CHUNK_SIZE) {
+      Query chunkQuery = EasyMock.createMock(Query.class);
+      EasyMock.expect(chunkQuery.setMaxResults(JPAStreamingResultList.CHUNK_SIZE)).andReturn(chunkQuery);
+      EasyMock.expect(chunkQuery.getResultList()).andReturn(
+          entities.subList(position, Math.min(position + JPAStreamingResultList.CHUNK_SIZE, ENTITIES)));
+      EasyMock.replay(chunkQuery);
+      if (position == 0) {
+        query = chunkQuery;
+      } else {
+        seekQueries.put(entities.get(position - 1), chunkQuery);
+      }
+    }
+    EntityManager em = EasyMock.createMock(EntityManager.class);
+    em.clear();
+    EasyMock.expectLastCall().times(2);
+    EasyMock.replay(em);
+
+    JPAStreamingResultList result = new JPAStreamingResultList(em, query, new JPAStreamingResultList.SeekQuery() {
+      @Override
+      public Query create(final Object lastEntity) {
+        Query seekQuery = seekQueries.remove(lastEntity);
+        assertNotNull(seekQuery);
+        return seekQuery;
+      }
+    });
+    List<Map<String, Object>> edmEntities =
+        new JPAEntityParser().parse2EdmEntityList(result, Collections.<EdmProperty> emptyList());
+    int count = 0;
+    for (Map<String, Object> edmEntity : edmEntities) {
+      assertEquals(0, edmEntity.size());
+      count++;
+    }
+
+    assertEquals(ENTITIES, count);
+    assertTrue(seekQueries.isEmpty());
+    EasyMock.verify(query, em);
+  }
+
+  @Test
+  public void closeClosesEntityManager() throws Exception {
+    EntityManager em = EasyMock.createMock(EntityManager.class);
+    EasyMock.expect(em.isOpen()).andReturn(true);
+    em.close();
+    EasyMock.expectLastCall();
+    EasyMock.expect(em.isOpen()).andReturn(false);
+    EasyMock.replay(em);
+
+    JPAStreamingResultList result = new JPAStreamingResultList(em, EasyMock.createMock(Query.class), null);
+    result.close();
+    result.close();
+    EasyMock.verify(em);
+  }
+
+  @Test
+  public void randomAccessReadsResultList() throws Exception {
+    List<Object> entities = createEntities();
+    Query query = EasyMock.createMock(Query.class);
+    EasyMock.expect(query.getResultList()).andReturn(entities);
+    EasyMock.replay(query);
+
+    JPAStreamingResultList result = new JPAStreamingResultList(null, query, null);
+    assertEquals(ENTITIES, result.size());
+    assertEquals(entities.get(1), result.get(1));
+    int count = 0;
+    for (Object entity : result) {
+      assertEquals(entities.get(count++), entity);
+    }
+    assertEquals(ENTITIES, count);
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void streamedOnce() throws Exception {
+    Query query = EasyMock.createNiceMock(Query.class);
+    EasyMock.expect(query.setMaxResults(JPAStreamingResultList.CHUNK_SIZE)).andReturn(query);
+    EasyMock.expect(query.getResultList()).andReturn(createEntities());
+    EasyMock.replay(query);
+
+    JPAStreamingResultList result = new JPAStreamingResultList(null, query, null);
+    result.iterator().next();
+    result.size();
+  }
+
+  private List<Object> createEntities() throws Exception {
+    List<Object> entities = new ArrayList<Object>();
+    for (int i = 0; i < ENTITIES; i++) {
+      entities.add(JPAProjectionRow.create(new Object[0], Collections.<EdmProperty> emptyList()));
+    }
+    return entities;
+  }
+}
@@ -0,0 +1,98 @@
+/*******************************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ ******************************************************************************/
+package org.apache.olingo.odata2.jpa.processor.core.access.data;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class JPQLStatementCacheTest {
+
+  private static final String STATEMENT = "SELECT E1 FROM SalesOrderHeader E1 WHERE E1.customer.name = ?1";
+  private static final String NORMALIZED =
+      "SELECT DISTINCT E1 FROM SalesOrderHeader E1 JOIN E1.customer R1 WHERE R1.name = ?1";
+
+  @Before
+  public void clearCache() {
+    JPQLStatementCache.clear();
+  }
+
+  @Test
+  public void statementIsCachedPerMetamodel() {
+    Object metamodel = new Object();
+    assertNull(JPQLStatementCache.get(metamodel, STATEMENT));
+    JPQLStatementCache.put(metamodel, STATEMENT, NORMALIZED);
+    assertEquals(NORMALIZED, JPQLStatementCache.get(metamodel, STATEMENT));
+    assertNull(JPQLStatementCache.get(new Object(), STATEMENT));
+    assertFalse(JPQLStatementCache.isNormalized(STATEMENT));
+  }
+
+  @Test
+  public void normalizedStatementIsIndependentOfMetamodel() {
+    String statement = "SELECT E1 FROM SalesOrderHeader E1 WHERE E1.soId = ?1";
+    assertFalse(JPQLStatementCache.isNormalized(statement));
+    JPQLStatementCache.putNormalized(statement);
+    assertTrue(JPQLStatementCache.isNormalized(statement));
+  }
+
+  @Test
+  public void oldestStatementIsEvicted() {
+    Object metamodel = new Object();
+    JPQLStatementCache.put(metamodel, STATEMENT, NORMALIZED);
+    for (int i = 0; i < JPQLStatementCache.MAX_STATEMENTS; i++) {
+      JPQLStatementCache.put(metamodel, STATEMENT + i, NORMALIZED + i);
+    }
+    assertNull(JPQLStatementCache.get(metamodel, STATEMENT));
+    assertEquals(NORMALIZED + 0, JPQLStatementCache.get(metamodel, STATEMENT + 0));
+    JPQLStatementCache.put(metamodel, STATEMENT + 0, NORMALIZED);
+    assertEquals(NORMALIZED + 0, JPQLStatementCache.get(metamodel, STATEMENT + 0));
+  }
+
+  @Test
+  public void concurrentPutsStayBounded() throws Exception {
+    final Object metamodel = new Object();
+    Thread[] threads = new Thread[4];
+    for (int t = 0; t < threads.length; t++) {
+      final int offset = t * JPQLStatementCache.MAX_STATEMENTS;
+      threads[t] = new Thread() {
+        @Override
+        public void run() {
+          for (int i = 0; i < JPQLStatementCache.MAX_STATEMENTS; i++) {
+            JPQLStatementCache.put(metamodel, STATEMENT + (offset + i), NORMALIZED);
+          }
+        }
+      };
+      threads[t].start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    int cached = 0;
+    for (int i = 0; i < threads.length * JPQLStatementCache.MAX_STATEMENTS; i++) {
+      if (JPQLStatementCache.get(metamodel, STATEMENT + i) != null) {
+        cached++;
+      }
+    }
+    assertTrue(cached > 0 && cached <= JPQLStatementCache.MAX_STATEMENTS);
+  }
+}
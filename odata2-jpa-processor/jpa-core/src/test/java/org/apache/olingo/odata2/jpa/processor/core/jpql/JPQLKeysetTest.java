@@ -0,0 +1,117 @@
+/*******************************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ ******************************************************************************/
+package org.apache.olingo.odata2.jpa.processor.core.jpql;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.olingo.odata2.api.edm.EdmException;
+import org.apache.olingo.odata2.api.edm.EdmMapping;
+import org.apache.olingo.odata2.api.edm.EdmProperty;
+import org.apache.olingo.odata2.api.edm.EdmSimpleTypeKind;
+import org.apache.olingo.odata2.api.edm.EdmType;
+import org.apache.olingo.odata2.jpa.processor.api.exception.ODataJPARuntimeException;
+import org.apache.olingo.odata2.jpa.processor.core.model.JPAEdmMappingImpl;
+import org.easymock.EasyMock;
+import org.junit.Test;
+
+public class JPQLKeysetTest {
+
+  private EdmProperty company = mockProperty("Company", "company", EdmSimpleTypeKind.String, String.class);
+  private EdmProperty id = mockProperty("Id", "id", EdmSimpleTypeKind.Int64, long.class);
+
+  @Test
+  public void keysetSkipToken() {
+    assertFalse(JPQLKeyset.isKeysetSkipToken(null));
+    assertFalse(JPQLKeyset.isKeysetSkipToken("20"));
+    assertFalse(JPQLKeyset.isKeysetSkipToken("20L"));
+    assertTrue(JPQLKeyset.isKeysetSkipToken("key:20"));
+    assertTrue(JPQLKeyset.isKeysetSkipToken("key:'A',20L"));
+  }
+
+  @Test
+  public void skipTokenRoundTrip() throws Exception {
+    List<EdmProperty> keyProperties = Arrays.asList(company, id);
+    Map<String, Object> keyValues = new HashMap<String, Object>();
+    keyValues.put("Company", "O'Neil, Inc.");
+    keyValues.put("Id", 5L);
+
+    String skipToken = JPQLKeyset.createSkipToken(keyValues, keyProperties);
+    assertEquals("key:'O''Neil, Inc.',5L", skipToken);
+    assertEquals(Arrays.<Object> asList("O'Neil, Inc.", 5L), JPQLKeyset.parseSkipToken(skipToken, keyProperties));
+  }
+
+  @Test(expected = ODataJPARuntimeException.class)
+  public void skipTokenWithWrongKeyCount() throws Exception {
+    JPQLKeyset.parseSkipToken("key:5L", Arrays.asList(company, id));
+  }
+
+  @Test
+  public void int32SkipTokenIsNoOffset() throws Exception {
+    EdmProperty number = mockProperty("Number", "number", EdmSimpleTypeKind.Int32, int.class);
+    String skipToken = JPQLKeyset.createSkipToken(Collections.<String, Object> singletonMap("Number", 42),
+        Arrays.asList(number));
+    assertEquals("key:42", skipToken);
+    assertTrue(JPQLKeyset.isKeysetSkipToken(skipToken));
+    assertEquals(Arrays.<Object> asList(42), JPQLKeyset.parseSkipToken(skipToken, Arrays.asList(number)));
+  }
+
+  @Test(expected = ODataJPARuntimeException.class)
+  public void offsetIsNoKeysetSkipToken() throws Exception {
+    JPQLKeyset.parseSkipToken("42", Arrays.asList(id));
+  }
+
+  @Test
+  public void whereExpression() throws Exception {
+    Map<Integer, Object> parameters = new HashMap<Integer, Object>();
+    String whereExpression = JPQLKeyset.createWhereExpression(Arrays.asList(company, id),
+        Arrays.<Object> asList("SAP", 5L), "E1", 3, parameters);
+
+    assertEquals("(E1.company > ?3 OR (E1.company = ?4 AND E1.id > ?5))", whereExpression);
+    assertEquals(3, parameters.size());
+    assertEquals("SAP", parameters.get(3));
+    assertEquals("SAP", parameters.get(4));
+    assertEquals(5L, parameters.get(5));
+  }
+
+  private static EdmProperty mockProperty(final String name, final String internalName,
+      final EdmSimpleTypeKind typeKind, final Class<?> jpaType) {
+    JPAEdmMappingImpl mapping = new JPAEdmMappingImpl();
+    mapping.setInternalName(internalName);
+    mapping.setJPAType(jpaType);
+    EdmProperty property = EasyMock.createMock(EdmProperty.class);
+    try {
+      EasyMock.expect(property.getName()).andStubReturn(name);
+      EasyMock.expect(property.getMapping()).andStubReturn((EdmMapping) mapping);
+      EasyMock.expect(property.getType()).andStubReturn((EdmType) typeKind.getEdmSimpleTypeInstance());
+      EasyMock.expect(property.getFacets()).andStubReturn(null);
+    } catch (EdmException e) {
+      throw new IllegalStateException(e);
+    }
+    EasyMock.replay(property);
+    return property;
+  }
+}
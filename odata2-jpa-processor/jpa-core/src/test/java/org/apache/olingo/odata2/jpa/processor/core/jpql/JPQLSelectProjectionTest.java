@@ -0,0 +1,147 @@
+/*******************************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ ******************************************************************************/
+package org.apache.olingo.odata2.jpa.processor.core.jpql;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.olingo.odata2.api.edm.EdmEntitySet;
+import org.apache.olingo.odata2.api.edm.EdmEntityType;
+import org.apache.olingo.odata2.api.edm.EdmException;
+import org.apache.olingo.odata2.api.edm.EdmMapping;
+import org.apache.olingo.odata2.api.edm.EdmProperty;
+import org.apache.olingo.odata2.api.edm.EdmType;
+import org.apache.olingo.odata2.api.edm.EdmTypeKind;
+import org.apache.olingo.odata2.api.uri.NavigationPropertySegment;
+import org.apache.olingo.odata2.api.uri.NavigationSegment;
+import org.apache.olingo.odata2.api.uri.SelectItem;
+import org.apache.olingo.odata2.api.uri.info.GetEntitySetUriInfo;
+import org.apache.olingo.odata2.jpa.processor.api.jpql.JPQLContext;
+import org.apache.olingo.odata2.jpa.processor.api.jpql.JPQLContextType;
+import org.apache.olingo.odata2.jpa.processor.api.jpql.JPQLStatement;
+import org.apache.olingo.odata2.jpa.processor.core.access.data.JPAEntityParser;
+import org.apache.olingo.odata2.jpa.processor.core.access.data.JPAProjectionRow;
+import org.apache.olingo.odata2.jpa.processor.core.model.JPAEdmMappingImpl;
+import org.easymock.EasyMock;
+import org.junit.Test;
+
+public class JPQLSelectProjectionTest {
+
+  private EdmProperty id = mockProperty("SoId", "soId", EdmTypeKind.SIMPLE);
+  private EdmProperty description = mockProperty("Description", "description", EdmTypeKind.SIMPLE);
+  private EdmProperty address = mockProperty("Address", "address", EdmTypeKind.COMPLEX);
+
+  @Test
+  public void projectionWithKeyAndSelectedProperties() throws Exception {
+    GetEntitySetUriInfo uriInfo = mockUriInfo(Arrays.asList(mockSelectItem(description)), null);
+
+    List<EdmProperty> properties = JPQLSelectProjection.getProjectedProperties(uriInfo);
+    assertEquals(Arrays.asList(id, description), properties);
+    assertEquals(Arrays.asList("soId", "description"), JPQLSelectProjection.getSelectedFields(properties));
+
+    JPQLContext context = JPQLContext.createBuilder(JPQLContextType.SELECT, uriInfo).build();
+    assertEquals("SELECT E1.soId, E1.description FROM SalesOrderHeader E1",
+        JPQLStatement.createBuilder(context).build().toString());
+    JPQLContext.removeJPQLContext();
+  }
+
+  @Test
+  public void noProjectionForComplexProperty() throws Exception {
+    assertNull(JPQLSelectProjection.getProjectedProperties(
+        mockUriInfo(Arrays.asList(mockSelectItem(address)), null)));
+  }
+
+  @Test
+  public void noProjectionWithExpand() throws Exception {
+    List<ArrayList<NavigationPropertySegment>> expand = new ArrayList<ArrayList<NavigationPropertySegment>>();
+    expand.add(new ArrayList<NavigationPropertySegment>());
+    assertNull(JPQLSelectProjection.getProjectedProperties(
+        mockUriInfo(Arrays.asList(mockSelectItem(description)), expand)));
+  }
+
+  @Test
+  public void noProjectionWithoutSelect() throws Exception {
+    assertNull(JPQLSelectProjection.getProjectedProperties(mockUriInfo(null, null)));
+  }
+
+  @Test
+  public void projectionRowIsParsed() throws Exception {
+    JPAProjectionRow row = JPAProjectionRow.create(new Object[] { 2L, new char[] { 'a', 'b' } },
+        Arrays.asList(id, description));
+    Map<String, Object> entity = new JPAEntityParser().parse2EdmPropertyValueMap(row, Arrays.asList(description));
+    assertEquals(1, entity.size());
+    assertEquals("ab", entity.get("Description"));
+    assertEquals(2L, row.getPropertyValue("SoId"));
+  }
+
+  private GetEntitySetUriInfo mockUriInfo(final List<SelectItem> select,
+      final List<ArrayList<NavigationPropertySegment>> expand) throws EdmException {
+    EdmEntityType entityType = EasyMock.createMock(EdmEntityType.class);
+    EasyMock.expect(entityType.getMapping()).andStubReturn(null);
+    EasyMock.expect(entityType.getName()).andStubReturn("SalesOrderHeader");
+    EasyMock.expect(entityType.getKeyProperties()).andStubReturn(Collections.singletonList(id));
+    EdmEntitySet entitySet = EasyMock.createMock(EdmEntitySet.class);
+    EasyMock.expect(entitySet.getEntityType()).andStubReturn(entityType);
+
+    GetEntitySetUriInfo uriInfo = EasyMock.createMock(GetEntitySetUriInfo.class);
+    EasyMock.expect(uriInfo.getTargetEntitySet()).andStubReturn(entitySet);
+    EasyMock.expect(uriInfo.getSelect()).andStubReturn(select);
+    EasyMock.expect(uriInfo.getExpand()).andStubReturn(expand);
+    EasyMock.expect(uriInfo.getNavigationSegments()).andStubReturn(new ArrayList<NavigationSegment>());
+    EasyMock.expect(uriInfo.getOrderBy()).andStubReturn(null);
+    EasyMock.expect(uriInfo.getFilter()).andStubReturn(null);
+    EasyMock.expect(uriInfo.getTop()).andStubReturn(null);
+    EasyMock.expect(uriInfo.getSkip()).andStubReturn(null);
+    EasyMock.replay(entityType, entitySet, uriInfo);
+    return uriInfo;
+  }
+
+  private SelectItem mockSelectItem(final EdmProperty property) {
+    SelectItem selectItem = EasyMock.createMock(SelectItem.class);
+    EasyMock.expect(selectItem.isStar()).andStubReturn(false);
+    EasyMock.expect(selectItem.getProperty()).andStubReturn(property);
+    EasyMock.expect(selectItem.getNavigationPropertySegments())
+        .andStubReturn(new ArrayList<NavigationPropertySegment>());
+    EasyMock.replay(selectItem);
+    return selectItem;
+  }
+
+  private static EdmProperty mockProperty(final String name, final String internalName, final EdmTypeKind kind) {
+    JPAEdmMappingImpl mapping = new JPAEdmMappingImpl();
+    mapping.setInternalName(internalName);
+    EdmType type = EasyMock.createMock(EdmType.class);
+    EasyMock.expect(type.getKind()).andStubReturn(kind);
+    EdmProperty property = EasyMock.createMock(EdmProperty.class);
+    try {
+      EasyMock.expect(property.getName()).andStubReturn(name);
+      EasyMock.expect(property.getMapping()).andStubReturn((EdmMapping) mapping);
+      EasyMock.expect(property.getType()).andStubReturn(type);
+    } catch (EdmException e) {
+      throw new IllegalStateException(e);
+    }
+    EasyMock.replay(type, property);
+    return property;
+  }
+}
@@ -128,6 +128,10 @@ public class BatchException extends ODataMessageException {
   public static final MessageReference UNSUPPORTED_ABSOLUTE_PATH = createMessageReference(BatchException.class,
       "UNSUPPORTED_ABSOLUTE_PATH");
 
+  /** MEMORY_LIMIT_EXCEEDED requires 1 content value ('line number') */
+  public static final MessageReference MEMORY_LIMIT_EXCEEDED = createMessageReference(BatchException.class,
+      "MEMORY_LIMIT_EXCEEDED");
+
   public BatchException(final MessageReference messageReference) {
     super(messageReference);
   }
@@ -0,0 +1,79 @@
+/*******************************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ ******************************************************************************/
+package org.apache.olingo.odata2.api.client.batch;
+
+import java.io.IOException;
+
+/**
+ * Writes a Batch Request body part by part into an output stream.
+ * <p>
+ * In contrast to {@link org.apache.olingo.odata2.api.ep.EntityProvider#writeBatchRequest(java.util.List, String)}
+ * every part is serialized as soon as it is appended, so the batch does not have to be kept in memory.
+ * The content of a {@link BatchChangeSetPart} is read from its {@link BatchInputResource} while the part is
+ * appended. If the size of the resource is negative (unknown) the content is streamed without
+ * a <code>Content-Length</code> header.
+ * <p>
+ * Changes can either be appended as complete {@link BatchChangeSet} or one by one
+ * between {@link #beginChangeSet()} and {@link #endChangeSet()}.
+ *
+ */
+public interface BatchRequestStreamWriter {
+
+  /**
+   * Appends a {@link BatchQueryPart} or a complete {@link BatchChangeSet}.
+   * @param batchPart the part to write
+   * @return this writer
+   * @throws IOException if writing to the output stream fails
+   * @throws IllegalStateException if a change set is open or the writer is closed
+   */
+  BatchRequestStreamWriter append(BatchPart batchPart) throws IOException;
+
+  /**
+   * Starts a new change set.
+   * @return this writer
+   * @throws IOException if writing to the output stream fails
+   * @throws IllegalStateException if a change set is already open or the writer is closed
+   */
+  BatchRequestStreamWriter beginChangeSet() throws IOException;
+
+  /**
+   * Appends a single change to the currently open change set.
+   * @param changeSetPart the change to write
+   * @return this writer
+   * @throws IOException if writing to the output stream fails
+   * @throws IllegalStateException if no change set is open
+   */
+  BatchRequestStreamWriter appendChangeSetPart(BatchChangeSetPart changeSetPart) throws IOException;
+
+  /**
+   * Closes the currently open change set.
+   * @return this writer
+   * @throws IOException if writing to the output stream fails
+   * @throws IllegalStateException if no change set is open
+   */
+  BatchRequestStreamWriter endChangeSet() throws IOException;
+
+  /**
+   * Writes the close delimiter of the batch and flushes the output stream.
+   * The output stream itself is not closed.
+   * @throws IOException if writing to the output stream fails
+   * @throws IllegalStateException if a change set is still open
+   */
+  void close() throws IOException;
+}
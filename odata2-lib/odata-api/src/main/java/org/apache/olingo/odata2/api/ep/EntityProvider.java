@@ -19,6 +19,7 @@
 package org.apache.olingo.odata2.api.ep;
 
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.List;
 import java.util.Map;
 
@@ -26,6 +27,7 @@ import org.apache.olingo.odata2.api.batch.BatchException;
 import org.apache.olingo.odata2.api.batch.BatchRequestPart;
 import org.apache.olingo.odata2.api.batch.BatchResponsePart;
 import org.apache.olingo.odata2.api.client.batch.BatchPart;
+import org.apache.olingo.odata2.api.client.batch.BatchRequestStreamWriter;
 import org.apache.olingo.odata2.api.client.batch.BatchSingleResponse;
 import org.apache.olingo.odata2.api.edm.Edm;
 import org.apache.olingo.odata2.api.edm.EdmEntitySet;
@@ -466,6 +468,25 @@ public final class EntityProvider {
     ODataErrorContext readErrorDocument(InputStream errorDocument, String contentType) throws EntityProviderException;
   }
 
+  /**
+   * (Internal) extension of the {@link EntityProviderInterface} which can also write a Batch Request part by part.
+   * <p>
+   * The entity provider of this library implements this interface; own implementations of the
+   * {@link EntityProviderInterface} which do not implement it keep working, but do not support
+   * {@link EntityProvider#createBatchRequestWriter(OutputStream, String)}.
+   */
+  public interface BatchStreamEntityProviderInterface extends EntityProviderInterface {
+
+    /**
+     * Create a writer which streams the Batch Request body part by part into the given output stream.
+     * 
+     * @param out output stream the Batch Request body is written to
+     * @param boundary
+     * @return {@link BatchRequestStreamWriter}
+     */
+    BatchRequestStreamWriter createBatchRequestWriter(OutputStream out, String boundary);
+  }
+
   /**
    * Create an instance for the {@link EntityProviderInterface} over the {@link RuntimeDelegate}.
    * 
@@ -943,6 +964,22 @@ public final class EntityProvider {
     return createEntityProvider().writeBatchRequest(batchParts, boundary);
   }
 
+  /**
+   * Create a writer which streams the Batch Request body part by part into the given output stream.
+   * 
+   * @param out output stream the Batch Request body is written to
+   * @param boundary
+   * @return {@link BatchRequestStreamWriter}
+   * @throws UnsupportedOperationException if the entity provider is no {@link BatchStreamEntityProviderInterface}
+   */
+  public static BatchRequestStreamWriter createBatchRequestWriter(final OutputStream out, final String boundary) {
+    EntityProviderInterface entityProvider = createEntityProvider();
+    if (entityProvider instanceof BatchStreamEntityProviderInterface) {
+      return ((BatchStreamEntityProviderInterface) entityProvider).createBatchRequestWriter(out, boundary);
+    }
+    throw new UnsupportedOperationException("Entity provider does not support streamed Batch Requests");
+  }
+
   /**
    * Parse Batch Response body (as {@link InputStream}) and provide a list of single responses as
    * {@link BatchSingleResponse}
@@ -51,6 +51,7 @@ public class EntityProviderWriteProperties {
   private boolean includeMetadataInContentOnly = false;
   private boolean isDataBasedPropertySerialization = false;
   private boolean omitInlineForNullData = false;
+  private boolean streaming = false;
 
   private EntityProviderWriteProperties() {}
   
@@ -165,6 +166,14 @@ public class EntityProviderWriteProperties {
     return includeMetadataInContentOnly;
   }
 
+  /**
+   * Returns if a feed is written while the response body is read instead of before the response is returned.
+   * @return true if the feed is streamed
+   */
+  public boolean isStreaming() {
+    return streaming;
+  }
+
   public static class ODataEntityProviderPropertiesBuilder {
     private final EntityProviderWriteProperties properties = new EntityProviderWriteProperties();
 
@@ -305,6 +314,18 @@ public class EntityProviderWriteProperties {
       return this;
     }
 
+    /**
+     * If set to true a feed is written while the body of the response is read, a few entries at a time, and the
+     * entry data is iterated only then. Errors occurring while the entries are written are thrown as
+     * {@link java.io.IOException} by the body of the response.
+     * @param streaming true to stream the feed
+     * @return the builder
+     */
+    public ODataEntityProviderPropertiesBuilder streaming(final boolean streaming) {
+      properties.streaming = streaming;
+      return this;
+    }
+
     public ODataEntityProviderPropertiesBuilder fromProperties(final EntityProviderWriteProperties properties) {
       this.properties.inlineCountType = properties.getInlineCountType();
       this.properties.inlineCount = properties.getInlineCount();
@@ -322,6 +343,7 @@ public class EntityProviderWriteProperties {
       this.properties.includeMetadataInContentOnly = properties.includeMetadataInContentOnly;
       this.properties.isDataBasedPropertySerialization = properties.isDataBasedPropertySerialization;
       this.properties.omitInlineForNullData = properties.omitInlineForNullData;
+      this.properties.streaming = properties.streaming;
       return this;
     }
 
@@ -0,0 +1,51 @@
+/*******************************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ ******************************************************************************/
+package org.apache.olingo.odata2.api.ep.callback;
+
+import org.apache.olingo.odata2.api.exception.ODataApplicationException;
+
+/**
+ * <p>
+ * Callback interface for the deep insert read calls which receives the entries of an inline feed one at a time.
+ * </p>
+ * <p>
+ * If the callback set in the {@link org.apache.olingo.odata2.api.ep.EntityProviderReadProperties} implements this
+ * interface, {@link #handleReadFeedEntry(ReadEntryResult)} is called for each entry of an inline feed as soon as the
+ * entry has been read, while the enclosing entry is still being read. The entries are not collected, so
+ * {@link #handleReadFeed(ReadFeedResult)} is called afterwards with a feed without entries which only carries the
+ * feed metadata. Large inline feeds can thus be processed without holding all inline entries in memory.
+ * </p>
+ * <p>
+ * The parent entry id given with each {@link ReadEntryResult} is the id of the enclosing entry. In Atom the
+ * <code>&lt;id&gt;</code> of the enclosing entry may follow its links; the entries of an inline feed read before it
+ * are then held until the enclosing entry has been read and handed over afterwards. If the enclosing entry has no
+ * id, the parent entry id is built from its key properties. It is never <code>null</code>.
+ * </p>
+ */
+public interface OnReadInlineFeedEntry extends OnReadInlineContent {
+
+  /**
+   * Handles a single read (de-serialized) entry of an inline feed.
+   * 
+   * @param readEntryResult with contextual information about the inline navigation property and the de-serialized
+   * entry as {@link org.apache.olingo.odata2.api.ep.entry.ODataEntry ODataEntry}
+   * @throws ODataApplicationException
+   */
+  void handleReadFeedEntry(ReadEntryResult readEntryResult) throws ODataApplicationException;
+}
@@ -49,6 +49,9 @@ public class ODataBadRequestException extends ODataHttpException {
   /** INVALID_REQUEST requires NO content values */
   public static final MessageReference INVALID_REQUEST = createMessageReference(ODataBadRequestException.class,
       "INVALID_REQUEST");
+  /** QUERY_TOO_EXPENSIVE requires 3 content values ('query property', 'value' and 'limit') */
+  public static final MessageReference QUERY_TOO_EXPENSIVE = createMessageReference(ODataBadRequestException.class,
+      "QUERY_TOO_EXPENSIVE");
 
   public ODataBadRequestException(final MessageReference messageReference) {
     super(messageReference, HttpStatusCodes.BAD_REQUEST);
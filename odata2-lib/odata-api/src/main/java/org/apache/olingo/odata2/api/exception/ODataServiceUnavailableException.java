@@ -30,6 +30,8 @@ public class ODataServiceUnavailableException extends ODataHttpException {
 
   public static final MessageReference COMMON =
       createMessageReference(ODataServiceUnavailableException.class, "COMMON");
+  public static final MessageReference CONCURRENCY_LIMIT =
+      createMessageReference(ODataServiceUnavailableException.class, "CONCURRENCY_LIMIT");
 
   public ODataServiceUnavailableException(final MessageReference context) {
     super(context, HttpStatusCodes.SERVICE_UNAVAILABLE);
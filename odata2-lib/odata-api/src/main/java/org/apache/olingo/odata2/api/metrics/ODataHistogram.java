@@ -0,0 +1,50 @@
+/*******************************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ ******************************************************************************/
+package org.apache.olingo.odata2.api.metrics;
+
+/**
+ * Distribution of recorded values.
+ * <p>
+ * Percentiles are approximated; the relative error is at most 1/16 of the value.
+ */
+public interface ODataHistogram {
+
+  /**
+   * @return the number of recorded values
+   */
+  long getCount();
+
+  /**
+   * @return the sum of the recorded values
+   */
+  long getSum();
+
+  /**
+   * @return the largest recorded value or <code>0</code> if no value has been recorded
+   */
+  long getMax();
+
+  /**
+   * Gets the value at a percentile, e.g., <code>99</code> for the value which 99 percent of the recorded values
+   * do not exceed.
+   * @param percentile the percentile from 0 to 100
+   * @return the value or <code>0</code> if no value has been recorded
+   */
+  long getValueAtPercentile(double percentile);
+}
@@ -0,0 +1,68 @@
+/*******************************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ ******************************************************************************/
+package org.apache.olingo.odata2.api.metrics;
+
+import java.util.Set;
+
+/**
+ * Metrics aggregating the recorded values in memory, into one histogram per metric and entity set and one
+ * histogram per metric and URI type.
+ * <p>
+ * A histogram takes about 8 KB of memory, so each entity set costs about 8 KB per {@link ODataMetric}. The number
+ * of entity sets with histograms of their own is limited to {@link #MAX_ENTITY_SETS}; the values of all further
+ * entity sets are aggregated under the name {@link #OTHERS}.
+ */
+public interface ODataInMemoryMetrics extends ODataMetrics {
+
+  /** Maximal number of entity sets with histograms of their own */
+  int MAX_ENTITY_SETS = 100;
+
+  /** Name the values of the entity sets beyond {@link #MAX_ENTITY_SETS} are aggregated under */
+  String OTHERS = "*";
+
+  /**
+   * @return the names of the entity sets values have been recorded for, including {@link #OTHERS} if values of
+   * more than {@link #MAX_ENTITY_SETS} entity sets have been recorded
+   */
+  Set<String> getEntitySets();
+
+  /**
+   * @return the URI types values have been recorded for
+   */
+  Set<String> getUriTypes();
+
+  /**
+   * @param metric the kind of the values
+   * @param entitySet the name of the entity set
+   * @return the histogram or <code>null</code> if no value has been recorded for the entity set
+   */
+  ODataHistogram getHistogramByEntitySet(ODataMetric metric, String entitySet);
+
+  /**
+   * @param metric the kind of the values
+   * @param uriType the URI type, e.g., <code>URI1</code>
+   * @return the histogram or <code>null</code> if no value has been recorded for the URI type
+   */
+  ODataHistogram getHistogramByUriType(ODataMetric metric, String uriType);
+
+  /**
+   * Discards all recorded values.
+   */
+  void clear();
+}
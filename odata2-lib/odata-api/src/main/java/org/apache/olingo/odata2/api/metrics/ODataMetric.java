@@ -0,0 +1,53 @@
+/*******************************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ ******************************************************************************/
+package org.apache.olingo.odata2.api.metrics;
+
+/**
+ * Values recorded per request by {@link ODataMetrics}.
+ * The durations are recorded in nanoseconds.
+ */
+public enum ODataMetric {
+  /** Duration of parsing the resource path and the system query options */
+  URI_PARSING,
+  /** Duration of the content negotiation */
+  CONTENT_NEGOTIATION,
+  /** Duration of the dispatching to and the processing by the processor, including the serialization
+   * done by the processor */
+  PROCESSING,
+  /** Duration of reading the response body while it is written to the client; for bodies streamed from
+   * the processor this includes their serialization */
+  SERIALIZATION,
+  /** Duration of the request handling from parsing to processing, excluding {@link #SERIALIZATION} */
+  REQUEST,
+  /** Number of bytes of the response body before a compression for the transfer */
+  BYTES_WRITTEN,
+  /** Number of requests processed concurrently, including this one, when the request has been admitted by the
+   * concurrency limiter */
+  CONCURRENT_REQUESTS,
+  /** Recorded with the value <code>1</code> for each request rejected by the concurrency limiter */
+  REJECTED_REQUESTS,
+  /** Number of I/O buffers served from the shared buffer pool since the values of the previous request have been
+   * recorded; the sum over all requests is the total number. The pool is shared by all requests, so the value is
+   * always recorded with an empty entity set and URI type */
+  BUFFER_POOL_HITS,
+  /** Number of I/O buffers which had to be allocated since the values of the previous request have been recorded;
+   * the sum over all requests is the total number. The value is always recorded with an empty entity set and URI
+   * type */
+  BUFFER_POOL_MISSES
+}
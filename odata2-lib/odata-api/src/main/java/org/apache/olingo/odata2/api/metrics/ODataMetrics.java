@@ -0,0 +1,44 @@
+/*******************************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ ******************************************************************************/
+package org.apache.olingo.odata2.api.metrics;
+
+import org.apache.olingo.odata2.api.ODataCallback;
+
+/**
+ * Receives the metrics of every request.
+ * <p>
+ * A service factory enables the metrics by returning an implementation of this interface with
+ * {@link org.apache.olingo.odata2.api.ODataServiceFactory#getCallback(Class)}.
+ * {@link org.apache.olingo.odata2.api.rt.RuntimeDelegate#createInMemoryMetrics()} creates an implementation
+ * aggregating the values in memory. Implementations are called concurrently by the request threads and should
+ * neither block nor allocate.
+ */
+public interface ODataMetrics extends ODataCallback {
+
+  /**
+   * Records a value of a request.
+   * @param metric the kind of the value
+   * @param entitySet the name of the target entity set of the request or an empty string, e.g., for the metadata
+   * document
+   * @param uriType the URI type of the request as defined in the OData URI conventions, e.g., <code>URI1</code> for
+   * an entity set, or an empty string if the URI could not be parsed
+   * @param value the duration in nanoseconds or the number of bytes
+   */
+  void record(ODataMetric metric, String entitySet, String uriType, long value);
+}
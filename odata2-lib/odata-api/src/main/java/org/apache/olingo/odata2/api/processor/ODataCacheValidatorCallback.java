@@ -0,0 +1,60 @@
+/*******************************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ ******************************************************************************/
+package org.apache.olingo.odata2.api.processor;
+
+import java.util.Date;
+
+import org.apache.olingo.odata2.api.ODataCallback;
+import org.apache.olingo.odata2.api.exception.ODataException;
+import org.apache.olingo.odata2.api.uri.UriInfo;
+
+/**
+ * Provides the entity tag and the time of the last modification of the data read by a <code>GET</code> request
+ * before the request is dispatched to the processor.
+ * <p>
+ * The callback is retrieved with {@link org.apache.olingo.odata2.api.ODataServiceFactory#getCallback(Class)} and
+ * is asked for requests of entity sets, entities, properties and links, but not for function imports. If the
+ * <code>If-None-Match</code> or <code>If-Modified-Since</code> header of the request shows that the client has the
+ * current data, the request is answered with <code>304 Not Modified</code> without calling the processor. Otherwise
+ * the validators are added to the <code>200 OK</code> response of the <code>GET</code> request unless the processor
+ * has set them itself.
+ * <p>
+ * The entity tag is never sent for entity types with properties of concurrency mode <code>Fixed</code>: clients
+ * send the <code>ETag</code> of such entities back in <code>If-Match</code> when they change them, so it has to be
+ * the entity tag the processor checks for concurrency, never the validator.
+ * <p>
+ * Implementations typically keep a version counter or modification time per entity set which is updated by each
+ * change, so the validators can be determined without reading the requested data.
+ */
+public interface ODataCacheValidatorCallback extends ODataCallback {
+
+  /**
+   * @param uriInfo the parsed request URI; the target entity set is not <code>null</code>
+   * @return the entity tag including quotes, e.g., <code>W/"42"</code>, or <code>null</code> if unknown
+   * @throws ODataException
+   */
+  String getEntityTag(UriInfo uriInfo) throws ODataException;
+
+  /**
+   * @param uriInfo the parsed request URI; the target entity set is not <code>null</code>
+   * @return the time of the last modification or <code>null</code> if unknown
+   * @throws ODataException
+   */
+  Date getLastModified(UriInfo uriInfo) throws ODataException;
+}
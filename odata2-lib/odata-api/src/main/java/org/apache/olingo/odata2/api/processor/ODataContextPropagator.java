@@ -0,0 +1,49 @@
+/*******************************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ ******************************************************************************/
+package org.apache.olingo.odata2.api.processor;
+
+/**
+ * Carries thread bound state over to the thread an {@link ODataRequestExecutor} runs a task on.
+ * <p>
+ * Implementations are registered as service provider in
+ * <code>META-INF/services/org.apache.olingo.odata2.api.processor.ODataContextPropagator</code> and must be stateless.
+ * The state is captured on the thread submitting the task and installed on the thread running the task for the
+ * time of the task.
+ */
+public interface ODataContextPropagator {
+
+  /**
+   * Captures the thread bound state of the current thread.
+   * @return the state or <code>null</code>
+   */
+  Object capture();
+
+  /**
+   * Installs the captured state on the current thread.
+   * @param state the state returned by {@link #capture()}
+   * @return the state of the current thread before, which is passed to {@link #restore(Object)} after the task
+   */
+  Object install(Object state);
+
+  /**
+   * Restores the state of the current thread after a task.
+   * @param previousState the state returned by {@link #install(Object)}
+   */
+  void restore(Object previousState);
+}
@@ -0,0 +1,144 @@
+/*******************************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ ******************************************************************************/
+package org.apache.olingo.odata2.api.processor;
+
+import org.apache.olingo.odata2.api.ODataCallback;
+
+/**
+ * Limits of the system query options of a request, checked after the request URI has been parsed and before the
+ * request is dispatched to the processor.
+ * <p>
+ * A service factory enables the limits by returning them with
+ * {@link org.apache.olingo.odata2.api.ODataServiceFactory#getCallback(Class)}. Requests exceeding a limit are
+ * rejected with <code>400 Bad Request</code>. A limit of <code>0</code>, the default, means no limit.
+ */
+public class ODataQueryLimits implements ODataCallback {
+
+  private int maxExpandDepth;
+  private int maxExpandedNavigationProperties;
+  private int maxFilterNodes;
+  private int maxFilterMethodCalls;
+  private int maxOrderByKeys;
+  private int maxTop;
+
+  /**
+   * @return the maximal number of navigation properties in one <code>$expand</code> path
+   */
+  public int getMaxExpandDepth() {
+    return maxExpandDepth;
+  }
+
+  /**
+   * @return the maximal number of distinct navigation properties expanded by <code>$expand</code>
+   */
+  public int getMaxExpandedNavigationProperties() {
+    return maxExpandedNavigationProperties;
+  }
+
+  /**
+   * @return the maximal number of nodes of the <code>$filter</code> expression: operators, method calls,
+   * properties, and literals
+   */
+  public int getMaxFilterNodes() {
+    return maxFilterNodes;
+  }
+
+  /**
+   * @return the maximal number of method calls, e.g., <code>substringof</code>, in the <code>$filter</code>
+   * expression
+   */
+  public int getMaxFilterMethodCalls() {
+    return maxFilterMethodCalls;
+  }
+
+  /**
+   * @return the maximal number of sort keys in <code>$orderby</code>
+   */
+  public int getMaxOrderByKeys() {
+    return maxOrderByKeys;
+  }
+
+  /**
+   * @return the maximal value of <code>$top</code>
+   */
+  public int getMaxTop() {
+    return maxTop;
+  }
+
+  /**
+   * Sets the maximal number of navigation properties in one <code>$expand</code> path.
+   * @param maxExpandDepth
+   * @return {@link ODataQueryLimits} for method chaining
+   */
+  public ODataQueryLimits setMaxExpandDepth(final int maxExpandDepth) {
+    this.maxExpandDepth = maxExpandDepth;
+    return this;
+  }
+
+  /**
+   * Sets the maximal number of distinct navigation properties expanded by <code>$expand</code>;
+   * <code>$expand=a/b,a/c</code> expands three navigation properties.
+   * @param maxExpandedNavigationProperties
+   * @return {@link ODataQueryLimits} for method chaining
+   */
+  public ODataQueryLimits setMaxExpandedNavigationProperties(final int maxExpandedNavigationProperties) {
+    this.maxExpandedNavigationProperties = maxExpandedNavigationProperties;
+    return this;
+  }
+
+  /**
+   * Sets the maximal number of nodes of the <code>$filter</code> expression.
+   * @param maxFilterNodes
+   * @return {@link ODataQueryLimits} for method chaining
+   */
+  public ODataQueryLimits setMaxFilterNodes(final int maxFilterNodes) {
+    this.maxFilterNodes = maxFilterNodes;
+    return this;
+  }
+
+  /**
+   * Sets the maximal number of method calls in the <code>$filter</code> expression.
+   * @param maxFilterMethodCalls
+   * @return {@link ODataQueryLimits} for method chaining
+   */
+  public ODataQueryLimits setMaxFilterMethodCalls(final int maxFilterMethodCalls) {
+    this.maxFilterMethodCalls = maxFilterMethodCalls;
+    return this;
+  }
+
+  /**
+   * Sets the maximal number of sort keys in <code>$orderby</code>.
+   * @param maxOrderByKeys
+   * @return {@link ODataQueryLimits} for method chaining
+   */
+  public ODataQueryLimits setMaxOrderByKeys(final int maxOrderByKeys) {
+    this.maxOrderByKeys = maxOrderByKeys;
+    return this;
+  }
+
+  /**
+   * Sets the maximal value of <code>$top</code>.
+   * @param maxTop
+   * @return {@link ODataQueryLimits} for method chaining
+   */
+  public ODataQueryLimits setMaxTop(final int maxTop) {
+    this.maxTop = maxTop;
+    return this;
+  }
+}
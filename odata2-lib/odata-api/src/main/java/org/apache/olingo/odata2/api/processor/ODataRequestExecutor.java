@@ -0,0 +1,46 @@
+/*******************************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ ******************************************************************************/
+package org.apache.olingo.odata2.api.processor;
+
+import java.util.concurrent.Executor;
+
+import org.apache.olingo.odata2.api.ODataCallback;
+
+/**
+ * Executes the processing of OData requests.
+ * <p>
+ * A service factory can return an implementation of this interface with
+ * {@link org.apache.olingo.odata2.api.ODataServiceFactory#getCallback(Class)} to decide on which threads the
+ * requests of the service are processed in the asynchronous mode of the servlet.
+ * {@link org.apache.olingo.odata2.api.rt.RuntimeDelegate#createVirtualThreadRequestExecutor()} creates an
+ * executor running every task on its own virtual thread.
+ * <p>
+ * The thread bound state of the submitting thread is carried over to the executing thread by the
+ * {@link ODataContextPropagator} implementations registered on the class path.
+ */
+public interface ODataRequestExecutor extends ODataCallback, Executor {
+
+  /**
+   * Executes the given task, usually on another thread.
+   * @param task the task to execute
+   * @throws java.util.concurrent.RejectedExecutionException if the executor cannot accept the task
+   */
+  @Override
+  void execute(Runnable task);
+}
@@ -0,0 +1,90 @@
+/*******************************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ ******************************************************************************/
+package org.apache.olingo.odata2.api.processor;
+
+import java.io.IOException;
+import java.util.Set;
+
+import org.apache.olingo.odata2.api.ODataCallback;
+import org.apache.olingo.odata2.api.commons.ODataHttpMethod;
+import org.apache.olingo.odata2.api.exception.ODataException;
+import org.apache.olingo.odata2.api.uri.UriInfo;
+
+/**
+ * Cache of the responses of read requests, used by the request handler in front of the processor.
+ * <p>
+ * A service factory enables the cache by returning the cache created by
+ * {@link org.apache.olingo.odata2.api.rt.RuntimeDelegate#createResponseCache(int, long, String...)} with
+ * {@link org.apache.olingo.odata2.api.ODataServiceFactory#getCallback(Class)}; the same instance has to be returned
+ * for all requests. The responses read from an entity set are dropped when a create, update or delete request
+ * against the entity set succeeds. Changes made outside of the OData service, e.g., by another node of a cluster,
+ * have to be announced with {@link #invalidate(String)} or {@link #invalidateAll()}.
+ * <p>
+ * The request handler calls {@link #getKey(ODataRequest, UriInfo, String)} for every request, {@link
+ * #get(String, ODataRequest)} and {@link #put(String, UriInfo, ODataResponse)} for cacheable requests and {@link
+ * #getChangedEntitySets(ODataHttpMethod, UriInfo)} for successful requests which are not cacheable. The entity sets
+ * changed by the requests of a change set are invalidated after the change set has been executed.
+ */
+public interface ODataResponseCache extends ODataCallback {
+
+  /**
+   * @param request the request
+   * @param uriInfo the parsed request URI
+   * @param contentType the negotiated content type
+   * @return the cache key or <code>null</code> if the response must not be cached
+   */
+  String getKey(ODataRequest request, UriInfo uriInfo, String contentType);
+
+  /**
+   * @param key the cache key
+   * @param request the request
+   * @return the cached response or <code>null</code> if the request has to be dispatched to the processor
+   */
+  ODataResponse get(String key, ODataRequest request);
+
+  /**
+   * Caches the response if it is cacheable.
+   * @param key the cache key
+   * @param uriInfo the parsed request URI
+   * @param response the response of the processor
+   * @return the response to be sent
+   * @throws IOException if the body of the response can not be read
+   * @throws ODataException if the entity sets of the request can not be determined
+   */
+  ODataResponse put(String key, UriInfo uriInfo, ODataResponse response) throws IOException, ODataException;
+
+  /**
+   * @param method the HTTP method of a successful request
+   * @param uriInfo the parsed request URI
+   * @return the names of the entity sets the request may have changed
+   * @throws ODataException if the entity sets of the request can not be determined
+   */
+  Set<String> getChangedEntitySets(ODataHttpMethod method, UriInfo uriInfo) throws ODataException;
+
+  /**
+   * Drops the cached responses which have been read from the entity set.
+   * @param entitySetName the name of the entity set
+   */
+  void invalidate(String entitySetName);
+
+  /**
+   * Drops all cached responses.
+   */
+  void invalidateAll();
+}
@@ -33,8 +33,11 @@ import org.apache.olingo.odata2.api.edm.provider.EdmProvider;
 import org.apache.olingo.odata2.api.ep.EntityProvider.EntityProviderInterface;
 import org.apache.olingo.odata2.api.ep.EntityProviderException;
 import org.apache.olingo.odata2.api.exception.ODataMessageException;
+import org.apache.olingo.odata2.api.metrics.ODataInMemoryMetrics;
 import org.apache.olingo.odata2.api.processor.ODataRequest.ODataRequestBuilder;
+import org.apache.olingo.odata2.api.processor.ODataRequestExecutor;
 import org.apache.olingo.odata2.api.processor.ODataResponse.ODataResponseBuilder;
+import org.apache.olingo.odata2.api.processor.ODataResponseCache;
 import org.apache.olingo.odata2.api.processor.ODataSingleProcessor;
 import org.apache.olingo.odata2.api.uri.ExpandSelectTreeNode.ExpandSelectTreeNodeBuilder;
 import org.apache.olingo.odata2.api.uri.UriParser;
@@ -111,6 +114,29 @@ public abstract class RuntimeDelegate {
 
     public abstract ExpandSelectTreeNodeBuilder createExpandSelectTreeNodeBuilder();
 
+    /**
+     * @return the executor or <code>null</code> if the runtime does not provide one; the servlet then uses its own
+     * executor
+     */
+    protected ODataRequestExecutor createVirtualThreadRequestExecutor() {
+      return null;
+    }
+
+    /**
+     * @return the metrics or <code>null</code> if the runtime does not provide them; no metrics are recorded then
+     */
+    protected ODataInMemoryMetrics createInMemoryMetrics() {
+      return null;
+    }
+
+    /**
+     * @return the cache or <code>null</code> if the runtime does not provide one; no responses are cached then
+     */
+    protected ODataResponseCache createResponseCache(final int maxEntries, final long timeToLive,
+        final String... varyHeaders) {
+      return null;
+    }
+
     /**
      * Extract message of {@link ODataMessageException} and return it as a string.
      * 
@@ -226,6 +252,40 @@ public abstract class RuntimeDelegate {
     return RuntimeDelegate.getInstance().createExpandSelectTreeNodeBuilder();
   }
 
+  /**
+   * Creates an executor which runs every task on its own virtual thread if the Java runtime supports virtual
+   * threads (Java 21 or newer) and on a bounded pool of daemon threads otherwise.
+   * @return an executor to be returned by {@link org.apache.olingo.odata2.api.ODataServiceFactory#getCallback(Class)}
+   */
+  public static ODataRequestExecutor createVirtualThreadRequestExecutor() {
+    return RuntimeDelegate.getInstance().createVirtualThreadRequestExecutor();
+  }
+
+  /**
+   * Creates metrics aggregating the values of all requests in memory with lock-free histograms.
+   * @return metrics to be returned by {@link org.apache.olingo.odata2.api.ODataServiceFactory#getCallback(Class)}
+   */
+  public static ODataInMemoryMetrics createInMemoryMetrics() {
+    return RuntimeDelegate.getInstance().createInMemoryMetrics();
+  }
+
+  /**
+   * Creates a cache of the responses of read requests.
+   * <p>
+   * Responses are cached per service root, resource path, query options, negotiated content type and the values
+   * of the <code>DataServiceVersion</code>, <code>MaxDataServiceVersion</code> and <code>Accept-Language</code>
+   * headers. If the processor returns different content per user, the header identifying the user, e.g.,
+   * <code>Authorization</code>, has to be added to the vary headers.
+   * @param maxEntries the maximal number of cached responses; the least recently used responses are dropped
+   * @param timeToLive the time in milliseconds a response is cached
+   * @param varyHeaders additional request headers the responses vary by
+   * @return a cache to be returned by {@link org.apache.olingo.odata2.api.ODataServiceFactory#getCallback(Class)}
+   */
+  public static ODataResponseCache createResponseCache(final int maxEntries, final long timeToLive,
+      final String... varyHeaders) {
+    return RuntimeDelegate.getInstance().createResponseCache(maxEntries, timeToLive, varyHeaders);
+  }
+
   /**
    * Extract message of {@link ODataMessageException} and return it as a string.
    * 
@@ -0,0 +1,41 @@
+/*******************************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ ******************************************************************************/
+package org.apache.olingo.odata2.client.api.ep;
+
+import java.io.OutputStream;
+
+import org.apache.olingo.odata2.api.client.batch.BatchRequestStreamWriter;
+
+/**
+ * Content type based serializer which can also write a Batch Request part by part.
+ * <p>
+ * The serializers returned by {@link org.apache.olingo.odata2.client.api.ODataClient#createSerializer(String)}
+ * for JSON and Atom implement this interface.
+ */
+public interface ContentTypeBasedBatchSerializer extends ContentTypeBasedSerializer {
+
+  /**
+   * Returns a writer which streams Batch Request Parts into the given output stream
+   * as soon as they are appended
+   * @param out
+   * @param boundary
+   * @return BatchRequestStreamWriter
+   */
+  BatchRequestStreamWriter createBatchRequestWriter(final OutputStream out, final String boundary);
+}
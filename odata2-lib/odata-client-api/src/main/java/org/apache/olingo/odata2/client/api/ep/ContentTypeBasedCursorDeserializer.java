@@ -0,0 +1,41 @@
+/*******************************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ ******************************************************************************/
+package org.apache.olingo.odata2.client.api.ep;
+
+import org.apache.olingo.odata2.api.edm.EdmEntitySet;
+import org.apache.olingo.odata2.api.ep.EntityProviderException;
+
+/**
+ * Content type based deserializer which can also read a feed entry by entry.
+ * <p>
+ * The deserializers returned by {@link org.apache.olingo.odata2.client.api.ODataClient#createDeserializer(String)}
+ * for JSON and Atom implement this interface.
+ */
+public interface ContentTypeBasedCursorDeserializer extends ContentTypeBasedDeserializer {
+
+  /**
+   * Returns a cursor reading the entries of a feed one at a time
+   * @param entitySet
+   * @param content
+   * @return EntityCollectionCursor, to be closed after use
+   * @throws EntityProviderException
+   */
+  EntityCollectionCursor readFeedCursor(EdmEntitySet entitySet, EntityStream content)
+      throws EntityProviderException;
+}
@@ -0,0 +1,75 @@
+/*******************************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ ******************************************************************************/
+package org.apache.olingo.odata2.client.api.ep;
+
+import java.util.List;
+
+import org.apache.olingo.odata2.api.ep.EntityProviderException;
+import org.apache.olingo.odata2.api.ep.entry.DeletedEntryMetadata;
+import org.apache.olingo.odata2.api.ep.entry.ODataEntry;
+import org.apache.olingo.odata2.api.ep.feed.FeedMetadata;
+
+/**
+ * Cursor over the entries of a feed which is read (de-serialized) while the entries are consumed.
+ * <p>
+ * A cursor is returned by {@link ContentTypeBasedCursorDeserializer}. Unlike
+ * {@link ContentTypeBasedDeserializer#readFeed(org.apache.olingo.odata2.api.edm.EdmEntitySet, EntityStream)} only
+ * the entry returned last is held in memory, so feeds of arbitrary size can be read with constant memory.
+ * Feed metadata (inline count, next link and delta link) is available as soon as it has been read; depending on the
+ * position of the metadata in the payload this may be only after the last entry has been returned.
+ * <p>
+ * The cursor has to be closed after use.
+ */
+public interface EntityCollectionCursor {
+
+  /**
+   * Reads ahead to the next entry of the feed.
+   * @return <code>true</code> if the feed has a further entry
+   * @throws EntityProviderException if reading of data (de-serialization) fails
+   */
+  boolean hasNext() throws EntityProviderException;
+
+  /**
+   * Returns the next entry of the feed.
+   * @return the next entry
+   * @throws EntityProviderException if reading of data (de-serialization) fails
+   * @throws java.util.NoSuchElementException if the feed has no further entry
+   */
+  ODataEntry next() throws EntityProviderException;
+
+  /**
+   * Returns the feed metadata read so far.
+   * It is complete after {@link #hasNext()} has returned <code>false</code>.
+   * @return the feed metadata
+   */
+  FeedMetadata getFeedMetadata();
+
+  /**
+   * Returns the deleted entries (tombstones) of a delta feed read so far.
+   * They are complete after {@link #hasNext()} has returned <code>false</code>.
+   * @return list of deleted entries
+   */
+  List<DeletedEntryMetadata> getDeletedEntries();
+
+  /**
+   * Closes the underlying reader and the content stream.
+   * @throws EntityProviderException if the reader could not be closed
+   */
+  void close() throws EntityProviderException;
+}
@@ -28,6 +28,7 @@ import javax.xml.stream.XMLStreamWriter;
 import org.apache.olingo.odata2.api.batch.BatchException;
 import org.apache.olingo.odata2.api.batch.BatchResponsePart;
 import org.apache.olingo.odata2.api.client.batch.BatchPart;
+import org.apache.olingo.odata2.api.client.batch.BatchRequestStreamWriter;
 import org.apache.olingo.odata2.api.edm.EdmEntitySet;
 import org.apache.olingo.odata2.api.edm.EdmException;
 import org.apache.olingo.odata2.api.edm.EdmFunctionImport;
@@ -39,10 +40,11 @@ import org.apache.olingo.odata2.api.ep.feed.ODataFeed;
 import org.apache.olingo.odata2.api.processor.ODataErrorContext;
 import org.apache.olingo.odata2.api.processor.ODataResponse;
 import org.apache.olingo.odata2.api.processor.ODataResponse.ODataResponseBuilder;
-import org.apache.olingo.odata2.client.api.ep.ContentTypeBasedDeserializer;
-import org.apache.olingo.odata2.client.api.ep.ContentTypeBasedSerializer;
+import org.apache.olingo.odata2.client.api.ep.ContentTypeBasedBatchSerializer;
+import org.apache.olingo.odata2.client.api.ep.ContentTypeBasedCursorDeserializer;
 import org.apache.olingo.odata2.client.api.ep.Entity;
 import org.apache.olingo.odata2.client.api.ep.EntityCollection;
+import org.apache.olingo.odata2.client.api.ep.EntityCollectionCursor;
 import org.apache.olingo.odata2.client.api.ep.EntityCollectionSerializerProperties;
 import org.apache.olingo.odata2.client.api.ep.EntitySerializerProperties;
 import org.apache.olingo.odata2.client.api.ep.EntityStream;
@@ -50,6 +52,7 @@ import org.apache.olingo.odata2.client.core.ep.deserializer.XmlEntityDeserialize
 import org.apache.olingo.odata2.client.core.ep.deserializer.XmlErrorDocumentDeserializer;
 import org.apache.olingo.odata2.client.core.ep.serializer.AtomEntryEntitySerializer;
 import org.apache.olingo.odata2.client.core.ep.serializer.AtomFeedSerializer;
+import org.apache.olingo.odata2.core.batch.BatchRequestStreamWriterImpl;
 import org.apache.olingo.odata2.core.batch.BatchRequestWriter;
 import org.apache.olingo.odata2.core.batch.BatchResponseWriter;
 import org.apache.olingo.odata2.core.commons.ContentType;
@@ -63,7 +66,8 @@ import org.apache.olingo.odata2.core.ep.util.CircleStreamBuffer;
 /**
  *  This class includes methods to serialize deserialize XML Content type
  */
-public class AtomSerializerDeserializer implements ContentTypeBasedSerializer, ContentTypeBasedDeserializer {
+public class AtomSerializerDeserializer implements ContentTypeBasedBatchSerializer,
+    ContentTypeBasedCursorDeserializer {
 
   /** Default used charset for writer and response content header */
   private static final String DEFAULT_CHARSET = ContentType.CHARSET_UTF_8;
@@ -131,6 +135,12 @@ public class AtomSerializerDeserializer implements ContentTypeBasedSerializer, C
     return xec.readFeed(entitySet, content);
   }
 
+  @Override
+  public EntityCollectionCursor readFeedCursor(EdmEntitySet entitySet, EntityStream content)
+      throws EntityProviderException {
+    return new XmlEntityDeserializer().readFeedCursor(entitySet, content);
+  }
+
   @Override
   public ODataEntry readEntry( EdmEntitySet entitySet, EntityStream content)
       throws EntityProviderException {
@@ -184,6 +194,11 @@ public class AtomSerializerDeserializer implements ContentTypeBasedSerializer, C
     return batchWriter.writeBatchRequest(batchParts, boundary);
   }
 
+  @Override
+  public BatchRequestStreamWriter createBatchRequestWriter(OutputStream out, String boundary) {
+    return new BatchRequestStreamWriterImpl(out, boundary);
+  }
+
   @Override
   public ODataResponse writeBatchResponse(List<BatchResponsePart> batchResponseParts) throws BatchException {
     BatchResponseWriter batchWriter = new BatchResponseWriter();
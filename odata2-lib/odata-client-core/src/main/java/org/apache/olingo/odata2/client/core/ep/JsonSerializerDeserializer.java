@@ -20,12 +20,14 @@ package org.apache.olingo.odata2.client.core.ep;
 
 import java.io.BufferedWriter;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.util.List;
 
 import org.apache.olingo.odata2.api.batch.BatchException;
 import org.apache.olingo.odata2.api.batch.BatchResponsePart;
 import org.apache.olingo.odata2.api.client.batch.BatchPart;
+import org.apache.olingo.odata2.api.client.batch.BatchRequestStreamWriter;
 import org.apache.olingo.odata2.api.edm.EdmEntitySet;
 import org.apache.olingo.odata2.api.edm.EdmException;
 import org.apache.olingo.odata2.api.edm.EdmFunctionImport;
@@ -36,16 +38,18 @@ import org.apache.olingo.odata2.api.ep.entry.ODataEntry;
 import org.apache.olingo.odata2.api.ep.feed.ODataFeed;
 import org.apache.olingo.odata2.api.processor.ODataErrorContext;
 import org.apache.olingo.odata2.api.processor.ODataResponse;
-import org.apache.olingo.odata2.client.api.ep.ContentTypeBasedDeserializer;
-import org.apache.olingo.odata2.client.api.ep.ContentTypeBasedSerializer;
+import org.apache.olingo.odata2.client.api.ep.ContentTypeBasedBatchSerializer;
+import org.apache.olingo.odata2.client.api.ep.ContentTypeBasedCursorDeserializer;
 import org.apache.olingo.odata2.client.api.ep.Entity;
 import org.apache.olingo.odata2.client.api.ep.EntityCollection;
+import org.apache.olingo.odata2.client.api.ep.EntityCollectionCursor;
 import org.apache.olingo.odata2.client.api.ep.EntityCollectionSerializerProperties;
 import org.apache.olingo.odata2.client.api.ep.EntitySerializerProperties;
 import org.apache.olingo.odata2.client.api.ep.EntityStream;
 import org.apache.olingo.odata2.client.core.ep.deserializer.JsonEntityDeserializer;
 import org.apache.olingo.odata2.client.core.ep.serializer.JsonEntryEntitySerializer;
 import org.apache.olingo.odata2.client.core.ep.serializer.JsonFeedEntitySerializer;
+import org.apache.olingo.odata2.core.batch.BatchRequestStreamWriterImpl;
 import org.apache.olingo.odata2.core.batch.BatchRequestWriter;
 import org.apache.olingo.odata2.core.batch.BatchResponseWriter;
 import org.apache.olingo.odata2.core.ep.EntityProviderProducerException;
@@ -57,7 +61,8 @@ import org.apache.olingo.odata2.core.ep.util.CircleStreamBuffer;
 /**
  *  This class includes methods to serialize deserialize JSON Content type
  */
-public class JsonSerializerDeserializer implements ContentTypeBasedSerializer, ContentTypeBasedDeserializer {
+public class JsonSerializerDeserializer implements ContentTypeBasedBatchSerializer,
+    ContentTypeBasedCursorDeserializer {
 
   private static final String DEFAULT_CHARSET = "UTF-8";
 
@@ -98,6 +103,12 @@ public class JsonSerializerDeserializer implements ContentTypeBasedSerializer, C
     return new JsonEntityDeserializer().readFeed(entitySet, content);
   }
 
+  @Override
+  public EntityCollectionCursor readFeedCursor(EdmEntitySet entitySet, EntityStream content)
+      throws EntityProviderException {
+    return new JsonEntityDeserializer().readFeedCursor(entitySet, content);
+  }
+
   @Override
   public ODataEntry readEntry(EdmEntitySet entitySet, EntityStream content) 
       throws EntityProviderException {
@@ -148,6 +159,11 @@ public class JsonSerializerDeserializer implements ContentTypeBasedSerializer, C
     return batchWriter.writeBatchRequest(batchParts, boundary);
   }
 
+  @Override
+  public BatchRequestStreamWriter createBatchRequestWriter(OutputStream out, String boundary) {
+    return new BatchRequestStreamWriterImpl(out, boundary);
+  }
+
   @Override
   public Object readFunctionImport(EdmFunctionImport functionImport, EntityStream content)
       throws EntityProviderException {
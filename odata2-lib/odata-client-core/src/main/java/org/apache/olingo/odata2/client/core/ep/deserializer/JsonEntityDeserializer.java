@@ -30,6 +30,7 @@ import org.apache.olingo.odata2.api.ep.EntityProviderException;
 import org.apache.olingo.odata2.api.ep.entry.ODataEntry;
 import org.apache.olingo.odata2.api.ep.feed.ODataDeltaFeed;
 import org.apache.olingo.odata2.api.ep.feed.ODataFeed;
+import org.apache.olingo.odata2.client.api.ep.EntityCollectionCursor;
 import org.apache.olingo.odata2.client.api.ep.EntityStream;
 import org.apache.olingo.odata2.core.ep.aggregator.EntityInfoAggregator;
 import org.apache.olingo.odata2.core.ep.aggregator.EntityPropertyInfo;
@@ -136,6 +137,38 @@ public class JsonEntityDeserializer {
     }
   }
 
+  /**
+   * Returns a cursor reading the entries of the feed in the EntityStream one at a time
+   * @param entitySet
+   * @param entityStream
+   * @return EntityCollectionCursor
+   * @throws EntityProviderException
+   */
+  public EntityCollectionCursor readFeedCursor(final EdmEntitySet entitySet, final EntityStream entityStream)
+      throws EntityProviderException {
+    JsonFeedCursor cursor = null;
+    boolean started = false;
+    try {
+      EntityInfoAggregator eia = EntityInfoAggregator.create(entitySet);
+      cursor = new JsonFeedCursor(createJsonReader(entityStream.getContent()), eia,
+          entityStream.getReadProperties());
+      cursor.start();
+      started = true;
+      return cursor;
+    } catch (UnsupportedEncodingException e) {
+      throw new EntityProviderException(EntityProviderException.EXCEPTION_OCCURRED.addContent(e.getClass()
+          .getSimpleName()), e);
+    } finally {
+      if (cursor != null && !started) {
+        try {
+          cursor.close();
+        } catch (EntityProviderException e) { //NOPMD  - suppressed
+          // the failure of reading the feed start is reported
+        }
+      }
+    }
+  }
+
 /**
  * 
  * @param content
@@ -0,0 +1,192 @@
+/*******************************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ ******************************************************************************/
+package org.apache.olingo.odata2.client.core.ep.deserializer;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import org.apache.olingo.odata2.api.edm.EdmException;
+import org.apache.olingo.odata2.api.ep.EntityProviderException;
+import org.apache.olingo.odata2.api.ep.entry.DeletedEntryMetadata;
+import org.apache.olingo.odata2.api.ep.entry.ODataEntry;
+import org.apache.olingo.odata2.api.ep.feed.FeedMetadata;
+import org.apache.olingo.odata2.client.api.ep.DeserializerProperties;
+import org.apache.olingo.odata2.client.api.ep.EntityCollectionCursor;
+import org.apache.olingo.odata2.core.ep.aggregator.EntityInfoAggregator;
+import org.apache.olingo.odata2.core.ep.feed.FeedMetadataImpl;
+import org.apache.olingo.odata2.core.ep.feed.JsonFeedEntry;
+import org.apache.olingo.odata2.core.ep.util.FormatJson;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+/**
+ * Cursor reading the entries of a JSON feed one at a time.
+ * The payload structure accepted is the same as for {@link JsonFeedDeserializer}.
+ */
+public class JsonFeedCursor implements EntityCollectionCursor {
+
+  private final JsonReader reader;
+  private final EntityInfoAggregator eia;
+  private final DeserializerProperties readProperties;
+  private final List<DeletedEntryMetadata> deletedEntries = new ArrayList<DeletedEntryMetadata>();
+  private final FeedMetadataImpl feedMetadata = new FeedMetadataImpl();
+  private int openObjects = 0;
+  private boolean resultsInObject = false;
+  private boolean finished = false;
+  private ODataEntry nextEntry;
+
+  /**
+   * 
+   * @param reader
+   * @param eia
+   * @param readProperties
+   */
+  public JsonFeedCursor(final JsonReader reader, final EntityInfoAggregator eia,
+      final DeserializerProperties readProperties) {
+    this.reader = reader;
+    this.eia = eia;
+    this.readProperties = readProperties;
+  }
+
+  /**
+   * Reads the feed up to the first entry of the results array.
+   * @throws EntityProviderException
+   */
+  public void start() throws EntityProviderException {
+    try {
+      if (reader.peek() == JsonToken.BEGIN_ARRAY) {
+        reader.beginArray();
+        return;
+      }
+      reader.beginObject();
+      openObjects++;
+      String name = reader.nextName();
+      if (FormatJson.D.equals(name)) {
+        if (reader.peek() == JsonToken.BEGIN_ARRAY) {
+          reader.beginArray();
+          return;
+        }
+        reader.beginObject();
+        openObjects++;
+        name = nextName();
+      }
+      while (!FormatJson.RESULTS.equals(name)) {
+        JsonFeedDeserializer.readFeedMetadata(reader, name, feedMetadata);
+        name = nextName();
+      }
+      resultsInObject = true;
+      reader.beginArray();
+    } catch (IOException e) {
+      throw wrap(e);
+    } catch (IllegalStateException e) {
+      throw wrap(e);
+    }
+  }
+
+  @Override
+  public boolean hasNext() throws EntityProviderException {
+    if (nextEntry == null && !finished) {
+      try {
+        nextEntry = readNextEntry();
+        if (nextEntry == null) {
+          finished = true;
+          readFeedEnd();
+        }
+      } catch (IOException e) {
+        throw wrap(e);
+      } catch (EdmException e) {
+        throw wrap(e);
+      } catch (IllegalStateException e) {
+        throw wrap(e);
+      }
+    }
+    return nextEntry != null;
+  }
+
+  @Override
+  public ODataEntry next() throws EntityProviderException {
+    if (!hasNext()) {
+      throw new NoSuchElementException();
+    }
+    ODataEntry entry = nextEntry;
+    nextEntry = null;
+    return entry;
+  }
+
+  @Override
+  public FeedMetadata getFeedMetadata() {
+    return feedMetadata;
+  }
+
+  @Override
+  public List<DeletedEntryMetadata> getDeletedEntries() {
+    return deletedEntries;
+  }
+
+  @Override
+  public void close() throws EntityProviderException {
+    try {
+      reader.close();
+    } catch (IOException e) {
+      throw wrap(e);
+    }
+  }
+
+  private String nextName() throws IOException, EntityProviderException {
+    if (!reader.hasNext()) {
+      throw new EntityProviderException(EntityProviderException.MISSING_RESULTS_ARRAY);
+    }
+    return reader.nextName();
+  }
+
+  private ODataEntry readNextEntry() throws IOException, EdmException, EntityProviderException {
+    while (reader.hasNext()) {
+      final JsonFeedEntry entry = new JsonEntryDeserializer(reader, eia, readProperties).readFeedEntry();
+      if (entry.isODataEntry()) {
+        return entry.getODataEntry();
+      }
+      deletedEntries.add(entry.getDeletedEntryMetadata());
+    }
+    return null;
+  }
+
+  private void readFeedEnd() throws IOException, EntityProviderException {
+    reader.endArray();
+    if (resultsInObject) {
+      while (reader.hasNext()) {
+        JsonFeedDeserializer.readFeedMetadata(reader, reader.nextName(), feedMetadata);
+      }
+    }
+    for (; openObjects > 0; openObjects--) {
+      reader.endObject();
+    }
+    if (reader.peek() != JsonToken.END_DOCUMENT) {
+      throw new EntityProviderException(EntityProviderException.END_DOCUMENT_EXPECTED.addContent(reader.peek()
+          .toString()));
+    }
+  }
+
+  private EntityProviderException wrap(final Exception e) {
+    return new EntityProviderException(EntityProviderException.EXCEPTION_OCCURRED.addContent(e.getClass()
+        .getSimpleName()), e);
+  }
+}
@@ -152,28 +152,43 @@ public class JsonFeedDeserializer {
       resultsArrayPresent = true;
       readArrayContent();
 
-    } else if (FormatJson.COUNT.equals(nextName)) {
+    } else {
+      readFeedMetadata(reader, nextName, feedMetadata);
+    }
+  }
+
+  /**
+   * Reads the feed metadata (inline count, next link or delta link) with the given name.
+   * @param reader
+   * @param name
+   * @param feedMetadata
+   * @throws IOException
+   * @throws EntityProviderException
+   */
+  protected static void readFeedMetadata(final JsonReader reader, final String name,
+      final FeedMetadataImpl feedMetadata) throws IOException, EntityProviderException {
+    if (FormatJson.COUNT.equals(name)) {
       readInlineCount(reader, feedMetadata);
 
-    } else if (FormatJson.NEXT.equals(nextName)) {
+    } else if (FormatJson.NEXT.equals(name)) {
       if (reader.peek() == JsonToken.STRING && feedMetadata.getNextLink() == null) {
         String nextLink = reader.nextString();
         feedMetadata.setNextLink(nextLink);
       } else {
-        throw new EntityProviderException(EntityProviderException.INVALID_CONTENT.addContent(nextName).addContent(
+        throw new EntityProviderException(EntityProviderException.INVALID_CONTENT.addContent(name).addContent(
             JSONFEED));
       }
 
-    } else if (FormatJson.DELTA.equals(nextName)) {
+    } else if (FormatJson.DELTA.equals(name)) {
       if (reader.peek() == JsonToken.STRING && feedMetadata.getDeltaLink() == null) {
         String deltaLink = reader.nextString();
         feedMetadata.setDeltaLink(deltaLink);
       } else {
-        throw new EntityProviderException(EntityProviderException.INVALID_CONTENT.addContent(nextName).addContent(
+        throw new EntityProviderException(EntityProviderException.INVALID_CONTENT.addContent(name).addContent(
             JSONFEED));
       }
     } else {
-      throw new EntityProviderException(EntityProviderException.INVALID_CONTENT.addContent(nextName).addContent(
+      throw new EntityProviderException(EntityProviderException.INVALID_CONTENT.addContent(name).addContent(
           JSONFEED));
     }
   }
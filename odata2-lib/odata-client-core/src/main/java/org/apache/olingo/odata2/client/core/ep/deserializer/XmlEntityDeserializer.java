@@ -18,6 +18,7 @@
  ******************************************************************************/
 package org.apache.olingo.odata2.client.core.ep.deserializer;
 
+import java.io.IOException;
 import java.util.Map;
 
 import javax.xml.stream.XMLStreamException;
@@ -27,6 +28,7 @@ import org.apache.olingo.odata2.api.edm.EdmEntitySet;
 import org.apache.olingo.odata2.api.ep.EntityProviderException;
 import org.apache.olingo.odata2.api.ep.entry.ODataEntry;
 import org.apache.olingo.odata2.api.ep.feed.ODataDeltaFeed;
+import org.apache.olingo.odata2.client.api.ep.EntityCollectionCursor;
 import org.apache.olingo.odata2.client.api.ep.EntityStream;
 import org.apache.olingo.odata2.core.commons.XmlHelper;
 import org.apache.olingo.odata2.core.ep.aggregator.EntityInfoAggregator;
@@ -85,6 +87,41 @@ public class XmlEntityDeserializer {
     }
   }
 
+  /**
+   * Returns a cursor reading the entries of the feed in the EntityStream one at a time
+   * @param entitySet
+   * @param entity
+   * @return EntityCollectionCursor
+   * @throws EntityProviderException
+   */
+  public EntityCollectionCursor readFeedCursor(final EdmEntitySet entitySet, final EntityStream entity)
+      throws EntityProviderException {
+    XmlFeedCursor cursor = null;
+    boolean started = false;
+    try {
+      EntityInfoAggregator eia = EntityInfoAggregator.create(entitySet);
+      cursor = new XmlFeedCursor(entity.getContent(), XmlHelper.createStreamReader(entity.getContent()), eia,
+          entity.getReadProperties());
+      cursor.start();
+      started = true;
+      return cursor;
+    } finally {
+      if (!started) {
+        try {
+          if (cursor != null) {
+            cursor.close();
+          } else if (entity.getContent() != null) {
+            entity.getContent().close();
+          }
+        } catch (EntityProviderException e) { //NOPMD  - suppressed
+          // the failure of reading the feed start is reported
+        } catch (IOException e) { //NOPMD  - suppressed
+          // the failure of reading the feed start is reported
+        }
+      }
+    }
+  }
+
   /**
    * Returns an ODataEntry deserializing EntityStream
    * @param entitySet
@@ -0,0 +1,154 @@
+/*******************************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ ******************************************************************************/
+package org.apache.olingo.odata2.client.core.ep.deserializer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.apache.olingo.odata2.api.ep.EntityProviderException;
+import org.apache.olingo.odata2.api.ep.entry.DeletedEntryMetadata;
+import org.apache.olingo.odata2.api.ep.entry.ODataEntry;
+import org.apache.olingo.odata2.api.ep.feed.FeedMetadata;
+import org.apache.olingo.odata2.client.api.ep.DeserializerProperties;
+import org.apache.olingo.odata2.client.api.ep.EntityCollectionCursor;
+import org.apache.olingo.odata2.core.ep.aggregator.EntityInfoAggregator;
+import org.apache.olingo.odata2.core.ep.feed.FeedMetadataImpl;
+import org.apache.olingo.odata2.core.ep.util.FormatXml;
+
+/**
+ * Cursor reading the entries of an Atom feed one at a time.
+ * The payload structure accepted is the same as for {@link XmlFeedDeserializer}.
+ */
+public class XmlFeedCursor implements EntityCollectionCursor {
+
+  private final InputStream content;
+  private final XMLStreamReader reader;
+  private final EntityInfoAggregator eia;
+  private final DeserializerProperties readProperties;
+  private final XmlFeedDeserializer feedDeserializer = new XmlFeedDeserializer();
+  private final XmlEntryDeserializer entryDeserializer = new XmlEntryDeserializer();
+  private final List<DeletedEntryMetadata> deletedEntries = new ArrayList<DeletedEntryMetadata>();
+  private final FeedMetadataImpl feedMetadata = new FeedMetadataImpl();
+  private DeserializerProperties entryReadProperties;
+  private boolean finished = false;
+  private ODataEntry nextEntry;
+
+  /**
+   * 
+   * @param content
+   * stream the reader reads from; {@link XMLStreamReader#close()} does not close it
+   * @param reader
+   * @param eia
+   * @param readProperties
+   */
+  public XmlFeedCursor(final InputStream content, final XMLStreamReader reader, final EntityInfoAggregator eia,
+      final DeserializerProperties readProperties) {
+    this.content = content;
+    this.reader = reader;
+    this.eia = eia;
+    this.readProperties = readProperties;
+  }
+
+  /**
+   * Reads the feed tag and validates its namespaces.
+   * @throws EntityProviderException
+   */
+  public void start() throws EntityProviderException {
+    try {
+      entryReadProperties = feedDeserializer.readFeedStart(reader, readProperties);
+    } catch (XMLStreamException e) {
+      throw wrap(e);
+    }
+  }
+
+  @Override
+  public boolean hasNext() throws EntityProviderException {
+    if (nextEntry == null && !finished) {
+      try {
+        nextEntry = readNextEntry();
+        finished = nextEntry == null;
+      } catch (XMLStreamException e) {
+        throw wrap(e);
+      }
+    }
+    return nextEntry != null;
+  }
+
+  @Override
+  public ODataEntry next() throws EntityProviderException {
+    if (!hasNext()) {
+      throw new NoSuchElementException();
+    }
+    ODataEntry entry = nextEntry;
+    nextEntry = null;
+    return entry;
+  }
+
+  @Override
+  public FeedMetadata getFeedMetadata() {
+    return feedMetadata;
+  }
+
+  @Override
+  public List<DeletedEntryMetadata> getDeletedEntries() {
+    return deletedEntries;
+  }
+
+  @Override
+  public void close() throws EntityProviderException {
+    try {
+      reader.close();
+    } catch (XMLStreamException e) {
+      throw wrap(e);
+    } finally {
+      try {
+        content.close();
+      } catch (IOException e) { //NOPMD  - suppressed
+        // the content has been read as far as needed
+      }
+    }
+  }
+
+  private ODataEntry readNextEntry() throws XMLStreamException, EntityProviderException {
+    while (reader.hasNext() && !feedDeserializer.isFeedEndTag(reader)) {
+      ODataEntry entry = null;
+      if (FormatXml.ATOM_ENTRY.equals(reader.getLocalName())) {
+        entry = entryDeserializer.readEntry(reader, eia, entryReadProperties, true);
+      } else {
+        feedDeserializer.readFeedElement(reader, feedMetadata, deletedEntries);
+      }
+      feedDeserializer.readTillNextStartTag(reader);
+      if (entry != null) {
+        return entry;
+      }
+    }
+    return null;
+  }
+
+  private EntityProviderException wrap(final Exception e) {
+    return new EntityProviderException(EntityProviderException.EXCEPTION_OCCURRED.addContent(e.getClass()
+        .getSimpleName()), e);
+  }
+}
@@ -65,18 +65,7 @@ public class XmlFeedDeserializer {
   public ODataDeltaFeed readFeed(final XMLStreamReader reader, final EntityInfoAggregator eia,
       final DeserializerProperties readProperties) throws EntityProviderException {
     try {
-      // read xml tag
-      reader.require(XMLStreamConstants.START_DOCUMENT, null, null);
-      reader.nextTag();
-
-      // read feed tag
-      reader.require(XMLStreamConstants.START_ELEMENT, Edm.NAMESPACE_ATOM_2005, FormatXml.ATOM_FEED);
-      Map<String, String> foundPrefix2NamespaceUri = extractNamespacesFromTag(reader);
-      foundPrefix2NamespaceUri.putAll(readProperties.getValidatedPrefixNamespaceUris());
-      checkAllMandatoryNamespacesAvailable(foundPrefix2NamespaceUri);
-      DeserializerProperties entryReadProperties =
-          DeserializerProperties.initFrom(readProperties)
-          .addValidatedPrefixes(foundPrefix2NamespaceUri).build();
+      DeserializerProperties entryReadProperties = readFeedStart(reader, readProperties);
 
       // read feed data (metadata and entries)
       return readFeedData(reader, eia, entryReadProperties);
@@ -86,6 +75,30 @@ public class XmlFeedDeserializer {
     }
   }
 
+  /**
+   * Reads the xml and feed tag and validates the namespaces declared at the feed tag.
+   * 
+   * @param reader xml stream reader positioned at the start of the document
+   * @param readProperties
+   * @return properties which are used for read of the feed entries
+   * @throws XMLStreamException if malformed xml is read in stream
+   * @throws EntityProviderException if a mandatory namespace is missing
+   */
+  DeserializerProperties readFeedStart(final XMLStreamReader reader, final DeserializerProperties readProperties)
+      throws XMLStreamException, EntityProviderException {
+    // read xml tag
+    reader.require(XMLStreamConstants.START_DOCUMENT, null, null);
+    reader.nextTag();
+
+    // read feed tag
+    reader.require(XMLStreamConstants.START_ELEMENT, Edm.NAMESPACE_ATOM_2005, FormatXml.ATOM_FEED);
+    Map<String, String> foundPrefix2NamespaceUri = extractNamespacesFromTag(reader);
+    foundPrefix2NamespaceUri.putAll(readProperties.getValidatedPrefixNamespaceUris());
+    checkAllMandatoryNamespacesAvailable(foundPrefix2NamespaceUri);
+    return DeserializerProperties.initFrom(readProperties)
+        .addValidatedPrefixes(foundPrefix2NamespaceUri).build();
+  }
+
   /**
    * Read all feed specific data (like <code>inline count</code> and <code>next link</code>) as well as all feed entries
    * (<code>entry</code>) and delta feed extensions (tombstones).
@@ -109,36 +122,53 @@ public class XmlFeedDeserializer {
       if (FormatXml.ATOM_ENTRY.equals(reader.getLocalName())) {
         ODataEntry entry = xec.readEntry(reader, eia, entryReadProperties, true);
         results.add(entry);
-      } else if (FormatXml.ATOM_TOMBSTONE_DELETED_ENTRY.equals(reader.getLocalName())) {
-        reader.require(XMLStreamConstants.START_ELEMENT, FormatXml.ATOM_TOMBSTONE_NAMESPACE,
-            FormatXml.ATOM_TOMBSTONE_DELETED_ENTRY);
-
-        DeletedEntryMetadataImpl deletedEntryMetadata = readDeletedEntryMetadata(reader);
-        deletedEntries.add(deletedEntryMetadata);
-        reader.next();
-      } else if (FormatXml.M_COUNT.equals(reader.getLocalName())) {
-        reader.require(XMLStreamConstants.START_ELEMENT, Edm.NAMESPACE_M_2007_08, FormatXml.M_COUNT);
-        readInlineCount(reader, metadata);
-      } else if (FormatXml.ATOM_LINK.equals(reader.getLocalName())) {
-        reader.require(XMLStreamConstants.START_ELEMENT, Edm.NAMESPACE_ATOM_2005, FormatXml.ATOM_LINK);
-
-        final String rel = reader.getAttributeValue(null, FormatXml.ATOM_REL);
-        if (FormatXml.ATOM_NEXT_LINK.equals(rel)) {
-          final String uri = reader.getAttributeValue(null, FormatXml.ATOM_HREF);
-          metadata.setNextLink(uri);
-        } else if (FormatXml.ATOM_DELTA_LINK.equals(rel)) {
-          final String uri = reader.getAttributeValue(null, FormatXml.ATOM_HREF);
-          metadata.setDeltaLink(uri);
-        }
-        reader.next();
       } else {
-        reader.next();
+        readFeedElement(reader, metadata, deletedEntries);
       }
       readTillNextStartTag(reader);
     }
     return new ODataDeltaFeedImpl(results, metadata, deletedEntries);
   }
 
+  /**
+   * Reads a feed element other than an entry; inline count, next link, delta link and deleted entries are
+   * stored, all other elements are skipped.
+   * 
+   * @param reader xml stream reader positioned at the start tag of the element
+   * @param metadata feed metadata read so far
+   * @param deletedEntries deleted entries read so far
+   * @throws XMLStreamException if malformed xml is read in stream
+   * @throws EntityProviderException if xml contains invalid data
+   */
+  void readFeedElement(final XMLStreamReader reader, final FeedMetadataImpl metadata,
+      final List<DeletedEntryMetadata> deletedEntries) throws XMLStreamException, EntityProviderException {
+    if (FormatXml.ATOM_TOMBSTONE_DELETED_ENTRY.equals(reader.getLocalName())) {
+      reader.require(XMLStreamConstants.START_ELEMENT, FormatXml.ATOM_TOMBSTONE_NAMESPACE,
+          FormatXml.ATOM_TOMBSTONE_DELETED_ENTRY);
+
+      DeletedEntryMetadataImpl deletedEntryMetadata = readDeletedEntryMetadata(reader);
+      deletedEntries.add(deletedEntryMetadata);
+      reader.next();
+    } else if (FormatXml.M_COUNT.equals(reader.getLocalName())) {
+      reader.require(XMLStreamConstants.START_ELEMENT, Edm.NAMESPACE_M_2007_08, FormatXml.M_COUNT);
+      readInlineCount(reader, metadata);
+    } else if (FormatXml.ATOM_LINK.equals(reader.getLocalName())) {
+      reader.require(XMLStreamConstants.START_ELEMENT, Edm.NAMESPACE_ATOM_2005, FormatXml.ATOM_LINK);
+
+      final String rel = reader.getAttributeValue(null, FormatXml.ATOM_REL);
+      if (FormatXml.ATOM_NEXT_LINK.equals(rel)) {
+        final String uri = reader.getAttributeValue(null, FormatXml.ATOM_HREF);
+        metadata.setNextLink(uri);
+      } else if (FormatXml.ATOM_DELTA_LINK.equals(rel)) {
+        final String uri = reader.getAttributeValue(null, FormatXml.ATOM_HREF);
+        metadata.setDeltaLink(uri);
+      }
+      reader.next();
+    } else {
+      reader.next();
+    }
+  }
+
   private DeletedEntryMetadataImpl readDeletedEntryMetadata(final XMLStreamReader reader)
       throws EntityProviderException {
     try {
@@ -177,13 +207,13 @@ public class XmlFeedDeserializer {
     }
   }
 
-  private void readTillNextStartTag(final XMLStreamReader reader) throws XMLStreamException {
+  void readTillNextStartTag(final XMLStreamReader reader) throws XMLStreamException {
     while (reader.hasNext() && !reader.isStartElement()) {
       reader.next();
     }
   }
 
-  private boolean isFeedEndTag(final XMLStreamReader reader) {
+  boolean isFeedEndTag(final XMLStreamReader reader) {
     return reader.isEndElement()
         && Edm.NAMESPACE_ATOM_2005.equals(reader.getNamespaceURI())
         && FormatXml.ATOM_FEED.equals(reader.getLocalName());
@@ -19,13 +19,16 @@
 package org.apache.olingo.odata2.client.core.ep.deserializer;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 
 import java.io.InputStream;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
 
 import org.apache.olingo.odata2.api.edm.EdmEntitySet;
 import org.apache.olingo.odata2.api.ep.EntityProviderException;
@@ -36,7 +39,9 @@ import org.apache.olingo.odata2.api.ep.feed.FeedMetadata;
 import org.apache.olingo.odata2.api.ep.feed.ODataDeltaFeed;
 import org.apache.olingo.odata2.api.ep.feed.ODataFeed;
 import org.apache.olingo.odata2.client.api.ep.DeserializerProperties;
+import org.apache.olingo.odata2.client.api.ep.EntityCollectionCursor;
 import org.apache.olingo.odata2.client.api.ep.EntityStream;
+import org.apache.olingo.odata2.client.core.ep.JsonSerializerDeserializer;
 import org.apache.olingo.odata2.testutil.mock.MockFacade;
 import org.junit.Test;
 
@@ -593,6 +598,97 @@ public class JsonFeedDeserializerTest extends AbstractDeserializerTest {
     }
   }
 
+  @Test
+  public void feedCursorWithInlineCountAndNextAndDelta() throws Exception {
+    EdmEntitySet entitySet = MockFacade.getMockEdm().getDefaultEntityContainer().getEntitySet("Teams");
+    String content =
+        "{\"d\":{\"__count\":\"3\",\"results\":[{" +
+            "\"__metadata\":{\"id\":\"http://localhost:8080/ReferenceScenario.svc/Teams('1')\"," +
+            "\"uri\":\"http://localhost:8080/ReferenceScenario.svc/Teams('1')\",\"type\":\"RefScenario.Team\"}," +
+            "\"Id\":\"1\",\"Name\":\"Team 1\",\"isScrumTeam\":false,\"nt_Employees\":{\"__deferred\":{" +
+            "\"uri\":\"http://localhost:8080/ReferenceScenario.svc/Teams('1')/nt_Employees\"}}}]," +
+            "\"__next\":\"Rooms?$skiptoken=98&$inlinecount=allpages\",\"__delta\":\"deltalink\"}}";
+    EntityStream entityStream = new EntityStream();
+    entityStream.setContent(createContentAsStream(content));
+    entityStream.setReadProperties(DEFAULT_PROPERTIES);
+
+    EntityCollectionCursor cursor = new JsonSerializerDeserializer().readFeedCursor(entitySet, entityStream);
+    FeedMetadata feedMetadata = cursor.getFeedMetadata();
+    // the inline count precedes the results and is available before the first entry
+    assertEquals(Integer.valueOf(3), feedMetadata.getInlineCount());
+    assertNull(feedMetadata.getNextLink());
+
+    assertTrue(cursor.hasNext());
+    assertEquals("Team 1", cursor.next().getProperties().get("Name"));
+    assertFalse(cursor.hasNext());
+    cursor.close();
+
+    assertEquals("Rooms?$skiptoken=98&$inlinecount=allpages", feedMetadata.getNextLink());
+    assertEquals("deltalink", feedMetadata.getDeltaLink());
+  }
+
+  @Test
+  public void feedCursorWithoutD() throws Exception {
+    EdmEntitySet entitySet = MockFacade.getMockEdm().getDefaultEntityContainer().getEntitySet("Teams");
+    EntityStream entityStream = new EntityStream();
+    entityStream.setContent(createContentAsStream(readFile("JsonTeamsWithCountWithoutD.json")));
+    entityStream.setReadProperties(DEFAULT_PROPERTIES);
+
+    EntityCollectionCursor cursor = new JsonEntityDeserializer().readFeedCursor(entitySet, entityStream);
+    assertEquals("2", cursor.next().getProperties().get("Id"));
+    assertEquals("3", cursor.next().getProperties().get("Id"));
+    assertFalse(cursor.hasNext());
+    assertEquals(Integer.valueOf(3), cursor.getFeedMetadata().getInlineCount());
+    cursor.close();
+  }
+
+  @Test
+  public void feedCursorWithDeletedEntries() throws Exception {
+    EdmEntitySet entitySet = MockFacade.getMockEdm().getDefaultEntityContainer().getEntitySet("Rooms");
+    EntityStream entityStream = new EntityStream();
+    entityStream.setContent(createContentAsStream(readFile("JsonWithDeletedEntries.json")));
+    entityStream.setReadProperties(DEFAULT_PROPERTIES);
+
+    EntityCollectionCursor cursor = new JsonEntityDeserializer().readFeedCursor(entitySet, entityStream);
+    int count = 0;
+    while (cursor.hasNext()) {
+      assertEquals("W/\"2\"", cursor.next().getMetadata().getEtag());
+      count++;
+    }
+    cursor.close();
+    assertEquals(1, count);
+    assertEquals(2, cursor.getDeletedEntries().size());
+    assertEquals("http://localhost:8080/ReferenceScenario.svc/Rooms?!deltatoken=4711",
+        cursor.getFeedMetadata().getDeltaLink());
+  }
+
+  @Test(expected = NoSuchElementException.class)
+  public void feedCursorExhausted() throws Exception {
+    EdmEntitySet entitySet = MockFacade.getMockEdm().getDefaultEntityContainer().getEntitySet("Teams");
+    EntityStream entityStream = new EntityStream();
+    entityStream.setContent(createContentAsStream("{\"d\":{\"results\":[]}}"));
+    entityStream.setReadProperties(DEFAULT_PROPERTIES);
+
+    EntityCollectionCursor cursor = new JsonEntityDeserializer().readFeedCursor(entitySet, entityStream);
+    assertFalse(cursor.hasNext());
+    cursor.next();
+  }
+
+  @Test
+  public void feedCursorWithoutResults() throws Exception {
+    EdmEntitySet entitySet = MockFacade.getMockEdm().getDefaultEntityContainer().getEntitySet("Teams");
+    EntityStream entityStream = new EntityStream();
+    entityStream.setContent(createContentAsStream("{\"d\":{\"__count\":\"3\"}}"));
+    entityStream.setReadProperties(DEFAULT_PROPERTIES);
+
+    try {
+      new JsonEntityDeserializer().readFeedCursor(entitySet, entityStream);
+      Assert.fail("Exception expected");
+    } catch (EntityProviderException e) {
+      assertEquals(EntityProviderException.MISSING_RESULTS_ARRAY, e.getMessageReference());
+    }
+  }
+
   private void checkMediaDataInitial(final MediaMetadata mediaMetadata) {
     assertNull(mediaMetadata.getContentType());
     assertNull(mediaMetadata.getEditLink());
@@ -19,9 +19,12 @@
 package org.apache.olingo.odata2.client.core.ep.deserializer;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
 
 import java.io.ByteArrayInputStream;
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.UnsupportedEncodingException;
 import java.util.List;
@@ -36,8 +39,10 @@ import org.apache.olingo.odata2.api.ep.feed.ODataDeltaFeed;
 import org.apache.olingo.odata2.api.ep.feed.ODataFeed;
 import org.apache.olingo.odata2.client.api.edm.ClientEdm;
 import org.apache.olingo.odata2.client.api.edm.EdmDataServices;
+import org.apache.olingo.odata2.client.api.ep.ContentTypeBasedCursorDeserializer;
 import org.apache.olingo.odata2.client.api.ep.ContentTypeBasedDeserializer;
 import org.apache.olingo.odata2.client.api.ep.DeserializerProperties;
+import org.apache.olingo.odata2.client.api.ep.EntityCollectionCursor;
 import org.apache.olingo.odata2.client.api.ep.EntityStream;
 import org.apache.olingo.odata2.client.core.ODataClientImpl;
 import org.apache.olingo.odata2.testutil.mock.MockFacade;
@@ -238,4 +243,50 @@ public class XmlFeedDeserializerTest extends AbstractXmlDeserializerTest {
     assertEquals(1, deltaFeed.getEntries().size());
     assertEquals(1, deltaFeed.getDeletedEntries().size());
   }
+
+  @Test
+  public void readEmployeesFeedWithCursor() throws Exception {
+    EdmEntitySet entitySet = MockFacade.getMockEdm().getDefaultEntityContainer().getEntitySet("Employees");
+    EntityStream es = new EntityStream();
+    es.setContent(createContentAsStream(readFile("feed_employees_full.xml")));
+    es.setReadProperties(DEFAULT_PROPERTIES);
+    ContentTypeBasedCursorDeserializer deserializer =
+        (ContentTypeBasedCursorDeserializer) new ODataClientImpl().createDeserializer("application/atom+xml");
+
+    EntityCollectionCursor cursor = deserializer.readFeedCursor(entitySet, es);
+    int count = 0;
+    while (cursor.hasNext()) {
+      ODataEntry entry = cursor.next();
+      assertEquals(String.valueOf(++count), entry.getProperties().get("EmployeeId"));
+    }
+    cursor.close();
+    assertEquals(6, count);
+
+    FeedMetadata feedMetadata = cursor.getFeedMetadata();
+    assertEquals(Integer.valueOf(6), feedMetadata.getInlineCount());
+    assertEquals("http://thisisanextlink", feedMetadata.getNextLink());
+  }
+
+  @Test
+  public void readDeltaFeedWithCursor() throws Exception {
+    EdmEntitySet entitySet = MockFacade.getMockEdm().getDefaultEntityContainer().getEntitySet("Rooms");
+    EntityStream es = new EntityStream();
+    final boolean[] closed = new boolean[1];
+    es.setContent(new ByteArrayInputStream(readFile("feed_with_deleted_entries.xml").getBytes("UTF-8")) {
+      @Override
+      public void close() throws IOException {
+        closed[0] = true;
+      }
+    });
+    es.setReadProperties(DEFAULT_PROPERTIES);
+
+    EntityCollectionCursor cursor = new XmlEntityDeserializer().readFeedCursor(entitySet, es);
+    assertNotNull(cursor.next());
+    assertFalse(cursor.hasNext());
+    cursor.close();
+    assertTrue(closed[0]);
+    assertEquals(1, cursor.getDeletedEntries().size());
+    assertEquals("http://host:123/odata/Rooms('2')", cursor.getDeletedEntries().get(0).getUri());
+    assertEquals("http://host:123/odata/Rooms?$skiptoken=97", cursor.getFeedMetadata().getDeltaLink());
+  }
 }
@@ -22,7 +22,6 @@ import java.io.InputStream;
 
 import org.apache.olingo.odata2.api.ODataService;
 import org.apache.olingo.odata2.api.ODataServiceFactory;
-import org.apache.olingo.odata2.api.batch.BatchHandler;
 import org.apache.olingo.odata2.api.commons.ODataHttpMethod;
 import org.apache.olingo.odata2.api.exception.ODataBadRequestException;
 import org.apache.olingo.odata2.api.exception.ODataException;
@@ -43,6 +42,7 @@ import org.apache.olingo.odata2.api.processor.part.FunctionImportValueProcessor;
 import org.apache.olingo.odata2.api.processor.part.MetadataProcessor;
 import org.apache.olingo.odata2.api.processor.part.ServiceDocumentProcessor;
 import org.apache.olingo.odata2.core.batch.BatchHandlerImpl;
+import org.apache.olingo.odata2.core.batch.BatchMemoryBudget;
 import org.apache.olingo.odata2.core.exception.ODataRuntimeException;
 import org.apache.olingo.odata2.core.uri.UriInfoImpl;
 
@@ -54,12 +54,21 @@ public class Dispatcher {
 
   private final ODataService service;
   private final ODataServiceFactory serviceFactory;
+  private ODataConcurrencyLimiter concurrencyLimiter;
 
   public Dispatcher(final ODataServiceFactory serviceFactory, final ODataService service) {
     this.service = service;
     this.serviceFactory = serviceFactory;
   }
 
+  /**
+   * Sets the limiter which admits the parts of batch requests.
+   * @param concurrencyLimiter the limiter, may be <code>null</code>
+   */
+  public void setConcurrencyLimiter(final ODataConcurrencyLimiter concurrencyLimiter) {
+    this.concurrencyLimiter = concurrencyLimiter;
+  }
+
   public ODataResponse dispatch(final ODataHttpMethod method, final UriInfoImpl uriInfo, final InputStream content,
       final String requestContentType, final String contentType) throws ODataException {
     switch (uriInfo.getUriType()) {
@@ -186,8 +195,15 @@ public class Dispatcher {
 
     case URI9:
       if (method == ODataHttpMethod.POST) {
-        BatchHandler handler = new BatchHandlerImpl(serviceFactory, service);
-        return service.getBatchProcessor().executeBatch(handler, requestContentType, content);
+        BatchHandlerImpl handler = new BatchHandlerImpl(serviceFactory, service);
+        handler.setConcurrencyLimiter(concurrencyLimiter);
+        // the parsed parts and the response body of the batch request share one memory budget
+        BatchMemoryBudget budget = BatchMemoryBudget.begin();
+        try {
+          return service.getBatchProcessor().executeBatch(handler, requestContentType, content);
+        } finally {
+          budget.end();
+        }
       } else {
         throw new ODataMethodNotAllowedException(ODataMethodNotAllowedException.DISPATCH);
       }
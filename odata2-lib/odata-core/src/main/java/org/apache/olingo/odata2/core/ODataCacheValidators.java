@@ -0,0 +1,133 @@
+/*******************************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ ******************************************************************************/
+package org.apache.olingo.odata2.core;
+
+import java.text.DateFormat;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+import java.util.TimeZone;
+
+import org.apache.olingo.odata2.api.exception.ODataException;
+import org.apache.olingo.odata2.api.processor.ODataCacheValidatorCallback;
+import org.apache.olingo.odata2.api.uri.UriInfo;
+
+/**
+ * Entity tag and time of last modification of the target of a <code>GET</code> request as provided by the
+ * {@link ODataCacheValidatorCallback}, used to answer conditional requests before dispatching.
+ * <p>
+ * The entity tag is only sent for entity types without concurrency control; the <code>ETag</code> of other entity
+ * types is sent back in <code>If-Match</code> and checked by the processor, so it must not be replaced.
+ */
+final class ODataCacheValidators {
+
+  private static final String HTTP_DATE_PATTERN = "EEE, dd MMM yyyy HH:mm:ss zzz";
+  private static final String WEAK_PREFIX = "W/";
+
+  private final String entityTag;
+  private final Date lastModified;
+  private final boolean isEntityTagSent;
+
+  private ODataCacheValidators(final String entityTag, final Date lastModified, final boolean isEntityTagSent) {
+    this.entityTag = entityTag;
+    this.lastModified = lastModified;
+    this.isEntityTagSent = isEntityTagSent;
+  }
+
+  /**
+   * @param callback the callback, may be <code>null</code>
+   * @param uriInfo the parsed request URI
+   * @return the validators or <code>null</code> if there is no callback, the request has no target entity set or
+   * the callback knows none of the validators
+   */
+  static ODataCacheValidators create(final ODataCacheValidatorCallback callback, final UriInfo uriInfo)
+      throws ODataException {
+    if (callback == null || uriInfo.getTargetEntitySet() == null || uriInfo.getFunctionImport() != null) {
+      return null;
+    }
+    final String entityTag = callback.getEntityTag(uriInfo);
+    final Date lastModified = callback.getLastModified(uriInfo);
+    return entityTag == null && lastModified == null ? null : new ODataCacheValidators(entityTag, lastModified,
+        !ODataRequestHandler.hasConcurrencyControl(uriInfo.getTargetEntitySet().getEntityType()));
+  }
+
+  /**
+   * @return the entity tag for the <code>ETag</code> header or <code>null</code> if the target entity type has
+   * concurrency control
+   */
+  String getEntityTag() {
+    return isEntityTagSent ? entityTag : null;
+  }
+
+  /**
+   * @return the time of the last modification formatted for the <code>Last-Modified</code> header
+   */
+  String getLastModified() {
+    return lastModified == null ? null : createDateFormat().format(lastModified);
+  }
+
+  /**
+   * Evaluates the conditional headers of a <code>GET</code> request; <code>If-Modified-Since</code> is ignored if
+   * the request has an <code>If-None-Match</code> header which can be compared with the entity tag. If the entity
+   * tag is not sent, the client only knows the entity tags of the processor, so <code>If-None-Match</code> is
+   * ignored instead.
+   * @param ifNoneMatch the <code>If-None-Match</code> header, may be <code>null</code>
+   * @param ifModifiedSince the <code>If-Modified-Since</code> header, may be <code>null</code>
+   * @return <code>true</code> if the response is <code>304 Not Modified</code>
+   */
+  boolean isNotModified(final String ifNoneMatch, final String ifModifiedSince) {
+    if (ifNoneMatch != null && isEntityTagSent) {
+      return entityTag != null && matches(ifNoneMatch);
+    }
+    if (ifModifiedSince != null && lastModified != null) {
+      try {
+        final Date since = createDateFormat().parse(ifModifiedSince);
+        return lastModified.getTime() / 1000 <= since.getTime() / 1000;
+      } catch (final ParseException e) {
+        // an invalid date is ignored
+      }
+    }
+    return false;
+  }
+
+  /*
+   * Weak comparison as required for If-None-Match
+   */
+  private boolean matches(final String ifNoneMatch) {
+    final String opaqueTag = getOpaqueTag(entityTag);
+    for (final String tag : ifNoneMatch.split(",")) {
+      final String trimmed = tag.trim();
+      if ("*".equals(trimmed) || opaqueTag.equals(getOpaqueTag(trimmed))) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static String getOpaqueTag(final String tag) {
+    return tag.startsWith(WEAK_PREFIX) ? tag.substring(WEAK_PREFIX.length()) : tag;
+  }
+
+  private static DateFormat createDateFormat() {
+    final SimpleDateFormat dateFormat = new SimpleDateFormat(HTTP_DATE_PATTERN, Locale.ENGLISH);
+    dateFormat.setTimeZone(TimeZone.getTimeZone("GMT"));
+    return dateFormat;
+  }
+}
@@ -0,0 +1,502 @@
+/*******************************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ ******************************************************************************/
+package org.apache.olingo.odata2.core;
+
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.servlet.ServletConfig;
+import javax.servlet.ServletContext;
+
+import org.apache.olingo.odata2.api.edm.EdmEntitySet;
+import org.apache.olingo.odata2.api.edm.EdmException;
+import org.apache.olingo.odata2.api.metrics.ODataMetric;
+import org.apache.olingo.odata2.core.metrics.ODataRequestMetrics;
+import org.apache.olingo.odata2.core.uri.UriInfoImpl;
+
+/**
+ * Limits the number of requests processed concurrently, overall, per entity set and per URI type.
+ * <p>
+ * A request is admitted only if it is within all limits which apply to it; otherwise the request handler rejects it
+ * immediately with <code>503 Service Unavailable</code> and a <code>Retry-After</code> header, so expensive requests
+ * against one entity set can not occupy all threads of the service. A <code>$batch</code> request is limited as a
+ * whole with the URI type <code>URI9</code>; its parts are limited by their entity sets and URI types. A request
+ * holds its admission until its response body has been written. A response body which is never closed holds the
+ * admission at most for the release timeout; the next admitted request then releases it.
+ * <p>
+ * With the algorithms {@link Algorithm#AIMD} and {@link Algorithm#GRADIENT} the configured limits are maximums; the
+ * actual limits adapt to the processing latency of the dispatched requests, which does not include the time the
+ * client takes to read the response body, and shrink when the backend slows down. The number of
+ * concurrent and of rejected requests is recorded as {@link ODataMetric#CONCURRENT_REQUESTS} and
+ * {@link ODataMetric#REJECTED_REQUESTS}; the current state of the limits is available from {@link #getGlobalLimit()},
+ * {@link #getEntitySetLimit(String)} and {@link #getUriTypeLimit(String)}.
+ */
+public class ODataConcurrencyLimiter {
+
+  /** Label used in web.xml to assign the maximal number of requests processed concurrently */
+  public static final String LIMIT_LABEL = "org.apache.olingo.odata2.core.concurrency.limit";
+  /** Label used in web.xml to assign the limit of each entity set; append <code>.</code> and the name of an entity
+   * set to assign the limit of that entity set */
+  public static final String ENTITY_SET_LIMIT_LABEL = "org.apache.olingo.odata2.core.concurrency.limit.entityset";
+  /** Label used in web.xml, followed by <code>.</code> and a URI type like <code>URI1</code>, to assign the limit of
+   * the URI type */
+  public static final String URI_TYPE_LIMIT_LABEL = "org.apache.olingo.odata2.core.concurrency.limit.uritype";
+  /** Label used in web.xml to assign the algorithm adapting the limits: <code>fixed</code>, <code>aimd</code>,
+   * or <code>gradient</code> */
+  public static final String ALGORITHM_LABEL = "org.apache.olingo.odata2.core.concurrency.algorithm";
+  /** Label used in web.xml to assign the processing time in milliseconds above which the AIMD algorithm decreases
+   * a limit */
+  public static final String LATENCY_LABEL = "org.apache.olingo.odata2.core.concurrency.latency";
+  /** Label used in web.xml to assign the seconds sent in the <code>Retry-After</code> header of rejections */
+  public static final String RETRY_AFTER_LABEL = "org.apache.olingo.odata2.core.concurrency.retryafter";
+  /** Label used in web.xml to assign the milliseconds after which the admission of a request whose response body
+   * has not been closed is released */
+  public static final String RELEASE_TIMEOUT_LABEL = "org.apache.olingo.odata2.core.concurrency.releasetimeout";
+
+  public static final long DEFAULT_LATENCY = 1000;
+  public static final int DEFAULT_RETRY_AFTER = 1;
+  public static final long DEFAULT_RELEASE_TIMEOUT = 300000;
+
+  /**
+   * Algorithm adapting the limits to the processing latency.
+   */
+  public enum Algorithm {
+    /** The limits are fixed. */
+    FIXED,
+    /** Additive increase, multiplicative decrease: a limit grows by one after a request processed faster than
+     * the latency threshold while the limit is at least half used, and shrinks by ten percent after a slower
+     * request. */
+    AIMD,
+    /** A limit follows the ratio of the minimal to the current latency; it shrinks when requests queue up in the
+     * backend and grows by the square root of the limit while the latency stays close to the minimum. */
+    GRADIENT
+  }
+
+  private final Algorithm algorithm;
+  private final long latencyThreshold;
+  private final int retryAfter;
+  private Limit globalLimit = new Limit(Integer.MAX_VALUE);
+  private int defaultEntitySetLimit = 0;
+  private final ConcurrentMap<String, Limit> entitySetLimits = new ConcurrentHashMap<String, Limit>();
+  private final ConcurrentMap<String, Limit> uriTypeLimits = new ConcurrentHashMap<String, Limit>();
+  private long releaseTimeout = TimeUnit.MILLISECONDS.toNanos(DEFAULT_RELEASE_TIMEOUT);
+  private final ConcurrentLinkedQueue<Permit> deferredPermits = new ConcurrentLinkedQueue<Permit>();
+
+  /**
+   * @param algorithm the algorithm adapting the limits
+   * @param latencyThreshold the processing time in milliseconds above which the AIMD algorithm decreases a limit
+   * @param retryAfter the seconds sent in the <code>Retry-After</code> header of rejections
+   */
+  public ODataConcurrencyLimiter(final Algorithm algorithm, final long latencyThreshold, final int retryAfter) {
+    if (algorithm == null || latencyThreshold <= 0 || retryAfter < 0) {
+      throw new IllegalArgumentException("Invalid algorithm " + algorithm + ", latency threshold "
+          + latencyThreshold + ", or retry delay " + retryAfter + ".");
+    }
+    this.algorithm = algorithm;
+    this.latencyThreshold = TimeUnit.MILLISECONDS.toNanos(latencyThreshold);
+    this.retryAfter = retryAfter;
+  }
+
+  /**
+   * Returns the limiter configured with the init parameters of a servlet. The limiter is shared by all requests
+   * of the servlet; it is kept as attribute of the servlet context.
+   * @param config the servlet configuration, may be <code>null</code>
+   * @return the limiter or <code>null</code> if no limit is configured
+   */
+  public static ODataConcurrencyLimiter create(final ServletConfig config) {
+    if (config == null) {
+      return null;
+    }
+    final ServletContext servletContext = config.getServletContext();
+    if (servletContext == null) {
+      return configure(config);
+    }
+    final String attribute = ODataConcurrencyLimiter.class.getName() + "." + config.getServletName();
+    synchronized (servletContext) {
+      ODataConcurrencyLimiter limiter = (ODataConcurrencyLimiter) servletContext.getAttribute(attribute);
+      if (limiter == null) {
+        limiter = configure(config);
+        if (limiter != null) {
+          servletContext.setAttribute(attribute, limiter);
+        }
+      }
+      return limiter;
+    }
+  }
+
+  private static ODataConcurrencyLimiter configure(final ServletConfig config) {
+    final String algorithmName = config.getInitParameter(ALGORITHM_LABEL);
+    Algorithm algorithm = Algorithm.FIXED;
+    if (algorithmName != null) {
+      try {
+        algorithm = Algorithm.valueOf(algorithmName.trim().toUpperCase(Locale.ENGLISH));
+      } catch (IllegalArgumentException e) {
+        // the fixed limits are used if the algorithm is unknown
+      }
+    }
+    final long latency = getIntInitParameter(config, LATENCY_LABEL, (int) DEFAULT_LATENCY);
+    final String retryAfterValue = config.getInitParameter(RETRY_AFTER_LABEL);
+    int retryAfter = DEFAULT_RETRY_AFTER;
+    if (retryAfterValue != null) {
+      try {
+        retryAfter = Math.max(0, Integer.parseInt(retryAfterValue.trim()));
+      } catch (NumberFormatException e) {
+        // the default is used if the parameter is not a number
+      }
+    }
+    final ODataConcurrencyLimiter limiter = new ODataConcurrencyLimiter(algorithm, latency, retryAfter);
+    limiter.setReleaseTimeout(getIntInitParameter(config, RELEASE_TIMEOUT_LABEL, (int) DEFAULT_RELEASE_TIMEOUT));
+
+    boolean limited = false;
+    final Enumeration<?> names = config.getInitParameterNames();
+    while (names != null && names.hasMoreElements()) {
+      final String name = (String) names.nextElement();
+      final int limit = getIntInitParameter(config, name, 0);
+      if (limit == 0) {
+        continue;
+      } else if (name.equals(LIMIT_LABEL)) {
+        limiter.setGlobalLimit(limit);
+      } else if (name.equals(ENTITY_SET_LIMIT_LABEL)) {
+        limiter.setEntitySetLimit(null, limit);
+      } else if (name.startsWith(ENTITY_SET_LIMIT_LABEL + ".")) {
+        limiter.setEntitySetLimit(name.substring(ENTITY_SET_LIMIT_LABEL.length() + 1), limit);
+      } else if (name.startsWith(URI_TYPE_LIMIT_LABEL + ".")) {
+        limiter.setUriTypeLimit(name.substring(URI_TYPE_LIMIT_LABEL.length() + 1), limit);
+      } else {
+        continue;
+      }
+      limited = true;
+    }
+    return limited ? limiter : null;
+  }
+
+  private static int getIntInitParameter(final ServletConfig config, final String name, final int defaultValue) {
+    final String value = config.getInitParameter(name);
+    if (value != null) {
+      try {
+        final int intValue = Integer.parseInt(value.trim());
+        return intValue > 0 ? intValue : defaultValue;
+      } catch (NumberFormatException e) {
+        // the default is used if the parameter is not a number
+      }
+    }
+    return defaultValue;
+  }
+
+  /**
+   * Sets the maximal number of requests processed concurrently; must be called before the first request.
+   */
+  public void setGlobalLimit(final int limit) {
+    globalLimit = new Limit(limit);
+  }
+
+  /**
+   * Sets the maximal number of concurrent requests of an entity set; must be called before the first request.
+   * @param entitySetName the name of the entity set or <code>null</code> to set the limit of each entity set
+   * without a limit of its own
+   * @param limit the limit
+   */
+  public void setEntitySetLimit(final String entitySetName, final int limit) {
+    if (entitySetName == null) {
+      defaultEntitySetLimit = limit;
+    } else {
+      entitySetLimits.put(entitySetName, new Limit(limit));
+    }
+  }
+
+  /**
+   * Sets the maximal number of concurrent requests of a URI type; must be called before the first request.
+   * @param uriType the URI type, e.g., <code>URI1</code> for entity sets or <code>URI9</code> for batch requests
+   * @param limit the limit
+   */
+  public void setUriTypeLimit(final String uriType, final int limit) {
+    uriTypeLimits.put(uriType, new Limit(limit));
+  }
+
+  /**
+   * Sets the time after which the admission of a request whose response body has not been closed is released;
+   * must be called before the first request.
+   * @param releaseTimeout the timeout in milliseconds
+   */
+  public void setReleaseTimeout(final long releaseTimeout) {
+    if (releaseTimeout <= 0) {
+      throw new IllegalArgumentException("Invalid release timeout " + releaseTimeout + ".");
+    }
+    this.releaseTimeout = TimeUnit.MILLISECONDS.toNanos(releaseTimeout);
+  }
+
+  /**
+   * @return the overall limit; without configured limit its maximum is {@link Integer#MAX_VALUE}
+   */
+  public Limit getGlobalLimit() {
+    return globalLimit;
+  }
+
+  /**
+   * @return the limit of the entity set or <code>null</code> if the entity set is not limited or has not been
+   * requested yet
+   */
+  public Limit getEntitySetLimit(final String entitySetName) {
+    return entitySetLimits.get(entitySetName);
+  }
+
+  /**
+   * @return the limit of the URI type or <code>null</code> if the URI type is not limited
+   */
+  public Limit getUriTypeLimit(final String uriType) {
+    return uriTypeLimits.get(uriType);
+  }
+
+  /**
+   * @return the seconds sent in the <code>Retry-After</code> header of rejections
+   */
+  public int getRetryAfter() {
+    return retryAfter;
+  }
+
+  /**
+   * Admits a request if it is within all limits which apply to it.
+   * @param uriInfo the parsed request URI
+   * @param metrics the metrics of the request
+   * @return the permit to be released when the request has been processed, or <code>null</code> if the request
+   * has been rejected
+   * @throws EdmException if the target entity set can not be determined
+   */
+  public Permit acquire(final UriInfoImpl uriInfo, final ODataRequestMetrics metrics) throws EdmException {
+    return acquire(uriInfo, metrics, false);
+  }
+
+  /**
+   * Admits a request if it is within all limits which apply to it.
+   * @param uriInfo the parsed request URI
+   * @param metrics the metrics of the request
+   * @param batchPart whether the request is part of a <code>$batch</code> request; the overall limit does not apply
+   * to it since the batch request has been admitted already
+   * @return the permit to be released when the request has been processed, or <code>null</code> if the request
+   * has been rejected
+   * @throws EdmException if the target entity set can not be determined
+   */
+  public Permit acquire(final UriInfoImpl uriInfo, final ODataRequestMetrics metrics, final boolean batchPart)
+      throws EdmException {
+    releaseExpiredPermits();
+    final List<Limit> limits = new ArrayList<Limit>(3);
+    if (!batchPart) {
+      limits.add(globalLimit);
+    }
+    final EdmEntitySet entitySet = uriInfo.getTargetEntitySet();
+    if (entitySet != null) {
+      Limit limit = entitySetLimits.get(entitySet.getName());
+      if (limit == null && defaultEntitySetLimit > 0) {
+        final Limit newLimit = new Limit(defaultEntitySetLimit);
+        limit = entitySetLimits.putIfAbsent(entitySet.getName(), newLimit);
+        if (limit == null) {
+          limit = newLimit;
+        }
+      }
+      if (limit != null) {
+        limits.add(limit);
+      }
+    }
+    final Limit uriTypeLimit = uriTypeLimits.get(uriInfo.getUriType().name());
+    if (uriTypeLimit != null) {
+      limits.add(uriTypeLimit);
+    }
+
+    for (int i = 0; i < limits.size(); i++) {
+      if (!limits.get(i).tryAcquire()) {
+        limits.get(i).rejected.incrementAndGet();
+        for (int j = 0; j < i; j++) {
+          limits.get(j).inFlight.decrementAndGet();
+        }
+        metrics.record(ODataMetric.REJECTED_REQUESTS, 1);
+        return null;
+      }
+    }
+    metrics.record(ODataMetric.CONCURRENT_REQUESTS, globalLimit.getInFlight());
+    return new Permit(limits);
+  }
+
+  /*
+   * Releases the permits whose response bodies have not been closed within the release timeout
+   */
+  private void releaseExpiredPermits() {
+    final long now = System.nanoTime();
+    for (final Iterator<Permit> iterator = deferredPermits.iterator(); iterator.hasNext();) {
+      final Permit permit = iterator.next();
+      if (permit.released.get()) {
+        iterator.remove();
+      } else if (now - permit.releaseDeadline >= 0) {
+        iterator.remove();
+        permit.release();
+      }
+    }
+  }
+
+  /**
+   * Admission of a request; has to be released when the response has been completed. Releasing it again has
+   * no effect.
+   */
+  public final class Permit {
+
+    private final List<Limit> limits;
+    private final long started = System.nanoTime();
+    private final AtomicBoolean released = new AtomicBoolean();
+    private volatile long latency = -1;
+    private volatile long releaseDeadline;
+
+    private Permit(final List<Limit> limits) {
+      this.limits = limits;
+    }
+
+    /**
+     * Records the processing latency of the request the limits adapt to when the admission is released. Without
+     * it the latency is measured when the admission is released.
+     */
+    public void recordLatency() {
+      if (latency < 0) {
+        latency = System.nanoTime() - started;
+      }
+    }
+
+    /**
+     * Keeps the admission while the response body is written. If it has not been released within the release
+     * timeout, the next admitted request releases it.
+     */
+    public void deferRelease() {
+      releaseDeadline = System.nanoTime() + releaseTimeout;
+      deferredPermits.add(this);
+    }
+
+    /**
+     * Releases the admission and adapts the limits to the processing latency of the request.
+     */
+    public void release() {
+      if (!released.compareAndSet(false, true)) {
+        return;
+      }
+      recordLatency();
+      for (final Limit limit : limits) {
+        limit.release(latency);
+      }
+    }
+  }
+
+  /**
+   * Limit of concurrent requests with its current state.
+   */
+  public final class Limit {
+
+    private static final double BACKOFF_RATIO = 0.9;
+    private static final double LATENCY_TOLERANCE = 1.5;
+    private static final double SMOOTHING = 0.2;
+    private static final int MIN_LATENCY_RESET = 1000;
+
+    private final int maxLimit;
+    private volatile double limit;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong rejected = new AtomicLong();
+    private long minLatency = 0;
+    private int samples = 0;
+
+    private Limit(final int maxLimit) {
+      if (maxLimit <= 0) {
+        throw new IllegalArgumentException("Invalid limit " + maxLimit + ".");
+      }
+      this.maxLimit = maxLimit;
+      limit = maxLimit;
+    }
+
+    /**
+     * @return the current limit
+     */
+    public int getLimit() {
+      return (int) limit;
+    }
+
+    /**
+     * @return the configured limit
+     */
+    public int getMaxLimit() {
+      return maxLimit;
+    }
+
+    /**
+     * @return the number of requests currently processed
+     */
+    public int getInFlight() {
+      return inFlight.get();
+    }
+
+    /**
+     * @return the number of requests rejected because of this limit
+     */
+    public long getRejected() {
+      return rejected.get();
+    }
+
+    private boolean tryAcquire() {
+      while (true) {
+        final int current = inFlight.get();
+        if (current >= (int) limit) {
+          return false;
+        }
+        if (inFlight.compareAndSet(current, current + 1)) {
+          return true;
+        }
+      }
+    }
+
+    private void release(final long latency) {
+      final int current = inFlight.getAndDecrement();
+      if (algorithm == Algorithm.FIXED || maxLimit == Integer.MAX_VALUE) {
+        return;
+      }
+      synchronized (this) {
+        double newLimit;
+        if (algorithm == Algorithm.AIMD) {
+          if (latency > latencyThreshold) {
+            newLimit = limit * BACKOFF_RATIO;
+          } else if (current * 2 >= limit) {
+            newLimit = limit + 1;
+          } else {
+            return;
+          }
+        } else {
+          if (minLatency == 0 || latency < minLatency || ++samples % MIN_LATENCY_RESET == 0) {
+            // the minimum is reset from time to time to follow a permanently changed backend
+            minLatency = Math.max(1, latency);
+          }
+          final double gradient = Math.max(0.5, Math.min(1.0, LATENCY_TOLERANCE * minLatency / latency));
+          newLimit = limit * (1 - SMOOTHING) + (limit * gradient + Math.sqrt(limit)) * SMOOTHING;
+        }
+        limit = Math.max(1, Math.min(maxLimit, newLimit));
+      }
+    }
+  }
+}
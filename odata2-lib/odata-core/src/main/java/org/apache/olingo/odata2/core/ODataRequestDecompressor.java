@@ -0,0 +1,162 @@
+/*******************************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ ******************************************************************************/
+package org.apache.olingo.odata2.core;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Locale;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+import javax.servlet.ServletConfig;
+
+import org.apache.olingo.odata2.api.exception.ODataBadRequestException;
+import org.apache.olingo.odata2.api.exception.ODataException;
+import org.apache.olingo.odata2.api.exception.ODataUnsupportedMediaTypeException;
+
+/**
+ * Decompresses request bodies sent with the <code>Content-Encoding</code> <code>gzip</code> or
+ * <code>deflate</code>.
+ * <p>
+ * The body is decompressed while the consumers read it. To protect against compressed bodies expanding to huge
+ * sizes, reading fails with an {@link IOException} as soon as the decompressed body exceeds the limit.
+ */
+public class ODataRequestDecompressor {
+
+  /** Label used in web.xml to assign the maximal size in bytes of decompressed request bodies */
+  public static final String LIMIT_LABEL = "org.apache.olingo.odata2.core.decompression.limit";
+
+  public static final long DEFAULT_LIMIT = 64L * 1024 * 1024;
+
+  private static final int BUFFER_SIZE = 8192;
+
+  private final long limit;
+
+  /**
+   * @param limit maximal size in bytes of decompressed request bodies
+   */
+  public ODataRequestDecompressor(final long limit) {
+    this.limit = limit;
+  }
+
+  /**
+   * Creates the decompressor configured with the init parameters of a servlet.
+   * @param config the servlet configuration, may be <code>null</code>
+   * @return the decompressor
+   */
+  public static ODataRequestDecompressor create(final ServletConfig config) {
+    String value = config == null ? null : config.getInitParameter(LIMIT_LABEL);
+    long limit = DEFAULT_LIMIT;
+    if (value != null) {
+      try {
+        limit = Long.parseLong(value.trim());
+      } catch (NumberFormatException e) {
+        // the default is used if the parameter is not a number
+      }
+    }
+    return new ODataRequestDecompressor(limit > 0 ? limit : DEFAULT_LIMIT);
+  }
+
+  /**
+   * Decodes the request body with the content codings of the <code>Content-Encoding</code> header.
+   * @param contentEncoding the <code>Content-Encoding</code> header of the request, may be <code>null</code>
+   * @param body the request body, may be <code>null</code>
+   * @return the decompressed body or the given body if it is not encoded
+   * @throws ODataException if a content coding is not supported or the compressed body is malformed
+   */
+  public InputStream decompress(final String contentEncoding, final InputStream body) throws ODataException {
+    if (contentEncoding == null || body == null) {
+      return body;
+    }
+    // the content codings are listed in the order in which they were applied
+    String[] codings = contentEncoding.split(",");
+    InputStream decoded = body;
+    boolean decompressed = false;
+    try {
+      for (int i = codings.length - 1; i >= 0; i--) {
+        String coding = codings[i].trim().toLowerCase(Locale.ENGLISH);
+        if ("gzip".equals(coding) || "x-gzip".equals(coding)) {
+          decoded = new GZIPInputStream(decoded, BUFFER_SIZE);
+          decompressed = true;
+        } else if ("deflate".equals(coding)) {
+          decoded = new InflaterInputStream(decoded);
+          decompressed = true;
+        } else if (!"identity".equals(coding) && coding.length() > 0) {
+          throw new ODataUnsupportedMediaTypeException(
+              ODataUnsupportedMediaTypeException.NOT_SUPPORTED_CONTENT_ENCODING.addContent(coding));
+        }
+      }
+    } catch (IOException e) {
+      throw new ODataBadRequestException(ODataBadRequestException.BODY, e);
+    }
+    return decompressed ? new LimitedInputStream(decoded, limit) : body;
+  }
+
+  /**
+   * Input stream failing when more than the limit of bytes is read.
+   */
+  private static class LimitedInputStream extends FilterInputStream {
+
+    private final long limit;
+    private long count = 0;
+
+    private LimitedInputStream(final InputStream in, final long limit) {
+      super(in);
+      this.limit = limit;
+    }
+
+    @Override
+    public int read() throws IOException {
+      int b = super.read();
+      if (b != -1) {
+        count(1);
+      }
+      return b;
+    }
+
+    @Override
+    public int read(final byte[] b, final int off, final int len) throws IOException {
+      int read = super.read(b, off, len);
+      if (read > 0) {
+        count(read);
+      }
+      return read;
+    }
+
+    @Override
+    public long skip(final long n) throws IOException {
+      long skipped = super.skip(n);
+      count(skipped);
+      return skipped;
+    }
+
+    @Override
+    public boolean markSupported() {
+      return false;
+    }
+
+    private void count(final long read) throws IOException {
+      count += read;
+      if (count > limit) {
+        throw new IOException("The decompressed request body exceeds the limit of " + limit + " bytes.");
+      }
+    }
+  }
+}
@@ -18,10 +18,14 @@
  ******************************************************************************/
 package org.apache.olingo.odata2.core;
 
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import org.apache.olingo.odata2.api.ODataDebugResponseWrapperCallback;
 import org.apache.olingo.odata2.api.ODataService;
@@ -41,12 +45,17 @@ import org.apache.olingo.odata2.api.exception.ODataBadRequestException;
 import org.apache.olingo.odata2.api.exception.ODataException;
 import org.apache.olingo.odata2.api.exception.ODataMethodNotAllowedException;
 import org.apache.olingo.odata2.api.exception.ODataPreconditionRequiredException;
+import org.apache.olingo.odata2.api.exception.ODataServiceUnavailableException;
 import org.apache.olingo.odata2.api.exception.ODataUnsupportedMediaTypeException;
+import org.apache.olingo.odata2.api.metrics.ODataMetric;
+import org.apache.olingo.odata2.api.processor.ODataCacheValidatorCallback;
 import org.apache.olingo.odata2.api.processor.ODataContext;
 import org.apache.olingo.odata2.api.processor.ODataProcessor;
+import org.apache.olingo.odata2.api.processor.ODataQueryLimits;
 import org.apache.olingo.odata2.api.processor.ODataRequest;
 import org.apache.olingo.odata2.api.processor.ODataResponse;
 import org.apache.olingo.odata2.api.processor.ODataResponse.ODataResponseBuilder;
+import org.apache.olingo.odata2.api.processor.ODataResponseCache;
 import org.apache.olingo.odata2.api.processor.part.EntityLinkProcessor;
 import org.apache.olingo.odata2.api.processor.part.EntityLinksProcessor;
 import org.apache.olingo.odata2.api.processor.part.EntityMediaProcessor;
@@ -62,7 +71,9 @@ import org.apache.olingo.odata2.core.commons.ContentType;
 import org.apache.olingo.odata2.core.commons.ContentType.ODataFormat;
 import org.apache.olingo.odata2.core.debug.ODataDebugResponseWrapper;
 import org.apache.olingo.odata2.core.exception.ODataRuntimeException;
+import org.apache.olingo.odata2.core.metrics.ODataRequestMetrics;
 import org.apache.olingo.odata2.core.rest.ODataExceptionWrapper;
+import org.apache.olingo.odata2.core.uri.QueryCost;
 import org.apache.olingo.odata2.core.uri.UriInfoImpl;
 import org.apache.olingo.odata2.core.uri.UriParserImpl;
 import org.apache.olingo.odata2.core.uri.UriType;
@@ -75,6 +86,8 @@ public class ODataRequestHandler {
   private final ODataServiceFactory serviceFactory;
   private final ODataService service;
   private final ODataContext context;
+  private ODataConcurrencyLimiter concurrencyLimiter;
+  private Set<String> changedEntitySets;
 
   public ODataRequestHandler(final ODataServiceFactory factory, final ODataService service,
       final ODataContext context) {
@@ -83,6 +96,23 @@ public class ODataRequestHandler {
     this.context = context;
   }
 
+  /**
+   * Sets the limiter which admits the requests before they are dispatched to the processor.
+   * @param concurrencyLimiter the limiter, may be <code>null</code>
+   */
+  public void setConcurrencyLimiter(final ODataConcurrencyLimiter concurrencyLimiter) {
+    this.concurrencyLimiter = concurrencyLimiter;
+  }
+
+  /**
+   * Collects the entity sets changed by the request instead of dropping their cached responses right away;
+   * used for the requests of a change set, whose changes are visible only after the change set has been executed.
+   * @param changedEntitySets the set the names of the changed entity sets are added to, may be <code>null</code>
+   */
+  public void setChangedEntitySets(final Set<String> changedEntitySets) {
+    this.changedEntitySets = changedEntitySets;
+  }
+
   /**
    * <p>Handles the {@link ODataRequest} in a way that it results in a corresponding {@link ODataResponse}.</p>
    * <p>This includes delegation of URI parsing and dispatching of the request internally.
@@ -94,10 +124,14 @@ public class ODataRequestHandler {
     UriInfoImpl uriInfo = null;
     Exception exception = null;
     ODataResponse odataResponse;
+    boolean rejected = false;
+    final ODataRequestMetrics metrics = ODataRequestMetrics.create(serviceFactory);
+    final long requestStarted = metrics.start();
     final int timingHandle = context.startRuntimeMeasurement("ODataRequestHandler", "handle");
     try {
       UriParser uriParser = new UriParserImpl(service.getEntityDataModel());
       Dispatcher dispatcher = new Dispatcher(serviceFactory, service);
+      dispatcher.setConcurrencyLimiter(concurrencyLimiter);
 
       final String serverDataServiceVersion = getServerDataServiceVersion();
       final String requestDataServiceVersion = context.getRequestHeader(ODataHttpHeaders.DATASERVICEVERSION);
@@ -105,20 +139,30 @@ public class ODataRequestHandler {
 
       final List<PathSegment> pathSegments = context.getPathInfo().getODataSegments();
       int timingHandle2 = context.startRuntimeMeasurement("UriParserImpl", "parse");
+      long started = metrics.start();
       uriInfo = (UriInfoImpl) uriParser.parseAll(pathSegments, request.getAllQueryParameters());
+      metrics.setTarget(uriInfo);
+      metrics.stop(ODataMetric.URI_PARSING, started);
       context.stopRuntimeMeasurement(timingHandle2);
 
       final ODataHttpMethod method = request.getMethod();
       validateMethodAndUri(method, uriInfo);
 
+      final ODataQueryLimits queryLimits = serviceFactory.getCallback(ODataQueryLimits.class);
+      if (queryLimits != null) {
+        QueryCost.estimate(uriInfo).check(queryLimits);
+      }
+
       if (method == ODataHttpMethod.POST || method == ODataHttpMethod.PUT || method == ODataHttpMethod.PATCH
           || method == ODataHttpMethod.MERGE) {
         checkRequestContentType(uriInfo, request.getContentType());
       }
 
       List<String> supportedContentTypes = getSupportedContentTypes(uriInfo, method);
+      started = metrics.start();
       ContentType acceptContentType =
           new ContentNegotiator().doContentNegotiation(request, uriInfo, supportedContentTypes);
+      metrics.stop(ODataMetric.CONTENT_NEGOTIATION, started);
 
       checkConditions(method, uriInfo,
           context.getRequestHeader(HttpHeaders.IF_MATCH),
@@ -126,34 +170,110 @@ public class ODataRequestHandler {
           context.getRequestHeader(HttpHeaders.IF_MODIFIED_SINCE),
           context.getRequestHeader(HttpHeaders.IF_UNMODIFIED_SINCE));
 
-      timingHandle2 = context.startRuntimeMeasurement("Dispatcher", "dispatch");
-      odataResponse =
-          dispatcher.dispatch(method, uriInfo, request.getBody(), request.getContentType(), acceptContentType
-              .toContentTypeString());
-      context.stopRuntimeMeasurement(timingHandle2);
-
-      ODataResponseBuilder extendedResponse = ODataResponse.fromResponse(odataResponse);
-      final UriType uriType = uriInfo.getUriType();
-      final String location =
-          (method == ODataHttpMethod.POST && (uriType == UriType.URI1 || uriType == UriType.URI6B)) ? odataResponse
-              .getIdLiteral() : null;
-      final HttpStatusCodes s = getStatusCode(odataResponse, method, uriType);
-      extendedResponse = extendedResponse.idLiteral(location).status(s);
-
-      if (!odataResponse.containsHeader(ODataHttpHeaders.DATASERVICEVERSION)) {
-        extendedResponse = extendedResponse.header(ODataHttpHeaders.DATASERVICEVERSION, serverDataServiceVersion);
-      }
-      if (!HttpStatusCodes.NO_CONTENT.equals(s) && !odataResponse.containsHeader(HttpHeaders.CONTENT_TYPE)) {
-        extendedResponse.header(HttpHeaders.CONTENT_TYPE, acceptContentType.toContentTypeString());
+      final ODataCacheValidators validators = method == ODataHttpMethod.GET
+          ? ODataCacheValidators.create(serviceFactory.getCallback(ODataCacheValidatorCallback.class), uriInfo)
+          : null;
+      final boolean notModified = validators != null && validators.isNotModified(
+          context.getRequestHeader(HttpHeaders.IF_NONE_MATCH),
+          context.getRequestHeader(HttpHeaders.IF_MODIFIED_SINCE));
+      final ODataResponseCache responseCache = serviceFactory.getCallback(ODataResponseCache.class);
+      final String cacheKey = responseCache == null ? null
+          : responseCache.getKey(request, uriInfo, acceptContentType.toContentTypeString());
+      final ODataResponse cachedResponse = notModified || cacheKey == null ? null
+          : responseCache.get(cacheKey, request);
+      if (notModified) {
+        odataResponse = ODataResponse.status(HttpStatusCodes.NOT_MODIFIED)
+            .eTag(validators.getEntityTag())
+            .header(HttpHeaders.LAST_MODIFIED, validators.getLastModified())
+            .header(ODataHttpHeaders.DATASERVICEVERSION, serverDataServiceVersion)
+            .build();
+      } else if (cachedResponse != null) {
+        odataResponse = cachedResponse;
+      } else {
+        final ODataConcurrencyLimiter.Permit permit = concurrencyLimiter == null ? null
+            : concurrencyLimiter.acquire(uriInfo, metrics, context.isInBatchMode());
+        if (concurrencyLimiter != null && permit == null) {
+          rejected = true;
+          throw new ODataServiceUnavailableException(ODataServiceUnavailableException.CONCURRENCY_LIMIT);
+        }
+        boolean releasedWithBody = false;
+        try {
+          timingHandle2 = context.startRuntimeMeasurement("Dispatcher", "dispatch");
+          started = metrics.start();
+          odataResponse =
+              dispatcher.dispatch(method, uriInfo, request.getBody(), request.getContentType(), acceptContentType
+                  .toContentTypeString());
+          if (permit != null) {
+            permit.recordLatency();
+          }
+          metrics.stop(ODataMetric.PROCESSING, started);
+          context.stopRuntimeMeasurement(timingHandle2);
+
+          ODataResponseBuilder extendedResponse = ODataResponse.fromResponse(odataResponse);
+          final UriType uriType = uriInfo.getUriType();
+          final String location =
+              (method == ODataHttpMethod.POST && (uriType == UriType.URI1 || uriType == UriType.URI6B))
+                  ? odataResponse.getIdLiteral() : null;
+          final HttpStatusCodes s = getStatusCode(odataResponse, method, uriType);
+          extendedResponse = extendedResponse.idLiteral(location).status(s);
+
+          if (!odataResponse.containsHeader(ODataHttpHeaders.DATASERVICEVERSION)) {
+            extendedResponse =
+                extendedResponse.header(ODataHttpHeaders.DATASERVICEVERSION, serverDataServiceVersion);
+          }
+          if (!HttpStatusCodes.NO_CONTENT.equals(s) && !odataResponse.containsHeader(HttpHeaders.CONTENT_TYPE)) {
+            extendedResponse.header(HttpHeaders.CONTENT_TYPE, acceptContentType.toContentTypeString());
+          }
+          if (validators != null && HttpStatusCodes.OK.equals(s)) {
+            if (!odataResponse.containsHeader(HttpHeaders.ETAG)) {
+              extendedResponse.eTag(validators.getEntityTag());
+            }
+            if (!odataResponse.containsHeader(HttpHeaders.LAST_MODIFIED)) {
+              extendedResponse.header(HttpHeaders.LAST_MODIFIED, validators.getLastModified());
+            }
+          }
+
+          odataResponse = extendedResponse.build();
+
+          if (cacheKey != null) {
+            odataResponse = responseCache.put(cacheKey, uriInfo, odataResponse);
+          } else if (responseCache != null && odataResponse.getStatus().getStatusCode() < 400) {
+            final Set<String> entitySets = responseCache.getChangedEntitySets(method, uriInfo);
+            if (changedEntitySets == null) {
+              for (String entitySet : entitySets) {
+                responseCache.invalidate(entitySet);
+              }
+            } else {
+              changedEntitySets.addAll(entitySets);
+            }
+          }
+
+          // a streamed body is still produced while it is written, e.g. read from the database
+          if (permit != null && !context.isInBatchMode() && odataResponse.getEntity() instanceof InputStream) {
+            odataResponse = ODataResponse.fromResponse(odataResponse)
+                .entity(new PermitReleasingInputStream((InputStream) odataResponse.getEntity(), permit)).build();
+            permit.deferRelease();
+            releasedWithBody = true;
+          }
+        } finally {
+          if (permit != null && !releasedWithBody) {
+            permit.release();
+          }
+        }
       }
-
-      odataResponse = extendedResponse.build();
     } catch (final Exception e) {
       exception = e;
       odataResponse = new ODataExceptionWrapper(context, request.getQueryParameters(), request.getAcceptHeaders())
           .wrapInExceptionResponse(e);
+      if (rejected) {
+        odataResponse = ODataResponse.fromResponse(odataResponse)
+            .header(HttpHeaders.RETRY_AFTER, String.valueOf(concurrencyLimiter.getRetryAfter()))
+            .build();
+      }
     }
     context.stopRuntimeMeasurement(timingHandle);
+    metrics.stop(ODataMetric.REQUEST, requestStarted);
+    metrics.recordBufferPool();
 
     if (context.isInDebugMode()) {
       final String debugValue = getQueryDebugValue(request.getQueryParameters());
@@ -165,7 +285,7 @@ public class ODataRequestHandler {
         return new ODataDebugResponseWrapper(context, odataResponse, uriInfo, exception, debugValue).wrapResponse();
       }
     } else {
-      return odataResponse;
+      return metrics.measureBody(odataResponse);
     }
   }
 
@@ -528,7 +648,7 @@ public class ODataRequestHandler {
          || uriType == UriType.URI4 || uriType == UriType.URI5 || uriType == UriType.URI17;
   }
 
-  private static boolean hasConcurrencyControl(final EdmEntityType entityType) throws EdmException {
+  static boolean hasConcurrencyControl(final EdmEntityType entityType) throws EdmException {
     boolean concurrency = false;
     for (final String propertyName : entityType.getPropertyNames()) {
       final EdmFacets facets = ((EdmProperty) entityType.getProperty(propertyName)).getFacets();
@@ -547,4 +667,26 @@ public class ODataRequestHandler {
         || ODataDebugResponseWrapper.ODATA_DEBUG_HTML.equals(debugValue)
         || ODataDebugResponseWrapper.ODATA_DEBUG_DOWNLOAD.equals(debugValue) ? debugValue : null;
   }
-}
\ No newline at end of file
+
+  /*
+   * Releases the admission of the request when the body has been written; the limiter releases it after its
+   * release timeout if the body is never closed.
+   */
+  private static final class PermitReleasingInputStream extends FilterInputStream {
+    private final ODataConcurrencyLimiter.Permit permit;
+
+    private PermitReleasingInputStream(final InputStream content, final ODataConcurrencyLimiter.Permit permit) {
+      super(content);
+      this.permit = permit;
+    }
+
+    @Override
+    public void close() throws IOException {
+      try {
+        super.close();
+      } finally {
+        permit.release();
+      }
+    }
+  }
+}
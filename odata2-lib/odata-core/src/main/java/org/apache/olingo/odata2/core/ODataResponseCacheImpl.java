@@ -0,0 +1,429 @@
+/*******************************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ ******************************************************************************/
+package org.apache.olingo.odata2.core;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.olingo.odata2.api.commons.HttpHeaders;
+import org.apache.olingo.odata2.api.commons.HttpStatusCodes;
+import org.apache.olingo.odata2.api.commons.ODataHttpHeaders;
+import org.apache.olingo.odata2.api.commons.ODataHttpMethod;
+import org.apache.olingo.odata2.api.edm.EdmEntitySet;
+import org.apache.olingo.odata2.api.edm.EdmEntityType;
+import org.apache.olingo.odata2.api.edm.EdmException;
+import org.apache.olingo.odata2.api.edm.EdmNavigationProperty;
+import org.apache.olingo.odata2.api.processor.ODataRequest;
+import org.apache.olingo.odata2.api.processor.ODataResponse;
+import org.apache.olingo.odata2.api.processor.ODataResponse.ODataResponseBuilder;
+import org.apache.olingo.odata2.api.processor.ODataResponseCache;
+import org.apache.olingo.odata2.api.uri.NavigationPropertySegment;
+import org.apache.olingo.odata2.api.uri.NavigationSegment;
+import org.apache.olingo.odata2.api.uri.PathSegment;
+import org.apache.olingo.odata2.api.uri.UriInfo;
+import org.apache.olingo.odata2.core.uri.UriInfoImpl;
+import org.apache.olingo.odata2.core.uri.UriType;
+
+/**
+ * Cache of the responses of <code>GET</code> requests, consulted by the {@link ODataRequestHandler} after content
+ * negotiation and before dispatching the request to the processor.
+ * <p>
+ * A response is cached per service root, resource path, query options, negotiated content type and vary headers
+ * together with the names of the entity sets it has been read from: the start and target entity set, the entity
+ * sets of the navigation segments and the entity sets expanded with <code>$expand</code>. Successful create, update
+ * and delete requests drop the responses of the entity sets they change; the requests of a change set drop them
+ * after the change set has been executed. Only responses with status <code>200</code> and a body of at most
+ * {@link #MAX_BODY_SIZE} bytes are cached.
+ * <p>
+ * Requests with credentials, i.e., with an <code>Authorization</code> or a <code>Cookie</code> header, are not
+ * cached unless the header is one of the configured vary headers, so a response read by one user is never sent to
+ * another user. The cache keeps up to the configured number of entries and drops the oldest entries first; the
+ * cached responses are indexed by entity set, so invalidation does not scan the cache.
+ */
+public class ODataResponseCacheImpl implements ODataResponseCache {
+
+  /** Maximal size in bytes of a cached response body */
+  public static final int MAX_BODY_SIZE = 1024 * 1024;
+
+  private static final List<String> DEFAULT_VARY_HEADERS = Arrays.asList(
+      HttpHeaders.ACCEPT_LANGUAGE, ODataHttpHeaders.DATASERVICEVERSION, "MaxDataServiceVersion");
+  private static final List<String> CREDENTIAL_HEADERS = Arrays.asList(HttpHeaders.AUTHORIZATION, HttpHeaders.COOKIE);
+  private static final List<String> CONDITIONAL_HEADERS = Arrays.asList(
+      HttpHeaders.IF_MATCH, HttpHeaders.IF_NONE_MATCH, HttpHeaders.IF_MODIFIED_SINCE, HttpHeaders.IF_UNMODIFIED_SINCE);
+  private static final char SEPARATOR = '|';
+
+  private final int maxEntries;
+  private final long timeToLive;
+  private final List<String> varyHeaders;
+  private final ConcurrentMap<String, CachedResponse> responses = new ConcurrentHashMap<String, CachedResponse>();
+  private final ConcurrentMap<String, Set<String>> keysByEntitySet = new ConcurrentHashMap<String, Set<String>>();
+  private final Queue<CachedResponse> insertionOrder = new ConcurrentLinkedQueue<CachedResponse>();
+  private final AtomicInteger queued = new AtomicInteger();
+
+  /**
+   * @param maxEntries the maximal number of cached responses
+   * @param timeToLive the time in milliseconds a response is cached
+   * @param varyHeaders additional request headers the responses vary by
+   */
+  public ODataResponseCacheImpl(final int maxEntries, final long timeToLive, final String... varyHeaders) {
+    if (maxEntries <= 0 || timeToLive <= 0) {
+      throw new IllegalArgumentException("Invalid number of entries " + maxEntries
+          + " or time to live " + timeToLive + ".");
+    }
+    this.maxEntries = maxEntries;
+    this.timeToLive = timeToLive;
+    this.varyHeaders = new ArrayList<String>(DEFAULT_VARY_HEADERS);
+    if (varyHeaders != null) {
+      this.varyHeaders.addAll(Arrays.asList(varyHeaders));
+    }
+  }
+
+  @Override
+  public String getKey(final ODataRequest request, final UriInfo uriInfo, final String contentType) {
+    if (request.getMethod() != ODataHttpMethod.GET || !isCacheable(uriInfo)
+        || containsToken(getHeader(request, HttpHeaders.CACHE_CONTROL), "no-store")) {
+      return null;
+    }
+    for (String credentialHeader : CREDENTIAL_HEADERS) {
+      if (getHeader(request, credentialHeader) != null && !isVaryHeader(credentialHeader)) {
+        return null;
+      }
+    }
+    StringBuilder key = new StringBuilder();
+    key.append(request.getPathInfo().getServiceRoot());
+    for (PathSegment segment : request.getPathInfo().getODataSegments()) {
+      key.append('/').append(segment.getPath());
+    }
+    key.append(SEPARATOR);
+    if (request.getAllQueryParameters() != null) {
+      Map<String, List<String>> queryParameters = new TreeMap<String, List<String>>(request.getAllQueryParameters());
+      for (Map.Entry<String, List<String>> parameter : queryParameters.entrySet()) {
+        key.append(parameter.getKey()).append('=').append(parameter.getValue()).append('&');
+      }
+    }
+    key.append(SEPARATOR).append(contentType);
+    for (String varyHeader : varyHeaders) {
+      key.append(SEPARATOR).append(getHeader(request, varyHeader));
+    }
+    return key.toString();
+  }
+
+  /**
+   * @param key the cache key
+   * @param request the request
+   * @return the cached response or <code>null</code> if the response is not cached, has expired, or the request
+   * is conditional or demands a response from the processor with <code>Cache-Control: no-cache</code>
+   */
+  @Override
+  public ODataResponse get(final String key, final ODataRequest request) {
+    if (containsToken(getHeader(request, HttpHeaders.CACHE_CONTROL), "no-cache")) {
+      return null;
+    }
+    for (String conditionalHeader : CONDITIONAL_HEADERS) {
+      if (getHeader(request, conditionalHeader) != null) {
+        return null;
+      }
+    }
+    final CachedResponse cachedResponse = responses.get(key);
+    if (cachedResponse == null) {
+      return null;
+    }
+    if (cachedResponse.expires < System.currentTimeMillis()) {
+      remove(cachedResponse);
+      return null;
+    }
+    ODataResponseBuilder builder = ODataResponse.status(cachedResponse.status);
+    for (Map.Entry<String, String> header : cachedResponse.headers.entrySet()) {
+      builder.header(header.getKey(), header.getValue());
+    }
+    return builder.entity(cachedResponse.body instanceof byte[]
+        ? new ByteArrayInputStream((byte[]) cachedResponse.body) : cachedResponse.body).build();
+  }
+
+  /**
+   * Caches the response if it is successful and its body is small enough.
+   * @param key the cache key
+   * @param uriInfo the parsed request URI
+   * @param response the response
+   * @return the response to be sent; a streamed body has been read ahead
+   * @throws IOException if a streamed body can not be read
+   * @throws EdmException if the entity sets of the request can not be determined
+   */
+  @Override
+  public ODataResponse put(final String key, final UriInfo uriInfo, final ODataResponse response)
+      throws IOException, EdmException {
+    if (response.getStatus() != HttpStatusCodes.OK || response.containsHeader(HttpHeaders.SET_COOKIE)) {
+      return response;
+    }
+    Object entity = response.getEntity();
+    Object body;
+    ODataResponse result = response;
+    if (entity instanceof String) {
+      body = entity;
+    } else if (entity instanceof InputStream) {
+      InputStream stream = (InputStream) entity;
+      ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+      byte[] chunk = new byte[8192];
+      int length;
+      while (buffer.size() <= MAX_BODY_SIZE && (length = stream.read(chunk)) != -1) {
+        buffer.write(chunk, 0, length);
+      }
+      byte[] bytes = buffer.toByteArray();
+      if (bytes.length > MAX_BODY_SIZE) {
+        return ODataResponse.fromResponse(response)
+            .entity(new SequenceInputStream(new ByteArrayInputStream(bytes), stream)).build();
+      }
+      stream.close();
+      body = bytes;
+      result = ODataResponse.fromResponse(response).entity(new ByteArrayInputStream(bytes)).build();
+    } else {
+      return response;
+    }
+
+    Map<String, String> headers = new HashMap<String, String>();
+    for (String name : response.getHeaderNames()) {
+      headers.put(name, response.getHeader(name));
+    }
+    CachedResponse cachedResponse = new CachedResponse(key, response.getStatus(), headers, body,
+        System.currentTimeMillis() + timeToLive, getReadEntitySets(uriInfo));
+    for (String entitySet : cachedResponse.entitySets) {
+      Set<String> keys = keysByEntitySet.get(entitySet);
+      if (keys == null) {
+        final Set<String> newKeys = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+        keys = keysByEntitySet.putIfAbsent(entitySet, newKeys);
+        if (keys == null) {
+          keys = newKeys;
+        }
+      }
+      keys.add(key);
+    }
+    responses.put(key, cachedResponse);
+    // an entity set invalidated while the response has been indexed has taken the response with it
+    for (String entitySet : cachedResponse.entitySets) {
+      final Set<String> keys = keysByEntitySet.get(entitySet);
+      if (keys == null || !keys.contains(key)) {
+        remove(cachedResponse);
+        return result;
+      }
+    }
+    insertionOrder.offer(cachedResponse);
+    queued.incrementAndGet();
+    evict();
+    return result;
+  }
+
+  @Override
+  public Set<String> getChangedEntitySets(final ODataHttpMethod method, final UriInfo uriInfo) throws EdmException {
+    Set<String> entitySets = new HashSet<String>();
+    if (method == ODataHttpMethod.GET || uriInfo.getStartEntitySet() == null
+        || uriInfo instanceof UriInfoImpl && ((UriInfoImpl) uriInfo).getUriType() == UriType.URI9) {
+      return entitySets;
+    }
+    entitySets.add(uriInfo.getStartEntitySet().getName());
+    for (NavigationSegment navigationSegment : uriInfo.getNavigationSegments()) {
+      entitySets.add(navigationSegment.getEntitySet().getName());
+    }
+    EdmEntitySet targetEntitySet = uriInfo.getTargetEntitySet();
+    if (targetEntitySet != null) {
+      entitySets.add(targetEntitySet.getName());
+      if (method == ODataHttpMethod.POST) {
+        // a deep insert creates entities in the entity sets related to the new entity, too
+        EdmEntityType entityType = targetEntitySet.getEntityType();
+        for (String name : entityType.getNavigationPropertyNames()) {
+          EdmNavigationProperty navigationProperty = (EdmNavigationProperty) entityType.getProperty(name);
+          EdmEntitySet relatedEntitySet = targetEntitySet.getRelatedEntitySet(navigationProperty);
+          if (relatedEntitySet != null) {
+            entitySets.add(relatedEntitySet.getName());
+          }
+        }
+      }
+    }
+    return entitySets;
+  }
+
+  /**
+   * Drops the responses of the entity sets changed by a successful request.
+   * @param method the HTTP method of the request
+   * @param uriInfo the parsed request URI
+   * @throws EdmException if the entity sets of the request can not be determined
+   */
+  public void invalidate(final ODataHttpMethod method, final UriInfo uriInfo) throws EdmException {
+    for (String entitySetName : getChangedEntitySets(method, uriInfo)) {
+      invalidate(entitySetName);
+    }
+  }
+
+  @Override
+  public void invalidate(final String entitySetName) {
+    final Set<String> keys = keysByEntitySet.remove(entitySetName);
+    if (keys != null) {
+      for (String key : keys) {
+        responses.remove(key);
+      }
+    }
+  }
+
+  @Override
+  public void invalidateAll() {
+    responses.clear();
+    keysByEntitySet.clear();
+  }
+
+  int size() {
+    return responses.size();
+  }
+
+  /*
+   * Drops the oldest responses while the cache is full; the queue holds replaced and invalidated responses, too,
+   * so it is trimmed to twice the number of entries as well
+   */
+  private void evict() {
+    while (responses.size() > maxEntries || queued.get() > 2 * maxEntries) {
+      final CachedResponse oldest = insertionOrder.poll();
+      if (oldest == null) {
+        return;
+      }
+      queued.decrementAndGet();
+      remove(oldest);
+    }
+  }
+
+  private void remove(final CachedResponse cachedResponse) {
+    if (responses.remove(cachedResponse.key, cachedResponse)) {
+      for (String entitySet : cachedResponse.entitySets) {
+        final Set<String> keys = keysByEntitySet.get(entitySet);
+        if (keys != null) {
+          keys.remove(cachedResponse.key);
+        }
+      }
+    }
+  }
+
+  private boolean isVaryHeader(final String name) {
+    for (String varyHeader : varyHeaders) {
+      if (varyHeader.equalsIgnoreCase(name)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static Set<String> getReadEntitySets(final UriInfo uriInfo) throws EdmException {
+    Set<String> entitySets = new HashSet<String>();
+    if (uriInfo.getStartEntitySet() != null) {
+      entitySets.add(uriInfo.getStartEntitySet().getName());
+    }
+    if (uriInfo.getTargetEntitySet() != null) {
+      entitySets.add(uriInfo.getTargetEntitySet().getName());
+    }
+    for (NavigationSegment navigationSegment : uriInfo.getNavigationSegments()) {
+      entitySets.add(navigationSegment.getEntitySet().getName());
+    }
+    for (List<NavigationPropertySegment> expandPath : uriInfo.getExpand()) {
+      for (NavigationPropertySegment segment : expandPath) {
+        entitySets.add(segment.getTargetEntitySet().getName());
+      }
+    }
+    return entitySets;
+  }
+
+  /*
+   * Function imports may have side effects and $batch is sent with POST, so their responses are not cached.
+   */
+  private static boolean isCacheable(final UriInfo uriInfo) {
+    if (!(uriInfo instanceof UriInfoImpl)) {
+      return false;
+    }
+    switch (((UriInfoImpl) uriInfo).getUriType()) {
+    case URI0:
+    case URI1:
+    case URI2:
+    case URI3:
+    case URI4:
+    case URI5:
+    case URI6A:
+    case URI6B:
+    case URI7A:
+    case URI7B:
+    case URI8:
+    case URI15:
+    case URI16:
+    case URI17:
+    case URI50A:
+    case URI50B:
+      return true;
+    default:
+      return false;
+    }
+  }
+
+  private static String getHeader(final ODataRequest request, final String name) {
+    Map<String, List<String>> headers = request.getRequestHeaders();
+    if (headers == null) {
+      return null;
+    }
+    for (Map.Entry<String, List<String>> header : headers.entrySet()) {
+      if (name.equalsIgnoreCase(header.getKey()) && header.getValue() != null && !header.getValue().isEmpty()) {
+        return header.getValue().toString();
+      }
+    }
+    return null;
+  }
+
+  private static boolean containsToken(final String value, final String token) {
+    return value != null && value.toLowerCase(Locale.ENGLISH).contains(token);
+  }
+
+  private static final class CachedResponse {
+    private final String key;
+    private final HttpStatusCodes status;
+    private final Map<String, String> headers;
+    private final Object body;
+    private final long expires;
+    private final Set<String> entitySets;
+
+    private CachedResponse(final String key, final HttpStatusCodes status, final Map<String, String> headers,
+        final Object body, final long expires, final Set<String> entitySets) {
+      this.key = key;
+      this.status = status;
+      this.headers = headers;
+      this.body = body;
+      this.expires = expires;
+      this.entitySets = entitySets;
+    }
+  }
+}
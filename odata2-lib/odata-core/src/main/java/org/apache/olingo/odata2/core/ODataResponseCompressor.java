@@ -0,0 +1,259 @@
+/*******************************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ ******************************************************************************/
+package org.apache.olingo.odata2.core;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+
+import javax.servlet.ServletConfig;
+
+import org.apache.olingo.odata2.api.commons.HttpHeaders;
+import org.apache.olingo.odata2.api.processor.ODataResponse;
+import org.apache.olingo.odata2.core.commons.CompressingInputStream;
+import org.apache.olingo.odata2.core.commons.CompressingInputStream.Format;
+import org.apache.olingo.odata2.core.commons.ContentType;
+
+/**
+ * Compresses response bodies with the content coding negotiated with the <code>Accept-Encoding</code> header of the
+ * request, <code>gzip</code> or <code>deflate</code>.
+ * <p>
+ * Bodies smaller than the threshold and bodies of media types which are compressed already, e.g., images, are sent
+ * as they are. Streamed bodies are compressed while they are written; only the first bytes up to the threshold are
+ * read ahead to decide whether the body is compressed. The compressed body has no <code>Content-Length</code>, and
+ * its entity tag is made weak since the compressed bytes differ from the bytes of the uncompressed representation.
+ */
+public class ODataResponseCompressor {
+
+  /** Label used in web.xml to enable the compression of responses */
+  public static final String COMPRESSION_LABEL = "org.apache.olingo.odata2.core.compression";
+  /** Label used in web.xml to assign the minimal size in bytes of compressed responses */
+  public static final String THRESHOLD_LABEL = "org.apache.olingo.odata2.core.compression.threshold";
+  /** Label used in web.xml to assign the compression level from 1 (fastest) to 9 (best compression) */
+  public static final String LEVEL_LABEL = "org.apache.olingo.odata2.core.compression.level";
+
+  public static final int DEFAULT_THRESHOLD = 1024;
+  public static final int DEFAULT_LEVEL = 6;
+
+  private static final String DEFAULT_CHARSET = "utf-8";
+  private static final String WEAK_PREFIX = "W/";
+  private static final Set<String> COMPRESSED_MEDIA_TYPES = new HashSet<String>(Arrays.asList(
+      "application/zip", "application/gzip", "application/x-gzip", "application/x-compress",
+      "application/x-bzip2", "application/x-7z-compressed", "application/x-rar-compressed", "application/pdf"));
+
+  private final int threshold;
+  private final int level;
+
+  /**
+   * @param threshold minimal size in bytes of compressed responses
+   * @param level compression level from 1 (fastest) to 9 (best compression)
+   */
+  public ODataResponseCompressor(final int threshold, final int level) {
+    if (threshold < 0 || level < 1 || level > 9) {
+      throw new IllegalArgumentException("Invalid compression threshold " + threshold + " or level " + level + ".");
+    }
+    this.threshold = threshold;
+    this.level = level;
+  }
+
+  /**
+   * Creates the compressor configured with the init parameters of a servlet.
+   * @param config the servlet configuration, may be <code>null</code>
+   * @return the compressor or <code>null</code> if compression is not enabled
+   */
+  public static ODataResponseCompressor create(final ServletConfig config) {
+    if (config == null || !Boolean.parseBoolean(config.getInitParameter(COMPRESSION_LABEL))) {
+      return null;
+    }
+    int level = getIntInitParameter(config, LEVEL_LABEL, DEFAULT_LEVEL);
+    return new ODataResponseCompressor(getIntInitParameter(config, THRESHOLD_LABEL, DEFAULT_THRESHOLD),
+        level < 1 || level > 9 ? DEFAULT_LEVEL : level);
+  }
+
+  /**
+   * Compresses the body of the response if the client accepts a supported content coding.
+   * @param acceptEncoding the <code>Accept-Encoding</code> header of the request, may be <code>null</code>
+   * @param response the response
+   * @return the response with compressed body or the given response
+   * @throws IOException if the start of a streamed body can not be read; the stream is closed then
+   */
+  public ODataResponse compress(final String acceptEncoding, final ODataResponse response) throws IOException {
+    Object entity = response.getEntity();
+    if (!(entity instanceof String || entity instanceof InputStream)
+        || response.getHeader(HttpHeaders.CONTENT_ENCODING) != null
+        || isCompressed(response.getContentHeader())) {
+      return response;
+    }
+    Format format = negotiate(acceptEncoding);
+    if (format == null) {
+      return ODataResponse.fromResponse(response).header(HttpHeaders.VARY, getVary(response)).build();
+    }
+
+    InputStream source;
+    if (entity instanceof String) {
+      byte[] bytes = ((String) entity).getBytes(getCharset(response.getContentHeader()));
+      if (bytes.length < threshold) {
+        return response;
+      }
+      source = new ByteArrayInputStream(bytes);
+    } else {
+      InputStream stream = (InputStream) entity;
+      byte[] start = new byte[threshold];
+      int length = -1;
+      try {
+        length = readFully(stream, start);
+      } finally {
+        if (length == -1) {
+          closeQuietly(stream);
+        }
+      }
+      if (length < threshold) {
+        stream.close();
+        return ODataResponse.fromResponse(response).entity(new ByteArrayInputStream(start, 0, length)).build();
+      }
+      source = new SequenceInputStream(new ByteArrayInputStream(start), stream);
+    }
+
+    return ODataResponse.fromResponse(response)
+        .entity(new CompressingInputStream(source, format, level))
+        .header(HttpHeaders.CONTENT_ENCODING, format.getContentCoding())
+        .header(HttpHeaders.CONTENT_LENGTH, null)
+        .header(HttpHeaders.VARY, getVary(response))
+        .eTag(getWeakEntityTag(response.getETag()))
+        .build();
+  }
+
+  /**
+   * Chooses the content coding from the <code>Accept-Encoding</code> header; <code>gzip</code> is preferred
+   * over <code>deflate</code> if both are acceptable with the same quality.
+   * @param acceptEncoding the header value, may be <code>null</code>
+   * @return the format or <code>null</code> if none of the supported content codings is acceptable
+   */
+  static Format negotiate(final String acceptEncoding) {
+    if (acceptEncoding == null) {
+      return null;
+    }
+    float gzip = -1;
+    float deflate = -1;
+    float any = -1;
+    for (String coding : acceptEncoding.split(",")) {
+      String[] parts = coding.split(";");
+      String name = parts[0].trim().toLowerCase(Locale.ENGLISH);
+      float quality = 1;
+      for (int i = 1; i < parts.length; i++) {
+        String parameter = parts[i].trim();
+        if (parameter.startsWith("q=")) {
+          try {
+            quality = Float.parseFloat(parameter.substring(2));
+          } catch (NumberFormatException e) {
+            quality = 0;
+          }
+        }
+      }
+      if ("gzip".equals(name) || "x-gzip".equals(name)) {
+        gzip = quality;
+      } else if ("deflate".equals(name)) {
+        deflate = quality;
+      } else if ("*".equals(name)) {
+        any = quality;
+      }
+    }
+    gzip = gzip < 0 ? any : gzip;
+    deflate = deflate < 0 ? any : deflate;
+    if (gzip > 0 && gzip >= deflate) {
+      return Format.GZIP;
+    } else if (deflate > 0) {
+      return Format.DEFLATE;
+    }
+    return null;
+  }
+
+  private static boolean isCompressed(final String contentHeader) {
+    ContentType contentType = contentHeader == null ? null : ContentType.parse(contentHeader);
+    if (contentType == null) {
+      return true;
+    }
+    String type = contentType.getType().toLowerCase(Locale.ENGLISH);
+    String mediaType = type + "/" + contentType.getSubtype().toLowerCase(Locale.ENGLISH);
+    return "image".equals(type) && !mediaType.endsWith("+xml")
+        || "audio".equals(type)
+        || "video".equals(type)
+        || COMPRESSED_MEDIA_TYPES.contains(mediaType);
+  }
+
+  private static String getCharset(final String contentHeader) {
+    ContentType contentType = ContentType.parse(contentHeader);
+    String charset = contentType == null ? null : contentType.getParameters().get(ContentType.PARAMETER_CHARSET);
+    return charset == null ? DEFAULT_CHARSET : charset;
+  }
+
+  private static String getVary(final ODataResponse response) {
+    String vary = response.getHeader(HttpHeaders.VARY);
+    if (vary == null) {
+      return HttpHeaders.ACCEPT_ENCODING;
+    }
+    for (String header : vary.split(",")) {
+      if (HttpHeaders.ACCEPT_ENCODING.equalsIgnoreCase(header.trim()) || "*".equals(header.trim())) {
+        return vary;
+      }
+    }
+    return vary + ", " + HttpHeaders.ACCEPT_ENCODING;
+  }
+
+  private static String getWeakEntityTag(final String entityTag) {
+    return entityTag == null || entityTag.startsWith(WEAK_PREFIX) ? entityTag : WEAK_PREFIX + entityTag;
+  }
+
+  private static int readFully(final InputStream stream, final byte[] buffer) throws IOException {
+    int length = 0;
+    while (length < buffer.length) {
+      int count = stream.read(buffer, length, buffer.length - length);
+      if (count == -1) {
+        break;
+      }
+      length += count;
+    }
+    return length;
+  }
+
+  private static void closeQuietly(final InputStream stream) {
+    try {
+      stream.close();
+    } catch (IOException e) {
+      // the error of reading the stream is reported
+    }
+  }
+
+  private static int getIntInitParameter(final ServletConfig config, final String name, final int defaultValue) {
+    String value = config.getInitParameter(name);
+    if (value != null) {
+      try {
+        return Math.max(0, Integer.parseInt(value.trim()));
+      } catch (NumberFormatException e) {
+        // the default is used if the parameter is not a number
+      }
+    }
+    return defaultValue;
+  }
+}
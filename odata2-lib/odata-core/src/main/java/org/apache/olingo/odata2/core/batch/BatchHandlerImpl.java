@@ -22,9 +22,11 @@ import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
 
 import org.apache.olingo.odata2.api.ODataService;
 import org.apache.olingo.odata2.api.ODataServiceFactory;
@@ -37,7 +39,9 @@ import org.apache.olingo.odata2.api.exception.ODataException;
 import org.apache.olingo.odata2.api.processor.ODataContext;
 import org.apache.olingo.odata2.api.processor.ODataRequest;
 import org.apache.olingo.odata2.api.processor.ODataResponse;
+import org.apache.olingo.odata2.api.processor.ODataResponseCache;
 import org.apache.olingo.odata2.api.uri.PathSegment;
+import org.apache.olingo.odata2.core.ODataConcurrencyLimiter;
 import org.apache.olingo.odata2.core.ODataContextImpl;
 import org.apache.olingo.odata2.core.ODataPathSegmentImpl;
 import org.apache.olingo.odata2.core.ODataRequestHandler;
@@ -48,6 +52,8 @@ public class BatchHandlerImpl implements BatchHandler {
   private ODataServiceFactory factory;
   private ODataService service;
   private Map<String, String> contentIdMap;
+  private Set<String> changedEntitySets;
+  private ODataConcurrencyLimiter concurrencyLimiter;
   private static final String BATCH_ODATA_REQUEST_HEADERS = "batchODataRequestHeaders";
 
   public BatchHandlerImpl(final ODataServiceFactory factory, final ODataService service) {
@@ -56,11 +62,24 @@ public class BatchHandlerImpl implements BatchHandler {
     contentIdMap = new HashMap<String, String>();
   }
 
+  /**
+   * Sets the limiter which admits the parts of the batch request.
+   * @param concurrencyLimiter the limiter, may be <code>null</code>
+   */
+  public void setConcurrencyLimiter(final ODataConcurrencyLimiter concurrencyLimiter) {
+    this.concurrencyLimiter = concurrencyLimiter;
+  }
+
   @Override
   public BatchResponsePart handleBatchPart(final BatchRequestPart batchPart) throws ODataException {
     if (batchPart.isChangeSet()) {
       List<ODataRequest> changeSetRequests = batchPart.getRequests();
-      return service.getBatchProcessor().executeChangeSet(this, changeSetRequests);
+      changedEntitySets = new HashSet<String>();
+      try {
+        return service.getBatchProcessor().executeChangeSet(this, changeSetRequests);
+      } finally {
+        invalidateChangedEntitySets();
+      }
     } else {
       if (batchPart.getRequests().size() != 1) {
         throw new ODataException("Query Operation should contain one request");
@@ -99,6 +118,7 @@ public class BatchHandlerImpl implements BatchHandler {
       request = suppliedRequest;
     }
     ODataRequestHandler handler = createHandler(request);
+    handler.setChangedEntitySets(changedEntitySets);
     ODataResponse response = handler.handle(request);
     if (response.getStatus().getStatusCode() < BAD_REQUEST) {
       response = setContentIdHeader(request, response, mimeHeaderContentId, requestHeaderContentId);
@@ -114,6 +134,19 @@ public class BatchHandlerImpl implements BatchHandler {
     return response;
   }
 
+  /*
+   * Drops the cached responses of the entity sets changed by a change set once the processor has committed it
+   */
+  private void invalidateChangedEntitySets() {
+    final ODataResponseCache responseCache = factory.getCallback(ODataResponseCache.class);
+    if (responseCache != null) {
+      for (String entitySet : changedEntitySets) {
+        responseCache.invalidate(entitySet);
+      }
+    }
+    changedEntitySets = null;
+  }
+
   private void fillContentIdMap(final ODataResponse response, final String contentId, final String baseUri) {
     String location = response.getHeader(HttpHeaders.LOCATION);
     if (location != null) {
@@ -200,7 +233,9 @@ public class BatchHandlerImpl implements BatchHandler {
       context.setParameter(BATCH_ODATA_REQUEST_HEADERS, parentContext.getRequestHeaders());
     }
     service.getProcessor().setContext(context);
-    return new ODataRequestHandler(factory, service, context);
+    ODataRequestHandler handler = new ODataRequestHandler(factory, service, context);
+    handler.setConcurrencyLimiter(concurrencyLimiter);
+    return handler;
   }
 
 }
@@ -22,6 +22,7 @@ import org.apache.olingo.odata2.api.client.batch.BatchChangeSetPart;
 import org.apache.olingo.odata2.api.client.batch.BatchInputResource;
 import org.apache.olingo.odata2.api.commons.HttpHeaders;
 import org.apache.olingo.odata2.api.processor.ODataResponse;
+import org.apache.olingo.odata2.core.commons.ByteArrayPool;
 import org.apache.olingo.odata2.core.commons.ContentType;
 import org.apache.olingo.odata2.core.exception.ODataRuntimeException;
 
@@ -120,25 +121,44 @@ public class BatchHelper {
     private static final String OLINGO_TMPDIR_PROPERTY = "olingo.tmpdir";
 
     public static final int DEFAULT_SIZE = 8192;
-    private static final int THRESHOLD = DEFAULT_SIZE * 8;
     private final Charset CHARSET_ISO_8859_1 = Charset.forName("iso-8859-1");
 
-    private ByteBuffer buffer = ByteBuffer.allocate(DEFAULT_SIZE);
+    private final BatchMemoryBudget budget;
+    private long reserved = 0;
+    private ByteBuffer buffer;
+    private byte[] content = null;
     private File fileBuffer = null;
+    private FileOutputStream fileBufferStream = null;
 
     private boolean isClosed = false;
+    private boolean isContentTaken = false;
+
+    public BodyBuilder() {
+      this(BatchMemoryBudget.forRequest());
+    }
+
+    BodyBuilder(final BatchMemoryBudget budget) {
+      this.budget = budget;
+      buffer = reserve(DEFAULT_SIZE) ? allocate(DEFAULT_SIZE) : ByteBuffer.allocate(0);
+    }
 
     public InputStream getContentAsStream() {
+      isContentTaken = true;
       try {
-        return fileBuffer != null ?
-          new DeleteOnCloseFileInputStream(fileBuffer) : new ByteArrayInputStream(getBufferContent());
+        if (fileBuffer != null) {
+          closeFileBuffer();
+          return new DeleteOnCloseFileInputStream(fileBuffer);
+        }
+        return new ByteArrayInputStream(getBufferContent());
       } catch (IOException exception) {
         throw new ODataRuntimeException(exception);
       }
     }
 
     public String getContentAsString(Charset charset) {
+      isContentTaken = true;
       if (fileBuffer != null) {
+        closeFileBuffer();
         InputStreamReader reader = null;
         try {
           reader = new InputStreamReader(new DeleteOnCloseFileInputStream(fileBuffer), charset);
@@ -183,6 +203,24 @@ public class BatchHelper {
       put(new BatchInputResource(new ByteArrayInputStream(b), b.length));
     }
 
+    /**
+     * Output stream which appends all written bytes to this builder.
+     * @return output stream view on this builder
+     */
+    public OutputStream getOutputStream() {
+      return new OutputStream() {
+        @Override
+        public void write(final int b) {
+          put(new byte[] { (byte) b });
+        }
+
+        @Override
+        public void write(final byte[] b, final int off, final int len) {
+          put(new BatchInputResource(new ByteArrayInputStream(b, off, len), len));
+        }
+      };
+    }
+
     private void put(BatchInputResource resource) {
       if(isClosed) {
         throw new RuntimeException("BodyBuilder is closed.");
@@ -191,17 +229,21 @@ public class BatchHelper {
       if (fileBuffer == null) {
         if (buffer.remaining() < resource.size()) {
           int newSize = (buffer.limit() * 2) + resource.size();
-          if (newSize > THRESHOLD) {
-            fileBuffer = createTempFile();
-            writeToFileBuffer(new ByteArrayInputStream(buffer.array(), 0, buffer.position()),
-              resource.getInputStream());
-            buffer = null;
-          } else {
+          if (reserve(newSize - buffer.limit())) {
             buffer.flip();
-            ByteBuffer tmp = ByteBuffer.allocate(newSize);
+            ByteBuffer tmp = allocate(newSize);
             tmp.put(buffer);
+            ByteArrayPool.release(buffer.array());
             buffer = tmp;
             writeToByteBuffer(resource.getInputStream());
+          } else {
+            fileBuffer = createTempFile();
+            budget.spillStarted();
+            writeToFileBuffer(new ByteArrayInputStream(buffer.array(), 0, buffer.position()),
+              resource.getInputStream());
+            ByteArrayPool.release(buffer.array());
+            buffer = null;
+            releaseReservation();
           }
         } else {
           writeToByteBuffer(resource.getInputStream());
@@ -211,6 +253,30 @@ public class BatchHelper {
       }
     }
 
+    /*
+     * The budget may be shared with the other builders and the parsed parts of the batch request,
+     * so only the memory reserved by this builder is released.
+     */
+    private boolean reserve(final int bytes) {
+      if (budget.reserve(bytes)) {
+        reserved += bytes;
+        return true;
+      }
+      return false;
+    }
+
+    private void releaseReservation() {
+      budget.release(reserved);
+      reserved = 0;
+    }
+
+    /*
+     * Wraps a pooled array; the limit of the buffer is the requested size the budget has been reserved for.
+     */
+    private ByteBuffer allocate(final int size) {
+      return ByteBuffer.wrap(ByteArrayPool.acquire(size), 0, size);
+    }
+
     File createTempFile() {
       String tempDir = System.getProperty(OLINGO_TMPDIR_PROPERTY);
       if (tempDir == null) {
@@ -226,51 +292,100 @@ public class BatchHelper {
 
     private void writeToByteBuffer(InputStream inputStream) {
       int bytesCount;
+      byte[] sbuf = ByteArrayPool.acquire(DEFAULT_SIZE);
       try {
-        for (byte[] sbuf = new byte[DEFAULT_SIZE]; (bytesCount = inputStream.read(sbuf)) != -1;) {
+        while ((bytesCount = inputStream.read(sbuf)) != -1) {
           buffer.put(sbuf, 0, bytesCount);
         }
       } catch (IOException e) {
         throw new ODataRuntimeException(e);
+      } finally {
+        ByteArrayPool.release(sbuf);
       }
     }
 
     private void writeToFileBuffer(InputStream... inputStreams) {
-      FileOutputStream fos = null;
       try {
-        fos = new FileOutputStream(fileBuffer, true);
+        if (fileBufferStream == null) {
+          fileBufferStream = new FileOutputStream(fileBuffer, true);
+        }
         for (InputStream inputStream : inputStreams) {
-          copyStream(inputStream, fos);
+          budget.spilled(copyStream(inputStream, fileBufferStream));
         }
       } catch (IOException e) {
+        closeFileBuffer();
         throw new ODataRuntimeException(e);
-      } finally {
-        if (fos != null) {
-          try {
-            fos.close();
-          } catch (IOException e) {}
+      }
+    }
+
+    private void closeFileBuffer() {
+      isClosed = true;
+      if (fileBufferStream != null) {
+        try {
+          fileBufferStream.close();
+        } catch (IOException e) {
+        } finally {
+          fileBufferStream = null;
         }
       }
     }
 
-    private void copyStream(InputStream inputStream, FileOutputStream outputStream) {
+    private long copyStream(InputStream inputStream, FileOutputStream outputStream) {
+      byte[] sbuf = ByteArrayPool.acquire(DEFAULT_SIZE);
       try {
+        long written = 0;
         int bytesRead;
-        for (byte[] sbuf = new byte[DEFAULT_SIZE]; (bytesRead = inputStream.read(sbuf)) != -1; ) {
+        while ((bytesRead = inputStream.read(sbuf)) != -1) {
           outputStream.write(sbuf, 0, bytesRead);
+          written += bytesRead;
         }
         outputStream.flush();
+        return written;
       } catch (IOException e) {
         throw new ODataRuntimeException(e);
+      } finally {
+        ByteArrayPool.release(sbuf);
       }
     }
 
+    /*
+     * Copies the content out of the pooled array and returns that array to the pool on the first call;
+     * later calls return the same copy, which is never released since it has been handed out.
+     */
     private byte[] getBufferContent() {
       isClosed = true;
-      byte[] tmp = new byte[buffer.position()];
-      buffer.flip();
-      buffer.get(tmp, 0, buffer.limit());
-      return tmp;
+      if (content == null) {
+        content = new byte[buffer.position()];
+        buffer.flip();
+        buffer.get(content);
+        ByteArrayPool.release(buffer.array());
+        buffer = ByteBuffer.wrap(content);
+        buffer.position(content.length);
+        releaseReservation();
+      }
+      return content;
+    }
+
+    /**
+     * Discards the content if it has not been taken yet: the pooled buffer and the reserved memory
+     * are released and a temporary file is deleted. Does nothing once the content has been taken,
+     * so callers can close the builder in a <code>finally</code> block.
+     */
+    public void close() {
+      if (isContentTaken) {
+        return;
+      }
+      isContentTaken = true;
+      isClosed = true;
+      if (fileBuffer == null) {
+        ByteArrayPool.release(buffer.array());
+      } else {
+        closeFileBuffer();
+        fileBuffer.delete();
+        fileBuffer = null;
+      }
+      buffer = ByteBuffer.allocate(0);
+      releaseReservation();
     }
 
     public BodyBuilder append(int statusCode) {
@@ -0,0 +1,244 @@
+/*******************************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ ******************************************************************************/
+package org.apache.olingo.odata2.core.batch;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Heap memory budget for batch parsing and batch body building.
+ * <p>
+ * Each batch request (or response) works with its own budget instance which is limited by
+ * the system property <code>olingo.batch.requestMemoryLimit</code> (bytes, default 65536).
+ * All instances additionally share the process wide limit given by the system property
+ * <code>olingo.batch.processMemoryLimit</code> (bytes, default unlimited).
+ * If a reservation is refused the caller has to spill its content to a temporary file
+ * (see <code>olingo.tmpdir</code>) or reject the batch.
+ * <p>
+ * While a batch request is processed on the server its budget is bound to the processing thread
+ * (see {@link #begin()}), so the parsed request parts and all bodies built for the request share one
+ * budget. The parsed request parts stay reserved until the processing of the request has ended.
+ * A budget is not thread safe.
+ * <p>
+ * The static counters give access to the currently buffered and the overall spilled bytes.
+ */
+public final class BatchMemoryBudget {
+
+  public static final String REQUEST_LIMIT_PROPERTY = "olingo.batch.requestMemoryLimit";
+  public static final String PROCESS_LIMIT_PROPERTY = "olingo.batch.processMemoryLimit";
+  public static final long DEFAULT_REQUEST_LIMIT = 8192 * 8;
+  public static final long UNLIMITED = -1;
+
+  private static final AtomicLong BUFFERED_BYTES = new AtomicLong();
+  private static final AtomicLong SPILLED_BYTES = new AtomicLong();
+  private static final AtomicLong SPILL_COUNT = new AtomicLong();
+  private static final AtomicLong REJECTED_COUNT = new AtomicLong();
+  private static final ThreadLocal<BatchMemoryBudget> REQUEST_BUDGET = new ThreadLocal<BatchMemoryBudget>();
+
+  private final long requestLimit;
+  private final long processLimit;
+  private long reserved = 0;
+
+  public BatchMemoryBudget(final long requestLimit, final long processLimit) {
+    this.requestLimit = requestLimit;
+    this.processLimit = processLimit;
+  }
+
+  /**
+   * Creates a budget with the limits configured via system properties.
+   * @return new budget for one batch request or response
+   */
+  public static BatchMemoryBudget create() {
+    return new BatchMemoryBudget(getLimit(REQUEST_LIMIT_PROPERTY, DEFAULT_REQUEST_LIMIT),
+        getLimit(PROCESS_LIMIT_PROPERTY, UNLIMITED));
+  }
+
+  /**
+   * Creates a budget which is only limited by the process wide limit.
+   * Used where the content can not be spilled (e.g. while parsing).
+   * @return new budget without request limit
+   */
+  public static BatchMemoryBudget createWithoutRequestLimit() {
+    return new BatchMemoryBudget(UNLIMITED, getLimit(PROCESS_LIMIT_PROPERTY, UNLIMITED));
+  }
+
+  /**
+   * Creates a budget for the batch request processed by the current thread and binds it to the thread
+   * until {@link #end()} is called.
+   * @return new budget for the batch request
+   */
+  public static BatchMemoryBudget begin() {
+    BatchMemoryBudget budget = create();
+    REQUEST_BUDGET.set(budget);
+    return budget;
+  }
+
+  /**
+   * Releases all memory reserved for the batch request and unbinds the budget from the current thread.
+   */
+  public void end() {
+    release();
+    if (REQUEST_BUDGET.get() == this) {
+      REQUEST_BUDGET.remove();
+    }
+  }
+
+  /**
+   * @return the budget of the batch request processed by the current thread or <code>null</code>
+   */
+  public static BatchMemoryBudget getRequestBudget() {
+    return REQUEST_BUDGET.get();
+  }
+
+  /**
+   * @return the budget of the batch request processed by the current thread or a new budget
+   */
+  public static BatchMemoryBudget forRequest() {
+    BatchMemoryBudget budget = REQUEST_BUDGET.get();
+    return budget == null ? create() : budget;
+  }
+
+  private static long getLimit(final String property, final long defaultValue) {
+    final String value = System.getProperty(property);
+    if (value == null) {
+      return defaultValue;
+    }
+    try {
+      return Long.parseLong(value.trim());
+    } catch (NumberFormatException e) {
+      return defaultValue;
+    }
+  }
+
+  /**
+   * Tries to reserve additional heap memory.
+   * @param bytes number of additional bytes
+   * @return <code>true</code> if the memory was granted, <code>false</code> if either the request
+   * or the process limit would be exceeded
+   */
+  public boolean reserve(final long bytes) {
+    return reserve(bytes, true);
+  }
+
+  /**
+   * Tries to reserve additional heap memory.
+   * @param bytes number of additional bytes
+   * @param spillable <code>false</code> for content which can not be spilled (e.g. parsed lines); such
+   * content counts against the request limit but is only refused by the process limit
+   * @return <code>true</code> if the memory was granted, <code>false</code> if the limit would be exceeded
+   */
+  public boolean reserve(final long bytes, final boolean spillable) {
+    if (spillable && requestLimit != UNLIMITED && reserved + bytes > requestLimit) {
+      REJECTED_COUNT.incrementAndGet();
+      return false;
+    }
+    if (processLimit == UNLIMITED) {
+      BUFFERED_BYTES.addAndGet(bytes);
+    } else {
+      long current;
+      do {
+        current = BUFFERED_BYTES.get();
+        if (current + bytes > processLimit) {
+          REJECTED_COUNT.incrementAndGet();
+          return false;
+        }
+      } while (!BUFFERED_BYTES.compareAndSet(current, current + bytes));
+    }
+    reserved += bytes;
+    return true;
+  }
+
+  /**
+   * Releases all memory reserved by this budget.
+   */
+  public void release() {
+    release(reserved);
+  }
+
+  /**
+   * Releases a part of the memory reserved by this budget.
+   * @param bytes number of bytes reserved before
+   */
+  public void release(final long bytes) {
+    final long released = Math.min(bytes, reserved);
+    if (released > 0) {
+      BUFFERED_BYTES.addAndGet(-released);
+      reserved -= released;
+    }
+  }
+
+  /**
+   * Records that content was written to a temporary file instead of the heap.
+   * @param bytes number of spilled bytes
+   */
+  public void spilled(final long bytes) {
+    SPILLED_BYTES.addAndGet(bytes);
+  }
+
+  /**
+   * Records that a new temporary file was created.
+   */
+  public void spillStarted() {
+    SPILL_COUNT.incrementAndGet();
+  }
+
+  public long getReserved() {
+    return reserved;
+  }
+
+  public long getRequestLimit() {
+    return requestLimit;
+  }
+
+  /**
+   * @return bytes currently held in heap buffers by all batch requests and responses
+   */
+  public static long getBufferedBytes() {
+    return BUFFERED_BYTES.get();
+  }
+
+  /**
+   * @return bytes written to temporary files since start (or last reset)
+   */
+  public static long getSpilledBytes() {
+    return SPILLED_BYTES.get();
+  }
+
+  /**
+   * @return number of temporary files created since start (or last reset)
+   */
+  public static long getSpillCount() {
+    return SPILL_COUNT.get();
+  }
+
+  /**
+   * @return number of refused reservations since start (or last reset)
+   */
+  public static long getRejectedCount() {
+    return REJECTED_COUNT.get();
+  }
+
+  /**
+   * Resets the spill and rejection counters (the buffered bytes are kept).
+   */
+  public static void resetStatistics() {
+    SPILLED_BYTES.set(0);
+    SPILL_COUNT.set(0);
+    REJECTED_COUNT.set(0);
+  }
+}
@@ -0,0 +1,209 @@
+/*******************************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ ******************************************************************************/
+package org.apache.olingo.odata2.core.batch;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Map;
+
+import org.apache.olingo.odata2.api.client.batch.BatchChangeSet;
+import org.apache.olingo.odata2.api.client.batch.BatchChangeSetPart;
+import org.apache.olingo.odata2.api.client.batch.BatchPart;
+import org.apache.olingo.odata2.api.client.batch.BatchQueryPart;
+import org.apache.olingo.odata2.api.client.batch.BatchRequestStreamWriter;
+import org.apache.olingo.odata2.api.commons.HttpContentType;
+import org.apache.olingo.odata2.api.commons.HttpHeaders;
+
+/**
+ * Writes the parts of a Batch Request directly into an output stream.
+ */
+public class BatchRequestStreamWriterImpl implements BatchRequestStreamWriter {
+  private static final String REG_EX_BOUNDARY =
+      "([a-zA-Z0-9_\\-\\.'\\+]{1,70})|\"([a-zA-Z0-9_\\-\\.'\\+\\s\\" +
+          "(\\),/:=\\?]{1,69}[a-zA-Z0-9_\\-\\.'\\+\\(\\),/:=\\?])\""; // See RFC 2046
+
+  private static final String COLON = ":";
+  private static final String SP = " ";
+  private static final String CRLF = "\r\n";
+  public static final String BOUNDARY_PREAMBLE = "changeset";
+  public static final String HTTP_1_1 = "HTTP/1.1";
+  private static final int BUFFER_SIZE = 8192;
+
+  private final OutputStream out;
+  private final String batchBoundary;
+  private String changeSetBoundary = null;
+  private boolean isClosed = false;
+
+  /**
+   * @param out stream the batch request is written to
+   * @param boundary boundary of the batch request
+   * @throws IllegalArgumentException if the boundary is not valid according to RFC 2046
+   */
+  public BatchRequestStreamWriterImpl(final OutputStream out, final String boundary) {
+    if (boundary == null || !boundary.matches(REG_EX_BOUNDARY)) {
+      throw new IllegalArgumentException();
+    }
+    this.out = out;
+    batchBoundary = boundary;
+  }
+
+  @Override
+  public BatchRequestStreamWriter append(final BatchPart batchPart) throws IOException {
+    checkState(false);
+    write("--", batchBoundary, CRLF);
+    if (batchPart instanceof BatchChangeSet) {
+      startChangeSet();
+      for (BatchChangeSetPart request : ((BatchChangeSet) batchPart).getChangeSetParts()) {
+        appendRequestBodyPart(request);
+      }
+      finishChangeSet();
+    } else if (batchPart instanceof BatchQueryPart) {
+      appendRequestBodyPart((BatchQueryPart) batchPart);
+    }
+    return this;
+  }
+
+  @Override
+  public BatchRequestStreamWriter beginChangeSet() throws IOException {
+    checkState(false);
+    write("--", batchBoundary, CRLF);
+    startChangeSet();
+    return this;
+  }
+
+  @Override
+  public BatchRequestStreamWriter appendChangeSetPart(final BatchChangeSetPart changeSetPart) throws IOException {
+    checkState(true);
+    appendRequestBodyPart(changeSetPart);
+    return this;
+  }
+
+  @Override
+  public BatchRequestStreamWriter endChangeSet() throws IOException {
+    checkState(true);
+    finishChangeSet();
+    return this;
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (!isClosed) {
+      checkState(false);
+      write("--", batchBoundary, "--");
+      out.flush();
+      isClosed = true;
+    }
+  }
+
+  private void checkState(final boolean changeSetOpen) {
+    if (isClosed) {
+      throw new IllegalStateException("Batch request writer is closed.");
+    } else if (changeSetOpen && changeSetBoundary == null) {
+      throw new IllegalStateException("No change set is open.");
+    } else if (!changeSetOpen && changeSetBoundary != null) {
+      throw new IllegalStateException("Change set is still open.");
+    }
+  }
+
+  private void startChangeSet() throws IOException {
+    String boundary = BatchHelper.generateBoundary(BOUNDARY_PREAMBLE);
+    while (boundary.equals(batchBoundary) || !boundary.matches(REG_EX_BOUNDARY)) {
+      boundary = BatchHelper.generateBoundary(BOUNDARY_PREAMBLE);
+    }
+    changeSetBoundary = boundary;
+    write(HttpHeaders.CONTENT_TYPE, COLON, SP, HttpContentType.MULTIPART_MIXED + "; boundary=" + boundary, CRLF);
+  }
+
+  private void finishChangeSet() throws IOException {
+    write(CRLF, "--", changeSetBoundary, "--", CRLF);
+    changeSetBoundary = null;
+  }
+
+  private void appendRequestBodyPart(final BatchQueryPart request) throws IOException {
+    appendRequestBodyPart(request.getMethod(), request.getUri(), request.getHeaders(),
+        new BatchHelper.Body(), request.getContentId());
+  }
+
+  private void appendRequestBodyPart(final BatchChangeSetPart request) throws IOException {
+    write(CRLF, "--", changeSetBoundary, CRLF);
+    appendRequestBodyPart(request.getMethod(), request.getUri(), request.getHeaders(),
+        new BatchHelper.Body(request), request.getContentId());
+  }
+
+  private void appendRequestBodyPart(final String method, final String uri, final Map<String, String> headers,
+      final BatchHelper.Body body, final String contentId) throws IOException {
+
+    boolean isContentLengthPresent = false;
+    write(HttpHeaders.CONTENT_TYPE, COLON, SP, HttpContentType.APPLICATION_HTTP, CRLF);
+    write(BatchHelper.HTTP_CONTENT_TRANSFER_ENCODING, COLON, SP, BatchHelper.BINARY_ENCODING, CRLF);
+    if (contentId != null) {
+      write(BatchHelper.HTTP_CONTENT_ID, COLON, SP, contentId, CRLF);
+    }
+    String contentLength = getHeaderValue(headers, HttpHeaders.CONTENT_LENGTH);
+    if (contentLength != null && !contentLength.isEmpty()) {
+      isContentLengthPresent = true;
+    }
+    write(CRLF);
+    write(method, SP, uri, SP, HTTP_1_1);
+    write(CRLF);
+
+    // a negative length marks content of unknown size which is streamed without Content-Length
+    if (!isContentLengthPresent && !body.isEmpty() && body.getLength() > 0) {
+      write(HttpHeaders.CONTENT_LENGTH, COLON, SP, String.valueOf(body.getLength()), CRLF);
+    }
+    appendHeader(headers);
+    write(CRLF);
+
+    if (!body.isEmpty()) {
+      copy(body.getBatchInputResource().getInputStream());
+    } else {
+      write(CRLF);
+    }
+  }
+
+  private void appendHeader(final Map<String, String> headers) throws IOException {
+    for (Map.Entry<String, String> headerMap : headers.entrySet()) {
+      write(headerMap.getKey(), COLON, SP, headerMap.getValue(), CRLF);
+    }
+  }
+
+  private String getHeaderValue(final Map<String, String> headers, final String headerName) {
+    for (Map.Entry<String, String> header : headers.entrySet()) {
+      if (headerName.equalsIgnoreCase(header.getKey())) {
+        return header.getValue();
+      }
+    }
+    return null;
+  }
+
+  private void write(final String... values) throws IOException {
+    for (String value : values) {
+      out.write(value.getBytes(BatchHelper.DEFAULT_CHARSET));
+    }
+  }
+
+  private void copy(final InputStream inputStream) throws IOException {
+    byte[] buffer = new byte[BUFFER_SIZE];
+    int bytesRead;
+    while ((bytesRead = inputStream.read(buffer)) != -1) {
+      out.write(buffer, 0, bytesRead);
+    }
+  }
+}
@@ -57,20 +57,24 @@ public class BatchResponseWriter {
 
   public ODataResponse writeResponse(final List<BatchResponsePart> batchResponseParts) throws BatchException {
     String boundary = BatchHelper.generateBoundary("batch");
-    appendResponsePart(batchResponseParts, boundary);
-    final Object batchResponseBody;
-    int length = 0;
-    if(writeEntityAsInputStream) {
-      batchResponseBody = writer.getContentAsStream();
-      length = writer.calculateLength(batchResponseBody);
-    } else {
-      batchResponseBody = writer.getContentAsString(BatchHelper.DEFAULT_CHARSET);
-      length = writer.calculateLength(batchResponseBody);
+    try {
+      appendResponsePart(batchResponseParts, boundary);
+      final Object batchResponseBody;
+      int length = 0;
+      if(writeEntityAsInputStream) {
+        batchResponseBody = writer.getContentAsStream();
+        length = writer.calculateLength(batchResponseBody);
+      } else {
+        batchResponseBody = writer.getContentAsString(BatchHelper.DEFAULT_CHARSET);
+        length = writer.calculateLength(batchResponseBody);
+      }
+      return ODataResponse.entity(batchResponseBody).status(HttpStatusCodes.ACCEPTED)
+          .header(HttpHeaders.CONTENT_TYPE, HttpContentType.MULTIPART_MIXED + "; boundary=" + boundary)
+          .header(HttpHeaders.CONTENT_LENGTH, String.valueOf(length))
+          .build();
+    } finally {
+      writer.close();
     }
-    return ODataResponse.entity(batchResponseBody).status(HttpStatusCodes.ACCEPTED)
-        .header(HttpHeaders.CONTENT_TYPE, HttpContentType.MULTIPART_MIXED + "; boundary=" + boundary)
-        .header(HttpHeaders.CONTENT_LENGTH, String.valueOf(length))
-        .build();
   }
 
   private void appendChangeSet(final BatchResponsePart batchResponsePart) throws BatchException {
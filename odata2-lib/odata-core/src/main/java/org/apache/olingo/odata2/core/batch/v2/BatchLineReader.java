@@ -18,6 +18,8 @@
  ******************************************************************************/
 package org.apache.olingo.odata2.core.batch.v2;
 
+import org.apache.olingo.odata2.api.batch.BatchException;
+import org.apache.olingo.odata2.core.batch.BatchMemoryBudget;
 import org.apache.olingo.odata2.core.commons.ContentType;
 
 import java.io.IOException;
@@ -96,6 +98,40 @@ public class BatchLineReader {
     return result;
   }
 
+  /**
+   * Reads all lines and reserves the memory of each line in the given budget. The lines can not be
+   * spilled, so they count against the request limit but are only refused by the process limit.
+   * @param budget memory budget of the batch request
+   * @return list of lines
+   * @throws IOException if the underlying stream can not be read
+   * @throws BatchException if the budget refuses to hold another line
+   */
+  public List<Line> toLineList(final BatchMemoryBudget budget) throws IOException, BatchException {
+    final List<Line> result = new ArrayList<Line>();
+    String currentLine = readLine();
+    if(currentLine != null) {
+      currentBoundary = currentLine.trim();
+      int counter = 1;
+      reserve(budget, currentLine, counter);
+      result.add(new Line(currentLine, counter++));
+
+      while ((currentLine = readLine()) != null) {
+        reserve(budget, currentLine, counter);
+        result.add(new Line(currentLine, counter++));
+      }
+    }
+
+    return result;
+  }
+
+  private void reserve(final BatchMemoryBudget budget, final String line, final int lineNumber)
+      throws BatchException {
+    // a char of the line occupies two bytes on the heap
+    if (!budget.reserve(line.length() * 2L, false)) {
+      throw new BatchException(BatchException.MEMORY_LIMIT_EXCEEDED.addContent(lineNumber));
+    }
+  }
+
   private void updateCurrentCharset(String currentLine) {
     if(currentLine != null) {
       if(isContentTypeHeaderLine(currentLine)) {
@@ -29,6 +29,7 @@ import org.apache.olingo.odata2.api.batch.BatchRequestPart;
 import org.apache.olingo.odata2.api.client.batch.BatchSingleResponse;
 import org.apache.olingo.odata2.api.ep.EntityProviderBatchProperties;
 import org.apache.olingo.odata2.api.uri.PathInfo;
+import org.apache.olingo.odata2.core.batch.BatchMemoryBudget;
 import org.apache.olingo.odata2.core.exception.ODataRuntimeException;
 
 public class BatchParser {
@@ -78,22 +79,37 @@ public class BatchParser {
     final String baseUri = getBaseUri();
     final String boundary = BatchParserCommon.getBoundary(contentTypeMime, 1);
     final List<BatchParserResult> resultList = new LinkedList<BatchParserResult>();
-    final List<List<Line>> bodyPartStrings = splitBodyParts(in, boundary);
+    // the parsed parts are held while the batch request is processed, so they stay reserved in its budget;
+    // without a request being processed the reservation only covers the parsing
+    final BatchMemoryBudget requestBudget = BatchMemoryBudget.getRequestBudget();
+    final BatchMemoryBudget budget =
+        requestBudget == null ? BatchMemoryBudget.createWithoutRequestLimit() : requestBudget;
+    try {
+      final List<List<Line>> bodyPartStrings = splitBodyParts(in, boundary, budget);
 
-    for (List<Line> bodyPartString : bodyPartStrings) {
-      BatchBodyPart bodyPart = new BatchBodyPart(bodyPartString, boundary, isStrict).parse();
-      resultList.addAll(transformator.transform(bodyPart, batchRequestPathInfo, baseUri));
+      for (List<Line> bodyPartString : bodyPartStrings) {
+        BatchBodyPart bodyPart = new BatchBodyPart(bodyPartString, boundary, isStrict).parse();
+        resultList.addAll(transformator.transform(bodyPart, batchRequestPathInfo, baseUri));
+      }
+    } finally {
+      if (requestBudget == null) {
+        budget.release();
+      }
     }
 
     return resultList;
   }
   
-  private List<List<Line>> splitBodyParts(final InputStream in, final String boundary)
-      throws IOException, BatchException {
+  private List<List<Line>> splitBodyParts(final InputStream in, final String boundary,
+      final BatchMemoryBudget budget) throws IOException, BatchException {
 
     final BatchLineReader reader = new BatchLineReader(in);
-    final List<Line> message = reader.toLineList();
-    reader.close();
+    final List<Line> message;
+    try {
+      message = reader.toLineList(budget);
+    } finally {
+      reader.close();
+    }
 
     return BatchParserCommon.splitMessageByBoundary(message, boundary);
   }
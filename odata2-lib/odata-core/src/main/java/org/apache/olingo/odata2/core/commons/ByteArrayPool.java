@@ -0,0 +1,177 @@
+/*******************************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ ******************************************************************************/
+package org.apache.olingo.odata2.core.commons;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pool of byte arrays used as I/O buffers while requests and responses are copied.
+ * <p>
+ * The arrays are pooled in size classes from {@link #MIN_SIZE} to {@link #MAX_SIZE} bytes, doubling from class to
+ * class; every class holds at most {@link #MAX_POOLED_BYTES_PER_CLASS} bytes. Larger arrays are not pooled.
+ * The pool is shared by all threads and does not block.
+ * <p>
+ * The pool keeps track of the arrays it has issued, weakly so that arrays never released can still be collected.
+ * Only these arrays are taken back, each once; other arrays and repeated releases are ignored.
+ * An array must not be used after it has been released.
+ */
+public final class ByteArrayPool {
+
+  /** Size of the smallest pooled arrays */
+  public static final int MIN_SIZE = 8192;
+  /** Size of the largest pooled arrays */
+  public static final int MAX_SIZE = MIN_SIZE * 32;
+  static final int MAX_POOLED_BYTES_PER_CLASS = 2 * 1024 * 1024;
+
+  private static final SizeClass[] SIZE_CLASSES = createSizeClasses();
+  private static final AtomicLong hits = new AtomicLong();
+  private static final AtomicLong misses = new AtomicLong();
+  private static final ConcurrentMap<IssuedArray, Boolean> issued = new ConcurrentHashMap<IssuedArray, Boolean>();
+  private static final ReferenceQueue<byte[]> collected = new ReferenceQueue<byte[]>();
+
+  private ByteArrayPool() {}
+
+  /**
+   * Gets an array of at least the requested size, from the pool if possible.
+   * @param minSize the minimal size of the array
+   * @return an array with undefined content
+   */
+  public static byte[] acquire(final int minSize) {
+    SizeClass sizeClass = getSizeClass(minSize);
+    if (sizeClass == null) {
+      misses.incrementAndGet();
+      return new byte[minSize];
+    }
+    byte[] array = sizeClass.arrays.poll();
+    if (array == null) {
+      misses.incrementAndGet();
+      array = new byte[sizeClass.size];
+    } else {
+      sizeClass.count.decrementAndGet();
+      hits.incrementAndGet();
+    }
+    removeCollected();
+    issued.put(new IssuedArray(array, collected), Boolean.TRUE);
+    return array;
+  }
+
+  /**
+   * Returns an array to the pool. Arrays the pool has not issued or which have already been released are ignored.
+   * @param array the array, may be <code>null</code>
+   */
+  public static void release(final byte[] array) {
+    if (array == null || issued.remove(new IssuedArray(array, null)) == null) {
+      return;
+    }
+    SizeClass sizeClass = getSizeClass(array.length);
+    if (sizeClass.count.incrementAndGet() <= sizeClass.limit) {
+      sizeClass.arrays.offer(array);
+    } else {
+      sizeClass.count.decrementAndGet();
+    }
+  }
+
+  /**
+   * @return the number of arrays served from the pool
+   */
+  public static long getHits() {
+    return hits.get();
+  }
+
+  /**
+   * @return the number of arrays which had to be allocated
+   */
+  public static long getMisses() {
+    return misses.get();
+  }
+
+  private static void removeCollected() {
+    Reference<? extends byte[]> reference;
+    while ((reference = collected.poll()) != null) {
+      issued.remove(reference);
+    }
+  }
+
+  private static SizeClass getSizeClass(final int size) {
+    for (SizeClass sizeClass : SIZE_CLASSES) {
+      if (size <= sizeClass.size) {
+        return sizeClass;
+      }
+    }
+    return null;
+  }
+
+  private static SizeClass[] createSizeClasses() {
+    int classes = Integer.numberOfTrailingZeros(MAX_SIZE / MIN_SIZE) + 1;
+    SizeClass[] sizeClasses = new SizeClass[classes];
+    for (int i = 0; i < classes; i++) {
+      sizeClasses[i] = new SizeClass(MIN_SIZE << i);
+    }
+    return sizeClasses;
+  }
+
+  private static final class SizeClass {
+    private final int size;
+    private final int limit;
+    private final Queue<byte[]> arrays = new ConcurrentLinkedQueue<byte[]>();
+    private final AtomicInteger count = new AtomicInteger();
+
+    private SizeClass(final int size) {
+      this.size = size;
+      limit = MAX_POOLED_BYTES_PER_CLASS / size;
+    }
+  }
+
+  /**
+   * Weak reference to an issued array; equal to the references to the same array.
+   */
+  private static final class IssuedArray extends WeakReference<byte[]> {
+    private final int hashCode;
+
+    private IssuedArray(final byte[] array, final ReferenceQueue<byte[]> queue) {
+      super(array, queue);
+      hashCode = System.identityHashCode(array);
+    }
+
+    @Override
+    public int hashCode() {
+      return hashCode;
+    }
+
+    @Override
+    public boolean equals(final Object other) {
+      if (this == other) {
+        return true;
+      }
+      if (!(other instanceof IssuedArray)) {
+        return false;
+      }
+      byte[] array = get();
+      return array != null && array == ((IssuedArray) other).get();
+    }
+  }
+}
@@ -0,0 +1,148 @@
+/*******************************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ ******************************************************************************/
+package org.apache.olingo.odata2.core.commons;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterInputStream;
+
+/**
+ * Input stream compressing the content of another input stream while it is read.
+ * <p>
+ * The content is compressed in the <code>gzip</code> format (RFC 1952) or the <code>deflate</code> format
+ * (the zlib format of RFC 1950) of the HTTP content codings. The source is read in chunks, so content of
+ * any length is compressed without holding it in memory.
+ */
+public class CompressingInputStream extends InputStream {
+
+  /** Compression format */
+  public enum Format {
+    GZIP("gzip"), DEFLATE("deflate");
+
+    private final String contentCoding;
+
+    private Format(final String contentCoding) {
+      this.contentCoding = contentCoding;
+    }
+
+    /**
+     * @return the name of the HTTP content coding
+     */
+    public String getContentCoding() {
+      return contentCoding;
+    }
+  }
+
+  private static final int BUFFER_SIZE = 8192;
+  private static final byte[] GZIP_HEADER = new byte[] {
+      0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xff };
+  private static final byte[] NO_BYTES = new byte[0];
+
+  private final Deflater deflater;
+  private final CRC32 checksum;
+  private final InputStream compressed;
+  private final byte[] header;
+  private int headerPosition = 0;
+  private byte[] trailer;
+  private int trailerPosition = 0;
+
+  /**
+   * @param source the content to compress
+   * @param format the compression format
+   * @param level the compression level from 1 (fastest) to 9 (best compression)
+   */
+  public CompressingInputStream(final InputStream source, final Format format, final int level) {
+    if (format == Format.GZIP) {
+      deflater = new Deflater(level, true);
+      checksum = new CRC32();
+      compressed = new DeflaterInputStream(new CheckedInputStream(source, checksum), deflater, BUFFER_SIZE);
+      header = GZIP_HEADER;
+    } else {
+      deflater = new Deflater(level);
+      checksum = null;
+      compressed = new DeflaterInputStream(source, deflater, BUFFER_SIZE);
+      header = NO_BYTES;
+    }
+  }
+
+  @Override
+  public int read() throws IOException {
+    byte[] single = new byte[1];
+    int count = read(single, 0, 1);
+    return count == -1 ? -1 : single[0] & 0xFF;
+  }
+
+  @Override
+  public int read(final byte[] b, final int off, final int len) throws IOException {
+    if (len == 0) {
+      return 0;
+    }
+    if (headerPosition < header.length) {
+      int count = Math.min(len, header.length - headerPosition);
+      System.arraycopy(header, headerPosition, b, off, count);
+      headerPosition += count;
+      return count;
+    }
+    if (trailer == null) {
+      int count = compressed.read(b, off, len);
+      if (count != -1) {
+        return count;
+      }
+      trailer = createTrailer();
+    }
+    if (trailerPosition < trailer.length) {
+      int count = Math.min(len, trailer.length - trailerPosition);
+      System.arraycopy(trailer, trailerPosition, b, off, count);
+      trailerPosition += count;
+      return count;
+    }
+    return -1;
+  }
+
+  @Override
+  public void close() throws IOException {
+    try {
+      compressed.close();
+    } finally {
+      deflater.end();
+    }
+  }
+
+  /*
+   * The gzip trailer holds the CRC-32 and the length (modulo 2^32) of the uncompressed content, little-endian.
+   */
+  private byte[] createTrailer() {
+    if (checksum == null) {
+      return NO_BYTES;
+    }
+    byte[] bytes = new byte[8];
+    writeInt(bytes, 0, checksum.getValue());
+    writeInt(bytes, 4, deflater.getBytesRead());
+    return bytes;
+  }
+
+  private static void writeInt(final byte[] bytes, final int offset, final long value) {
+    for (int i = 0; i < 4; i++) {
+      bytes[offset + i] = (byte) (value >>> (8 * i));
+    }
+  }
+}
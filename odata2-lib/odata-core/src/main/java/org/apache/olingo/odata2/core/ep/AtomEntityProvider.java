@@ -18,9 +18,11 @@
  ******************************************************************************/
 package org.apache.olingo.odata2.core.ep;
 
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
@@ -66,6 +68,7 @@ import org.apache.olingo.odata2.core.ep.producer.XmlLinkEntityProducer;
 import org.apache.olingo.odata2.core.ep.producer.XmlLinksEntityProducer;
 import org.apache.olingo.odata2.core.ep.producer.XmlPropertyEntityProducer;
 import org.apache.olingo.odata2.core.ep.util.CircleStreamBuffer;
+import org.apache.olingo.odata2.core.ep.util.ProducingInputStream;
 import org.apache.olingo.odata2.core.exception.ODataRuntimeException;
 
 /**
@@ -240,6 +243,9 @@ public class AtomEntityProvider implements ContentTypeBasedEntityProvider {
   @Override
   public ODataResponse writeFeed(final EdmEntitySet entitySet, final List<Map<String, Object>> data,
       final EntityProviderWriteProperties properties) throws EntityProviderException {
+    if (properties.isStreaming()) {
+      return ODataResponse.entity(new AtomFeedInputStream(entitySet, data, properties)).build();
+    }
     CircleStreamBuffer csb = new CircleStreamBuffer();
 
     try {
@@ -448,4 +454,51 @@ public class AtomEntityProvider implements ContentTypeBasedEntityProvider {
       throw new EntityProviderException(e.getMessageReference(), e);
     }
   }
+
+  /**
+   * Feed written entry by entry while it is read.
+   */
+  private static class AtomFeedInputStream extends ProducingInputStream {
+
+    private final List<Map<String, Object>> data;
+    private final AtomFeedProducer feedProducer;
+    private final AtomEntryEntityProducer entryProducer;
+    private final EntityInfoAggregator eia;
+    private XMLStreamWriter writer;
+    private Iterator<Map<String, Object>> entries;
+
+    private AtomFeedInputStream(final EdmEntitySet entitySet, final List<Map<String, Object>> data,
+        final EntityProviderWriteProperties properties) throws EntityProviderException {
+      this.data = data;
+      feedProducer = new AtomFeedProducer(properties);
+      entryProducer = new AtomEntryEntityProducer(properties);
+      eia = EntityInfoAggregator.create(entitySet, properties.getExpandSelectTree());
+    }
+
+    @Override
+    protected boolean produce(final OutputStream out) throws IOException {
+      try {
+        boolean more = true;
+        if (writer == null) {
+          writer = XmlHelper.getXMLOutputFactory().createXMLStreamWriter(out, DEFAULT_CHARSET);
+          writer.writeStartDocument(DEFAULT_CHARSET, XML_VERSION);
+          feedProducer.appendStart(writer, eia, false);
+          entries = data.iterator();
+        } else if (entries.hasNext()) {
+          entryProducer.append(writer, eia, entries.next(), false, true);
+        } else {
+          feedProducer.appendEnd(writer, eia, false);
+          more = false;
+        }
+        writer.flush();
+        return more;
+      } catch (EntityProviderException e) {
+        throw new IOException(e);
+      } catch (XMLStreamException e) {
+        throw new IOException(e);
+      } catch (ODataRuntimeException e) {
+        throw new IOException(e.getCause() == null ? e : e.getCause());
+      }
+    }
+  }
 }
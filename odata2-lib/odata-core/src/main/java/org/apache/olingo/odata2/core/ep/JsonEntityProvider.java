@@ -19,9 +19,12 @@
 package org.apache.olingo.odata2.core.ep;
 
 import java.io.BufferedWriter;
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
@@ -61,6 +64,8 @@ import org.apache.olingo.odata2.core.ep.producer.JsonLinksEntityProducer;
 import org.apache.olingo.odata2.core.ep.producer.JsonPropertyEntityProducer;
 import org.apache.olingo.odata2.core.ep.producer.JsonServiceDocumentProducer;
 import org.apache.olingo.odata2.core.ep.util.CircleStreamBuffer;
+import org.apache.olingo.odata2.core.ep.util.JsonStreamWriter;
+import org.apache.olingo.odata2.core.ep.util.ProducingInputStream;
 import org.apache.olingo.odata2.core.exception.ODataRuntimeException;
 
 /**
@@ -209,6 +214,9 @@ public class JsonEntityProvider implements ContentTypeBasedEntityProvider {
   public ODataResponse writeFeed(final EdmEntitySet entitySet, final List<Map<String, Object>> data,
       final EntityProviderWriteProperties properties) throws EntityProviderException {
     final EntityInfoAggregator entityInfo = EntityInfoAggregator.create(entitySet, properties.getExpandSelectTree());
+    if (properties.isStreaming()) {
+      return ODataResponse.entity(new JsonFeedInputStream(entityInfo, data, properties)).build();
+    }
     CircleStreamBuffer buffer = new CircleStreamBuffer();
 
     try {
@@ -394,4 +402,54 @@ public class JsonEntityProvider implements ContentTypeBasedEntityProvider {
   public ODataErrorContext readErrorDocument(final InputStream errorDocument) throws EntityProviderException {
     return new JsonErrorDocumentConsumer().readError(errorDocument);
   }
+
+  /**
+   * Feed written entry by entry while it is read.
+   */
+  private static class JsonFeedInputStream extends ProducingInputStream {
+
+    private final EntityInfoAggregator entityInfo;
+    private final List<Map<String, Object>> data;
+    private final JsonFeedEntityProducer feedProducer;
+    private final JsonEntryEntityProducer entryProducer;
+    private Writer writer;
+    private Iterator<Map<String, Object>> entries;
+    private boolean isEmpty = true;
+
+    private JsonFeedInputStream(final EntityInfoAggregator entityInfo, final List<Map<String, Object>> data,
+        final EntityProviderWriteProperties properties) throws EntityProviderException {
+      this.entityInfo = entityInfo;
+      this.data = data;
+      feedProducer = new JsonFeedEntityProducer(properties);
+      entryProducer = new JsonEntryEntityProducer(properties);
+    }
+
+    @Override
+    protected boolean produce(final OutputStream out) throws IOException {
+      try {
+        boolean more = true;
+        if (writer == null) {
+          writer = new BufferedWriter(new OutputStreamWriter(out, DEFAULT_CHARSET));
+          feedProducer.appendStart(writer, true);
+          entries = data.iterator();
+        } else if (entries.hasNext()) {
+          Map<String, Object> entryData = entries.next();
+          if (!isEmpty) {
+            new JsonStreamWriter(writer).separator();
+          }
+          isEmpty = false;
+          entryProducer.append(writer, entityInfo, entryData, false);
+        } else {
+          feedProducer.appendEnd(writer, entityInfo, isEmpty, true);
+          more = false;
+        }
+        writer.flush();
+        return more;
+      } catch (EntityProviderException e) {
+        throw new IOException(e);
+      } catch (ODataRuntimeException e) {
+        throw new IOException(e.getCause() == null ? e : e.getCause());
+      }
+    }
+  }
 }
@@ -19,6 +19,7 @@
 package org.apache.olingo.odata2.core.ep;
 
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.List;
 import java.util.Map;
 
@@ -26,6 +27,7 @@ import org.apache.olingo.odata2.api.batch.BatchException;
 import org.apache.olingo.odata2.api.batch.BatchRequestPart;
 import org.apache.olingo.odata2.api.batch.BatchResponsePart;
 import org.apache.olingo.odata2.api.client.batch.BatchPart;
+import org.apache.olingo.odata2.api.client.batch.BatchRequestStreamWriter;
 import org.apache.olingo.odata2.api.client.batch.BatchSingleResponse;
 import org.apache.olingo.odata2.api.edm.Edm;
 import org.apache.olingo.odata2.api.edm.EdmEntitySet;
@@ -34,7 +36,7 @@ import org.apache.olingo.odata2.api.edm.EdmProperty;
 import org.apache.olingo.odata2.api.edm.provider.DataServices;
 import org.apache.olingo.odata2.api.edm.provider.EdmProvider;
 import org.apache.olingo.odata2.api.edm.provider.Schema;
-import org.apache.olingo.odata2.api.ep.EntityProvider.EntityProviderInterface;
+import org.apache.olingo.odata2.api.ep.EntityProvider.BatchStreamEntityProviderInterface;
 import org.apache.olingo.odata2.api.ep.EntityProviderBatchProperties;
 import org.apache.olingo.odata2.api.ep.EntityProviderException;
 import org.apache.olingo.odata2.api.ep.EntityProviderReadProperties;
@@ -46,6 +48,7 @@ import org.apache.olingo.odata2.api.exception.ODataNotAcceptableException;
 import org.apache.olingo.odata2.api.processor.ODataErrorContext;
 import org.apache.olingo.odata2.api.processor.ODataResponse;
 import org.apache.olingo.odata2.api.servicedocument.ServiceDocument;
+import org.apache.olingo.odata2.core.batch.BatchRequestStreamWriterImpl;
 import org.apache.olingo.odata2.core.batch.BatchRequestWriter;
 import org.apache.olingo.odata2.core.batch.BatchResponseWriter;
 import org.apache.olingo.odata2.core.batch.v2.BatchParser;
@@ -57,7 +60,7 @@ import org.apache.olingo.odata2.core.exception.ODataRuntimeException;
 /**
  *  
  */
-public class ProviderFacadeImpl implements EntityProviderInterface {
+public class ProviderFacadeImpl implements BatchStreamEntityProviderInterface {
 
   private static BasicEntityProvider create() throws EntityProviderException {
     return new BasicEntityProvider();
@@ -257,6 +260,11 @@ public class ProviderFacadeImpl implements EntityProviderInterface {
     return batchWriter.writeBatchRequest(batchParts, boundary);
   }
 
+  @Override
+  public BatchRequestStreamWriter createBatchRequestWriter(final OutputStream out, final String boundary) {
+    return new BatchRequestStreamWriterImpl(out, boundary);
+  }
+
   @Override
   public List<BatchSingleResponse> parseBatchResponse(final String contentType, final InputStream content)
       throws BatchException {
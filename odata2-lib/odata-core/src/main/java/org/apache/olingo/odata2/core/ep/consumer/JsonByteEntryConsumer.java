@@ -0,0 +1,868 @@
+/*******************************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ ******************************************************************************/
+package org.apache.olingo.odata2.core.ep.consumer;
+
+import java.lang.ref.SoftReference;
+import java.nio.charset.Charset;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TimeZone;
+import java.util.WeakHashMap;
+
+import org.apache.olingo.odata2.api.edm.Edm;
+import org.apache.olingo.odata2.api.edm.EdmEntityType;
+import org.apache.olingo.odata2.api.edm.EdmException;
+import org.apache.olingo.odata2.api.edm.EdmFacets;
+import org.apache.olingo.odata2.api.edm.EdmLiteralKind;
+import org.apache.olingo.odata2.api.edm.EdmSimpleType;
+import org.apache.olingo.odata2.api.edm.EdmSimpleTypeException;
+import org.apache.olingo.odata2.api.edm.EdmSimpleTypeKind;
+import org.apache.olingo.odata2.api.edm.EdmType;
+import org.apache.olingo.odata2.api.ep.EntityProviderException;
+import org.apache.olingo.odata2.api.ep.EntityProviderReadProperties;
+import org.apache.olingo.odata2.api.ep.entry.ODataEntry;
+import org.apache.olingo.odata2.core.ep.aggregator.EntityComplexPropertyInfo;
+import org.apache.olingo.odata2.core.ep.aggregator.EntityInfoAggregator;
+import org.apache.olingo.odata2.core.ep.aggregator.EntityPropertyInfo;
+import org.apache.olingo.odata2.core.ep.entry.EntryMetadataImpl;
+import org.apache.olingo.odata2.core.ep.entry.MediaMetadataImpl;
+import org.apache.olingo.odata2.core.ep.entry.ODataEntryImpl;
+import org.apache.olingo.odata2.core.ep.util.FormatJson;
+import org.apache.olingo.odata2.core.uri.ExpandSelectTreeNodeImpl;
+
+/**
+ * Consumer for JSON entries which reads the UTF-8 encoded entry directly from its bytes.
+ * <p>
+ * The consumer handles entries with simple and complex properties, entry metadata and deferred navigation properties,
+ * which covers the payloads of most create and update requests. Property names are compared with the UTF-8 encoded
+ * names of the properties of the {@link EntityInfoAggregator}; numbers, booleans and <code>/Date(...)/</code> values
+ * are converted into the default Java types of their EDM types without creating strings in between.
+ * <p>
+ * Any other content, including invalid content, is left to the {@link JsonEntryConsumer}: {@link #readEntry()} returns
+ * <code>null</code> then and the entry has to be read again with the {@link JsonEntryConsumer}, which yields the
+ * result or the error the entry would get without this consumer. Type mappings the consumer cannot apply and inline
+ * feeds of deep inserts are detected before the entry is parsed, so these entries are not parsed twice.
+ * <p>
+ * The property plans are built once per entity type. The entity types are weakly referenced and their plans softly,
+ * so the cache does not keep the entity data model of a service alive.
+ */
+public class JsonByteEntryConsumer {
+
+  /** Marks a value the consumer does not read */
+  private static final Object UNSUPPORTED = new Object();
+
+  private static final Charset UTF_8 = Charset.forName("UTF-8");
+  private static final TimeZone GMT = TimeZone.getTimeZone("GMT");
+
+  private static final byte[] D = utf8(FormatJson.D);
+  private static final byte[] METADATA = utf8(FormatJson.METADATA);
+  private static final byte[] DEFERRED = utf8(FormatJson.DEFERRED);
+  private static final byte[] ID = utf8(FormatJson.ID);
+  private static final byte[] URI = utf8(FormatJson.URI);
+  private static final byte[] TYPE = utf8(FormatJson.TYPE);
+  private static final byte[] ETAG = utf8(FormatJson.ETAG);
+  private static final byte[] EDIT_MEDIA = utf8(FormatJson.EDIT_MEDIA);
+  private static final byte[] MEDIA_SRC = utf8(FormatJson.MEDIA_SRC);
+  private static final byte[] MEDIA_ETAG = utf8(FormatJson.MEDIA_ETAG);
+  private static final byte[] CONTENT_TYPE = utf8(FormatJson.CONTENT_TYPE);
+  private static final byte[] NULL = utf8(FormatJson.NULL);
+  private static final byte[] TRUE = utf8(FormatJson.TRUE);
+  private static final byte[] FALSE = utf8(FormatJson.FALSE);
+  private static final byte[] DATE_START = utf8("/Date(");
+  private static final byte[] DATE_END = utf8(")/\"");
+  private static final byte[] ESCAPED_DATE_END = utf8(")\\/\"");
+
+  private static final Map<EdmEntityType, SoftReference<PropertyPlan[]>> PLANS =
+      new WeakHashMap<EdmEntityType, SoftReference<PropertyPlan[]>>();
+  private static final Map<EdmEntityType, SoftReference<PropertyPlan[]>> VALIDATING_PLANS =
+      new WeakHashMap<EdmEntityType, SoftReference<PropertyPlan[]>>();
+
+  private final byte[] data;
+  private final int length;
+  private final EntityInfoAggregator eia;
+  private final Map<String, Object> typeMappings;
+  private final boolean validatingFacets;
+
+  private int pos;
+  private int keyStart;
+  private int keyEnd;
+  private char[] chars = new char[64];
+
+  private ODataEntryImpl resultEntry;
+  private Map<String, Object> properties;
+  private MediaMetadataImpl mediaMetadata;
+  private EntryMetadataImpl entryMetadata;
+  private boolean metadataRead = false;
+
+  /**
+   * @param data the buffer holding the UTF-8 encoded entry
+   * @param length the number of bytes of the entry, starting at the beginning of the buffer
+   * @param eia the entity info aggregator of the entity set the entry belongs to
+   * @param readProperties the read properties
+   */
+  public JsonByteEntryConsumer(final byte[] data, final int length, final EntityInfoAggregator eia,
+      final EntityProviderReadProperties readProperties) {
+    this.data = data;
+    this.length = length;
+    this.eia = eia;
+    typeMappings = readProperties.getTypeMappings();
+    validatingFacets = readProperties.isValidatingFacets();
+  }
+
+  /**
+   * Reads the entry.
+   * @return the entry or <code>null</code> if the entry has to be read with the {@link JsonEntryConsumer}
+   * @throws EntityProviderException if the entity info aggregator fails
+   */
+  public ODataEntry readEntry() throws EntityProviderException {
+    try {
+      final PropertyPlan[] plans = getPlans(eia, validatingFacets);
+      if (!isMappingSupported(plans, typeMappings)
+          || !eia.getNavigationPropertyNames().isEmpty() && containsArray()) {
+        return null;
+      }
+      return readDocument(plans) ? resultEntry : null;
+    } catch (final EdmException e) {
+      return null;
+    }
+  }
+
+  /*
+   * Checks the type mappings up front; simple properties can only be mapped to a class, complex ones to a map
+   */
+  @SuppressWarnings("unchecked")
+  private static boolean isMappingSupported(final PropertyPlan[] plans, final Map<String, Object> mappings) {
+    if (mappings.isEmpty()) {
+      return true;
+    }
+    for (final PropertyPlan plan : plans) {
+      final Object mapping = mappings.get(plan.name);
+      if (mapping == null) {
+        continue;
+      }
+      if (plan.children == null ? !(mapping instanceof Class)
+          : !(mapping instanceof Map) || !isMappingSupported(plan.children, (Map<String, Object>) mapping)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /*
+   * Arrays only occur in inline feeds, which are left to the JsonEntryConsumer anyway
+   */
+  private boolean containsArray() {
+    for (int index = 0; index < length; index++) {
+      if (data[index] == '"') {
+        index++;
+        while (index < length && data[index] != '"') {
+          if (data[index] == '\\') {
+            index++;
+          }
+          index++;
+        }
+      } else if (data[index] == '[') {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private boolean readDocument(final PropertyPlan[] plans) throws EdmException {
+    if (!consume('{')) {
+      return false;
+    }
+    final int start = pos;
+    if (!readKey()) {
+      return false;
+    }
+    if (isKey(D)) {
+      if (!consume('{') || !readEntryContent(plans) || !consume('}')) {
+        return false;
+      }
+    } else {
+      pos = start;
+      if (!readEntryContent(plans)) {
+        return false;
+      }
+    }
+    skipWhitespace();
+    return pos == length;
+  }
+
+  /*
+   * Reads the members of the entry up to and including the closing brace
+   */
+  private boolean readEntryContent(final PropertyPlan[] plans) throws EdmException {
+    int hint = 0;
+    do {
+      if (!readKey()) {
+        return false;
+      }
+      ensureODataEntryExists();
+      if (isKey(METADATA)) {
+        if (metadataRead || !readMetadata()) {
+          return false;
+        }
+        metadataRead = true;
+      } else {
+        final int index = findPlan(plans, hint);
+        if (index >= 0) {
+          final PropertyPlan plan = plans[index];
+          if (properties.containsKey(plan.name)) {
+            return false;
+          }
+          final Object value = readPropertyValue(plan, typeMappings.get(plan.name));
+          if (value == UNSUPPORTED) {
+            return false;
+          }
+          properties.put(plan.name, value);
+          hint = index + 1;
+        } else if (!readNavigationProperty()) {
+          return false;
+        }
+      }
+    } while (consume(','));
+    return consume('}');
+  }
+
+  private void ensureODataEntryExists() {
+    if (resultEntry == null) {
+      properties = new HashMap<String, Object>();
+      mediaMetadata = new MediaMetadataImpl();
+      entryMetadata = new EntryMetadataImpl();
+      resultEntry = new ODataEntryImpl(properties, mediaMetadata, entryMetadata, new ExpandSelectTreeNodeImpl());
+    }
+  }
+
+  private boolean readMetadata() throws EdmException {
+    if (!consume('{')) {
+      return false;
+    }
+    do {
+      if (!readKey()) {
+        return false;
+      }
+      final String value = readString();
+      if (value == null) {
+        return false;
+      }
+      if (isKey(ID)) {
+        entryMetadata.setId(value);
+      } else if (isKey(URI)) {
+        entryMetadata.setUri(value);
+      } else if (isKey(TYPE)) {
+        if (!getFullQualifiedName(eia.getEntityType()).equals(value)) {
+          return false;
+        }
+      } else if (isKey(ETAG)) {
+        entryMetadata.setEtag(value);
+      } else if (isKey(EDIT_MEDIA)) {
+        mediaMetadata.setEditLink(value);
+      } else if (isKey(MEDIA_SRC)) {
+        mediaMetadata.setSourceLink(value);
+      } else if (isKey(MEDIA_ETAG)) {
+        mediaMetadata.setEtag(value);
+      } else if (isKey(CONTENT_TYPE)) {
+        mediaMetadata.setContentType(value);
+      } else {
+        return false;
+      }
+    } while (consume(','));
+    return consume('}') && isMetadataValid();
+  }
+
+  private boolean isMetadataValid() throws EdmException {
+    if (eia.getEntityType().hasStream()) {
+      return mediaMetadata.getSourceLink() != null && mediaMetadata.getContentType() != null;
+    } else {
+      return mediaMetadata.getContentType() == null && mediaMetadata.getEditLink() == null
+          && mediaMetadata.getEtag() == null && mediaMetadata.getSourceLink() == null;
+    }
+  }
+
+  /*
+   * Reads a navigation property which is either null or deferred; inline content is left to the JsonEntryConsumer
+   */
+  private boolean readNavigationProperty() {
+    final String name = new String(data, keyStart, keyEnd - keyStart, UTF_8);
+    if (eia.getNavigationPropertyInfo(name) == null) {
+      return false;
+    }
+    if (consumeLiteral(NULL)) {
+      return true;
+    }
+    if (!consume('{') || !readKey() || !isKey(DEFERRED) || !consume('{') || !readKey() || !isKey(URI)) {
+      return false;
+    }
+    final String uri = readString();
+    if (uri == null || !consume('}') || !consume('}')) {
+      return false;
+    }
+    entryMetadata.putAssociationUri(name, uri);
+    return true;
+  }
+
+  private Object readPropertyValue(final PropertyPlan plan, final Object typeMapping) throws EdmException {
+    return plan.children == null ? readSimpleValue(plan, typeMapping) : readComplexValue(plan, typeMapping);
+  }
+
+  private Object readSimpleValue(final PropertyPlan plan, final Object typeMapping) {
+    if (typeMapping != null && !(typeMapping instanceof Class)) {
+      return UNSUPPORTED;
+    }
+    final Class<?> returnType = typeMapping == null ? plan.type.getDefaultType() : (Class<?>) typeMapping;
+    if (consumeLiteral(NULL)) {
+      return valueOfString(plan, null, returnType);
+    }
+    if (pos == length) {
+      return UNSUPPORTED;
+    }
+    final boolean isString = data[pos] == '"';
+    switch (plan.kind) {
+    case Boolean:
+      final Boolean booleanValue = consumeLiteral(TRUE) ? Boolean.TRUE : consumeLiteral(FALSE) ? Boolean.FALSE : null;
+      if (booleanValue == null) {
+        return UNSUPPORTED;
+      }
+      return returnType == Boolean.class ? booleanValue : convert(plan, booleanValue.toString(), returnType);
+    case Byte:
+    case SByte:
+    case Int16:
+    case Int32:
+      return isString ? UNSUPPORTED : readInteger(plan, returnType);
+    case DateTime:
+      if (!isString) {
+        return UNSUPPORTED;
+      }
+      final Calendar dateTime = returnType == Calendar.class ? readJsonDateTime() : null;
+      return dateTime == null ? convert(plan, readString(), returnType) : dateTime;
+    case Single:
+    case Double:
+      if (isString) {
+        return convert(plan, readString(), returnType);
+      }
+      final String number = readNumber();
+      if (number == null) {
+        return UNSUPPORTED;
+      }
+      final double doubleValue = Double.parseDouble(number);
+      if (Double.isNaN(doubleValue) || Double.isInfinite(doubleValue)) {
+        return UNSUPPORTED;
+      }
+      return convert(plan, Double.toString(doubleValue), returnType);
+    case Decimal:
+      return convert(plan, isString ? readString() : readNumber(), returnType);
+    default:
+      return isString ? convert(plan, readString(), returnType) : UNSUPPORTED;
+    }
+  }
+
+  /*
+   * Converts a value the way the JsonPropertyConsumer does; the value is null if it could not be read
+   */
+  private static Object convert(final PropertyPlan plan, final String value, final Class<?> returnType) {
+    return value == null ? UNSUPPORTED : valueOfString(plan, value, returnType);
+  }
+
+  private static Object valueOfString(final PropertyPlan plan, final String value, final Class<?> returnType) {
+    try {
+      return plan.type.valueOfString(value, EdmLiteralKind.JSON, plan.facets, returnType);
+    } catch (final EdmSimpleTypeException e) {
+      return UNSUPPORTED;
+    }
+  }
+
+  /*
+   * Reads an integral number of the range of the property type without leaving the bytes
+   */
+  private Object readInteger(final PropertyPlan plan, final Class<?> returnType) {
+    final boolean negative = data[pos] == '-';
+    final int start = negative ? pos + 1 : pos;
+    int end = start;
+    long value = 0;
+    while (end < length && isDigit(data[end]) && end - start < 10) {
+      value = value * 10 + data[end] - '0';
+      end++;
+    }
+    if (end == start || end - start > 1 && data[start] == '0'
+        || end < length && (isDigit(data[end]) || data[end] == '.' || data[end] == 'e' || data[end] == 'E')) {
+      return UNSUPPORTED;
+    }
+    pos = end;
+    if (negative) {
+      value = -value;
+    }
+    if (value < plan.minValue || value > plan.maxValue) {
+      return UNSUPPORTED;
+    }
+    if (returnType != plan.type.getDefaultType()) {
+      return valueOfString(plan, Long.toString(value), returnType);
+    }
+    switch (plan.kind) {
+    case SByte:
+      return Byte.valueOf((byte) value);
+    case Int32:
+      return Integer.valueOf((int) value);
+    default:
+      return Short.valueOf((short) value);
+    }
+  }
+
+  /*
+   * Reads a string of the form "/Date(<milliseconds>)/" into a calendar; returns null for any other string
+   */
+  private Calendar readJsonDateTime() {
+    int index = pos + 1;
+    if (index < length && data[index] == '\\') {
+      index++;
+    }
+    if (!matches(index, DATE_START)) {
+      return null;
+    }
+    index += DATE_START.length;
+    final boolean negative = index < length && data[index] == '-';
+    if (negative) {
+      index++;
+    }
+    final int start = index;
+    long millis = 0;
+    while (index < length && isDigit(data[index]) && index - start < 18) {
+      millis = millis * 10 + data[index] - '0';
+      index++;
+    }
+    if (index == start) {
+      return null;
+    } else if (matches(index, DATE_END)) {
+      pos = index + DATE_END.length;
+    } else if (matches(index, ESCAPED_DATE_END)) {
+      pos = index + ESCAPED_DATE_END.length;
+    } else {
+      return null;
+    }
+    Calendar dateTime = Calendar.getInstance(GMT);
+    dateTime.clear();
+    dateTime.setTimeInMillis(negative ? -millis : millis);
+    return dateTime;
+  }
+
+  @SuppressWarnings("unchecked")
+  private Object readComplexValue(final PropertyPlan plan, final Object typeMapping) throws EdmException {
+    if (consumeLiteral(NULL)) {
+      return validatingFacets && plan.info.isMandatory() ? UNSUPPORTED : null;
+    }
+    if (typeMapping != null && !(typeMapping instanceof Map)) {
+      return UNSUPPORTED;
+    }
+    final Map<String, Object> mapping = typeMapping == null ?
+        Collections.<String, Object> emptyMap() : (Map<String, Object>) typeMapping;
+    if (!consume('{')) {
+      return UNSUPPORTED;
+    }
+    Map<String, Object> values = new HashMap<String, Object>();
+    if (consume('}')) {
+      return values;
+    }
+    int hint = 0;
+    do {
+      if (!readKey()) {
+        return UNSUPPORTED;
+      }
+      if (isKey(METADATA)) {
+        if (!consume('{') || !readKey() || !isKey(TYPE) || !plan.typeName.equals(readString()) || !consume('}')) {
+          return UNSUPPORTED;
+        }
+        continue;
+      }
+      final int index = findPlan(plan.children, hint);
+      if (index < 0) {
+        return UNSUPPORTED;
+      }
+      final PropertyPlan child = plan.children[index];
+      if (values.containsKey(child.name)) {
+        return UNSUPPORTED;
+      }
+      final Object value = readPropertyValue(child, mapping.get(child.name));
+      if (value == UNSUPPORTED) {
+        return UNSUPPORTED;
+      }
+      values.put(child.name, value);
+      hint = index + 1;
+    } while (consume(','));
+    return consume('}') ? values : UNSUPPORTED;
+  }
+
+  /*
+   * Reads a member name; the name is kept as range of the buffer and has to be free of escape sequences
+   */
+  private boolean readKey() {
+    skipWhitespace();
+    if (pos == length || data[pos] != '"') {
+      return false;
+    }
+    int index = pos + 1;
+    while (index < length && data[index] != '"') {
+      if (data[index] == '\\' || data[index] >= 0 && data[index] < 0x20) {
+        return false;
+      }
+      index++;
+    }
+    if (index == length) {
+      return false;
+    }
+    keyStart = pos + 1;
+    keyEnd = index;
+    pos = index + 1;
+    return consume(':');
+  }
+
+  private boolean isKey(final byte[] key) {
+    return keyEnd - keyStart == key.length && matches(keyStart, key);
+  }
+
+  /*
+   * Finds the plan of the current member name; members usually come in the order of the plans,
+   * so the plan following the previous one is tried first
+   */
+  private int findPlan(final PropertyPlan[] plans, final int hint) {
+    if (hint < plans.length && isKey(plans[hint].key)) {
+      return hint;
+    }
+    for (int i = 0; i < plans.length; i++) {
+      if (isKey(plans[i].key)) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  /*
+   * Reads a string value; returns null if the value is no string or is not well-formed
+   */
+  private String readString() {
+    skipWhitespace();
+    if (pos == length || data[pos] != '"') {
+      return null;
+    }
+    int index = pos + 1;
+    int count = 0;
+    while (true) {
+      if (index == length) {
+        return null;
+      }
+      if (count + 2 > chars.length) {
+        char[] newChars = new char[chars.length * 2];
+        System.arraycopy(chars, 0, newChars, 0, count);
+        chars = newChars;
+      }
+      final int b = data[index++];
+      if (b == '"') {
+        break;
+      } else if (b == '\\') {
+        if (index == length) {
+          return null;
+        }
+        switch (data[index++]) {
+        case '"':
+          chars[count++] = '"';
+          break;
+        case '\\':
+          chars[count++] = '\\';
+          break;
+        case '/':
+          chars[count++] = '/';
+          break;
+        case 'b':
+          chars[count++] = '\b';
+          break;
+        case 'f':
+          chars[count++] = '\f';
+          break;
+        case 'n':
+          chars[count++] = '\n';
+          break;
+        case 'r':
+          chars[count++] = '\r';
+          break;
+        case 't':
+          chars[count++] = '\t';
+          break;
+        case 'u':
+          if (index + 4 > length) {
+            return null;
+          }
+          int c = 0;
+          for (int i = 0; i < 4; i++) {
+            final int digit = Character.digit((char) data[index++], 16);
+            if (digit < 0) {
+              return null;
+            }
+            c = c << 4 | digit;
+          }
+          chars[count++] = (char) c;
+          break;
+        default:
+          return null;
+        }
+      } else if (b >= 0x20) {
+        chars[count++] = (char) b;
+      } else if (b >= 0) {
+        return null;
+      } else {
+        // multi-byte sequence; malformed sequences are replaced by the reader of the JsonEntryConsumer
+        final int lead = b & 0xFF;
+        int codePoint;
+        if (lead >= 0xC2 && lead <= 0xDF) {
+          codePoint = decodeContinuation(index, 1, lead & 0x1F);
+          index += 1;
+        } else if (lead >= 0xE0 && lead <= 0xEF) {
+          codePoint = decodeContinuation(index, 2, lead & 0x0F);
+          index += 2;
+          if (codePoint < 0x800 || Character.MIN_SURROGATE <= codePoint && codePoint <= Character.MAX_SURROGATE) {
+            return null;
+          }
+        } else if (lead >= 0xF0 && lead <= 0xF4) {
+          codePoint = decodeContinuation(index, 3, lead & 0x07);
+          index += 3;
+          if (codePoint < Character.MIN_SUPPLEMENTARY_CODE_POINT || codePoint > Character.MAX_CODE_POINT) {
+            return null;
+          }
+          chars[count++] = (char) ((codePoint >>> 10)
+              + (Character.MIN_HIGH_SURROGATE - (Character.MIN_SUPPLEMENTARY_CODE_POINT >>> 10)));
+          codePoint = (codePoint & 0x3FF) + Character.MIN_LOW_SURROGATE;
+        } else {
+          return null;
+        }
+        if (codePoint < 0) {
+          return null;
+        }
+        chars[count++] = (char) codePoint;
+      }
+    }
+    pos = index;
+    return new String(chars, 0, count);
+  }
+
+  /*
+   * Decodes the continuation bytes of a multi-byte sequence; returns -1 if they are not well-formed
+   */
+  private int decodeContinuation(final int index, final int count, final int leadBits) {
+    if (index + count > length) {
+      return -1;
+    }
+    int codePoint = leadBits;
+    for (int i = index; i < index + count; i++) {
+      if ((data[i] & 0xC0) != 0x80) {
+        return -1;
+      }
+      codePoint = codePoint << 6 | data[i] & 0x3F;
+    }
+    return codePoint;
+  }
+
+  /*
+   * Reads a number as its literal; returns null if the value is no well-formed number
+   */
+  private String readNumber() {
+    int index = pos;
+    if (index < length && data[index] == '-') {
+      index++;
+    }
+    final int start = index;
+    index = skipDigits(index);
+    if (index == start || index - start > 1 && data[start] == '0') {
+      return null;
+    }
+    if (index < length && data[index] == '.') {
+      final int fractionStart = ++index;
+      index = skipDigits(index);
+      if (index == fractionStart) {
+        return null;
+      }
+    }
+    if (index < length && (data[index] == 'e' || data[index] == 'E')) {
+      index++;
+      if (index < length && (data[index] == '+' || data[index] == '-')) {
+        index++;
+      }
+      final int exponentStart = index;
+      index = skipDigits(index);
+      if (index == exponentStart) {
+        return null;
+      }
+    }
+    final String number = new String(data, pos, index - pos, UTF_8);
+    pos = index;
+    return number;
+  }
+
+  private int skipDigits(final int start) {
+    int index = start;
+    while (index < length && isDigit(data[index])) {
+      index++;
+    }
+    return index;
+  }
+
+  private static boolean isDigit(final byte b) {
+    return b >= '0' && b <= '9';
+  }
+
+  private void skipWhitespace() {
+    while (pos < length && (data[pos] == ' ' || data[pos] == '\n' || data[pos] == '\r' || data[pos] == '\t')) {
+      pos++;
+    }
+  }
+
+  private boolean consume(final char c) {
+    skipWhitespace();
+    if (pos < length && data[pos] == c) {
+      pos++;
+      return true;
+    }
+    return false;
+  }
+
+  private boolean consumeLiteral(final byte[] literal) {
+    skipWhitespace();
+    if (matches(pos, literal)) {
+      pos += literal.length;
+      return true;
+    }
+    return false;
+  }
+
+  private boolean matches(final int index, final byte[] bytes) {
+    if (index + bytes.length > length) {
+      return false;
+    }
+    for (int i = 0; i < bytes.length; i++) {
+      if (data[index + i] != bytes[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static byte[] utf8(final String value) {
+    return value.getBytes(UTF_8);
+  }
+
+  private static String getFullQualifiedName(final EdmType type) throws EdmException {
+    return type.getNamespace() + Edm.DELIMITER + type.getName();
+  }
+
+  private static PropertyPlan[] getPlans(final EntityInfoAggregator eia, final boolean validatingFacets)
+      throws EdmException, EntityProviderException {
+    final Map<EdmEntityType, SoftReference<PropertyPlan[]>> cache = validatingFacets ? VALIDATING_PLANS : PLANS;
+    final EdmEntityType entityType = eia.getEntityType();
+    synchronized (cache) {
+      final SoftReference<PropertyPlan[]> reference = cache.get(entityType);
+      final PropertyPlan[] plans = reference == null ? null : reference.get();
+      if (plans != null) {
+        return plans;
+      }
+    }
+    final PropertyPlan[] plans = createPlans(eia.getPropertyNames(), eia, validatingFacets);
+    synchronized (cache) {
+      cache.put(entityType, new SoftReference<PropertyPlan[]>(plans));
+    }
+    return plans;
+  }
+
+  private static PropertyPlan[] createPlans(final List<String> names, final EntityInfoAggregator eia,
+      final boolean validatingFacets) throws EdmException {
+    PropertyPlan[] plans = new PropertyPlan[names.size()];
+    int count = 0;
+    for (final String name : names) {
+      final EntityPropertyInfo info = eia.getPropertyInfo(name);
+      if (info != null) {
+        plans[count++] = new PropertyPlan(info, validatingFacets);
+      }
+    }
+    if (count < plans.length) {
+      PropertyPlan[] existingPlans = new PropertyPlan[count];
+      System.arraycopy(plans, 0, existingPlans, 0, count);
+      plans = existingPlans;
+    }
+    return plans;
+  }
+
+  /**
+   * How a property is read: its UTF-8 encoded name and its type, or the plans of its children for complex properties.
+   */
+  private static final class PropertyPlan {
+
+    private final String name;
+    private final byte[] key;
+    private final EntityPropertyInfo info;
+    private final EdmSimpleType type;
+    private final EdmSimpleTypeKind kind;
+    private final EdmFacets facets;
+    private final long minValue;
+    private final long maxValue;
+    private final String typeName;
+    private final PropertyPlan[] children;
+
+    private PropertyPlan(final EntityPropertyInfo info, final boolean validatingFacets) throws EdmException {
+      this.info = info;
+      name = info.getName();
+      key = utf8(name);
+      facets = validatingFacets ? info.getFacets() : null;
+      if (info.isComplex()) {
+        type = null;
+        kind = null;
+        minValue = 0;
+        maxValue = 0;
+        typeName = getFullQualifiedName(info.getType());
+        final List<EntityPropertyInfo> childInfos = ((EntityComplexPropertyInfo) info).getPropertyInfos();
+        children = new PropertyPlan[childInfos.size()];
+        for (int i = 0; i < children.length; i++) {
+          children[i] = new PropertyPlan(childInfos.get(i), validatingFacets);
+        }
+      } else {
+        type = (EdmSimpleType) info.getType();
+        kind = EdmSimpleTypeKind.valueOf(type.getName());
+        typeName = null;
+        children = null;
+        switch (kind) {
+        case Byte:
+          minValue = 0;
+          maxValue = 255;
+          break;
+        case SByte:
+          minValue = Byte.MIN_VALUE;
+          maxValue = Byte.MAX_VALUE;
+          break;
+        case Int16:
+          minValue = Short.MIN_VALUE;
+          maxValue = Short.MAX_VALUE;
+          break;
+        default:
+          minValue = Integer.MIN_VALUE;
+          maxValue = Integer.MAX_VALUE;
+          break;
+        }
+      }
+    }
+  }
+}
@@ -18,9 +18,11 @@
  ******************************************************************************/
 package org.apache.olingo.odata2.core.ep.consumer;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.SequenceInputStream;
 import java.io.UnsupportedEncodingException;
 import java.util.List;
 import java.util.Map;
@@ -32,6 +34,7 @@ import org.apache.olingo.odata2.api.ep.EntityProviderReadProperties;
 import org.apache.olingo.odata2.api.ep.entry.ODataEntry;
 import org.apache.olingo.odata2.api.ep.feed.ODataDeltaFeed;
 import org.apache.olingo.odata2.api.ep.feed.ODataFeed;
+import org.apache.olingo.odata2.core.commons.ByteArrayPool;
 import org.apache.olingo.odata2.core.ep.aggregator.EntityInfoAggregator;
 import org.apache.olingo.odata2.core.ep.aggregator.EntityPropertyInfo;
 
@@ -44,34 +47,57 @@ public class JsonEntityConsumer {
 
   /** Default used charset for reader */
   private static final String DEFAULT_CHARSET = "UTF-8";
+  /** Maximal size in bytes of entries read with the {@link JsonByteEntryConsumer} */
+  static final int BYTE_ENTRY_SIZE = 64 * 1024;
 
+  /**
+   * Reads an entry. Entries of up to {@link #BYTE_ENTRY_SIZE} bytes are read with the {@link JsonByteEntryConsumer}
+   * first; larger entries and entries the {@link JsonByteEntryConsumer} leaves are read with the
+   * {@link JsonEntryConsumer}.
+   */
   public ODataEntry readEntry(final EdmEntitySet entitySet, final InputStream content,
       final EntityProviderReadProperties properties) throws EntityProviderException {
     JsonReader reader = null;
     EntityProviderException cachedException = null;
+    byte[] buffer = null;
 
     try {
       EntityInfoAggregator eia = EntityInfoAggregator.create(entitySet);
-      reader = createJsonReader(content);
+      InputStream input = content;
+      if (content != null) {
+        buffer = ByteArrayPool.acquire(BYTE_ENTRY_SIZE);
+        final int length = readFully(content, buffer);
+        if (length < buffer.length) {
+          final ODataEntry entry = new JsonByteEntryConsumer(buffer, length, eia, properties).readEntry();
+          if (entry != null) {
+            content.close();
+            return entry;
+          }
+        }
+        input = new SequenceInputStream(new ByteArrayInputStream(buffer, 0, length), content);
+      }
+      reader = createJsonReader(input);
 
       return new JsonEntryConsumer(reader, eia, properties).readSingleEntry();
-    } catch (UnsupportedEncodingException e) {
+    } catch (IOException e) {
       cachedException =
           new EntityProviderException(EntityProviderException.EXCEPTION_OCCURRED.addContent(e.getClass()
               .getSimpleName()), e);
       throw cachedException;
     } finally {// NOPMD (suppress DoNotThrowExceptionInFinally)
-      if (reader != null) {
-        try {
+      try {
+        if (reader != null) {
           reader.close();
-        } catch (IOException e) {
-          if (cachedException != null) {
-            throw cachedException;
-          } else {
-            throw new EntityProviderException(EntityProviderException.EXCEPTION_OCCURRED.addContent(e.getClass()
-                .getSimpleName()), e);
-          }
         }
+      } catch (IOException e) {
+        if (cachedException != null) {
+          throw cachedException;
+        } else {
+          throw new EntityProviderException(EntityProviderException.EXCEPTION_OCCURRED.addContent(e.getClass()
+              .getSimpleName()), e);
+        }
+      } finally {
+        ByteArrayPool.release(buffer);
       }
     }
   }
@@ -235,6 +261,18 @@ public class JsonEntityConsumer {
     }
   }
 
+  /*
+   * Reads the content into the buffer until the buffer is full or the content has been read completely
+   */
+  private static int readFully(final InputStream content, final byte[] buffer) throws IOException {
+    int length = 0;
+    int count;
+    while (length < buffer.length && (count = content.read(buffer, length, buffer.length - length)) != -1) {
+      length += count;
+    }
+    return length;
+  }
+
   private JsonReader createJsonReader(final Object content) throws EntityProviderException,
       UnsupportedEncodingException {
 
@@ -34,6 +34,7 @@ import org.apache.olingo.odata2.api.edm.EdmSimpleTypeException;
 import org.apache.olingo.odata2.api.ep.EntityProviderException;
 import org.apache.olingo.odata2.api.ep.EntityProviderReadProperties;
 import org.apache.olingo.odata2.api.ep.callback.OnReadInlineContent;
+import org.apache.olingo.odata2.api.ep.callback.OnReadInlineFeedEntry;
 import org.apache.olingo.odata2.api.ep.callback.ReadEntryResult;
 import org.apache.olingo.odata2.api.ep.callback.ReadFeedResult;
 import org.apache.olingo.odata2.api.ep.entry.ODataEntry;
@@ -314,6 +315,10 @@ public class JsonEntryConsumer {
 
           if (navigationProperty.getMultiplicity() == EdmMultiplicity.MANY) {
             JsonFeedConsumer inlineConsumer = new JsonFeedConsumer(reader, inlineEia, inlineReadProperties);
+            if (callback instanceof OnReadInlineFeedEntry) {
+              inlineConsumer.setEntryCallback((OnReadInlineFeedEntry) callback, navigationProperty,
+                  entryMetadata.getId() != null ? entryMetadata.getId() : fetchParentIdInfo(eia, resultEntry));
+            }
             ODataFeed feed = inlineConsumer.readStartedInlineFeed(name);
             updateExpandSelectTree(navigationPropertyName, feed);
             if (callback == null) {
@@ -367,7 +372,12 @@ public class JsonEntryConsumer {
               .getSimpleName()), e);
         }
       }
-      ODataFeed feed = new JsonFeedConsumer(reader, inlineInfo, inlineReadProperties).readInlineFeedStandalone();
+      JsonFeedConsumer inlineConsumer = new JsonFeedConsumer(reader, inlineInfo, inlineReadProperties);
+      if (callback instanceof OnReadInlineFeedEntry) {
+        inlineConsumer.setEntryCallback((OnReadInlineFeedEntry) callback, navigationProperty,
+            entryMetadata.getId() != null ? entryMetadata.getId() : fetchParentIdInfo(eia, resultEntry));
+      }
+      ODataFeed feed = inlineConsumer.readInlineFeedStandalone();
       updateExpandSelectTree(navigationPropertyName, feed);
       if (callback == null) {
         properties.put(navigationPropertyName, feed);
@@ -23,12 +23,16 @@ import java.util.ArrayList;
 import java.util.List;
 
 import org.apache.olingo.odata2.api.edm.EdmException;
+import org.apache.olingo.odata2.api.edm.EdmNavigationProperty;
 import org.apache.olingo.odata2.api.ep.EntityProviderException;
 import org.apache.olingo.odata2.api.ep.EntityProviderReadProperties;
+import org.apache.olingo.odata2.api.ep.callback.OnReadInlineFeedEntry;
+import org.apache.olingo.odata2.api.ep.callback.ReadEntryResult;
 import org.apache.olingo.odata2.api.ep.entry.DeletedEntryMetadata;
 import org.apache.olingo.odata2.api.ep.entry.ODataEntry;
 import org.apache.olingo.odata2.api.ep.feed.ODataDeltaFeed;
 import org.apache.olingo.odata2.api.ep.feed.ODataFeed;
+import org.apache.olingo.odata2.api.exception.ODataApplicationException;
 import org.apache.olingo.odata2.core.ep.aggregator.EntityInfoAggregator;
 import org.apache.olingo.odata2.core.ep.feed.FeedMetadataImpl;
 import org.apache.olingo.odata2.core.ep.feed.JsonFeedEntry;
@@ -50,6 +54,9 @@ public class JsonFeedConsumer {
   private List<ODataEntry> entries = new ArrayList<ODataEntry>();
   private FeedMetadataImpl feedMetadata = new FeedMetadataImpl();
   private boolean resultsArrayPresent = false;
+  private OnReadInlineFeedEntry entryCallback;
+  private EdmNavigationProperty navigationProperty;
+  private String parentEntryId;
 
   public JsonFeedConsumer(final JsonReader reader, final EntityInfoAggregator eia,
       final EntityProviderReadProperties readProperties) {
@@ -151,7 +158,9 @@ public class JsonFeedConsumer {
     reader.beginArray();
     while (reader.hasNext()) {
       final JsonFeedEntry entry = new JsonEntryConsumer(reader, eia, readProperties).readFeedEntry();
-      if (entry.isODataEntry()) {
+      if (entry.isODataEntry() && entryCallback != null) {
+        handleEntry(entry.getODataEntry());
+      } else if (entry.isODataEntry()) {
         entries.add(entry.getODataEntry());
       } else {
         deletedEntries.add(entry.getDeletedEntryMetadata());
@@ -160,6 +169,29 @@ public class JsonFeedConsumer {
     reader.endArray();
   }
 
+  private void handleEntry(final ODataEntry entry) throws EntityProviderException {
+    try {
+      entryCallback.handleReadFeedEntry(new ReadEntryResult(readProperties, navigationProperty, entry, parentEntryId));
+    } catch (ODataApplicationException e) {
+      throw new EntityProviderException(EntityProviderException.EXCEPTION_OCCURRED.addContent(e.getClass()
+          .getSimpleName()), e);
+    }
+  }
+
+  /**
+   * Hands the entries of an inline feed to the given callback as soon as they have been read
+   * instead of collecting them in the returned feed.
+   * @param callback
+   * @param navigationProperty the navigation property of the inline feed
+   * @param parentEntryId id of the enclosing entry
+   */
+  protected void setEntryCallback(final OnReadInlineFeedEntry callback, final EdmNavigationProperty navigationProperty,
+      final String parentEntryId) {
+    entryCallback = callback;
+    this.navigationProperty = navigationProperty;
+    this.parentEntryId = parentEntryId;
+  }
+
   protected static void readInlineCount(final JsonReader reader, final FeedMetadataImpl feedMetadata)
       throws IOException, EntityProviderException {
     if (reader.peek() == JsonToken.STRING && feedMetadata.getInlineCount() == null) {
@@ -39,6 +39,7 @@ import org.apache.olingo.odata2.api.edm.EdmSimpleType;
 import org.apache.olingo.odata2.api.ep.EntityProviderException;
 import org.apache.olingo.odata2.api.ep.EntityProviderReadProperties;
 import org.apache.olingo.odata2.api.ep.callback.OnReadInlineContent;
+import org.apache.olingo.odata2.api.ep.callback.OnReadInlineFeedEntry;
 import org.apache.olingo.odata2.api.ep.callback.ReadEntryResult;
 import org.apache.olingo.odata2.api.ep.callback.ReadFeedResult;
 import org.apache.olingo.odata2.api.ep.entry.ODataEntry;
@@ -74,6 +75,7 @@ public class XmlEntryConsumer {
   private ExpandSelectTreeNodeImpl expandSelectTree;
   private EntityTypeMapping typeMappings;
   private String currentHandledStartTagName;
+  private List<PendingInlineFeed> pendingInlineFeeds;
 
   public ODataEntry readEntry(final XMLStreamReader reader, final EntityInfoAggregator eia,
       final EntityProviderReadProperties readProperties, final boolean isInline) throws EntityProviderException {
@@ -90,6 +92,7 @@ public class XmlEntryConsumer {
           handleStartedTag(reader, eia, readProperties);
         }
       }
+      handOverPendingInlineFeeds(eia, readProperties);
 
       return readEntryResult;
     } catch (XMLStreamException e) {
@@ -117,6 +120,7 @@ public class XmlEntryConsumer {
     mediaMetadata = new MediaMetadataImpl();
     entryMetadata = new EntryMetadataImpl();
     expandSelectTree = new ExpandSelectTreeNodeImpl();
+    pendingInlineFeeds = new ArrayList<PendingInlineFeed>();
 
     readEntryResult = new ODataEntryImpl(properties, mediaMetadata, entryMetadata, expandSelectTree);
     typeMappings = EntityTypeMapping.create(readProperties.getTypeMappings());
@@ -291,6 +295,15 @@ public class XmlEntryConsumer {
     boolean isFeed = isInlineFeedValidated(reader, eia, atomLinkType, navigationProperty);
 
     List<ODataEntry> inlineEntries = new ArrayList<ODataEntry>();
+    OnReadInlineFeedEntry entryCallback = null;
+    PendingInlineFeed pendingInlineFeed = null;
+    if (isFeed && readProperties.getCallback() instanceof OnReadInlineFeedEntry) {
+      entryCallback = (OnReadInlineFeedEntry) readProperties.getCallback();
+      if (entryMetadata.getId() == null) {
+        // the <id> of the enclosing entry follows its links, so the entries are handed over once it has been read
+        pendingInlineFeed = new PendingInlineFeed(navigationPropertyName, navigationProperty);
+      }
+    }
 
     while (!(reader.isEndElement() && Edm.NAMESPACE_M_2007_08.equals(reader.getNamespaceURI()) && FormatXml.M_INLINE
         .equals(reader.getLocalName()))) {
@@ -299,14 +312,24 @@ public class XmlEntryConsumer {
           && FormatXml.ATOM_ENTRY.equals(reader.getLocalName())) {
         XmlEntryConsumer xec = new XmlEntryConsumer();
         ODataEntry inlineEntry = xec.readEntry(reader, inlineEia, inlineProperties, true);
-        inlineEntries.add(inlineEntry);
+        if (pendingInlineFeed != null) {
+          pendingInlineFeed.entries.add(inlineEntry);
+        } else if (entryCallback != null) {
+          doEntryCallback(readProperties, navigationProperty, entryCallback, inlineEntry, entryMetadata.getId());
+        } else {
+          inlineEntries.add(inlineEntry);
+        }
       }
       // next tag
       reader.next();
     }
 
     updateExpandSelectTree(navigationPropertyName, inlineEntries);
-    updateReadProperties(readProperties, navigationPropertyName, navigationProperty, isFeed, inlineEntries);
+    if (pendingInlineFeed != null) {
+      pendingInlineFeeds.add(pendingInlineFeed);
+    } else {
+      updateReadProperties(readProperties, navigationPropertyName, navigationProperty, isFeed, inlineEntries);
+    }
 
     reader.require(XMLStreamConstants.END_ELEMENT, Edm.NAMESPACE_M_2007_08, FormatXml.M_INLINE);
   }
@@ -431,6 +454,72 @@ public class XmlEntryConsumer {
     }
   }
 
+  /**
+   * Hands a single entry of an inline feed to the callback.
+   * 
+   * @param readProperties
+   * @param navigationProperty
+   * @param callback
+   * @param entry
+   * @param parentEntryId
+   * @throws EntityProviderException
+   */
+  private void doEntryCallback(final EntityProviderReadProperties readProperties,
+      final EdmNavigationProperty navigationProperty, final OnReadInlineFeedEntry callback, final ODataEntry entry,
+      final String parentEntryId) throws EntityProviderException {
+    try {
+      callback.handleReadFeedEntry(new ReadEntryResult(readProperties, navigationProperty, entry, parentEntryId));
+    } catch (ODataApplicationException e) {
+      throw new EntityProviderException(EntityProviderException.EXCEPTION_OCCURRED.addContent(e.getClass()
+          .getSimpleName()), e);
+    }
+  }
+
+  /**
+   * Hands the entries of the inline feeds read before the <code>&lt;id&gt;</code> of the entry to the callback
+   * once the entry has been read completely.
+   * 
+   * @param eia
+   * @param readProperties
+   * @throws EntityProviderException
+   * @throws EdmException
+   */
+  private void handOverPendingInlineFeeds(final EntityInfoAggregator eia,
+      final EntityProviderReadProperties readProperties) throws EntityProviderException, EdmException {
+    if (pendingInlineFeeds.isEmpty()) {
+      return;
+    }
+    String parentEntryId = entryMetadata.getId() != null ? entryMetadata.getId() : fetchParentIdInfo(eia);
+    OnReadInlineFeedEntry callback = (OnReadInlineFeedEntry) readProperties.getCallback();
+    for (PendingInlineFeed pendingInlineFeed : pendingInlineFeeds) {
+      for (ODataEntry entry : pendingInlineFeed.entries) {
+        doEntryCallback(readProperties, pendingInlineFeed.navigationProperty, callback, entry, parentEntryId);
+      }
+      updateReadProperties(readProperties, pendingInlineFeed.navigationPropertyName,
+          pendingInlineFeed.navigationProperty, true, new ArrayList<ODataEntry>());
+    }
+    pendingInlineFeeds.clear();
+  }
+
+  /**
+   * Builds the id of the entry from its key properties, as the JSON consumer does.
+   * 
+   * @param eia
+   * @return key information, never <code>null</code>
+   * @throws EdmException
+   */
+  private String fetchParentIdInfo(final EntityInfoAggregator eia) throws EdmException {
+    StringBuilder keyInfo = new StringBuilder();
+    List<String> keys = eia.getEntityType().getKeyPropertyNames();
+    for (int i = 0; i < keys.size(); i++) {
+      if (i > 0) {
+        keyInfo.append(',');
+      }
+      keyInfo.append(keys.get(i)).append('=').append(properties.get(keys.get(i)));
+    }
+    return keyInfo.toString();
+  }
+
   /**
    * Create {@link EntityProviderReadProperties} which can be used for reading of inline properties/entrys of navigation
    * links within
@@ -676,4 +765,18 @@ public class XmlEntryConsumer {
     }
     return info;
   }
+
+  /**
+   * Entries of an inline feed which are handed to the callback once the id of the enclosing entry is known.
+   */
+  private static class PendingInlineFeed {
+    private final String navigationPropertyName;
+    private final EdmNavigationProperty navigationProperty;
+    private final List<ODataEntry> entries = new ArrayList<ODataEntry>();
+
+    PendingInlineFeed(final String navigationPropertyName, final EdmNavigationProperty navigationProperty) {
+      this.navigationPropertyName = navigationPropertyName;
+      this.navigationProperty = navigationProperty;
+    }
+  }
 }
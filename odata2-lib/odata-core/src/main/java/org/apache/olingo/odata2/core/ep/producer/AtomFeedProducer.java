@@ -55,15 +55,25 @@ public class AtomFeedProducer {
 
   public void append(final XMLStreamWriter writer, final EntityInfoAggregator eia,
       final List<Map<String, Object>> data, final boolean isInline) throws EntityProviderException {
+    appendStart(writer, eia, isInline);
+    appendEntries(writer, eia, data);
+    appendEnd(writer, eia, isInline);
+  }
+
+  /**
+   * Writes the beginning of the feed up to the first entry. The entries are written with an
+   * {@link AtomEntryEntityProducer} and the feed is completed with
+   * {@link #appendEnd(XMLStreamWriter, EntityInfoAggregator, boolean)}.
+   */
+  public void appendStart(final XMLStreamWriter writer, final EntityInfoAggregator eia, final boolean isInline)
+      throws EntityProviderException {
     try {
       writer.writeStartElement(FormatXml.ATOM_FEED);
-      TombstoneCallback callback = null;
       if (!isInline) {
         writer.writeDefaultNamespace(Edm.NAMESPACE_ATOM_2005);
         writer.writeNamespace(Edm.PREFIX_M, Edm.NAMESPACE_M_2007_08);
         writer.writeNamespace(Edm.PREFIX_D, Edm.NAMESPACE_D_2007_08);
-        callback = getTombstoneCallback();
-        if (callback != null) {
+        if (getTombstoneCallback() != null) {
           writer.writeNamespace(TombstoneCallback.PREFIX_TOMBSTONE, TombstoneCallback.NAMESPACE_TOMBSTONE);
         }
       }
@@ -76,9 +86,18 @@ public class AtomFeedProducer {
       if (properties.getInlineCountType() == InlineCount.ALLPAGES) {
         appendInlineCount(writer, properties.getInlineCount());
       }
+    } catch (XMLStreamException e) {
+      throw new EntityProviderProducerException(EntityProviderException.COMMON, e);
+    }
+  }
 
-      appendEntries(writer, eia, data);
-
+  /**
+   * Writes the end of the feed following the last entry.
+   */
+  public void appendEnd(final XMLStreamWriter writer, final EntityInfoAggregator eia, final boolean isInline)
+      throws EntityProviderException {
+    try {
+      TombstoneCallback callback = isInline ? null : getTombstoneCallback();
       if (callback != null) {
         appendDeletedEntries(writer, eia, callback);
       }
@@ -93,6 +112,7 @@ public class AtomFeedProducer {
     }
   }
 
+
   private TombstoneCallback getTombstoneCallback() {
     if (properties.getCallbacks() != null
         && properties.getCallbacks().containsKey(TombstoneCallback.CALLBACK_KEY_TOMBSTONE)) {
@@ -48,10 +48,23 @@ public class JsonFeedEntityProducer {
   public void appendAsObject(final Writer writer, final EntityInfoAggregator entityInfo,
                              final List<Map<String, Object>> data,
                              final boolean isRootElement) throws EntityProviderException {
-    JsonStreamWriter jsonStreamWriter = new JsonStreamWriter(writer);
-
-    TombstoneCallback callback = getTombstoneCallback();
+    appendStart(writer, isRootElement);
+    try {
+      appendEntries(writer, entityInfo, data, new JsonStreamWriter(writer));
+    } catch (final IOException e) {
+      throw new EntityProviderProducerException(EntityProviderException.EXCEPTION_OCCURRED.addContent(e.getClass()
+          .getSimpleName()), e);
+    }
+    appendEnd(writer, entityInfo, data.isEmpty(), isRootElement);
+  }
 
+  /**
+   * Writes the beginning of the feed object up to the first entry. The entries are written, separated by
+   * commas, with a {@link JsonEntryEntityProducer} and the feed is completed with
+   * {@link #appendEnd(Writer, EntityInfoAggregator, boolean, boolean)}.
+   */
+  public void appendStart(final Writer writer, final boolean isRootElement) throws EntityProviderException {
+    JsonStreamWriter jsonStreamWriter = new JsonStreamWriter(writer);
     try {
       jsonStreamWriter.beginObject();
 
@@ -67,11 +80,22 @@ public class JsonFeedEntityProducer {
 
       jsonStreamWriter.name(FormatJson.RESULTS)
           .beginArray();
+    } catch (final IOException e) {
+      throw new EntityProviderProducerException(EntityProviderException.EXCEPTION_OCCURRED.addContent(e.getClass()
+          .getSimpleName()), e);
+    }
+  }
 
-      appendEntries(writer, entityInfo, data, jsonStreamWriter);
-
+  /**
+   * Writes the end of the feed object following the last entry.
+   */
+  public void appendEnd(final Writer writer, final EntityInfoAggregator entityInfo, final boolean isEmpty,
+      final boolean isRootElement) throws EntityProviderException {
+    JsonStreamWriter jsonStreamWriter = new JsonStreamWriter(writer);
+    TombstoneCallback callback = getTombstoneCallback();
+    try {
       if (callback != null) {
-        appendDeletedEntries(writer, entityInfo, data, callback);
+        appendDeletedEntries(writer, entityInfo, isEmpty, callback);
       }
 
       jsonStreamWriter.endArray();
@@ -90,6 +114,7 @@ public class JsonFeedEntityProducer {
     }
   }
 
+
   public void appendAsArray(final Writer writer, final EntityInfoAggregator entityInfo,
                             final List<Map<String, Object>> data) throws EntityProviderException {
     JsonStreamWriter jsonStreamWriter = new JsonStreamWriter(writer);
@@ -104,12 +129,12 @@ public class JsonFeedEntityProducer {
   }
 
   private void appendDeletedEntries(final Writer writer, final EntityInfoAggregator entityInfo,
-      final List<Map<String, Object>> data, TombstoneCallback callback) throws EntityProviderException {
+      final boolean isEmpty, TombstoneCallback callback) throws EntityProviderException {
     JsonDeletedEntryEntityProducer deletedEntryProducer = new JsonDeletedEntryEntityProducer(properties);
     TombstoneCallbackResult callbackResult = callback.getTombstoneCallbackResult();
     List<Map<String, Object>> deletedEntries = callbackResult.getDeletedEntriesData();
     if (deletedEntries != null) {
-      deletedEntryProducer.append(writer, entityInfo, deletedEntries, data.isEmpty());
+      deletedEntryProducer.append(writer, entityInfo, deletedEntries, isEmpty);
     }
   }
 
@@ -25,10 +25,13 @@ import java.nio.ByteBuffer;
 import java.util.Queue;
 import java.util.concurrent.LinkedBlockingQueue;
 
+import org.apache.olingo.odata2.core.commons.ByteArrayPool;
+
 /**
  * Circular stream buffer to write/read into/from one single buffer.
  * With support of {@link InputStream} and {@link OutputStream} access to buffered data.
- * 
+ * The internal buffers are taken from the {@link ByteArrayPool} and returned to it as soon as they have been read
+ * or the buffer is closed.
  * 
  */
 public class CircleStreamBuffer {
@@ -111,6 +114,10 @@ public class CircleStreamBuffer {
     ByteBuffer buffer = bufferQueue.poll();
     while (buffer != null) {
       buffer.clear();
+      // the current write buffer is still in use if writing is not closed
+      if (writeClosed || buffer != currentWriteBuffer) {
+        ByteArrayPool.release(buffer.array());
+      }
       buffer = bufferQueue.poll();
     }
   }
@@ -155,6 +162,7 @@ public class CircleStreamBuffer {
       tmp = bufferQueue.peek();
       if (tmp != null && !tmp.hasRemaining()) {
         tmp = bufferQueue.poll();
+        ByteArrayPool.release(tmp.array());
         next = true;
       }
     }
@@ -244,7 +252,7 @@ public class CircleStreamBuffer {
   }
 
   /**
-   * Allocate a new buffer with requested capacity
+   * Allocate a new buffer with requested capacity from the {@link ByteArrayPool}
    *
    * @param requestedCapacity minimal capacity of new buffer
    * @return the buffer
@@ -252,7 +260,7 @@ public class CircleStreamBuffer {
   private ByteBuffer allocateBuffer(final int requestedCapacity) {
     if (requestedCapacity > MAX_CAPACITY) {
       currentAllocateCapacity = MAX_CAPACITY;
-      return ByteBuffer.allocate(requestedCapacity);
+      return ByteBuffer.wrap(ByteArrayPool.acquire(requestedCapacity));
     }
 
     if (requestedCapacity <= currentAllocateCapacity) {
@@ -264,7 +272,7 @@ public class CircleStreamBuffer {
       currentAllocateCapacity = requestedCapacity;
     }
 
-    return ByteBuffer.allocate(currentAllocateCapacity);
+    return ByteBuffer.wrap(ByteArrayPool.acquire(currentAllocateCapacity));
   }
 
   // #############################################
@@ -0,0 +1,107 @@
+/*******************************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ ******************************************************************************/
+package org.apache.olingo.odata2.core.ep.util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Input stream whose content is written part by part while it is read.
+ * <p>
+ * Whenever all bytes written so far have been read, {@link #produce(OutputStream)} is called until at least
+ * {@link #PART_SIZE} bytes are available or the content is complete. Only the current part is held in memory.
+ */
+public abstract class ProducingInputStream extends InputStream {
+
+  /** Number of bytes produced at least before they are read */
+  public static final int PART_SIZE = 8192;
+
+  private final Part part = new Part();
+  private int position = 0;
+  private boolean complete = false;
+  private boolean closed = false;
+
+  /**
+   * Writes the next part of the content.
+   * @param out the stream the part is written to
+   * @return <code>false</code> if the content is complete
+   * @throws IOException if the part cannot be written
+   */
+  protected abstract boolean produce(OutputStream out) throws IOException;
+
+  @Override
+  public int read() throws IOException {
+    if (!fill()) {
+      return -1;
+    }
+    return part.array()[position++] & 0xFF;
+  }
+
+  @Override
+  public int read(final byte[] b, final int off, final int len) throws IOException {
+    if (len == 0) {
+      return 0;
+    }
+    if (!fill()) {
+      return -1;
+    }
+    int count = Math.min(len, part.size() - position);
+    System.arraycopy(part.array(), position, b, off, count);
+    position += count;
+    return count;
+  }
+
+  @Override
+  public int available() {
+    return closed ? 0 : part.size() - position;
+  }
+
+  @Override
+  public void close() throws IOException {
+    closed = true;
+    complete = true;
+  }
+
+  private boolean fill() throws IOException {
+    if (closed) {
+      throw new IOException("Tried to read from closed stream.");
+    }
+    if (position < part.size()) {
+      return true;
+    }
+    part.reset();
+    position = 0;
+    while (!complete && part.size() < PART_SIZE) {
+      complete = !produce(part);
+    }
+    return part.size() > 0;
+  }
+
+  private static final class Part extends ByteArrayOutputStream {
+    private Part() {
+      super(PART_SIZE);
+    }
+
+    private byte[] array() {
+      return buf;
+    }
+  }
+}
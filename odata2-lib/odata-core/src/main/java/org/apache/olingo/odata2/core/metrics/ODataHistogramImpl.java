@@ -0,0 +1,113 @@
+/*******************************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ ******************************************************************************/
+package org.apache.olingo.odata2.core.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.apache.olingo.odata2.api.metrics.ODataHistogram;
+
+/**
+ * Lock-free histogram with logarithmic buckets.
+ * <p>
+ * Values below 16 have a bucket each; above, every power of two is divided into 16 buckets of equal width,
+ * so recording a value costs a few bit operations and one atomic increment.
+ */
+public class ODataHistogramImpl implements ODataHistogram {
+
+  private static final int SUB_BUCKET_BITS = 4;
+  private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+  private static final int BUCKETS = (Long.SIZE - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+  private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+  private final AtomicLong count = new AtomicLong();
+  private final AtomicLong sum = new AtomicLong();
+  private final AtomicLong max = new AtomicLong();
+
+  /**
+   * Records a value; negative values are recorded as <code>0</code>.
+   * @param value the value
+   */
+  public void record(final long value) {
+    final long recorded = Math.max(0, value);
+    buckets.incrementAndGet(getBucket(recorded));
+    count.incrementAndGet();
+    sum.addAndGet(recorded);
+    long currentMax = max.get();
+    while (recorded > currentMax && !max.compareAndSet(currentMax, recorded)) {
+      currentMax = max.get();
+    }
+  }
+
+  @Override
+  public long getCount() {
+    return count.get();
+  }
+
+  @Override
+  public long getSum() {
+    return sum.get();
+  }
+
+  @Override
+  public long getMax() {
+    return max.get();
+  }
+
+  @Override
+  public long getValueAtPercentile(final double percentile) {
+    long total = 0;
+    long[] counts = new long[BUCKETS];
+    for (int i = 0; i < BUCKETS; i++) {
+      counts[i] = buckets.get(i);
+      total += counts[i];
+    }
+    if (total == 0) {
+      return 0;
+    }
+    long rank = Math.max(1, (long) Math.ceil(Math.min(100, Math.max(0, percentile)) / 100 * total));
+    long seen = 0;
+    for (int i = 0; i < BUCKETS; i++) {
+      seen += counts[i];
+      if (seen >= rank) {
+        return Math.min(getUpperBound(i), getMax());
+      }
+    }
+    return getMax();
+  }
+
+  static int getBucket(final long value) {
+    if (value < SUB_BUCKETS) {
+      return (int) value;
+    }
+    int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+    int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+    return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+  }
+
+  static long getUpperBound(final int bucket) {
+    if (bucket < SUB_BUCKETS) {
+      return bucket;
+    }
+    int shift = bucket / SUB_BUCKETS - 1;
+    long subBucket = bucket % SUB_BUCKETS;
+    long upperBound = ((SUB_BUCKETS + subBucket + 1) << shift) - 1;
+    return upperBound < 0 ? Long.MAX_VALUE : upperBound;
+  }
+}
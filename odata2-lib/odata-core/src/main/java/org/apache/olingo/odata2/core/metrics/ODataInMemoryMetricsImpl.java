@@ -0,0 +1,98 @@
+/*******************************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ ******************************************************************************/
+package org.apache.olingo.odata2.core.metrics;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.olingo.odata2.api.metrics.ODataHistogram;
+import org.apache.olingo.odata2.api.metrics.ODataInMemoryMetrics;
+import org.apache.olingo.odata2.api.metrics.ODataMetric;
+
+/**
+ * Metrics aggregating the values of all requests into {@link ODataHistogramImpl lock-free histograms}.
+ * The histograms of an entity set or URI type are created with the first value recorded for it; the values of
+ * the entity sets beyond {@link #MAX_ENTITY_SETS} share the histograms of {@link #OTHERS}. The number of URI types
+ * is bounded by the OData URI conventions.
+ */
+public class ODataInMemoryMetricsImpl implements ODataInMemoryMetrics {
+
+  private static final int METRICS = ODataMetric.values().length;
+
+  private final ConcurrentMap<String, ODataHistogramImpl[]> byEntitySet =
+      new ConcurrentHashMap<String, ODataHistogramImpl[]>();
+  private final ConcurrentMap<String, ODataHistogramImpl[]> byUriType =
+      new ConcurrentHashMap<String, ODataHistogramImpl[]>();
+
+  @Override
+  public void record(final ODataMetric metric, final String entitySet, final String uriType, final long value) {
+    ODataHistogramImpl[] entitySetHistograms = byEntitySet.get(entitySet);
+    if (entitySetHistograms == null) {
+      entitySetHistograms = getHistograms(byEntitySet, byEntitySet.size() < MAX_ENTITY_SETS ? entitySet : OTHERS);
+    }
+    entitySetHistograms[metric.ordinal()].record(value);
+    getHistograms(byUriType, uriType)[metric.ordinal()].record(value);
+  }
+
+  @Override
+  public Set<String> getEntitySets() {
+    return Collections.unmodifiableSet(byEntitySet.keySet());
+  }
+
+  @Override
+  public Set<String> getUriTypes() {
+    return Collections.unmodifiableSet(byUriType.keySet());
+  }
+
+  @Override
+  public ODataHistogram getHistogramByEntitySet(final ODataMetric metric, final String entitySet) {
+    ODataHistogramImpl[] histograms = byEntitySet.get(entitySet);
+    return histograms == null ? null : histograms[metric.ordinal()];
+  }
+
+  @Override
+  public ODataHistogram getHistogramByUriType(final ODataMetric metric, final String uriType) {
+    ODataHistogramImpl[] histograms = byUriType.get(uriType);
+    return histograms == null ? null : histograms[metric.ordinal()];
+  }
+
+  @Override
+  public void clear() {
+    byEntitySet.clear();
+    byUriType.clear();
+  }
+
+  private static ODataHistogramImpl[] getHistograms(final ConcurrentMap<String, ODataHistogramImpl[]> map,
+      final String key) {
+    ODataHistogramImpl[] histograms = map.get(key);
+    if (histograms == null) {
+      histograms = new ODataHistogramImpl[METRICS];
+      for (int i = 0; i < METRICS; i++) {
+        histograms[i] = new ODataHistogramImpl();
+      }
+      ODataHistogramImpl[] existing = map.putIfAbsent(key, histograms);
+      if (existing != null) {
+        histograms = existing;
+      }
+    }
+    return histograms;
+  }
+}
@@ -0,0 +1,224 @@
+/*******************************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ ******************************************************************************/
+package org.apache.olingo.odata2.core.metrics;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.olingo.odata2.api.ODataServiceFactory;
+import org.apache.olingo.odata2.api.edm.EdmEntitySet;
+import org.apache.olingo.odata2.api.edm.EdmException;
+import org.apache.olingo.odata2.api.metrics.ODataMetric;
+import org.apache.olingo.odata2.api.metrics.ODataMetrics;
+import org.apache.olingo.odata2.api.processor.ODataResponse;
+import org.apache.olingo.odata2.core.commons.ByteArrayPool;
+import org.apache.olingo.odata2.core.uri.UriInfoImpl;
+
+/**
+ * Records the metrics of one request to the {@link ODataMetrics} of the service factory.
+ * If the service factory provides no metrics, nothing is measured and the methods only return.
+ */
+public final class ODataRequestMetrics {
+
+  private static final String UNKNOWN = "";
+  private static final AtomicLong recordedPoolHits = new AtomicLong();
+  private static final AtomicLong recordedPoolMisses = new AtomicLong();
+
+  private final ODataMetrics metrics;
+  private String entitySet = UNKNOWN;
+  private String uriType = UNKNOWN;
+
+  private ODataRequestMetrics(final ODataMetrics metrics) {
+    this.metrics = metrics;
+  }
+
+  /**
+   * @param serviceFactory the service factory
+   * @return the metrics of a request, disabled if the service factory provides no {@link ODataMetrics}
+   */
+  public static ODataRequestMetrics create(final ODataServiceFactory serviceFactory) {
+    return new ODataRequestMetrics(serviceFactory == null ? null : serviceFactory.getCallback(ODataMetrics.class));
+  }
+
+  /**
+   * @return the start time of a measurement, <code>0</code> if the metrics are disabled
+   */
+  public long start() {
+    return metrics == null ? 0 : System.nanoTime();
+  }
+
+  /**
+   * Records the time elapsed since the start of a measurement.
+   * @param metric the kind of the measurement
+   * @param started the time returned by {@link #start()}
+   */
+  public void stop(final ODataMetric metric, final long started) {
+    if (metrics != null) {
+      metrics.record(metric, entitySet, uriType, System.nanoTime() - started);
+    }
+  }
+
+  /**
+   * Records a value which is not a duration.
+   * @param metric the kind of the value
+   * @param value the value
+   */
+  public void record(final ODataMetric metric, final long value) {
+    if (metrics != null) {
+      metrics.record(metric, entitySet, uriType, value);
+    }
+  }
+
+  /**
+   * Records the buffer pool hits and misses since the values of the previous request have been recorded. The pool
+   * is shared by all requests, so the values are recorded without entity set and URI type.
+   */
+  public void recordBufferPool() {
+    if (metrics != null) {
+      metrics.record(ODataMetric.BUFFER_POOL_HITS, UNKNOWN, UNKNOWN,
+          getUnrecorded(recordedPoolHits, ByteArrayPool.getHits()));
+      metrics.record(ODataMetric.BUFFER_POOL_MISSES, UNKNOWN, UNKNOWN,
+          getUnrecorded(recordedPoolMisses, ByteArrayPool.getMisses()));
+    }
+  }
+
+  private static long getUnrecorded(final AtomicLong recorded, final long current) {
+    long previous;
+    do {
+      previous = recorded.get();
+      if (current <= previous) {
+        return 0;
+      }
+    } while (!recorded.compareAndSet(previous, current));
+    return current - previous;
+  }
+
+  /**
+   * Sets the entity set and the URI type the values of the request are recorded for.
+   * @param uriInfo the parsed URI of the request
+   */
+  public void setTarget(final UriInfoImpl uriInfo) {
+    if (metrics == null || uriInfo == null) {
+      return;
+    }
+    uriType = uriInfo.getUriType().name();
+    EdmEntitySet targetEntitySet = uriInfo.getTargetEntitySet();
+    try {
+      entitySet = targetEntitySet == null ? UNKNOWN : targetEntitySet.getName();
+    } catch (EdmException e) {
+      entitySet = UNKNOWN;
+    }
+  }
+
+  /**
+   * Measures the response body while it is written to the client. The size of a string body is recorded
+   * immediately, a streamed body is measured until it has been read completely or is closed.
+   * @param response the response
+   * @return the response with measured body
+   */
+  public ODataResponse measureBody(final ODataResponse response) {
+    if (metrics == null || response == null) {
+      return response;
+    }
+    Object entity = response.getEntity();
+    if (entity instanceof InputStream) {
+      return ODataResponse.fromResponse(response).entity(new MeasuringInputStream((InputStream) entity)).build();
+    } else if (entity instanceof String) {
+      metrics.record(ODataMetric.BYTES_WRITTEN, entitySet, uriType, getUtf8Length((String) entity));
+    }
+    return response;
+  }
+
+  private static long getUtf8Length(final String value) {
+    long length = 0;
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      if (c < 0x80) {
+        length++;
+      } else if (c < 0x800) {
+        length += 2;
+      } else if (Character.isHighSurrogate(c)) {
+        length += 4;
+        i++;
+      } else {
+        length += 3;
+      }
+    }
+    return length;
+  }
+
+  /**
+   * Counts the bytes and the time spent reading them; both are recorded once at the end of the stream.
+   */
+  private class MeasuringInputStream extends FilterInputStream {
+
+    private long bytes = 0;
+    private long nanos = 0;
+    private boolean recorded = false;
+
+    private MeasuringInputStream(final InputStream in) {
+      super(in);
+    }
+
+    @Override
+    public int read() throws IOException {
+      long started = System.nanoTime();
+      int b = super.read();
+      nanos += System.nanoTime() - started;
+      if (b == -1) {
+        record();
+      } else {
+        bytes++;
+      }
+      return b;
+    }
+
+    @Override
+    public int read(final byte[] b, final int off, final int len) throws IOException {
+      long started = System.nanoTime();
+      int count = super.read(b, off, len);
+      nanos += System.nanoTime() - started;
+      if (count == -1) {
+        record();
+      } else {
+        bytes += count;
+      }
+      return count;
+    }
+
+    @Override
+    public void close() throws IOException {
+      try {
+        super.close();
+      } finally {
+        record();
+      }
+    }
+
+    private void record() {
+      if (!recorded) {
+        recorded = true;
+        metrics.record(ODataMetric.SERIALIZATION, entitySet, uriType, nanos);
+        metrics.record(ODataMetric.BYTES_WRITTEN, entitySet, uriType, bytes);
+      }
+    }
+  }
+}
@@ -0,0 +1,146 @@
+/*******************************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ ******************************************************************************/
+package org.apache.olingo.odata2.core.processor;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+import java.util.concurrent.Callable;
+
+import org.apache.olingo.odata2.api.processor.ODataContextPropagator;
+
+/**
+ * Wraps tasks so that they run with the thread bound state of the thread which created them.
+ * <p>
+ * The state is handled by the {@link ODataContextPropagator} implementations found with the {@link ServiceLoader}
+ * of the class loader of this class. Wrapping is cheap if no propagator is registered; a task which has been wrapped
+ * already is not wrapped again.
+ */
+public final class ODataContextPropagation {
+
+  private static final List<ODataContextPropagator> PROPAGATORS = loadPropagators();
+
+  private ODataContextPropagation() {}
+
+  /**
+   * Wraps the task with the thread bound state of the current thread.
+   * @param task the task
+   * @return a task installing the captured state while it runs the given task
+   */
+  public static Runnable wrap(final Runnable task) {
+    if (PROPAGATORS.isEmpty() || task instanceof PropagatingRunnable) {
+      return task;
+    }
+    return new PropagatingRunnable(task, capture());
+  }
+
+  /**
+   * Wraps the task with the thread bound state of the current thread.
+   * @param task the task
+   * @return a task installing the captured state while it calls the given task
+   */
+  public static <T> Callable<T> wrap(final Callable<T> task) {
+    if (PROPAGATORS.isEmpty() || task instanceof PropagatingCallable) {
+      return task;
+    }
+    return new PropagatingCallable<T>(task, capture());
+  }
+
+  private static Object[] capture() {
+    Object[] states = new Object[PROPAGATORS.size()];
+    for (int i = 0; i < states.length; i++) {
+      states[i] = PROPAGATORS.get(i).capture();
+    }
+    return states;
+  }
+
+  private static Object[] install(final Object[] states) {
+    Object[] previousStates = new Object[states.length];
+    for (int i = 0; i < states.length; i++) {
+      previousStates[i] = PROPAGATORS.get(i).install(states[i]);
+    }
+    return previousStates;
+  }
+
+  private static void restore(final Object[] previousStates) {
+    for (int i = previousStates.length - 1; i >= 0; i--) {
+      PROPAGATORS.get(i).restore(previousStates[i]);
+    }
+  }
+
+  private static List<ODataContextPropagator> loadPropagators() {
+    List<ODataContextPropagator> propagators = new ArrayList<ODataContextPropagator>();
+    Iterator<ODataContextPropagator> iterator = ServiceLoader.load(ODataContextPropagator.class,
+        ODataContextPropagation.class.getClassLoader()).iterator();
+    while (true) {
+      try {
+        if (!iterator.hasNext()) {
+          break;
+        }
+        propagators.add(iterator.next());
+      } catch (ServiceConfigurationError e) {
+        // a propagator which can not be loaded does not carry over any state
+      }
+    }
+    return Collections.unmodifiableList(propagators);
+  }
+
+  private static final class PropagatingRunnable implements Runnable {
+    private final Runnable task;
+    private final Object[] states;
+
+    private PropagatingRunnable(final Runnable task, final Object[] states) {
+      this.task = task;
+      this.states = states;
+    }
+
+    @Override
+    public void run() {
+      Object[] previousStates = install(states);
+      try {
+        task.run();
+      } finally {
+        restore(previousStates);
+      }
+    }
+  }
+
+  private static final class PropagatingCallable<T> implements Callable<T> {
+    private final Callable<T> task;
+    private final Object[] states;
+
+    private PropagatingCallable(final Callable<T> task, final Object[] states) {
+      this.task = task;
+      this.states = states;
+    }
+
+    @Override
+    public T call() throws Exception {
+      Object[] previousStates = install(states);
+      try {
+        return task.call();
+      } finally {
+        restore(previousStates);
+      }
+    }
+  }
+}
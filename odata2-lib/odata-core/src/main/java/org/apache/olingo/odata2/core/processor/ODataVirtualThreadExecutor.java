@@ -0,0 +1,114 @@
+/*******************************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ ******************************************************************************/
+package org.apache.olingo.odata2.core.processor;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.olingo.odata2.api.processor.ODataRequestExecutor;
+
+/**
+ * Request executor running every task on its own virtual thread.
+ * <p>
+ * Virtual threads are available on Java 21 and newer; the library is built for older Java versions, so the executor
+ * is looked up at runtime. On older Java runtimes the tasks run on a bounded pool of daemon threads with a bounded
+ * queue; tasks beyond that are rejected with a {@link java.util.concurrent.RejectedExecutionException}, which the
+ * servlet answers with <code>503 Service Unavailable</code>. The tasks run with the thread bound state of the
+ * submitting thread, see {@link ODataContextPropagation}.
+ */
+public class ODataVirtualThreadExecutor implements ODataRequestExecutor {
+
+  public static final int DEFAULT_THREADS = 32;
+  public static final int DEFAULT_QUEUE_SIZE = 256;
+
+  private static final String VIRTUAL_THREAD_EXECUTOR = "newVirtualThreadPerTaskExecutor";
+
+  private final ExecutorService executor;
+  private final boolean virtual;
+
+  public ODataVirtualThreadExecutor() {
+    this(DEFAULT_THREADS, DEFAULT_QUEUE_SIZE);
+  }
+
+  /**
+   * @param threads the number of platform threads if virtual threads are not available
+   * @param queueSize the number of tasks waiting for a platform thread if virtual threads are not available
+   */
+  public ODataVirtualThreadExecutor(final int threads, final int queueSize) {
+    if (threads <= 0 || queueSize <= 0) {
+      throw new IllegalArgumentException("Invalid number of threads " + threads + " or queue size " + queueSize
+          + ".");
+    }
+    ExecutorService virtualThreadExecutor = createVirtualThreadExecutor();
+    virtual = virtualThreadExecutor != null;
+    executor = virtual ? virtualThreadExecutor : createPlatformThreadExecutor(threads, queueSize);
+  }
+
+  @Override
+  public void execute(final Runnable task) {
+    executor.execute(ODataContextPropagation.wrap(task));
+  }
+
+  /**
+   * @return <code>true</code> if the tasks run on virtual threads
+   */
+  public boolean isVirtual() {
+    return virtual;
+  }
+
+  /**
+   * Stops accepting tasks; tasks already submitted are completed.
+   */
+  public void shutdown() {
+    executor.shutdown();
+  }
+
+  private static ExecutorService createPlatformThreadExecutor(final int threads, final int queueSize) {
+    final AtomicInteger threadNumber = new AtomicInteger();
+    ThreadPoolExecutor platformThreadExecutor = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS,
+        new ArrayBlockingQueue<Runnable>(queueSize), new ThreadFactory() {
+          @Override
+          public Thread newThread(final Runnable runnable) {
+            Thread thread = new Thread(runnable, "olingo-odata-request-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+          }
+        });
+    platformThreadExecutor.allowCoreThreadTimeOut(true);
+    return platformThreadExecutor;
+  }
+
+  private static ExecutorService createVirtualThreadExecutor() {
+    try {
+      Method factory = Executors.class.getMethod(VIRTUAL_THREAD_EXECUTOR);
+      return (ExecutorService) factory.invoke(null);
+    } catch (NoSuchMethodException e) {
+      return null;
+    } catch (Exception e) {
+      // virtual threads are disabled, e.g. a preview feature of Java 19 and 20
+      return null;
+    }
+  }
+}
@@ -36,6 +36,9 @@ import javax.ws.rs.core.UriInfo;
 import org.apache.olingo.odata2.api.ODataServiceFactory;
 import org.apache.olingo.odata2.api.exception.ODataBadRequestException;
 import org.apache.olingo.odata2.api.exception.ODataException;
+import org.apache.olingo.odata2.core.ODataConcurrencyLimiter;
+import org.apache.olingo.odata2.core.ODataRequestDecompressor;
+import org.apache.olingo.odata2.core.ODataResponseCompressor;
 import org.apache.olingo.odata2.core.exception.ODataRuntimeException;
 import org.apache.olingo.odata2.core.rest.app.AbstractODataApplication;
 
@@ -114,6 +117,9 @@ public class ODataRootLocator {
     param.setRequest(request);
     param.setServletRequest(servletRequest);
     param.setPathSplit(pathSplit);
+    param.setResponseCompressor(ODataResponseCompressor.create(servletConfig));
+    param.setRequestDecompressor(ODataRequestDecompressor.create(servletConfig));
+    param.setConcurrencyLimiter(ODataConcurrencyLimiter.create(servletConfig));
 
     return ODataSubLocator.create(param);
   }
@@ -18,6 +18,9 @@
  ******************************************************************************/
 package org.apache.olingo.odata2.core.rest;
 
+import java.io.IOException;
+import java.io.InputStream;
+
 import javax.servlet.http.HttpServletRequest;
 import javax.ws.rs.DELETE;
 import javax.ws.rs.GET;
@@ -31,6 +34,7 @@ import javax.ws.rs.core.Response;
 
 import org.apache.olingo.odata2.api.ODataService;
 import org.apache.olingo.odata2.api.ODataServiceFactory;
+import org.apache.olingo.odata2.api.commons.HttpHeaders;
 import org.apache.olingo.odata2.api.commons.ODataHttpMethod;
 import org.apache.olingo.odata2.api.exception.MessageReference;
 import org.apache.olingo.odata2.api.exception.ODataException;
@@ -40,8 +44,10 @@ import org.apache.olingo.odata2.api.exception.ODataNotImplementedException;
 import org.apache.olingo.odata2.api.processor.ODataContext;
 import org.apache.olingo.odata2.api.processor.ODataRequest;
 import org.apache.olingo.odata2.api.processor.ODataResponse;
+import org.apache.olingo.odata2.core.ODataConcurrencyLimiter;
 import org.apache.olingo.odata2.core.ODataContextImpl;
 import org.apache.olingo.odata2.core.ODataRequestHandler;
+import org.apache.olingo.odata2.core.ODataResponseCompressor;
 
 /**
  *  
@@ -52,6 +58,8 @@ public final class ODataSubLocator {
   private ODataRequest request;
 
   private HttpServletRequest httpRequest;
+  private ODataResponseCompressor responseCompressor;
+  private ODataConcurrencyLimiter concurrencyLimiter;
 
   @GET
   public Response handleGet() throws ODataException {
@@ -160,8 +168,17 @@ public final class ODataSubLocator {
     context.setService(service);
 
     ODataRequestHandler requestHandler = new ODataRequestHandler(serviceFactory, service, context);
-
-    final ODataResponse odataResponse = requestHandler.handle(request);
+    requestHandler.setConcurrencyLimiter(concurrencyLimiter);
+
+    ODataResponse odataResponse = requestHandler.handle(request);
+    // the body of a HEAD response is not sent, so it is neither read ahead nor compressed
+    if (responseCompressor != null && httpRequest != null && !HttpMethod.HEAD.equals(httpRequest.getMethod())) {
+      try {
+        odataResponse = responseCompressor.compress(httpRequest.getHeader(HttpHeaders.ACCEPT_ENCODING), odataResponse);
+      } catch (IOException e) {
+        throw new ODataException(e);
+      }
+    }
     final Response response = RestUtil.convertResponse(odataResponse);
 
     return response;
@@ -176,7 +193,7 @@ public final class ODataSubLocator {
     subLocator.request = ODataRequest.acceptableLanguages(param.getHttpHeaders().getAcceptableLanguages())
         .httpMethod(param.getServletRequest().getMethod())
         .acceptHeaders(RestUtil.extractAcceptHeaders(param))
-        .body(RestUtil.contentAsStream(RestUtil.extractRequestContent(param)))
+        .body(decompress(param, RestUtil.contentAsStream(RestUtil.extractRequestContent(param))))
         .pathInfo(RestUtil.buildODataPathInfo(param))
         .allQueryParameters(param.getUriInfo().getQueryParameters())
         .requestHeaders(param.getHttpHeaders().getRequestHeaders())
@@ -184,10 +201,21 @@ public final class ODataSubLocator {
         .build();
 
     subLocator.httpRequest = param.getServletRequest();
+    subLocator.responseCompressor = param.getResponseCompressor();
+    subLocator.concurrencyLimiter = param.getConcurrencyLimiter();
 
     return subLocator;
   }
 
+  private static InputStream decompress(final SubLocatorParameter param, final InputStream body)
+      throws ODataException {
+    if (param.getRequestDecompressor() == null || param.getServletRequest() == null) {
+      return body;
+    }
+    return param.getRequestDecompressor()
+        .decompress(param.getServletRequest().getHeader(HttpHeaders.CONTENT_ENCODING), body);
+  }
+
   private ODataSubLocator() {
     super();
   }
@@ -24,6 +24,9 @@ import javax.servlet.http.HttpServletRequest;
 import javax.ws.rs.core.Request;
 
 import org.apache.olingo.odata2.api.ODataServiceFactory;
+import org.apache.olingo.odata2.core.ODataConcurrencyLimiter;
+import org.apache.olingo.odata2.core.ODataRequestDecompressor;
+import org.apache.olingo.odata2.core.ODataResponseCompressor;
 
 /**
  *  
@@ -37,6 +40,9 @@ public class SubLocatorParameter {
   private int pathSplit;
   private ODataServiceFactory serviceFactory;
   private HttpServletRequest servletRequest;
+  private ODataResponseCompressor responseCompressor;
+  private ODataRequestDecompressor requestDecompressor;
+  private ODataConcurrencyLimiter concurrencyLimiter;
 
   public ODataServiceFactory getServiceFactory() {
     return serviceFactory;
@@ -93,4 +99,28 @@ public class SubLocatorParameter {
   public HttpServletRequest getServletRequest() {
     return servletRequest;
   }
+
+  public ODataResponseCompressor getResponseCompressor() {
+    return responseCompressor;
+  }
+
+  public void setResponseCompressor(final ODataResponseCompressor responseCompressor) {
+    this.responseCompressor = responseCompressor;
+  }
+
+  public ODataRequestDecompressor getRequestDecompressor() {
+    return requestDecompressor;
+  }
+
+  public void setRequestDecompressor(final ODataRequestDecompressor requestDecompressor) {
+    this.requestDecompressor = requestDecompressor;
+  }
+
+  public ODataConcurrencyLimiter getConcurrencyLimiter() {
+    return concurrencyLimiter;
+  }
+
+  public void setConcurrencyLimiter(final ODataConcurrencyLimiter concurrencyLimiter) {
+    this.concurrencyLimiter = concurrencyLimiter;
+  }
 }
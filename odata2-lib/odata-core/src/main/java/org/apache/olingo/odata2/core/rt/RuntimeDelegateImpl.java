@@ -34,13 +34,17 @@ import org.apache.olingo.odata2.api.edm.provider.EdmProvider;
 import org.apache.olingo.odata2.api.ep.EntityProvider.EntityProviderInterface;
 import org.apache.olingo.odata2.api.ep.EntityProviderException;
 import org.apache.olingo.odata2.api.exception.ODataMessageException;
+import org.apache.olingo.odata2.api.metrics.ODataInMemoryMetrics;
 import org.apache.olingo.odata2.api.processor.ODataRequest.ODataRequestBuilder;
+import org.apache.olingo.odata2.api.processor.ODataRequestExecutor;
 import org.apache.olingo.odata2.api.processor.ODataResponse.ODataResponseBuilder;
+import org.apache.olingo.odata2.api.processor.ODataResponseCache;
 import org.apache.olingo.odata2.api.processor.ODataSingleProcessor;
 import org.apache.olingo.odata2.api.rt.RuntimeDelegate.RuntimeDelegateInstance;
 import org.apache.olingo.odata2.api.uri.ExpandSelectTreeNode.ExpandSelectTreeNodeBuilder;
 import org.apache.olingo.odata2.api.uri.UriParser;
 import org.apache.olingo.odata2.core.ODataRequestImpl;
+import org.apache.olingo.odata2.core.ODataResponseCacheImpl;
 import org.apache.olingo.odata2.core.ODataResponseImpl;
 import org.apache.olingo.odata2.core.batch.BatchChangeSetImpl;
 import org.apache.olingo.odata2.core.batch.BatchChangeSetPartImpl;
@@ -52,7 +56,9 @@ import org.apache.olingo.odata2.core.edm.provider.EdmxProvider;
 import org.apache.olingo.odata2.core.ep.ProviderFacadeImpl;
 import org.apache.olingo.odata2.core.exception.MessageService;
 import org.apache.olingo.odata2.core.exception.MessageService.Message;
+import org.apache.olingo.odata2.core.metrics.ODataInMemoryMetricsImpl;
 import org.apache.olingo.odata2.core.processor.ODataSingleProcessorService;
+import org.apache.olingo.odata2.core.processor.ODataVirtualThreadExecutor;
 import org.apache.olingo.odata2.core.uri.ExpandSelectTreeNodeImpl;
 import org.apache.olingo.odata2.core.uri.UriParserImpl;
 
@@ -141,6 +147,22 @@ public class RuntimeDelegateImpl extends RuntimeDelegateInstance {
     return expandSelectTreeNode.new ExpandSelectTreeNodeBuilderImpl();
   }
 
+  @Override
+  protected ODataRequestExecutor createVirtualThreadRequestExecutor() {
+    return new ODataVirtualThreadExecutor();
+  }
+
+  @Override
+  protected ODataInMemoryMetrics createInMemoryMetrics() {
+    return new ODataInMemoryMetricsImpl();
+  }
+
+  @Override
+  protected ODataResponseCache createResponseCache(final int maxEntries, final long timeToLive,
+      final String... varyHeaders) {
+    return new ODataResponseCacheImpl(maxEntries, timeToLive, varyHeaders);
+  }
+
   @Override
   public String extractExceptionMessage(final ODataMessageException exception) {
     Message msg = MessageService.getMessage(Locale.ENGLISH, exception.getMessageReference());
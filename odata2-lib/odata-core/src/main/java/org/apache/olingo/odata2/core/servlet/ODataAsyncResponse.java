@@ -0,0 +1,287 @@
+/*******************************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ ******************************************************************************/
+package org.apache.olingo.odata2.core.servlet;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.ServletContext;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+
+import org.apache.olingo.odata2.core.commons.ByteArrayPool;
+
+/**
+ * Response of a request the {@link ODataServlet} processes asynchronously.
+ * <p>
+ * The request is detached from the container thread with an {@link AsyncContext}. On Servlet 3.1 containers the
+ * response body is written with a {@link WriteListener}, so the container writes it whenever the client is ready to
+ * receive data and no thread waits for a slow client. The body is read on the executor processing the requests;
+ * the container thread only writes bytes which have been read already. On Servlet 3.0 containers the body is
+ * written with blocking output by the thread processing the request.
+ * <p>
+ * If the asynchronous processing times out or fails, the body is closed and its buffer is released.
+ */
+final class ODataAsyncResponse extends HttpServletResponseWrapper {
+
+  private final AsyncContext asyncContext;
+  private final Executor executor;
+  private final AtomicBoolean completed = new AtomicBoolean();
+  private volatile EntityWriteListener writeListener;
+
+  private ODataAsyncResponse(final AsyncContext asyncContext, final Executor executor) {
+    super((HttpServletResponse) asyncContext.getResponse());
+    this.asyncContext = asyncContext;
+    this.executor = executor;
+  }
+
+  /**
+   * Puts the request into asynchronous mode.
+   * @param req the request
+   * @param resp the response
+   * @param timeout the timeout of the asynchronous processing in milliseconds, <code>0</code> for no timeout
+   * @param executor the executor reading the response body
+   * @return the response to write to
+   */
+  static ODataAsyncResponse start(final HttpServletRequest req, final HttpServletResponse resp, final long timeout,
+      final Executor executor) {
+    AsyncContext asyncContext = req.startAsync(req, resp);
+    asyncContext.setTimeout(timeout);
+    ODataAsyncResponse response = new ODataAsyncResponse(asyncContext, executor);
+    asyncContext.addListener(response.new CompletionListener());
+    return response;
+  }
+
+  HttpServletRequest getRequest() {
+    return (HttpServletRequest) asyncContext.getRequest();
+  }
+
+  /**
+   * @return <code>true</code> if the container supports non-blocking output (Servlet 3.1 or newer)
+   */
+  boolean isNonBlockingWriteSupported() {
+    ServletContext servletContext = asyncContext.getRequest().getServletContext();
+    return servletContext.getMajorVersion() > 3
+        || servletContext.getMajorVersion() == 3 && servletContext.getMinorVersion() >= 1;
+  }
+
+  /**
+   * Writes the entity with non-blocking output. The request is completed when the entity has been written.
+   * @param entity the response body
+   * @param buffer the buffer used to copy the entity, released to the {@link ByteArrayPool} afterwards
+   */
+  void writeEntity(final InputStream entity, final byte[] buffer) throws IOException {
+    writeListener = new EntityWriteListener(entity, buffer);
+    getOutputStream().setWriteListener(writeListener);
+  }
+
+  /**
+   * Sends an internal server error if processing the request failed before the response was committed.
+   */
+  void fail() {
+    if (!isCommitted()) {
+      try {
+        sendError(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+      } catch (IOException e) {
+        // the client has gone away
+      }
+    }
+  }
+
+  /**
+   * Completes the asynchronous processing unless the entity is still being written.
+   */
+  void complete() {
+    if (writeListener == null) {
+      completeAsync();
+    }
+  }
+
+  private void completeAsync() {
+    if (completed.compareAndSet(false, true)) {
+      try {
+        asyncContext.complete();
+      } catch (IllegalStateException e) {
+        // the container has completed the request already, e.g., after a timeout
+      }
+    }
+  }
+
+  private void abort() {
+    EntityWriteListener listener = writeListener;
+    if (listener != null) {
+      listener.abort();
+    }
+  }
+
+  /*
+   * Releases the entity if the asynchronous processing ends before the entity has been written.
+   */
+  private final class CompletionListener implements AsyncListener {
+
+    @Override
+    public void onComplete(final AsyncEvent event) {
+      completed.set(true);
+      abort();
+    }
+
+    @Override
+    public void onTimeout(final AsyncEvent event) {
+      abort();
+      completeAsync();
+    }
+
+    @Override
+    public void onError(final AsyncEvent event) {
+      abort();
+      completeAsync();
+    }
+
+    @Override
+    public void onStartAsync(final AsyncEvent event) {
+      // the request is not started asynchronously again
+    }
+  }
+
+  /*
+   * Writes the bytes read so far whenever the client is ready and hands reading the next bytes over to the
+   * executor. The buffer is read into only after the bytes written before have been accepted by the container.
+   */
+  private final class EntityWriteListener implements WriteListener, Runnable {
+
+    private final InputStream entity;
+    private final byte[] buffer;
+    private int length = 0;
+    private boolean endOfEntity = false;
+    private boolean reading = false;
+    private boolean handingOver = false;
+    private boolean done = false;
+    private boolean released = false;
+
+    private EntityWriteListener(final InputStream entity, final byte[] buffer) {
+      this.entity = entity;
+      this.buffer = buffer;
+    }
+
+    @Override
+    public void onWritePossible() throws IOException {
+      write();
+    }
+
+    @Override
+    public void onError(final Throwable t) {
+      abort();
+      completeAsync();
+    }
+
+    @Override
+    public void run() {
+      try {
+        if (read()) {
+          write();
+        }
+      } catch (IOException e) {
+        abort();
+        completeAsync();
+      } catch (RuntimeException e) {
+        abort();
+        completeAsync();
+      }
+    }
+
+    private synchronized void write() throws IOException {
+      ServletOutputStream out = getOutputStream();
+      while (!done && !reading && out.isReady()) {
+        if (length > 0) {
+          out.write(buffer, 0, length);
+          length = 0;
+        } else if (endOfEntity) {
+          done = true;
+          release();
+          completeAsync();
+        } else {
+          reading = true;
+          handingOver = true;
+          try {
+            executor.execute(this);
+          } catch (RejectedExecutionException e) {
+            read();
+          } finally {
+            handingOver = false;
+          }
+        }
+      }
+    }
+
+    /*
+     * Reads the next bytes into the buffer; returns whether the reading thread has to write them
+     */
+    private boolean read() throws IOException {
+      int len = -1;
+      try {
+        len = entity.read(buffer);
+      } finally {
+        synchronized (this) {
+          reading = false;
+          if (len == -1) {
+            endOfEntity = true;
+          } else {
+            length = len;
+          }
+          if (done) {
+            release();
+          }
+        }
+      }
+      synchronized (this) {
+        return !done && !handingOver;
+      }
+    }
+
+    private synchronized void abort() {
+      done = true;
+      if (!reading) {
+        release();
+      }
+    }
+
+    private void release() {
+      if (released) {
+        return;
+      }
+      released = true;
+      try {
+        entity.close();
+      } catch (IOException e) {
+        // the entity has been written or the client has gone away
+      } finally {
+        ByteArrayPool.release(buffer);
+      }
+    }
+  }
+}
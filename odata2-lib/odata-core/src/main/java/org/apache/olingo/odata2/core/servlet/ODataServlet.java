@@ -30,19 +30,34 @@ import org.apache.olingo.odata2.api.exception.ODataInternalServerErrorException;
 import org.apache.olingo.odata2.api.exception.ODataMethodNotAllowedException;
 import org.apache.olingo.odata2.api.exception.ODataNotAcceptableException;
 import org.apache.olingo.odata2.api.exception.ODataNotImplementedException;
+import org.apache.olingo.odata2.api.exception.ODataServiceUnavailableException;
 import org.apache.olingo.odata2.api.processor.ODataContext;
 import org.apache.olingo.odata2.api.processor.ODataRequest;
+import org.apache.olingo.odata2.api.processor.ODataRequestExecutor;
 import org.apache.olingo.odata2.api.processor.ODataResponse;
+import org.apache.olingo.odata2.core.ODataConcurrencyLimiter;
 import org.apache.olingo.odata2.core.ODataContextImpl;
+import org.apache.olingo.odata2.core.ODataRequestDecompressor;
 import org.apache.olingo.odata2.core.ODataRequestHandler;
+import org.apache.olingo.odata2.core.ODataResponseCompressor;
+import org.apache.olingo.odata2.core.commons.ByteArrayPool;
 import org.apache.olingo.odata2.core.exception.ODataRuntimeException;
+import org.apache.olingo.odata2.core.processor.ODataContextPropagation;
 
 import javax.servlet.ServletOutputStream;
 import javax.servlet.http.HttpServlet;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class ODataServlet extends HttpServlet {
 
@@ -54,12 +69,42 @@ public class ODataServlet extends HttpServlet {
    */
   private static final String BUFFER_SIZE = "org.apache.olingo.odata2.core.servlet.buffer.size";
 
+  /**
+   * Label used in web.xml to enable the asynchronous processing of requests (Servlet 3.0 or newer).
+   */
+  private static final String ASYNC = "org.apache.olingo.odata2.core.servlet.async";
+
+  /**
+   * Label used in web.xml to assign the number of threads processing asynchronous requests.
+   */
+  private static final String ASYNC_THREADS = "org.apache.olingo.odata2.core.servlet.async.threads";
+
+  /**
+   * Label used in web.xml to assign the number of asynchronous requests waiting for a thread.
+   */
+  private static final String ASYNC_QUEUE_SIZE = "org.apache.olingo.odata2.core.servlet.async.queue.size";
+
+  /**
+   * Label used in web.xml to assign the timeout of asynchronous requests in milliseconds.
+   */
+  private static final String ASYNC_TIMEOUT = "org.apache.olingo.odata2.core.servlet.async.timeout";
+
   /**
    * 
    */
   private static final long serialVersionUID = 1L;
   private static final int DEFAULT_BUFFER_SIZE = 32768;
   private static final String DEFAULT_READ_CHARSET = "utf-8";
+  private static final int DEFAULT_ASYNC_THREADS = 32;
+  private static final int DEFAULT_ASYNC_QUEUE_SIZE = 256;
+
+  private transient ThreadPoolExecutor asyncExecutor;
+  private transient int bufferSize;
+  private transient ODataResponseCompressor responseCompressor;
+  private transient boolean responseCompressorCreated;
+  private transient ODataRequestDecompressor requestDecompressor;
+  private transient ODataConcurrencyLimiter concurrencyLimiter;
+  private transient boolean concurrencyLimiterCreated;
 
   @Override
   protected void service(final HttpServletRequest req, final HttpServletResponse resp) throws IOException {
@@ -70,6 +115,15 @@ public class ODataServlet extends HttpServlet {
           ODataServiceFactory.FACTORY_LABEL + "' or '" + ODataServiceFactory.FACTORY_INSTANCE_LABEL + "' config.");
     }
 
+    if (Boolean.parseBoolean(getInitParameter(ASYNC)) && req.isAsyncSupported()) {
+      handleAsync(req, resp, serviceFactory);
+    } else {
+      service(req, resp, serviceFactory);
+    }
+  }
+
+  private void service(final HttpServletRequest req, final HttpServletResponse resp,
+      final ODataServiceFactory serviceFactory) throws IOException {
     String xHttpMethod = req.getHeader("X-HTTP-Method");
     String xHttpMethodOverride = req.getHeader("X-HTTP-Method-Override");
     if (xHttpMethod != null && xHttpMethodOverride != null) {
@@ -88,6 +142,77 @@ public class ODataServlet extends HttpServlet {
     }
   }
 
+  private void handleAsync(final HttpServletRequest req, final HttpServletResponse resp,
+      final ODataServiceFactory serviceFactory) throws IOException {
+    ODataRequestExecutor requestExecutor = serviceFactory.getCallback(ODataRequestExecutor.class);
+    Executor executor = requestExecutor == null ? getAsyncExecutor() : requestExecutor;
+    final ODataAsyncResponse asyncResponse =
+        ODataAsyncResponse.start(req, resp, getIntInitParameter(ASYNC_TIMEOUT, 0), executor);
+    try {
+      executor.execute(ODataContextPropagation.wrap(new Runnable() {
+        @Override
+        public void run() {
+          try {
+            service(asyncResponse.getRequest(), asyncResponse, serviceFactory);
+          } catch (IOException e) {
+            // the client has gone away
+          } catch (RuntimeException e) {
+            asyncResponse.fail();
+          } finally {
+            asyncResponse.complete();
+          }
+        }
+      }));
+    } catch (RejectedExecutionException e) {
+      createServiceUnavailableResponse(req, resp, serviceFactory);
+      asyncResponse.complete();
+    }
+  }
+
+  /**
+   * Get the executor which processes the requests in asynchronous mode.
+   * <p>
+   * The default executor runs the requests on a fixed number of threads and queues a limited number of requests;
+   * both are configured with servlet init parameters. Requests which are rejected by the executor with a
+   * {@link RejectedExecutionException} are answered with <code>503 Service Unavailable</code>. The executor also
+   * reads the response bodies which are written with non-blocking output.
+   * Subclasses may override this method to run the requests on an executor managed by the container.
+   * If the service factory provides an {@link ODataRequestExecutor} callback, the requests run on that executor
+   * instead, e.g., on virtual threads, see {@link org.apache.olingo.odata2.api.rt.RuntimeDelegate
+   * #createVirtualThreadRequestExecutor()}.
+   *
+   * @return the executor for asynchronous requests
+   */
+  protected synchronized Executor getAsyncExecutor() {
+    if (asyncExecutor == null) {
+      final int threads = getIntInitParameter(ASYNC_THREADS, DEFAULT_ASYNC_THREADS);
+      final AtomicInteger threadNumber = new AtomicInteger();
+      asyncExecutor = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS,
+          new ArrayBlockingQueue<Runnable>(getIntInitParameter(ASYNC_QUEUE_SIZE, DEFAULT_ASYNC_QUEUE_SIZE)),
+          new ThreadFactory() {
+            @Override
+            public Thread newThread(final Runnable runnable) {
+              Thread thread = new Thread(runnable, "olingo-odata-async-" + threadNumber.incrementAndGet());
+              thread.setDaemon(true);
+              return thread;
+            }
+          });
+      asyncExecutor.allowCoreThreadTimeOut(true);
+    }
+    return asyncExecutor;
+  }
+
+  @Override
+  public void destroy() {
+    synchronized (this) {
+      if (asyncExecutor != null) {
+        asyncExecutor.shutdown();
+        asyncExecutor = null;
+      }
+    }
+    super.destroy();
+  }
+
   /**
    * Get the service factory instance which is used for creation of the
    * <code>ODataService</code> which handles the processing of the request.
@@ -196,7 +321,8 @@ public class ODataServlet extends HttpServlet {
           .pathInfo(RestUtil.buildODataPathInfo(req, pathSplit))
           .allQueryParameters(RestUtil.extractAllQueryParameters(req.getQueryString(), formEncoding))
           .requestHeaders(RestUtil.extractHeaders(req))
-          .body(req.getInputStream())
+          .body(getRequestDecompressor().decompress(req.getHeader(HttpHeaders.CONTENT_ENCODING),
+              req.getInputStream()))
           .build();
       } catch (IllegalArgumentException e) {
         throw new ODataBadRequestException(ODataBadRequestException.INVALID_REQUEST, e);
@@ -213,9 +339,14 @@ public class ODataServlet extends HttpServlet {
         service.getProcessor().setContext(context);
 
         ODataRequestHandler requestHandler = new ODataRequestHandler(serviceFactory, service, context);
-        final ODataResponse odataResponse = requestHandler.handle(odataRequest);
+        requestHandler.setConcurrencyLimiter(getConcurrencyLimiter());
+        ODataResponse odataResponse = requestHandler.handle(odataRequest);
         //
         boolean omitResponseBody = HTTP_METHOD_HEAD.equals(req.getMethod());
+        ODataResponseCompressor compressor = getResponseCompressor();
+        if (compressor != null && !omitResponseBody) {
+          odataResponse = compressor.compress(req.getHeader(HttpHeaders.ACCEPT_ENCODING), odataResponse);
+        }
         createResponse(resp, odataResponse, omitResponseBody);
       }
     } catch (Exception e) {
@@ -273,12 +404,19 @@ public class ODataServlet extends HttpServlet {
       resp.setHeader(headerName, response.getHeader(headerName));
     }
 
+    Object entity = response.getEntity();
     if(omitResponseBody) {
+      if (entity instanceof InputStream) {
+        // release what the stream holds, e.g. a transaction which ends with the body
+        ((InputStream) entity).close();
+      }
       return;
     }
 
-    Object entity = response.getEntity();
-    if (entity != null) {
+    if (entity != null && resp instanceof ODataAsyncResponse
+        && ((ODataAsyncResponse) resp).isNonBlockingWriteSupported()) {
+      createAsyncResponse((ODataAsyncResponse) resp, entity);
+    } else if (entity != null) {
       ServletOutputStream out = resp.getOutputStream();
       int contentLength;
 
@@ -308,6 +446,22 @@ public class ODataServlet extends HttpServlet {
     }
   }
 
+  private void createAsyncResponse(final ODataAsyncResponse resp, final Object entity) throws IOException {
+    InputStream stream;
+    if (entity instanceof InputStream) {
+      stream = (InputStream) entity;
+    } else if (entity instanceof String) {
+      final byte[] entityBytes = ((String) entity).getBytes(DEFAULT_READ_CHARSET);
+      if (resp.getHeader(HttpHeaders.CONTENT_LENGTH) == null) {
+        resp.setContentLength(entityBytes.length);
+      }
+      stream = new ByteArrayInputStream(entityBytes);
+    } else {
+      throw new IOException("Illegal entity object in ODataResponse of type '" + entity.getClass() + "'.");
+    }
+    resp.writeEntity(stream, getBuffer());
+  }
+
   private int handleStream(InputStream stream, ServletOutputStream out) throws IOException {
     int contentLength = 0;
     byte[] buffer = getBuffer();
@@ -319,26 +473,62 @@ public class ODataServlet extends HttpServlet {
         out.write(buffer, 0, len);
       }
     } finally {
+      ByteArrayPool.release(buffer);
       stream.close();
     }
     return contentLength;
   }
 
+  /*
+   * The compressor is configured with the init parameters of the servlet; null if compression is not enabled.
+   */
+  private synchronized ODataResponseCompressor getResponseCompressor() {
+    if (!responseCompressorCreated) {
+      responseCompressor = ODataResponseCompressor.create(this);
+      responseCompressorCreated = true;
+    }
+    return responseCompressor;
+  }
+
+  private synchronized ODataConcurrencyLimiter getConcurrencyLimiter() {
+    if (!concurrencyLimiterCreated) {
+      concurrencyLimiter = ODataConcurrencyLimiter.create(this);
+      concurrencyLimiterCreated = true;
+    }
+    return concurrencyLimiter;
+  }
+
+  private synchronized ODataRequestDecompressor getRequestDecompressor() {
+    if (requestDecompressor == null) {
+      requestDecompressor = ODataRequestDecompressor.create(this);
+    }
+    return requestDecompressor;
+  }
+
+  /*
+   * Takes a buffer from the pool; it has to be released after the response has been written.
+   */
   private byte[] getBuffer() {
-    int bufferSize = DEFAULT_BUFFER_SIZE;
-    String bufSizeInit = getInitParameter(BUFFER_SIZE);
-    if(bufSizeInit != null) {
+    if (bufferSize == 0) {
+      bufferSize = getIntInitParameter(BUFFER_SIZE, DEFAULT_BUFFER_SIZE);
+    }
+    return ByteArrayPool.acquire(bufferSize);
+  }
+
+  private int getIntInitParameter(final String name, final int defaultValue) {
+    int value = defaultValue;
+    String initValue = getInitParameter(name);
+    if(initValue != null) {
       try {
-        bufferSize = Integer.parseInt(bufSizeInit);
-        if(bufferSize <= 0) {
-          bufferSize = DEFAULT_BUFFER_SIZE;
+        value = Integer.parseInt(initValue);
+        if(value <= 0) {
+          value = defaultValue;
         }
       } catch (NumberFormatException ignored) {
         // this exception is ignored because if parameter is not parse able the default is used
       }
     }
-
-    return new byte[bufferSize];
+    return value;
   }
 
   private void createNotImplementedResponse(final HttpServletRequest req, final MessageReference messageReference,
@@ -375,6 +565,14 @@ public class ODataServlet extends HttpServlet {
     createResponse(resp, response);
   }
 
+  private void createServiceUnavailableResponse(final HttpServletRequest req, final HttpServletResponse resp,
+      final ODataServiceFactory serviceFactory) throws IOException {
+    ODataExceptionWrapper exceptionWrapper = new ODataExceptionWrapper(req, serviceFactory);
+    ODataResponse response = exceptionWrapper.wrapInExceptionResponse(
+        new ODataServiceUnavailableException(ODataServiceUnavailableException.COMMON));
+    createResponse(resp, response);
+  }
+
   /**
    * Create an instance of a ODataServiceFactory via factory class
    * from servlet init parameter ODataServiceFactory.FACTORY_LABEL
@@ -0,0 +1,160 @@
+/*******************************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ ******************************************************************************/
+package org.apache.olingo.odata2.core.uri;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.olingo.odata2.api.edm.EdmException;
+import org.apache.olingo.odata2.api.exception.ODataBadRequestException;
+import org.apache.olingo.odata2.api.processor.ODataQueryLimits;
+import org.apache.olingo.odata2.api.uri.NavigationPropertySegment;
+import org.apache.olingo.odata2.api.uri.UriInfo;
+import org.apache.olingo.odata2.api.uri.expression.BinaryExpression;
+import org.apache.olingo.odata2.api.uri.expression.CommonExpression;
+import org.apache.olingo.odata2.api.uri.expression.FilterExpression;
+import org.apache.olingo.odata2.api.uri.expression.MemberExpression;
+import org.apache.olingo.odata2.api.uri.expression.MethodExpression;
+import org.apache.olingo.odata2.api.uri.expression.UnaryExpression;
+
+/**
+ * Estimates the cost of the system query options of a request from the parsed URI, i.e., before any data is read:
+ * the depth and the breadth of <code>$expand</code>, the size of the <code>$filter</code> expression and its number
+ * of method calls, the number of <code>$orderby</code> keys, and <code>$top</code>.
+ */
+public class QueryCost {
+
+  private int expandDepth;
+  private int expandedNavigationProperties;
+  private int filterNodes;
+  private int filterMethodCalls;
+  private int orderByKeys;
+  private int top;
+
+  private QueryCost() {}
+
+  /**
+   * @param uriInfo the parsed request URI
+   * @return the cost of the query
+   * @throws EdmException if a navigation property can not be accessed
+   */
+  public static QueryCost estimate(final UriInfo uriInfo) throws EdmException {
+    QueryCost cost = new QueryCost();
+    if (uriInfo.getExpand() != null) {
+      Set<String> expandedPaths = new HashSet<String>();
+      for (List<NavigationPropertySegment> expandPath : uriInfo.getExpand()) {
+        cost.expandDepth = Math.max(cost.expandDepth, expandPath.size());
+        StringBuilder path = new StringBuilder();
+        for (NavigationPropertySegment segment : expandPath) {
+          path.append('/').append(segment.getNavigationProperty().getName());
+          expandedPaths.add(path.toString());
+        }
+      }
+      cost.expandedNavigationProperties = expandedPaths.size();
+    }
+    FilterExpression filter = uriInfo.getFilter();
+    if (filter != null) {
+      cost.countFilterNodes(filter.getExpression());
+    }
+    if (uriInfo.getOrderBy() != null) {
+      cost.orderByKeys = uriInfo.getOrderBy().getOrdersCount();
+    }
+    if (uriInfo.getTop() != null) {
+      cost.top = uriInfo.getTop();
+    }
+    return cost;
+  }
+
+  private void countFilterNodes(final CommonExpression expression) {
+    if (expression == null) {
+      return;
+    }
+    filterNodes++;
+    switch (expression.getKind()) {
+    case BINARY:
+      countFilterNodes(((BinaryExpression) expression).getLeftOperand());
+      countFilterNodes(((BinaryExpression) expression).getRightOperand());
+      break;
+    case UNARY:
+      countFilterNodes(((UnaryExpression) expression).getOperand());
+      break;
+    case METHOD:
+      filterMethodCalls++;
+      for (CommonExpression parameter : ((MethodExpression) expression).getParameters()) {
+        countFilterNodes(parameter);
+      }
+      break;
+    case MEMBER:
+      countFilterNodes(((MemberExpression) expression).getPath());
+      countFilterNodes(((MemberExpression) expression).getProperty());
+      break;
+    default:
+      break;
+    }
+  }
+
+  /**
+   * @param limits the limits, may be <code>null</code>
+   * @throws ODataBadRequestException if the query exceeds a limit
+   */
+  public void check(final ODataQueryLimits limits) throws ODataBadRequestException {
+    if (limits == null) {
+      return;
+    }
+    check("$expand depth", expandDepth, limits.getMaxExpandDepth());
+    check("number of expanded navigation properties", expandedNavigationProperties,
+        limits.getMaxExpandedNavigationProperties());
+    check("number of $filter nodes", filterNodes, limits.getMaxFilterNodes());
+    check("number of $filter method calls", filterMethodCalls, limits.getMaxFilterMethodCalls());
+    check("number of $orderby keys", orderByKeys, limits.getMaxOrderByKeys());
+    check("$top", top, limits.getMaxTop());
+  }
+
+  private static void check(final String name, final int value, final int limit) throws ODataBadRequestException {
+    if (limit > 0 && value > limit) {
+      throw new ODataBadRequestException(ODataBadRequestException.QUERY_TOO_EXPENSIVE
+          .addContent(name, value, limit));
+    }
+  }
+
+  public int getExpandDepth() {
+    return expandDepth;
+  }
+
+  public int getExpandedNavigationProperties() {
+    return expandedNavigationProperties;
+  }
+
+  public int getFilterNodes() {
+    return filterNodes;
+  }
+
+  public int getFilterMethodCalls() {
+    return filterMethodCalls;
+  }
+
+  public int getOrderByKeys() {
+    return orderByKeys;
+  }
+
+  public int getTop() {
+    return top;
+  }
+}
@@ -0,0 +1,139 @@
+/*******************************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ ******************************************************************************/
+package org.apache.olingo.odata2.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+
+import org.apache.olingo.odata2.api.edm.EdmConcurrencyMode;
+import org.apache.olingo.odata2.api.edm.EdmEntitySet;
+import org.apache.olingo.odata2.api.edm.EdmEntityType;
+import org.apache.olingo.odata2.api.edm.EdmFacets;
+import org.apache.olingo.odata2.api.edm.EdmFunctionImport;
+import org.apache.olingo.odata2.api.edm.EdmProperty;
+import org.apache.olingo.odata2.api.processor.ODataCacheValidatorCallback;
+import org.apache.olingo.odata2.api.uri.UriInfo;
+import org.apache.olingo.odata2.testutil.fit.BaseTest;
+import org.junit.Test;
+
+public class ODataCacheValidatorsTest extends BaseTest {
+
+  private static final Date LAST_MODIFIED = new Date(1000000000000L);
+  private static final String LAST_MODIFIED_HEADER = "Sun, 09 Sep 2001 01:46:40 GMT";
+
+  @Test
+  public void entityTagMatches() throws Exception {
+    ODataCacheValidators validators = ODataCacheValidators.create(createCallback("W/\"42\"", null), createUriInfo());
+    assertTrue(validators.isNotModified("W/\"42\"", null));
+    assertTrue(validators.isNotModified("\"41\", \"42\"", null));
+    assertTrue(validators.isNotModified("*", null));
+    assertFalse(validators.isNotModified("W/\"41\"", null));
+    assertFalse(validators.isNotModified(null, LAST_MODIFIED_HEADER));
+    assertNull(validators.getLastModified());
+  }
+
+  @Test
+  public void lastModified() throws Exception {
+    ODataCacheValidators validators = ODataCacheValidators.create(createCallback(null, LAST_MODIFIED),
+        createUriInfo());
+    assertEquals(LAST_MODIFIED_HEADER, validators.getLastModified());
+    assertTrue(validators.isNotModified(null, LAST_MODIFIED_HEADER));
+    assertTrue(validators.isNotModified(null, "Mon, 10 Sep 2001 00:00:00 GMT"));
+    assertFalse(validators.isNotModified(null, "Sun, 09 Sep 2001 01:46:39 GMT"));
+    assertFalse(validators.isNotModified(null, "yesterday"));
+    assertFalse(validators.isNotModified("\"1\"", LAST_MODIFIED_HEADER));
+    assertFalse(validators.isNotModified(null, null));
+  }
+
+  @Test
+  public void entityTagIsNotSentForConcurrencyControl() throws Exception {
+    UriInfo uriInfo = createUriInfoWithConcurrencyControl();
+    ODataCacheValidators validators = ODataCacheValidators.create(createCallback("\"42\"", LAST_MODIFIED), uriInfo);
+    assertNull(validators.getEntityTag());
+    assertEquals(LAST_MODIFIED_HEADER, validators.getLastModified());
+    assertEquals("\"42\"",
+        ODataCacheValidators.create(createCallback("\"42\"", null), createUriInfo()).getEntityTag());
+  }
+
+  @Test
+  public void ifNoneMatchIsIgnoredIfEntityTagIsNotSent() throws Exception {
+    UriInfo uriInfo = createUriInfoWithConcurrencyControl();
+    ODataCacheValidators validators = ODataCacheValidators.create(createCallback("W/\"42\"", null), uriInfo);
+    assertFalse(validators.isNotModified("W/\"42\"", null));
+
+    validators = ODataCacheValidators.create(createCallback("W/\"42\"", LAST_MODIFIED), uriInfo);
+    assertTrue(validators.isNotModified("W/\"42\"", LAST_MODIFIED_HEADER));
+    assertFalse(validators.isNotModified("W/\"42\"", "Sun, 09 Sep 2001 01:46:39 GMT"));
+  }
+
+  @Test
+  public void noValidators() throws Exception {
+    assertNull(ODataCacheValidators.create(null, createUriInfo()));
+    assertNull(ODataCacheValidators.create(createCallback(null, null), createUriInfo()));
+
+    UriInfo functionImport = createUriInfo();
+    EdmFunctionImport edmFunctionImport = mock(EdmFunctionImport.class);
+    when(functionImport.getFunctionImport()).thenReturn(edmFunctionImport);
+    assertNull(ODataCacheValidators.create(createCallback("\"1\"", LAST_MODIFIED), functionImport));
+  }
+
+  private static UriInfo createUriInfo() throws Exception {
+    UriInfo uriInfo = mock(UriInfo.class);
+    EdmEntitySet entitySet = mock(EdmEntitySet.class);
+    EdmEntityType entityType = mock(EdmEntityType.class);
+    when(entityType.getPropertyNames()).thenReturn(Collections.<String> emptyList());
+    when(entitySet.getEntityType()).thenReturn(entityType);
+    when(uriInfo.getTargetEntitySet()).thenReturn(entitySet);
+    return uriInfo;
+  }
+
+  private static UriInfo createUriInfoWithConcurrencyControl() throws Exception {
+    UriInfo uriInfo = createUriInfo();
+    EdmProperty property = mock(EdmProperty.class);
+    EdmFacets facets = mock(EdmFacets.class);
+    when(facets.getConcurrencyMode()).thenReturn(EdmConcurrencyMode.Fixed);
+    when(property.getFacets()).thenReturn(facets);
+    EdmEntityType entityType = uriInfo.getTargetEntitySet().getEntityType();
+    when(entityType.getPropertyNames()).thenReturn(Arrays.asList("Version"));
+    when(entityType.getProperty("Version")).thenReturn(property);
+    return uriInfo;
+  }
+
+    private static ODataCacheValidatorCallback createCallback(final String entityTag, final Date lastModified) {
+    return new ODataCacheValidatorCallback() {
+      @Override
+      public String getEntityTag(final UriInfo uriInfo) {
+        return entityTag;
+      }
+
+      @Override
+      public Date getLastModified(final UriInfo uriInfo) {
+        return lastModified;
+      }
+    };
+  }
+}
@@ -0,0 +1,256 @@
+/*******************************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ ******************************************************************************/
+package org.apache.olingo.odata2.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.servlet.ServletConfig;
+import javax.servlet.ServletContext;
+
+import org.apache.olingo.odata2.api.ODataServiceFactory;
+import org.apache.olingo.odata2.api.edm.EdmEntitySet;
+import org.apache.olingo.odata2.api.metrics.ODataInMemoryMetrics;
+import org.apache.olingo.odata2.api.metrics.ODataMetric;
+import org.apache.olingo.odata2.api.metrics.ODataMetrics;
+import org.apache.olingo.odata2.api.rt.RuntimeDelegate;
+import org.apache.olingo.odata2.core.ODataConcurrencyLimiter.Algorithm;
+import org.apache.olingo.odata2.core.ODataConcurrencyLimiter.Permit;
+import org.apache.olingo.odata2.core.metrics.ODataRequestMetrics;
+import org.apache.olingo.odata2.core.uri.UriInfoImpl;
+import org.apache.olingo.odata2.core.uri.UriType;
+import org.apache.olingo.odata2.testutil.fit.BaseTest;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+public class ODataConcurrencyLimiterTest extends BaseTest {
+
+  private final ODataRequestMetrics metrics = ODataRequestMetrics.create(null);
+
+  @Test
+  public void globalLimit() throws Exception {
+    ODataConcurrencyLimiter limiter = new ODataConcurrencyLimiter(Algorithm.FIXED, 1000, 1);
+    limiter.setGlobalLimit(2);
+    Permit first = limiter.acquire(createUriInfo("Employees", UriType.URI1), metrics);
+    assertNotNull(first);
+    assertNotNull(limiter.acquire(createUriInfo("Rooms", UriType.URI2), metrics));
+    assertNull(limiter.acquire(createUriInfo("Teams", UriType.URI1), metrics));
+    assertEquals(2, limiter.getGlobalLimit().getInFlight());
+    assertEquals(1, limiter.getGlobalLimit().getRejected());
+
+    first.release();
+    assertNotNull(limiter.acquire(createUriInfo("Teams", UriType.URI1), metrics));
+    assertEquals(2, limiter.getGlobalLimit().getLimit());
+  }
+
+  @Test
+  public void entitySetAndUriTypeLimits() throws Exception {
+    ODataConcurrencyLimiter limiter = new ODataConcurrencyLimiter(Algorithm.FIXED, 1000, 1);
+    limiter.setEntitySetLimit(null, 1);
+    limiter.setEntitySetLimit("Employees", 2);
+    limiter.setUriTypeLimit("URI9", 1);
+
+    assertNotNull(limiter.acquire(createUriInfo("Employees", UriType.URI1), metrics));
+    assertNotNull(limiter.acquire(createUriInfo("Employees", UriType.URI2), metrics));
+    assertNull(limiter.acquire(createUriInfo("Employees", UriType.URI1), metrics));
+    assertNotNull(limiter.acquire(createUriInfo("Rooms", UriType.URI1), metrics));
+    assertNull(limiter.acquire(createUriInfo("Rooms", UriType.URI1), metrics));
+    assertEquals(1, limiter.getEntitySetLimit("Rooms").getMaxLimit());
+    assertNull(limiter.getEntitySetLimit("Teams"));
+
+    Permit batch = limiter.acquire(createUriInfo(null, UriType.URI9), metrics);
+    assertNotNull(batch);
+    assertNull(limiter.acquire(createUriInfo(null, UriType.URI9), metrics));
+    batch.release();
+    assertEquals(0, limiter.getUriTypeLimit("URI9").getInFlight());
+    assertEquals(3, limiter.getGlobalLimit().getInFlight());
+    assertEquals(Integer.MAX_VALUE, limiter.getGlobalLimit().getMaxLimit());
+  }
+
+  @Test
+  public void batchPartsAreNotLimitedGlobally() throws Exception {
+    ODataConcurrencyLimiter limiter = new ODataConcurrencyLimiter(Algorithm.FIXED, 1000, 1);
+    limiter.setGlobalLimit(1);
+    limiter.setEntitySetLimit("Employees", 1);
+    Permit batch = limiter.acquire(createUriInfo(null, UriType.URI9), metrics);
+    assertNotNull(batch);
+    Permit part = limiter.acquire(createUriInfo("Employees", UriType.URI1), metrics, true);
+    assertNotNull(part);
+    assertNull(limiter.acquire(createUriInfo("Employees", UriType.URI1), metrics, true));
+
+    part.release();
+    part.release();
+    assertEquals(0, limiter.getEntitySetLimit("Employees").getInFlight());
+    assertEquals(1, limiter.getGlobalLimit().getInFlight());
+  }
+
+  @Test
+  public void aimd() throws Exception {
+    ODataConcurrencyLimiter limiter = new ODataConcurrencyLimiter(Algorithm.AIMD, 1, 1);
+    limiter.setEntitySetLimit("Employees", 10);
+    Permit permit = limiter.acquire(createUriInfo("Employees", UriType.URI1), metrics);
+    Thread.sleep(5);
+    permit.release();
+    assertEquals(9, limiter.getEntitySetLimit("Employees").getLimit());
+
+    limiter = new ODataConcurrencyLimiter(Algorithm.AIMD, 60000, 1);
+    limiter.setEntitySetLimit("Employees", 10);
+    for (int i = 0; i < 5; i++) {
+      limiter.acquire(createUriInfo("Employees", UriType.URI1), metrics).release();
+    }
+    assertEquals(10, limiter.getEntitySetLimit("Employees").getLimit());
+  }
+
+  @Test
+  public void latencyIsRecordedBeforeBodyIsWritten() throws Exception {
+    ODataConcurrencyLimiter limiter = new ODataConcurrencyLimiter(Algorithm.AIMD, 60000, 1);
+    limiter.setEntitySetLimit("Employees", 10);
+    Permit permit = limiter.acquire(createUriInfo("Employees", UriType.URI1), metrics);
+    permit.recordLatency();
+    permit.deferRelease();
+    permit.release();
+    assertEquals(10, limiter.getEntitySetLimit("Employees").getLimit());
+    assertEquals(0, limiter.getEntitySetLimit("Employees").getInFlight());
+  }
+
+  @Test
+  public void deferredPermitIsReleasedAfterTimeout() throws Exception {
+    ODataConcurrencyLimiter limiter = new ODataConcurrencyLimiter(Algorithm.FIXED, 1000, 1);
+    limiter.setGlobalLimit(1);
+    limiter.setReleaseTimeout(1);
+    Permit permit = limiter.acquire(createUriInfo("Employees", UriType.URI1), metrics);
+    permit.deferRelease();
+    Thread.sleep(5);
+
+    Permit next = limiter.acquire(createUriInfo("Employees", UriType.URI1), metrics);
+    assertNotNull(next);
+    assertEquals(1, limiter.getGlobalLimit().getInFlight());
+    permit.release();
+    assertEquals(1, limiter.getGlobalLimit().getInFlight());
+    next.release();
+    assertEquals(0, limiter.getGlobalLimit().getInFlight());
+  }
+
+  @Test
+  public void gradient() throws Exception {
+    ODataConcurrencyLimiter limiter = new ODataConcurrencyLimiter(Algorithm.GRADIENT, 1000, 1);
+    limiter.setEntitySetLimit("Employees", 100);
+    limiter.acquire(createUriInfo("Employees", UriType.URI1), metrics).release();
+    for (int i = 0; i < 5; i++) {
+      Permit permit = limiter.acquire(createUriInfo("Employees", UriType.URI1), metrics);
+      Thread.sleep(20);
+      permit.release();
+    }
+    assertTrue(limiter.getEntitySetLimit("Employees").getLimit() < 100);
+  }
+
+  @Test
+  public void rejectionsAreRecorded() throws Exception {
+    ODataInMemoryMetrics inMemoryMetrics = RuntimeDelegate.createInMemoryMetrics();
+    ODataServiceFactory serviceFactory = mock(ODataServiceFactory.class);
+    when(serviceFactory.getCallback(ODataMetrics.class)).thenReturn(inMemoryMetrics);
+    ODataRequestMetrics requestMetrics = ODataRequestMetrics.create(serviceFactory);
+    UriInfoImpl uriInfo = createUriInfo("Employees", UriType.URI1);
+    requestMetrics.setTarget(uriInfo);
+
+    ODataConcurrencyLimiter limiter = new ODataConcurrencyLimiter(Algorithm.FIXED, 1000, 1);
+    limiter.setGlobalLimit(1);
+    assertNotNull(limiter.acquire(uriInfo, requestMetrics));
+    assertNull(limiter.acquire(uriInfo, requestMetrics));
+    assertEquals(1, inMemoryMetrics.getHistogramByEntitySet(ODataMetric.CONCURRENT_REQUESTS, "Employees").getMax());
+    assertEquals(1, inMemoryMetrics.getHistogramByEntitySet(ODataMetric.REJECTED_REQUESTS, "Employees").getCount());
+  }
+
+  @Test
+  public void createFromServletConfig() throws Exception {
+    Map<String, String> parameters = new HashMap<String, String>();
+    parameters.put(ODataConcurrencyLimiter.LIMIT_LABEL, "50");
+    parameters.put(ODataConcurrencyLimiter.ENTITY_SET_LIMIT_LABEL + ".Employees", "5");
+    parameters.put(ODataConcurrencyLimiter.URI_TYPE_LIMIT_LABEL + ".URI9", "2");
+    parameters.put(ODataConcurrencyLimiter.ALGORITHM_LABEL, "aimd");
+    parameters.put(ODataConcurrencyLimiter.RETRY_AFTER_LABEL, "3");
+    ServletContext servletContext = createServletContext();
+    ServletConfig config = createServletConfig(parameters, servletContext);
+
+    ODataConcurrencyLimiter limiter = ODataConcurrencyLimiter.create(config);
+    assertEquals(50, limiter.getGlobalLimit().getMaxLimit());
+    assertEquals(5, limiter.getEntitySetLimit("Employees").getMaxLimit());
+    assertEquals(2, limiter.getUriTypeLimit("URI9").getMaxLimit());
+    assertEquals(3, limiter.getRetryAfter());
+    assertSame(limiter, ODataConcurrencyLimiter.create(config));
+
+    assertNull(ODataConcurrencyLimiter.create(createServletConfig(
+        Collections.singletonMap(ODataConcurrencyLimiter.ALGORITHM_LABEL, "gradient"), createServletContext())));
+    assertNull(ODataConcurrencyLimiter.create(null));
+  }
+
+  private static UriInfoImpl createUriInfo(final String entitySetName, final UriType uriType) throws Exception {
+    UriInfoImpl uriInfo = mock(UriInfoImpl.class);
+    if (entitySetName != null) {
+      EdmEntitySet entitySet = mock(EdmEntitySet.class);
+      when(entitySet.getName()).thenReturn(entitySetName);
+      when(uriInfo.getTargetEntitySet()).thenReturn(entitySet);
+    }
+    when(uriInfo.getUriType()).thenReturn(uriType);
+    return uriInfo;
+  }
+
+  private static ServletContext createServletContext() {
+    final Map<String, Object> attributes = new HashMap<String, Object>();
+    ServletContext servletContext = mock(ServletContext.class);
+    when(servletContext.getAttribute(anyString())).thenAnswer(new Answer<Object>() {
+      @Override
+      public Object answer(final InvocationOnMock invocation) {
+        return attributes.get(invocation.getArguments()[0]);
+      }
+    });
+    doAnswer(new Answer<Object>() {
+      @Override
+      public Object answer(final InvocationOnMock invocation) {
+        return attributes.put((String) invocation.getArguments()[0], invocation.getArguments()[1]);
+      }
+    }).when(servletContext).setAttribute(anyString(), any());
+    return servletContext;
+  }
+
+  private static ServletConfig createServletConfig(final Map<String, String> parameters,
+      final ServletContext servletContext) {
+    ServletConfig config = mock(ServletConfig.class);
+    when(config.getServletName()).thenReturn("ODataServlet");
+    when(config.getServletContext()).thenReturn(servletContext);
+    when(config.getInitParameterNames()).thenReturn(Collections.enumeration(parameters.keySet()));
+    for (Map.Entry<String, String> parameter : parameters.entrySet()) {
+      when(config.getInitParameter(parameter.getKey())).thenReturn(parameter.getValue());
+    }
+    return config;
+  }
+}
@@ -0,0 +1,116 @@
+/*******************************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ ******************************************************************************/
+package org.apache.olingo.odata2.core;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.apache.olingo.odata2.api.commons.HttpStatusCodes;
+import org.apache.olingo.odata2.api.exception.ODataHttpException;
+import org.apache.olingo.odata2.testutil.fit.BaseTest;
+import org.junit.Test;
+
+public class ODataRequestDecompressorTest extends BaseTest {
+
+  private static final byte[] CONTENT = "{\"d\":{\"Id\":\"1\",\"Name\":\"Employee 1\"}}".getBytes();
+
+  private final ODataRequestDecompressor decompressor = new ODataRequestDecompressor(1000);
+
+  @Test
+  public void gzip() throws Exception {
+    ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+    GZIPOutputStream out = new GZIPOutputStream(compressed);
+    out.write(CONTENT);
+    out.close();
+    assertArrayEquals(CONTENT,
+        readAll(decompressor.decompress("gzip", new ByteArrayInputStream(compressed.toByteArray()))));
+  }
+
+  @Test
+  public void deflate() throws Exception {
+    assertArrayEquals(CONTENT,
+        readAll(decompressor.decompress("identity, Deflate", new ByteArrayInputStream(deflate(CONTENT)))));
+  }
+
+  @Test
+  public void uncompressedBodyIsPassedThrough() throws Exception {
+    InputStream body = new ByteArrayInputStream(CONTENT);
+    assertSame(body, decompressor.decompress(null, body));
+    assertSame(body, decompressor.decompress("identity", body));
+  }
+
+  @Test
+  public void limitIsEnforced() throws Exception {
+    InputStream body = decompressor.decompress("deflate", new ByteArrayInputStream(deflate(new byte[1001])));
+    try {
+      readAll(body);
+      fail("Expected an IOException");
+    } catch (IOException e) {
+      // expected
+    }
+  }
+
+  @Test
+  public void unsupportedContentEncoding() throws Exception {
+    try {
+      decompressor.decompress("br", new ByteArrayInputStream(CONTENT));
+      fail("Expected an ODataHttpException");
+    } catch (ODataHttpException e) {
+      assertEquals(HttpStatusCodes.UNSUPPORTED_MEDIA_TYPE, e.getHttpStatus());
+    }
+  }
+
+  @Test
+  public void malformedGzip() throws Exception {
+    try {
+      decompressor.decompress("gzip", new ByteArrayInputStream(CONTENT));
+      fail("Expected an ODataHttpException");
+    } catch (ODataHttpException e) {
+      assertEquals(HttpStatusCodes.BAD_REQUEST, e.getHttpStatus());
+    }
+  }
+
+  private static byte[] deflate(final byte[] content) throws IOException {
+    ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+    DeflaterOutputStream out = new DeflaterOutputStream(compressed);
+    out.write(content);
+    out.close();
+    return compressed.toByteArray();
+  }
+
+  private static byte[] readAll(final InputStream stream) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    byte[] buffer = new byte[100];
+    int read;
+    while ((read = stream.read(buffer)) != -1) {
+      out.write(buffer, 0, read);
+    }
+    stream.close();
+    return out.toByteArray();
+  }
+}
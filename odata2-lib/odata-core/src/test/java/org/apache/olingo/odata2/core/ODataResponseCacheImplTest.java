@@ -0,0 +1,235 @@
+/*******************************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ ******************************************************************************/
+package org.apache.olingo.odata2.core;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.olingo.odata2.api.commons.HttpContentType;
+import org.apache.olingo.odata2.api.commons.HttpHeaders;
+import org.apache.olingo.odata2.api.commons.HttpStatusCodes;
+import org.apache.olingo.odata2.api.commons.ODataHttpMethod;
+import org.apache.olingo.odata2.api.processor.ODataRequest;
+import org.apache.olingo.odata2.api.processor.ODataResponse;
+import org.apache.olingo.odata2.core.uri.UriInfoImpl;
+import org.apache.olingo.odata2.core.uri.UriParserImpl;
+import org.apache.olingo.odata2.testutil.fit.BaseTest;
+import org.apache.olingo.odata2.testutil.mock.MockFacade;
+import org.junit.Test;
+
+public class ODataResponseCacheImplTest extends BaseTest {
+
+  private static final String MANAGER = "Employees('1')/ne_Manager";
+  private static final String ROOM = "Rooms('1')";
+
+  private final ODataResponseCacheImpl cache = new ODataResponseCacheImpl(10, 60000, HttpHeaders.AUTHORIZATION);
+
+  @Test
+  public void responseIsReplayed() throws Exception {
+    ODataRequest request = createRequest(ODataHttpMethod.GET, MANAGER, Collections.<String, String> emptyMap());
+    String key = cache.getKey(request, parse(MANAGER), HttpContentType.APPLICATION_JSON);
+    assertNull(cache.get(key, request));
+
+    ODataResponse response = cache.put(key, parse(MANAGER), createResponse(stream("{\"d\":{}}")));
+    assertEquals("{\"d\":{}}", read((InputStream) response.getEntity()));
+
+    ODataResponse cachedResponse = cache.get(key, request);
+    assertNotNull(cachedResponse);
+    assertEquals(HttpStatusCodes.OK, cachedResponse.getStatus());
+    assertEquals(HttpContentType.APPLICATION_JSON, cachedResponse.getContentHeader());
+    assertEquals("{\"d\":{}}", read((InputStream) cachedResponse.getEntity()));
+    assertEquals("{\"d\":{}}", read((InputStream) cache.get(key, request).getEntity()));
+  }
+
+  @Test
+  public void keyVaries() throws Exception {
+    ODataRequest request = createRequest(ODataHttpMethod.GET, MANAGER, Collections.<String, String> emptyMap());
+    String key = cache.getKey(request, parse(MANAGER), HttpContentType.APPLICATION_JSON);
+    assertFalse(key.equals(cache.getKey(request, parse(MANAGER), HttpContentType.APPLICATION_ATOM_XML)));
+    assertFalse(key.equals(cache.getKey(
+        createRequest(ODataHttpMethod.GET, MANAGER, Collections.singletonMap("accept-language", "de")),
+        parse(MANAGER), HttpContentType.APPLICATION_JSON)));
+    assertFalse(key.equals(cache.getKey(
+        createRequest(ODataHttpMethod.GET, MANAGER, Collections.singletonMap(HttpHeaders.AUTHORIZATION, "Basic a")),
+        parse(MANAGER), HttpContentType.APPLICATION_JSON)));
+    assertEquals(key, cache.getKey(
+        createRequest(ODataHttpMethod.GET, MANAGER, Collections.singletonMap(HttpHeaders.ACCEPT, "*/*")),
+        parse(MANAGER), HttpContentType.APPLICATION_JSON));
+  }
+
+  @Test
+  public void notCacheable() throws Exception {
+    assertNull(cache.getKey(createRequest(ODataHttpMethod.PUT, MANAGER, Collections.<String, String> emptyMap()),
+        parse(MANAGER), HttpContentType.APPLICATION_JSON));
+    assertNull(cache.getKey(
+        createRequest(ODataHttpMethod.GET, MANAGER, Collections.singletonMap(HttpHeaders.CACHE_CONTROL, "no-store")),
+        parse(MANAGER), HttpContentType.APPLICATION_JSON));
+
+    ODataRequest request = createRequest(ODataHttpMethod.GET, MANAGER, Collections.<String, String> emptyMap());
+    String key = cache.getKey(request, parse(MANAGER), HttpContentType.APPLICATION_JSON);
+    cache.put(key, parse(MANAGER), ODataResponse.status(HttpStatusCodes.NOT_FOUND).entity("").build());
+    assertEquals(0, cache.size());
+
+    cache.put(key, parse(MANAGER), createResponse("{}"));
+    assertNull(cache.get(key,
+        createRequest(ODataHttpMethod.GET, MANAGER, Collections.singletonMap(HttpHeaders.CACHE_CONTROL, "no-cache"))));
+    assertNull(cache.get(key,
+        createRequest(ODataHttpMethod.GET, MANAGER, Collections.singletonMap(HttpHeaders.IF_NONE_MATCH, "W/\"1\""))));
+    assertNotNull(cache.get(key, request));
+  }
+
+  @Test
+  public void requestsWithCredentialsAreNotCachedByDefault() throws Exception {
+    ODataResponseCacheImpl defaultCache = new ODataResponseCacheImpl(10, 60000);
+    assertNull(defaultCache.getKey(
+        createRequest(ODataHttpMethod.GET, MANAGER, Collections.singletonMap("authorization", "Basic a")),
+        parse(MANAGER), HttpContentType.APPLICATION_JSON));
+    assertNull(defaultCache.getKey(
+        createRequest(ODataHttpMethod.GET, MANAGER, Collections.singletonMap(HttpHeaders.COOKIE, "session=1")),
+        parse(MANAGER), HttpContentType.APPLICATION_JSON));
+    assertNotNull(defaultCache.getKey(
+        createRequest(ODataHttpMethod.GET, MANAGER, Collections.<String, String> emptyMap()),
+        parse(MANAGER), HttpContentType.APPLICATION_JSON));
+
+    ODataRequest request = createRequest(ODataHttpMethod.GET, MANAGER, Collections.<String, String> emptyMap());
+    String key = defaultCache.getKey(request, parse(MANAGER), HttpContentType.APPLICATION_JSON);
+    defaultCache.put(key, parse(MANAGER), ODataResponse.fromResponse(createResponse("{}"))
+        .header(HttpHeaders.SET_COOKIE, "session=2").build());
+    assertEquals(0, defaultCache.size());
+  }
+
+  @Test
+  public void largeBodyIsPassedThrough() throws Exception {
+    byte[] content = new byte[ODataResponseCacheImpl.MAX_BODY_SIZE + 10000];
+    Arrays.fill(content, (byte) 'a');
+    ODataRequest request = createRequest(ODataHttpMethod.GET, MANAGER, Collections.<String, String> emptyMap());
+    String key = cache.getKey(request, parse(MANAGER), HttpContentType.APPLICATION_JSON);
+    ODataResponse response = cache.put(key, parse(MANAGER), createResponse(new ByteArrayInputStream(content)));
+    assertEquals(0, cache.size());
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    InputStream entity = (InputStream) response.getEntity();
+    int b;
+    while ((b = entity.read()) != -1) {
+      out.write(b);
+    }
+    assertArrayEquals(content, out.toByteArray());
+  }
+
+  @Test
+  public void writeInvalidatesEntitySets() throws Exception {
+    ODataRequest request = createRequest(ODataHttpMethod.GET, MANAGER, Collections.<String, String> emptyMap());
+    String managerKey = cache.getKey(request, parse(MANAGER), HttpContentType.APPLICATION_JSON);
+    cache.put(managerKey, parse(MANAGER), createResponse("{}"));
+    String roomKey = cache.getKey(createRequest(ODataHttpMethod.GET, ROOM, Collections.<String, String> emptyMap()),
+        parse(ROOM), HttpContentType.APPLICATION_JSON);
+    cache.put(roomKey, parse(ROOM), createResponse("{}"));
+    assertEquals(2, cache.size());
+
+    cache.invalidate(ODataHttpMethod.GET, parse("Managers('1')"));
+    assertEquals(2, cache.size());
+    cache.invalidate(ODataHttpMethod.MERGE, parse("Managers('1')"));
+    assertNull(cache.get(managerKey, request));
+    assertNotNull(cache.get(roomKey, request));
+
+    cache.invalidate("Rooms");
+    assertEquals(0, cache.size());
+
+    cache.put(roomKey, parse(ROOM), createResponse("{}"));
+    assertEquals(new HashSet<String>(Arrays.asList("Rooms", "Employees", "Buildings")),
+        cache.getChangedEntitySets(ODataHttpMethod.POST, parse("Rooms")));
+    cache.invalidateAll();
+    assertEquals(0, cache.size());
+  }
+
+  @Test
+  public void expiredResponse() throws Exception {
+    ODataResponseCacheImpl shortLived = new ODataResponseCacheImpl(10, 1);
+    ODataRequest request = createRequest(ODataHttpMethod.GET, ROOM, Collections.<String, String> emptyMap());
+    String key = shortLived.getKey(request, parse(ROOM), HttpContentType.APPLICATION_JSON);
+    shortLived.put(key, parse(ROOM), createResponse("{}"));
+    Thread.sleep(10);
+    assertNull(shortLived.get(key, request));
+  }
+
+  @Test
+  public void oldestResponseIsDropped() throws Exception {
+    ODataResponseCacheImpl small = new ODataResponseCacheImpl(1, 60000);
+    ODataRequest request = createRequest(ODataHttpMethod.GET, ROOM, Collections.<String, String> emptyMap());
+    String key = small.getKey(request, parse(ROOM), HttpContentType.APPLICATION_JSON);
+    small.put(key, parse(ROOM), createResponse("{}"));
+    small.put(small.getKey(request, parse(ROOM), HttpContentType.APPLICATION_XML), parse(ROOM), createResponse("<a/>"));
+    assertEquals(1, small.size());
+    assertNull(small.get(key, request));
+  }
+
+  private static UriInfoImpl parse(final String path) throws Exception {
+    return (UriInfoImpl) new UriParserImpl(MockFacade.getMockEdm()).parseAll(
+        MockFacade.getPathSegmentsAsODataPathSegmentMock(Arrays.asList(path.split("/"))),
+        Collections.<String, List<String>> emptyMap());
+  }
+
+  private static ODataRequest createRequest(final ODataHttpMethod method, final String path,
+      final Map<String, String> headers) throws Exception {
+    PathInfoImpl pathInfo = new PathInfoImpl();
+    pathInfo.setServiceRoot(new URI("http://localhost/service/"));
+    pathInfo.setODataPathSegment(MockFacade.getPathSegmentsAsODataPathSegmentMock(Arrays.asList(path.split("/"))));
+    Map<String, List<String>> requestHeaders = new HashMap<String, List<String>>();
+    for (Map.Entry<String, String> header : headers.entrySet()) {
+      requestHeaders.put(header.getKey(), Collections.singletonList(header.getValue()));
+    }
+    return ODataRequest.method(method)
+        .pathInfo(pathInfo)
+        .requestHeaders(requestHeaders)
+        .allQueryParameters(Collections.singletonMap("$format", Collections.singletonList("json")))
+        .build();
+  }
+
+  private static ODataResponse createResponse(final Object entity) {
+    return ODataResponse.status(HttpStatusCodes.OK).contentHeader(HttpContentType.APPLICATION_JSON)
+        .entity(entity).build();
+  }
+
+  private static InputStream stream(final String content) {
+    return new ByteArrayInputStream(content.getBytes());
+  }
+
+  private static String read(final InputStream stream) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    int b;
+    while ((b = stream.read()) != -1) {
+      out.write(b);
+    }
+    return out.toString();
+  }
+}
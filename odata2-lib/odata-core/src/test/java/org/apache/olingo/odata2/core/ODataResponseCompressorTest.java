@@ -0,0 +1,146 @@
+/*******************************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ ******************************************************************************/
+package org.apache.olingo.odata2.core;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+import org.apache.olingo.odata2.api.commons.HttpHeaders;
+import org.apache.olingo.odata2.api.commons.HttpStatusCodes;
+import org.apache.olingo.odata2.api.processor.ODataResponse;
+import org.apache.olingo.odata2.core.commons.CompressingInputStream.Format;
+import org.apache.olingo.odata2.testutil.fit.BaseTest;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+public class ODataResponseCompressorTest extends BaseTest {
+
+  private static final String JSON = "application/json;charset=utf-8";
+
+  private final ODataResponseCompressor compressor = new ODataResponseCompressor(100, 6);
+
+  @Test
+  public void negotiate() {
+    assertNull(ODataResponseCompressor.negotiate(null));
+    assertNull(ODataResponseCompressor.negotiate("identity"));
+    assertNull(ODataResponseCompressor.negotiate("gzip;q=0, deflate;q=0"));
+    assertEquals(Format.GZIP, ODataResponseCompressor.negotiate("deflate, gzip"));
+    assertEquals(Format.GZIP, ODataResponseCompressor.negotiate("*"));
+    assertEquals(Format.DEFLATE, ODataResponseCompressor.negotiate("gzip;q=0.5, deflate"));
+    assertEquals(Format.DEFLATE, ODataResponseCompressor.negotiate("gzip;q=0, *"));
+  }
+
+  @Test
+  public void gzipStreamedEntity() throws Exception {
+    byte[] content = createContent(100000);
+    ODataResponse response = compressor.compress("gzip", ODataResponse.status(HttpStatusCodes.OK)
+        .contentHeader(JSON).header(HttpHeaders.CONTENT_LENGTH, String.valueOf(content.length))
+        .entity(new ByteArrayInputStream(content)).build());
+    assertEquals("gzip", response.getHeader(HttpHeaders.CONTENT_ENCODING));
+    assertEquals(HttpHeaders.ACCEPT_ENCODING, response.getHeader(HttpHeaders.VARY));
+    assertNull(response.getHeader(HttpHeaders.CONTENT_LENGTH));
+    assertArrayEquals(content, readAll(new GZIPInputStream((InputStream) response.getEntity())));
+  }
+
+  @Test
+  public void deflateStringEntity() throws Exception {
+    String content = new String(createContent(1000), "utf-8");
+    ODataResponse response = compressor.compress("deflate", ODataResponse.status(HttpStatusCodes.OK)
+        .contentHeader(JSON).header(HttpHeaders.VARY, "Accept").entity(content).build());
+    assertEquals("deflate", response.getHeader(HttpHeaders.CONTENT_ENCODING));
+    assertEquals("Accept, " + HttpHeaders.ACCEPT_ENCODING, response.getHeader(HttpHeaders.VARY));
+    assertEquals(content,
+        new String(readAll(new InflaterInputStream((InputStream) response.getEntity())), "utf-8"));
+  }
+
+  @Test
+  public void entityTagOfCompressedEntityIsWeak() throws Exception {
+    String content = new String(createContent(1000), "utf-8");
+    ODataResponse response = compressor.compress("gzip", ODataResponse.status(HttpStatusCodes.OK)
+        .contentHeader(JSON).eTag("\"17\"").entity(content).build());
+    assertEquals("W/\"17\"", response.getETag());
+    response = compressor.compress("gzip", ODataResponse.status(HttpStatusCodes.OK)
+        .contentHeader(JSON).eTag("W/\"17\"").entity(content).build());
+    assertEquals("W/\"17\"", response.getETag());
+    response = compressor.compress("gzip", ODataResponse.status(HttpStatusCodes.OK)
+        .contentHeader(JSON).eTag("\"17\"").entity(new String(createContent(99), "utf-8")).build());
+    assertEquals("\"17\"", response.getETag());
+  }
+
+  @Test
+  public void smallEntityIsNotCompressed() throws Exception {
+    byte[] content = createContent(99);
+    ODataResponse response = compressor.compress("gzip", ODataResponse.status(HttpStatusCodes.OK)
+        .contentHeader(JSON).entity(new ByteArrayInputStream(content)).build());
+    assertNull(response.getHeader(HttpHeaders.CONTENT_ENCODING));
+    assertArrayEquals(content, readAll((InputStream) response.getEntity()));
+  }
+
+  @Test
+  public void compressedMediaTypeIsNotCompressed() throws Exception {
+    ODataResponse image = ODataResponse.status(HttpStatusCodes.OK).contentHeader("image/png")
+        .entity(new ByteArrayInputStream(createContent(1000))).build();
+    assertSame(image, compressor.compress("gzip", image));
+    ODataResponse encoded = ODataResponse.status(HttpStatusCodes.OK).contentHeader(JSON)
+        .header(HttpHeaders.CONTENT_ENCODING, "br").entity(new String(createContent(1000), "utf-8")).build();
+    assertSame(encoded, compressor.compress("gzip", encoded));
+  }
+
+  @Test
+  public void streamIsClosedIfReadAheadFails() throws Exception {
+    InputStream stream = Mockito.mock(InputStream.class);
+    Mockito.when(stream.read(Mockito.any(byte[].class), Mockito.anyInt(), Mockito.anyInt()))
+        .thenThrow(new IOException("read failed"));
+    try {
+      compressor.compress("gzip", ODataResponse.status(HttpStatusCodes.OK).contentHeader(JSON).entity(stream).build());
+      fail("Expected IOException");
+    } catch (IOException e) {
+      Mockito.verify(stream).close();
+    }
+  }
+
+  private static byte[] createContent(final int length) {
+    byte[] content = new byte[length];
+    for (int i = 0; i < length; i++) {
+      content[i] = (byte) ('a' + i % 7 + i / 1000 % 5);
+    }
+    return content;
+  }
+
+  private static byte[] readAll(final InputStream stream) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    byte[] buffer = new byte[333];
+    int read;
+    while ((read = stream.read(buffer)) != -1) {
+      out.write(buffer, 0, read);
+    }
+    stream.close();
+    return out.toByteArray();
+  }
+}
@@ -0,0 +1,215 @@
+/*******************************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ ******************************************************************************/
+package org.apache.olingo.odata2.core.batch;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.util.List;
+
+import org.apache.olingo.odata2.api.batch.BatchException;
+import org.apache.olingo.odata2.core.batch.v2.BatchLineReader;
+import org.apache.olingo.odata2.core.batch.v2.BatchParser;
+import org.apache.olingo.odata2.core.batch.v2.Line;
+import org.apache.olingo.odata2.testutil.helper.StringHelper;
+import org.junit.Test;
+
+public class BatchMemoryBudgetTest {
+
+  private static final Charset ISO = Charset.forName("ISO-8859-1");
+
+  @Test
+  public void requestLimit() {
+    BatchMemoryBudget budget = new BatchMemoryBudget(100, BatchMemoryBudget.UNLIMITED);
+    assertTrue(budget.reserve(60));
+    assertFalse(budget.reserve(60));
+    assertTrue(budget.reserve(40));
+    assertEquals(100, budget.getReserved());
+    budget.release();
+    assertEquals(0, budget.getReserved());
+  }
+
+  @Test
+  public void processLimitIsShared() {
+    long buffered = BatchMemoryBudget.getBufferedBytes();
+    BatchMemoryBudget first = new BatchMemoryBudget(BatchMemoryBudget.UNLIMITED, buffered + 100);
+    BatchMemoryBudget second = new BatchMemoryBudget(BatchMemoryBudget.UNLIMITED, buffered + 100);
+    assertTrue(first.reserve(80));
+    assertEquals(buffered + 80, BatchMemoryBudget.getBufferedBytes());
+    assertFalse(second.reserve(80));
+    first.release();
+    assertTrue(second.reserve(80));
+    second.release();
+    assertEquals(buffered, BatchMemoryBudget.getBufferedBytes());
+  }
+
+  @Test
+  public void bodyBuilderInMemory() throws Exception {
+    BatchMemoryBudget budget = new BatchMemoryBudget(16384, BatchMemoryBudget.UNLIMITED);
+    BatchHelper.BodyBuilder builder = new BatchHelper.BodyBuilder(budget);
+    builder.append("Walter").append(" ").append("Winter");
+    assertEquals(BatchHelper.BodyBuilder.DEFAULT_SIZE, budget.getReserved());
+
+    assertEquals("Walter Winter", StringHelper.inputStreamToString(builder.getContentAsStream()));
+    assertEquals(0, budget.getReserved());
+    assertEquals("Walter Winter", builder.getContentAsString(ISO));
+    assertEquals("Walter Winter", StringHelper.inputStreamToString(builder.getContentAsStream()));
+  }
+
+  @Test
+  public void bodyBuilderSpillsWhenBudgetIsExceeded() throws Exception {
+    BatchMemoryBudget.resetStatistics();
+    BatchMemoryBudget budget = new BatchMemoryBudget(1024, BatchMemoryBudget.UNLIMITED);
+    BatchHelper.BodyBuilder builder = new BatchHelper.BodyBuilder(budget);
+    StringBuilder expected = new StringBuilder();
+    for (int i = 0; i < 100; i++) {
+      String line = "line number " + i + "\r\n";
+      builder.append(line);
+      expected.append(line);
+    }
+
+    assertEquals(0, budget.getReserved());
+    assertEquals(1, BatchMemoryBudget.getSpillCount());
+    assertEquals(expected.length(), BatchMemoryBudget.getSpilledBytes());
+    assertEquals(expected.length(), builder.getLength());
+    assertEquals(expected.toString(), builder.getContentAsString(ISO));
+  }
+
+  @Test
+  public void closeReleasesUnconsumedBodyBuilder() throws Exception {
+    long buffered = BatchMemoryBudget.getBufferedBytes();
+    BatchMemoryBudget budget = new BatchMemoryBudget(16384, BatchMemoryBudget.UNLIMITED);
+    BatchHelper.BodyBuilder builder = new BatchHelper.BodyBuilder(budget);
+    builder.append("Walter Winter");
+    assertEquals(buffered + BatchHelper.BodyBuilder.DEFAULT_SIZE, BatchMemoryBudget.getBufferedBytes());
+    builder.close();
+    assertEquals(0, budget.getReserved());
+    assertEquals(buffered, BatchMemoryBudget.getBufferedBytes());
+
+    budget = new BatchMemoryBudget(16384, BatchMemoryBudget.UNLIMITED);
+    builder = new BatchHelper.BodyBuilder(budget);
+    builder.append("Walter Winter");
+    InputStream content = builder.getContentAsStream();
+    builder.close();
+    assertEquals("Walter Winter", StringHelper.inputStreamToString(content));
+    assertEquals(buffered, BatchMemoryBudget.getBufferedBytes());
+  }
+
+  @Test
+  public void closeDeletesUnconsumedTemporaryFile() throws Exception {
+    BatchMemoryBudget budget = new BatchMemoryBudget(1024, BatchMemoryBudget.UNLIMITED);
+    final File[] tempFile = new File[1];
+    BatchHelper.BodyBuilder builder = new BatchHelper.BodyBuilder(budget) {
+      @Override
+      File createTempFile() {
+        tempFile[0] = super.createTempFile();
+        return tempFile[0];
+      }
+    };
+    for (int i = 0; i < 100; i++) {
+      builder.append("line number " + i + "\r\n");
+    }
+    assertTrue(tempFile[0].exists());
+    builder.close();
+    assertFalse(tempFile[0].exists());
+  }
+
+  @Test
+  public void parserRespectsBudget() throws Exception {
+    InputStream in = new ByteArrayInputStream("--batch\r\nContent-Type: application/http\r\n\r\n".getBytes(ISO));
+    BatchLineReader reader = new BatchLineReader(in);
+    BatchMemoryBudget budget =
+        new BatchMemoryBudget(BatchMemoryBudget.UNLIMITED, BatchMemoryBudget.getBufferedBytes() + 30);
+    try {
+      reader.toLineList(budget);
+      fail("Expected BatchException");
+    } catch (BatchException e) {
+      assertEquals(BatchException.MEMORY_LIMIT_EXCEEDED.getKey(), e.getMessageReference().getKey());
+    } finally {
+      reader.close();
+      budget.release();
+    }
+
+    // lines can not be spilled, so the request limit does not refuse them
+    in = new ByteArrayInputStream("--batch\r\nContent-Type: application/http\r\n\r\n".getBytes(ISO));
+    reader = new BatchLineReader(in);
+    budget = new BatchMemoryBudget(30, BatchMemoryBudget.UNLIMITED);
+    List<Line> lines = reader.toLineList(budget);
+    reader.close();
+    assertEquals(3, lines.size());
+    assertTrue(budget.getReserved() > 30);
+    assertFalse(budget.reserve(1));
+    budget.release();
+  }
+
+  @Test
+  public void requestBudgetIsShared() throws Exception {
+    long buffered = BatchMemoryBudget.getBufferedBytes();
+    BatchMemoryBudget budget = BatchMemoryBudget.begin();
+    try {
+      assertEquals(budget, BatchMemoryBudget.getRequestBudget());
+      assertEquals(budget, BatchMemoryBudget.forRequest());
+
+      // parsed parts stay reserved until the request has ended
+      String batch = "--batch\r\nContent-Type: application/http\r\nContent-Transfer-Encoding: binary\r\n\r\n"
+          + "HTTP/1.1 200 OK\r\nContent-Type: text/plain\r\n\r\nWalter Winter\r\n--batch--";
+      new BatchParser("multipart/mixed;boundary=batch", true).parseBatchResponse(
+          new ByteArrayInputStream(batch.getBytes(ISO)));
+      long parsed = budget.getReserved();
+      assertTrue(parsed > 0);
+
+      // bodies built for the request release their own reservation only
+      BatchHelper.BodyBuilder first = new BatchHelper.BodyBuilder();
+      BatchHelper.BodyBuilder second = new BatchHelper.BodyBuilder();
+      assertEquals(parsed + 2 * BatchHelper.BodyBuilder.DEFAULT_SIZE, budget.getReserved());
+      first.append("Walter Winter");
+      assertEquals("Walter Winter", first.getContentAsString(ISO));
+      second.close();
+      assertEquals(parsed, budget.getReserved());
+    } finally {
+      budget.end();
+    }
+    assertEquals(0, budget.getReserved());
+    assertEquals(buffered, BatchMemoryBudget.getBufferedBytes());
+    assertNull(BatchMemoryBudget.getRequestBudget());
+  }
+
+  @Test
+  public void bodyBuildersShareRequestLimit() throws Exception {
+    BatchMemoryBudget budget = new BatchMemoryBudget(3 * BatchHelper.BodyBuilder.DEFAULT_SIZE,
+        BatchMemoryBudget.UNLIMITED);
+    BatchHelper.BodyBuilder first = new BatchHelper.BodyBuilder(budget);
+    BatchHelper.BodyBuilder second = new BatchHelper.BodyBuilder(budget);
+    assertEquals(2 * BatchHelper.BodyBuilder.DEFAULT_SIZE, budget.getReserved());
+
+    // the first builder can not grow beyond what the second one left of the request limit
+    first.append(StringHelper.generateData(2 * BatchHelper.BodyBuilder.DEFAULT_SIZE));
+    assertEquals(BatchHelper.BodyBuilder.DEFAULT_SIZE, budget.getReserved());
+    first.close();
+    second.close();
+    assertEquals(0, budget.getReserved());
+  }
+}
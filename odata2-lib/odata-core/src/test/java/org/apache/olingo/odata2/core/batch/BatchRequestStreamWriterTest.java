@@ -0,0 +1,134 @@
+/*******************************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ ******************************************************************************/
+package org.apache.olingo.odata2.core.batch;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.olingo.odata2.api.client.batch.BatchChangeSetPart;
+import org.apache.olingo.odata2.api.client.batch.BatchInputResource;
+import org.apache.olingo.odata2.api.client.batch.BatchQueryPart;
+import org.apache.olingo.odata2.api.client.batch.BatchRequestStreamWriter;
+import org.apache.olingo.odata2.core.batch.v2.BatchLineReader;
+import org.apache.olingo.odata2.core.batch.v2.Line;
+import org.junit.Test;
+
+public class BatchRequestStreamWriterTest {
+
+  private static final String BOUNDARY = "batch_123";
+  private static final String CRLF = "\r\n";
+
+  @Test
+  public void partsAreWrittenWhenAppended() throws Exception {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    BatchRequestStreamWriter writer = new BatchRequestStreamWriterImpl(out, BOUNDARY);
+
+    Map<String, String> headers = new HashMap<String, String>();
+    headers.put("Accept", "application/json");
+    writer.append(BatchQueryPart.method("GET").uri("Employees").headers(headers).build());
+    int afterQueryPart = out.size();
+    assertTrue(afterQueryPart > 0);
+
+    writer.beginChangeSet();
+    for (int i = 0; i < 3; i++) {
+      writer.appendChangeSetPart(BatchChangeSetPart.method("PUT").uri("Employees('" + i + "')")
+          .body("{\"Age\":4" + i + "}").headers(new HashMap<String, String>()).build());
+      assertTrue(out.size() > afterQueryPart);
+    }
+    writer.endChangeSet();
+    writer.close();
+
+    List<Line> lines = readLines(out);
+    int index = 0;
+    assertEquals("--" + BOUNDARY + CRLF, lines.get(index++).toString());
+    assertEquals("Content-Type: application/http" + CRLF, lines.get(index++).toString());
+    assertEquals("Content-Transfer-Encoding: binary" + CRLF, lines.get(index++).toString());
+    assertEquals(CRLF, lines.get(index++).toString());
+    assertEquals("GET Employees HTTP/1.1" + CRLF, lines.get(index++).toString());
+    assertEquals("Accept: application/json" + CRLF, lines.get(index++).toString());
+    assertEquals(CRLF, lines.get(index++).toString());
+    assertEquals(CRLF, lines.get(index++).toString());
+    assertEquals("--" + BOUNDARY + CRLF, lines.get(index++).toString());
+    assertTrue(lines.get(index++).toString().startsWith("Content-Type: multipart/mixed; boundary=changeset_"));
+    assertEquals(CRLF, lines.get(index++).toString());
+    for (int i = 0; i < 3; i++) {
+      assertTrue(lines.get(index++).toString().startsWith("--changeset"));
+      assertEquals("Content-Type: application/http" + CRLF, lines.get(index++).toString());
+      assertEquals("Content-Transfer-Encoding: binary" + CRLF, lines.get(index++).toString());
+      assertEquals(CRLF, lines.get(index++).toString());
+      assertEquals("PUT Employees('" + i + "') HTTP/1.1" + CRLF, lines.get(index++).toString());
+      assertEquals("Content-Length: 10" + CRLF, lines.get(index++).toString());
+      assertEquals(CRLF, lines.get(index++).toString());
+      assertEquals("{\"Age\":4" + i + "}" + CRLF, lines.get(index++).toString());
+    }
+    assertTrue(lines.get(index++).toString().startsWith("--changeset"));
+    assertEquals("--" + BOUNDARY + "--", lines.get(index++).toString());
+    assertEquals(index, lines.size());
+  }
+
+  @Test
+  public void contentOfUnknownSize() throws Exception {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    BatchRequestStreamWriter writer = new BatchRequestStreamWriterImpl(out, BOUNDARY);
+    byte[] content = "{\"Age\":40}".getBytes("UTF-8");
+    writer.beginChangeSet()
+        .appendChangeSetPart(BatchChangeSetPart.method("POST").uri("Employees")
+            .body(new BatchInputResource(new ByteArrayInputStream(content), -1))
+            .headers(new HashMap<String, String>()).build())
+        .endChangeSet()
+        .close();
+
+    List<Line> lines = readLines(out);
+    assertEquals("POST Employees HTTP/1.1" + CRLF, lines.get(7).toString());
+    assertEquals(CRLF, lines.get(8).toString());
+    assertEquals("{\"Age\":40}" + CRLF, lines.get(9).toString());
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void closeWithOpenChangeSet() throws Exception {
+    BatchRequestStreamWriter writer = new BatchRequestStreamWriterImpl(new ByteArrayOutputStream(), BOUNDARY);
+    writer.beginChangeSet();
+    writer.close();
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void changeSetPartWithoutChangeSet() throws Exception {
+    BatchRequestStreamWriter writer = new BatchRequestStreamWriterImpl(new ByteArrayOutputStream(), BOUNDARY);
+    writer.appendChangeSetPart(BatchChangeSetPart.method("PUT").uri("Employees('1')").body("{}")
+        .headers(new HashMap<String, String>()).build());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void invalidBoundary() throws Exception {
+    new BatchRequestStreamWriterImpl(new ByteArrayOutputStream(), "wrong:boundary");
+  }
+
+  private List<Line> readLines(final ByteArrayOutputStream out) throws Exception {
+    BatchLineReader reader = new BatchLineReader(new ByteArrayInputStream(out.toByteArray()));
+    List<Line> lines = reader.toLineList();
+    reader.close();
+    return lines;
+  }
+}
@@ -0,0 +1,119 @@
+/*******************************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ ******************************************************************************/
+package org.apache.olingo.odata2.core.commons;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import org.apache.olingo.odata2.api.ODataServiceFactory;
+import org.apache.olingo.odata2.api.edm.EdmEntitySet;
+import org.apache.olingo.odata2.api.metrics.ODataHistogram;
+import org.apache.olingo.odata2.api.metrics.ODataInMemoryMetrics;
+import org.apache.olingo.odata2.api.metrics.ODataMetric;
+import org.apache.olingo.odata2.api.metrics.ODataMetrics;
+import org.apache.olingo.odata2.api.rt.RuntimeDelegate;
+import org.apache.olingo.odata2.core.metrics.ODataRequestMetrics;
+import org.apache.olingo.odata2.core.uri.UriInfoImpl;
+import org.apache.olingo.odata2.core.uri.UriType;
+import org.apache.olingo.odata2.testutil.fit.BaseTest;
+import org.junit.Test;
+
+public class ByteArrayPoolTest extends BaseTest {
+
+  @Test
+  public void sizesAreRoundedToSizeClasses() {
+    byte[] small = ByteArrayPool.acquire(1);
+    byte[] medium = ByteArrayPool.acquire(ByteArrayPool.MIN_SIZE + 1);
+    byte[] large = ByteArrayPool.acquire(ByteArrayPool.MAX_SIZE + 1);
+    assertEquals(ByteArrayPool.MIN_SIZE, small.length);
+    assertEquals(2 * ByteArrayPool.MIN_SIZE, medium.length);
+    assertEquals(ByteArrayPool.MAX_SIZE + 1, large.length);
+    ByteArrayPool.release(small);
+    ByteArrayPool.release(medium);
+    ByteArrayPool.release(large);
+  }
+
+  @Test
+  public void releasedArrayIsReused() {
+    byte[] array = ByteArrayPool.acquire(ByteArrayPool.MAX_SIZE);
+    ByteArrayPool.release(array);
+    long hits = ByteArrayPool.getHits();
+    byte[] reused = ByteArrayPool.acquire(ByteArrayPool.MAX_SIZE);
+    assertTrue(ByteArrayPool.getHits() > hits);
+    assertEquals(ByteArrayPool.MAX_SIZE, reused.length);
+    ByteArrayPool.release(reused);
+  }
+
+  @Test
+  public void foreignArraysAreNotPooled() {
+    byte[] foreign = new byte[ByteArrayPool.MIN_SIZE + 1];
+    ByteArrayPool.release(foreign);
+    ByteArrayPool.release(null);
+    long misses = ByteArrayPool.getMisses();
+    byte[] array = ByteArrayPool.acquire(ByteArrayPool.MAX_SIZE + 1);
+    assertNotSame(foreign, array);
+    assertTrue(ByteArrayPool.getMisses() > misses);
+
+    foreign = new byte[ByteArrayPool.MAX_SIZE];
+    ByteArrayPool.release(foreign);
+    for (int i = 0; i < ByteArrayPool.MAX_POOLED_BYTES_PER_CLASS / ByteArrayPool.MAX_SIZE + 1; i++) {
+      assertNotSame(foreign, ByteArrayPool.acquire(ByteArrayPool.MAX_SIZE));
+    }
+  }
+
+  @Test
+  public void arrayIsTakenBackOnlyOnce() {
+    byte[] array = ByteArrayPool.acquire(ByteArrayPool.MAX_SIZE);
+    ByteArrayPool.release(array);
+    ByteArrayPool.release(array);
+    byte[] first = ByteArrayPool.acquire(ByteArrayPool.MAX_SIZE);
+    byte[] second = ByteArrayPool.acquire(ByteArrayPool.MAX_SIZE);
+    assertNotSame(first, second);
+    ByteArrayPool.release(first);
+    ByteArrayPool.release(second);
+  }
+
+  @Test
+  public void hitsAndMissesAreRecorded() throws Exception {
+    ODataInMemoryMetrics inMemoryMetrics = RuntimeDelegate.createInMemoryMetrics();
+    ODataServiceFactory serviceFactory = mock(ODataServiceFactory.class);
+    when(serviceFactory.getCallback(ODataMetrics.class)).thenReturn(inMemoryMetrics);
+    ODataRequestMetrics requestMetrics = ODataRequestMetrics.create(serviceFactory);
+    EdmEntitySet entitySet = mock(EdmEntitySet.class);
+    when(entitySet.getName()).thenReturn("Employees");
+    UriInfoImpl uriInfo = mock(UriInfoImpl.class);
+    when(uriInfo.getUriType()).thenReturn(UriType.URI1);
+    when(uriInfo.getTargetEntitySet()).thenReturn(entitySet);
+    requestMetrics.setTarget(uriInfo);
+
+    requestMetrics.recordBufferPool();
+    ByteArrayPool.release(ByteArrayPool.acquire(ByteArrayPool.MAX_SIZE + 1));
+    requestMetrics.recordBufferPool();
+    ODataHistogram misses = inMemoryMetrics.getHistogramByEntitySet(ODataMetric.BUFFER_POOL_MISSES, "");
+    assertEquals(2, misses.getCount());
+    assertTrue(misses.getMax() >= 1);
+    assertEquals(2, inMemoryMetrics.getHistogramByEntitySet(ODataMetric.BUFFER_POOL_HITS, "").getCount());
+    assertNull(inMemoryMetrics.getHistogramByEntitySet(ODataMetric.BUFFER_POOL_HITS, "Employees"));
+    assertNull(inMemoryMetrics.getHistogramByUriType(ODataMetric.BUFFER_POOL_HITS, "URI1"));
+  }
+}
@@ -0,0 +1,151 @@
+/*******************************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ ******************************************************************************/
+package org.apache.olingo.odata2.core.ep.consumer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+import java.io.InputStreamReader;
+import java.util.Calendar;
+import java.util.Map;
+
+import org.apache.olingo.odata2.api.edm.EdmEntitySet;
+import org.apache.olingo.odata2.api.ep.EntityProviderException;
+import org.apache.olingo.odata2.api.ep.EntityProviderReadProperties;
+import org.apache.olingo.odata2.api.ep.entry.ODataEntry;
+import org.apache.olingo.odata2.core.ep.aggregator.EntityInfoAggregator;
+import org.apache.olingo.odata2.testutil.mock.MockFacade;
+import org.junit.Test;
+
+import com.google.gson.stream.JsonReader;
+
+public class JsonByteEntryConsumerTest extends AbstractConsumerTest {
+
+  @Test
+  public void readsEntriesLikeJsonEntryConsumer() throws Exception {
+    assertSameEntry("JsonEmployee.json", "Employees", DEFAULT_PROPERTIES);
+    assertSameEntry("JsonEmployeeContentOnly.json", "Employees", DEFAULT_PROPERTIES);
+    assertSameEntry("JsonEmployeeContentOnlyWithAdditionalLink.json", "Employees", DEFAULT_PROPERTIES);
+    assertSameEntry("JsonRoom.json", "Rooms", DEFAULT_PROPERTIES);
+    assertSameEntry("JsonRoomContentOnly.json", "Rooms", DEFAULT_PROPERTIES);
+    assertSameEntry("JsonBuilding.json", "Buildings", DEFAULT_PROPERTIES);
+    assertSameEntry("JsonBuildingWithoutD.json", "Buildings", DEFAULT_PROPERTIES);
+    assertSameEntry("JsonTeam.json", "Teams", DEFAULT_PROPERTIES);
+  }
+
+  @Test
+  public void readsEntryWithTypeMappings() throws Exception {
+    final EntityProviderReadProperties readProperties = EntityProviderReadProperties.init()
+        .addTypeMappings(createTypeMappings("Age", Long.class, "EntryDate", Long.class)).build();
+    final ODataEntry entry = assertSameEntry("JsonEmployee.json", "Employees", readProperties);
+    assertEquals(Long.valueOf(52), entry.getProperties().get("Age"));
+    assertEquals(Long.valueOf(915148800000L), entry.getProperties().get("EntryDate"));
+  }
+
+  @Test
+  public void readsValues() throws Exception {
+    final ODataEntry entry = read("{\"d\":{\"EmployeeId\":\"1\",\"Age\":-7,"
+        + "\"EmployeeName\":\"Stra\u00dfe \\\"\\u20ac\\\" \ud83d\ude00\\n\","
+        + "\"EntryDate\":\"/Date(-86400000)/\",\"Location\":null,\"ne_Manager\":null}}", "Employees");
+    assertNotNull(entry);
+    final Map<String, Object> properties = entry.getProperties();
+    assertEquals(5, properties.size());
+    assertEquals(Integer.valueOf(-7), properties.get("Age"));
+    assertEquals("Stra\u00dfe \"\u20ac\" \ud83d\ude00\n", properties.get("EmployeeName"));
+    assertEquals(-86400000L, ((Calendar) properties.get("EntryDate")).getTimeInMillis());
+    assertNull(properties.get("Location"));
+  }
+
+  @Test
+  public void leavesUnsupportedContent() throws Exception {
+    assertNull(read(readFile("JsonEmployeeWithInlineTeam.json"), "Employees"));
+    assertNull(read(readFile("JsonInvalidTeamDoubleNameProperty.json"), "Teams"));
+    assertNull(read("{\"d\":{\"Id\":\"1\",\"Seats\":40000}}", "Rooms"));
+    assertNull(read("{\"d\":{\"Id\":\"1\",\"Seats\":1.5}}", "Rooms"));
+    assertNull(read("{\"d\":{\"Id\":\"1\",\"Seats\":\"1\"}}", "Rooms"));
+    assertNull(read("{\"d\":{\"Id\":\"1\",\"Unknown\":\"1\"}}", "Rooms"));
+    assertNull(read("{\"d\":{\"Id\":\"1\"}} {}", "Rooms"));
+    assertNull(read("{\"d\":{\"Id\":\"1\",\"Name\":\"\\x\"}}", "Rooms"));
+    assertNull(read("{\"d\":{\"Id\":\"1\",\"nr_Employees\":[{\"EmployeeId\":\"1\"}]}}", "Rooms"));
+  }
+
+  @Test
+  public void readsBracketsInStrings() throws Exception {
+    final ODataEntry entry = read("{\"d\":{\"Id\":\"1\",\"Name\":\"[\\\"Room\\\"] [1]\"}}", "Rooms");
+    assertNotNull(entry);
+    assertEquals("[\"Room\"] [1]", entry.getProperties().get("Name"));
+    // the property plans of the entity type are reused
+    assertEquals("1", read("{\"d\":{\"Id\":\"1\"}}", "Rooms").getProperties().get("Id"));
+  }
+
+  @Test
+  public void entityConsumerReadsLeftContent() throws Exception {
+    final EdmEntitySet entitySet = MockFacade.getMockEdm().getDefaultEntityContainer().getEntitySet("Rooms");
+    try {
+      new JsonEntityConsumer().readEntry(entitySet,
+          createContentAsStream("{\"d\":{\"Id\":\"1\",\"Seats\":40000}}"), DEFAULT_PROPERTIES);
+      fail("Exception has to be thrown");
+    } catch (EntityProviderException e) {
+      assertEquals(EntityProviderException.EXCEPTION_OCCURRED.getKey(), e.getMessageReference().getKey());
+    }
+
+    StringBuilder name = new StringBuilder();
+    while (name.length() <= JsonEntityConsumer.BYTE_ENTRY_SIZE) {
+      name.append("Room ");
+    }
+    final ODataEntry entry = new JsonEntityConsumer().readEntry(entitySet,
+        createContentAsStream("{\"d\":{\"Id\":\"1\",\"Name\":\"" + name + "\"}}"), DEFAULT_PROPERTIES);
+    assertEquals(name.toString(), entry.getProperties().get("Name"));
+  }
+
+  private ODataEntry read(final String content, final String entitySetName) throws Exception {
+    final EdmEntitySet entitySet = MockFacade.getMockEdm().getDefaultEntityContainer().getEntitySet(entitySetName);
+    final byte[] data = content.getBytes("UTF-8");
+    return new JsonByteEntryConsumer(data, data.length, EntityInfoAggregator.create(entitySet), DEFAULT_PROPERTIES)
+        .readEntry();
+  }
+
+  private ODataEntry assertSameEntry(final String fileName, final String entitySetName,
+      final EntityProviderReadProperties readProperties) throws Exception {
+    final EdmEntitySet entitySet = MockFacade.getMockEdm().getDefaultEntityContainer().getEntitySet(entitySetName);
+    final EntityInfoAggregator eia = EntityInfoAggregator.create(entitySet);
+    final byte[] data = readFile(fileName).getBytes("UTF-8");
+
+    final ODataEntry entry = new JsonByteEntryConsumer(data, data.length, eia, readProperties).readEntry();
+    final ODataEntry expected = new JsonEntryConsumer(
+        new JsonReader(new InputStreamReader(createContentAsStream(readFile(fileName)), "UTF-8")),
+        eia, readProperties).readSingleEntry();
+
+    assertNotNull(entry);
+    assertEquals(expected.getProperties(), entry.getProperties());
+    assertEquals(expected.getMetadata().getId(), entry.getMetadata().getId());
+    assertEquals(expected.getMetadata().getUri(), entry.getMetadata().getUri());
+    assertEquals(expected.getMetadata().getEtag(), entry.getMetadata().getEtag());
+    for (final String navigationPropertyName : eia.getNavigationPropertyNames()) {
+      assertEquals(expected.getMetadata().getAssociationUris(navigationPropertyName),
+          entry.getMetadata().getAssociationUris(navigationPropertyName));
+    }
+    assertEquals(expected.getMediaMetadata().getSourceLink(), entry.getMediaMetadata().getSourceLink());
+    assertEquals(expected.getMediaMetadata().getEditLink(), entry.getMediaMetadata().getEditLink());
+    assertEquals(expected.getMediaMetadata().getContentType(), entry.getMediaMetadata().getContentType());
+    return entry;
+  }
+}
@@ -21,8 +21,10 @@ package org.apache.olingo.odata2.core.ep.consumer;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 
 import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -32,6 +34,7 @@ import org.apache.olingo.odata2.api.edm.EdmException;
 import org.apache.olingo.odata2.api.edm.EdmNavigationProperty;
 import org.apache.olingo.odata2.api.ep.EntityProviderReadProperties;
 import org.apache.olingo.odata2.api.ep.callback.OnReadInlineContent;
+import org.apache.olingo.odata2.api.ep.callback.OnReadInlineFeedEntry;
 import org.apache.olingo.odata2.api.ep.callback.ReadEntryResult;
 import org.apache.olingo.odata2.api.ep.callback.ReadFeedResult;
 import org.apache.olingo.odata2.api.ep.entry.ODataEntry;
@@ -220,6 +223,71 @@ public class JsonEntryDeepInsertFeedTest extends AbstractConsumerTest {
     assertEquals(3, employees.size());
   }
 
+  @Test
+  public void innerFeedWithEntryCallback() throws Exception {
+    EntryCallback callback = new EntryCallback();
+    EntityProviderReadProperties readProperties =
+        EntityProviderReadProperties.init().mergeSemantic(false).callback(callback).build();
+    ODataEntry outerEntry =
+        prepareAndExecuteEntry(BUILDING_WITH_INLINE_ROOMS_NEXTLINK_AND_COUNT, "Buildings", readProperties);
+    assertNull(outerEntry.getProperties().get("nb_Rooms"));
+
+    assertEquals(1, callback.entries.size());
+    assertEquals("Room 1", callback.entries.get(0).getProperties().get("Name"));
+    assertEquals("nb_Rooms", callback.navigationPropertyName);
+    assertEquals(outerEntry.getMetadata().getId(), callback.parentEntryId);
+
+    // the feed handed over at the end carries only the feed metadata
+    assertTrue(callback.feed.getEntries().isEmpty());
+    assertEquals(Integer.valueOf(1), callback.feed.getFeedMetadata().getInlineCount());
+    assertEquals("nextLink", callback.feed.getFeedMetadata().getNextLink());
+  }
+
+  @Test
+  public void innerFeedWithoutResultsWrapperWithEntryCallback() throws Exception {
+    EntryCallback callback = new EntryCallback();
+    EntityProviderReadProperties readProperties =
+        EntityProviderReadProperties.init().mergeSemantic(false).callback(callback).build();
+    prepareAndExecuteEntry(BUILDING_WITH_INLINE_ROOMS_CLIENT_CASE, "Buildings", readProperties);
+
+    assertEquals(1, callback.entries.size());
+    assertTrue(callback.feed.getEntries().isEmpty());
+  }
+
+  private class EntryCallback implements OnReadInlineFeedEntry {
+    private List<ODataEntry> entries = new ArrayList<ODataEntry>();
+    private ODataFeed feed;
+    private String navigationPropertyName;
+    private String parentEntryId;
+
+    @Override
+    public void handleReadFeedEntry(final ReadEntryResult context) {
+      entries.add(context.getResult());
+      parentEntryId = context.getParentEntryId();
+      try {
+        navigationPropertyName = context.getNavigationProperty().getName();
+      } catch (EdmException e) {
+        throw new RuntimeException("Invalid title");
+      }
+    }
+
+    @Override
+    public void handleReadEntry(final ReadEntryResult context) {
+      throw new ODataRuntimeException("No entry expected");
+    }
+
+    @Override
+    public void handleReadFeed(final ReadFeedResult context) {
+      feed = context.getResult();
+    }
+
+    @Override
+    public EntityProviderReadProperties receiveReadProperties(final EntityProviderReadProperties readProperties,
+        final EdmNavigationProperty navString) {
+      return EntityProviderReadProperties.init().mergeSemantic(false).build();
+    }
+  }
+
   private class FeedCallback implements OnReadInlineContent {
     private ODataFeed feed;
     private FeedCallback innerCallback;
@@ -25,6 +25,7 @@ import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.Date;
 import java.util.HashMap;
@@ -45,6 +46,7 @@ import org.apache.olingo.odata2.api.edm.EdmProperty;
 import org.apache.olingo.odata2.api.ep.EntityProviderException;
 import org.apache.olingo.odata2.api.ep.EntityProviderReadProperties;
 import org.apache.olingo.odata2.api.ep.callback.OnReadInlineContent;
+import org.apache.olingo.odata2.api.ep.callback.OnReadInlineFeedEntry;
 import org.apache.olingo.odata2.api.ep.callback.ReadEntryResult;
 import org.apache.olingo.odata2.api.ep.callback.ReadFeedResult;
 import org.apache.olingo.odata2.api.ep.callback.ReadResult;
@@ -383,6 +385,34 @@ public class XmlEntityConsumerTest extends AbstractXmlConsumerTest {
     }
   }
 
+  private static class EmployeeEntryCallback implements OnReadInlineFeedEntry {
+    List<ODataEntry> employees = new ArrayList<ODataEntry>();
+    ODataFeed feed;
+    String parentEntryId;
+
+    @Override
+    public void handleReadFeedEntry(final ReadEntryResult context) {
+      employees.add(context.getResult());
+      parentEntryId = context.getParentEntryId();
+    }
+
+    @Override
+    public void handleReadEntry(final ReadEntryResult context) {
+      throw new RuntimeException("No entry expected");
+    }
+
+    @Override
+    public void handleReadFeed(final ReadFeedResult context) {
+      feed = context.getResult();
+    }
+
+    @Override
+    public EntityProviderReadProperties receiveReadProperties(final EntityProviderReadProperties readProperties,
+        final EdmNavigationProperty navString) {
+      return EntityProviderReadProperties.initFrom(readProperties).build();
+    }
+  }
+
   private static class DefaultCallback implements OnReadInlineContent {
     private final Map<String, ReadResult> propName2Context = new HashMap<String, ReadResult>();
 
@@ -573,6 +603,73 @@ public class XmlEntityConsumerTest extends AbstractXmlConsumerTest {
     assertEquals("Walldorf", emp2City.get("CityName"));
   }
 
+  /** Teams('1')?$expand=nt_Employees with entries of the inline feed handed over one at a time */
+  @Test
+  public void readWithInlineContentAndEntryCallback() throws Exception {
+    String content = readFile("expanded_team.xml");
+    EdmEntitySet entitySet = MockFacade.getMockEdm().getDefaultEntityContainer().getEntitySet("Teams");
+    InputStream reqContent = createContentAsStream(content);
+
+    XmlEntityConsumer xec = new XmlEntityConsumer();
+    EmployeeEntryCallback callback = new EmployeeEntryCallback();
+    EntityProviderReadProperties consumerProperties = EntityProviderReadProperties.init()
+        .mergeSemantic(false)
+        .callback(callback)
+        .build();
+
+    ODataEntry entry = xec.readEntry(entitySet, reqContent, consumerProperties);
+    assertNotNull(entry);
+    assertNull(entry.getProperties().get("nt_Employees"));
+    assertEquals(3, callback.employees.size());
+    assertEquals("Frederic Fall", callback.employees.get(1).getProperties().get("EmployeeName"));
+    assertEquals(entry.getMetadata().getId(), callback.parentEntryId);
+    // the feed handed over at the end carries no entries
+    assertTrue(callback.feed.getEntries().isEmpty());
+  }
+
+  /** Inline feed handed over one at a time before the id of the enclosing entry is known */
+  @Test
+  public void readWithInlineContentAndEntryCallbackWithoutId() throws Exception {
+    String content = readFile("expanded_team.xml").replaceFirst("<id>[^<]*</id>", "");
+    EdmEntitySet entitySet = MockFacade.getMockEdm().getDefaultEntityContainer().getEntitySet("Teams");
+    InputStream reqContent = createContentAsStream(content);
+
+    XmlEntityConsumer xec = new XmlEntityConsumer();
+    EmployeeEntryCallback callback = new EmployeeEntryCallback();
+    EntityProviderReadProperties consumerProperties = EntityProviderReadProperties.init()
+        .mergeSemantic(false)
+        .callback(callback)
+        .build();
+
+    xec.readEntry(entitySet, reqContent, consumerProperties);
+    assertEquals(3, callback.employees.size());
+    assertEquals("Id=1", callback.parentEntryId);
+  }
+
+  /** Inline feed read before the id of the enclosing entry */
+  @Test
+  public void readWithInlineContentAndEntryCallbackIdAfterLinks() throws Exception {
+    String content = readFile("expanded_team.xml");
+    final String id = "<id>http://some.host.com/service.root/Teams('1')</id>";
+    content = content.replace(id, "");
+    content = content.substring(0, content.lastIndexOf("</entry>")) + id + "</entry>";
+    EdmEntitySet entitySet = MockFacade.getMockEdm().getDefaultEntityContainer().getEntitySet("Teams");
+    InputStream reqContent = createContentAsStream(content);
+
+    XmlEntityConsumer xec = new XmlEntityConsumer();
+    EmployeeEntryCallback callback = new EmployeeEntryCallback();
+    EntityProviderReadProperties consumerProperties = EntityProviderReadProperties.init()
+        .mergeSemantic(false)
+        .callback(callback)
+        .build();
+
+    ODataEntry entry = xec.readEntry(entitySet, reqContent, consumerProperties);
+    assertEquals("http://some.host.com/service.root/Teams('1')", entry.getMetadata().getId());
+    assertEquals(3, callback.employees.size());
+    assertEquals(entry.getMetadata().getId(), callback.parentEntryId);
+    assertTrue(callback.feed.getEntries().isEmpty());
+  }
+
   @Test
   public void readWithInlineContentAndCallback_DEFAULT() throws Exception {
     // prepare
@@ -192,6 +192,25 @@ public class AtomFeedProducerTest extends AbstractProviderTest {
     assertXpathEvaluatesTo("103", "/a:feed/m:count/text()", xmlString);
   }
 
+  @Test
+  public void streamedFeedEqualsBufferedFeed() throws Exception {
+    initializeRoomData(200);
+
+    AtomEntityProvider ser = createAtomEntityProvider();
+    EntityProviderWriteProperties properties = EntityProviderWriteProperties.serviceRoot(BASE_URI)
+        .inlineCount(Integer.valueOf(200))
+        .inlineCountType(InlineCount.ALLPAGES)
+        .nextLink("http://thisisanextlink")
+        .build();
+    String expected = verifyResponse(ser.writeFeed(view.getTargetEntitySet(), roomsData, properties));
+    ODataResponse response = ser.writeFeed(view.getTargetEntitySet(), roomsData,
+        EntityProviderWriteProperties.fromProperties(properties).streaming(true).build());
+
+    final String updated = "<updated>[^<]*</updated>";
+    assertEquals(expected.replaceAll(updated, ""),
+        StringHelper.inputStreamToString((InputStream) response.getEntity()).replaceAll(updated, ""));
+  }
+
   @Test
   public void testInlineCountNone() throws Exception {
     when(view.getInlineCount()).thenReturn(InlineCount.NONE);
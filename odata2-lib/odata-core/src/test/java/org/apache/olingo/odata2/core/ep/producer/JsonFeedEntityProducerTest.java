@@ -97,6 +97,35 @@ public class JsonFeedEntityProducerTest extends BaseTest {
         json);
   }
 
+  @Test
+  public void streamedFeedEqualsBufferedFeed() throws Exception {
+    final EdmEntitySet entitySet = MockFacade.getMockEdm().getDefaultEntityContainer().getEntitySet("Teams");
+    List<Map<String, Object>> teamsData = new ArrayList<Map<String, Object>>();
+    EntityProviderWriteProperties properties = EntityProviderWriteProperties.fromProperties(DEFAULT_PROPERTIES)
+        .inlineCountType(InlineCount.ALLPAGES).inlineCount(1000).nextLink("Teams?$skiptoken=1000").build();
+    EntityProviderWriteProperties streamingProperties =
+        EntityProviderWriteProperties.fromProperties(properties).streaming(true).build();
+    final JsonEntityProvider provider = new JsonEntityProvider();
+    assertEquals(
+        StringHelper.inputStreamToString((InputStream) provider.writeFeed(entitySet, teamsData, properties)
+            .getEntity()),
+        StringHelper.inputStreamToString((InputStream) provider.writeFeed(entitySet, teamsData, streamingProperties)
+            .getEntity()));
+
+    for (int i = 0; i < 1000; i++) {
+      Map<String, Object> teamData = new HashMap<String, Object>();
+      teamData.put("Id", String.valueOf(i));
+      teamData.put("isScrumTeam", i % 2 == 0);
+      teamsData.add(teamData);
+    }
+    final ODataResponse response = provider.writeFeed(entitySet, teamsData, streamingProperties);
+    teamsData.add(teamsData.get(0));
+    assertEquals(
+        StringHelper.inputStreamToString((InputStream) provider.writeFeed(entitySet, teamsData, properties)
+            .getEntity()),
+        StringHelper.inputStreamToString((InputStream) response.getEntity()));
+  }
+
   @Test
   public void omitJsonWrapperMustHaveNoEffect() throws Exception {
     final EdmEntitySet entitySet = MockFacade.getMockEdm().getDefaultEntityContainer().getEntitySet("Teams");
@@ -0,0 +1,98 @@
+/*******************************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ ******************************************************************************/
+package org.apache.olingo.odata2.core.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.apache.olingo.odata2.api.metrics.ODataHistogram;
+import org.apache.olingo.odata2.api.metrics.ODataInMemoryMetrics;
+import org.apache.olingo.odata2.api.metrics.ODataMetric;
+import org.apache.olingo.odata2.api.rt.RuntimeDelegate;
+import org.apache.olingo.odata2.testutil.fit.BaseTest;
+import org.junit.Test;
+
+public class ODataInMemoryMetricsImplTest extends BaseTest {
+
+  @Test
+  public void bucketBounds() {
+    for (long value : new long[] { 0, 1, 15, 16, 17, 31, 32, 1000, 123456789, Long.MAX_VALUE }) {
+      int bucket = ODataHistogramImpl.getBucket(value);
+      assertTrue(value <= ODataHistogramImpl.getUpperBound(bucket));
+      assertTrue(bucket == 0 || value > ODataHistogramImpl.getUpperBound(bucket - 1));
+    }
+  }
+
+  @Test
+  public void percentiles() {
+    ODataHistogramImpl histogram = new ODataHistogramImpl();
+    for (int i = 1; i <= 1000; i++) {
+      histogram.record(i * 1000L);
+    }
+    assertEquals(1000, histogram.getCount());
+    assertEquals(500500000L, histogram.getSum());
+    assertEquals(1000000L, histogram.getMax());
+    assertWithinError(500000L, histogram.getValueAtPercentile(50));
+    assertWithinError(990000L, histogram.getValueAtPercentile(99));
+    assertEquals(1000000L, histogram.getValueAtPercentile(100));
+    assertEquals(0, new ODataHistogramImpl().getValueAtPercentile(50));
+  }
+
+  @Test
+  public void aggregation() {
+    ODataInMemoryMetrics metrics = RuntimeDelegate.createInMemoryMetrics();
+    metrics.record(ODataMetric.PROCESSING, "Employees", "URI1", 100);
+    metrics.record(ODataMetric.PROCESSING, "Employees", "URI2", 300);
+    metrics.record(ODataMetric.PROCESSING, "Rooms", "URI1", 200);
+
+    ODataHistogram employees = metrics.getHistogramByEntitySet(ODataMetric.PROCESSING, "Employees");
+    assertEquals(2, employees.getCount());
+    assertEquals(400, employees.getSum());
+    assertEquals(2, metrics.getHistogramByUriType(ODataMetric.PROCESSING, "URI1").getCount());
+    assertEquals(0, metrics.getHistogramByUriType(ODataMetric.REQUEST, "URI1").getCount());
+    assertNull(metrics.getHistogramByEntitySet(ODataMetric.PROCESSING, "Buildings"));
+    assertEquals(2, metrics.getEntitySets().size());
+
+    metrics.clear();
+    assertTrue(metrics.getUriTypes().isEmpty());
+  }
+
+  @Test
+  public void entitySetsAreLimited() {
+    ODataInMemoryMetrics metrics = RuntimeDelegate.createInMemoryMetrics();
+    for (int i = 0; i <= ODataInMemoryMetrics.MAX_ENTITY_SETS; i++) {
+      metrics.record(ODataMetric.PROCESSING, "EntitySet" + i, "URI1", 100);
+    }
+    metrics.record(ODataMetric.PROCESSING, "EntitySet0", "URI1", 100);
+    metrics.record(ODataMetric.PROCESSING, "Employees", "URI1", 100);
+
+    assertEquals(ODataInMemoryMetrics.MAX_ENTITY_SETS + 1, metrics.getEntitySets().size());
+    assertEquals(2, metrics.getHistogramByEntitySet(ODataMetric.PROCESSING, "EntitySet0").getCount());
+    assertNull(metrics.getHistogramByEntitySet(ODataMetric.PROCESSING, "Employees"));
+    assertEquals(2, metrics.getHistogramByEntitySet(ODataMetric.PROCESSING, ODataInMemoryMetrics.OTHERS).getCount());
+    assertEquals(ODataInMemoryMetrics.MAX_ENTITY_SETS + 3,
+        metrics.getHistogramByUriType(ODataMetric.PROCESSING, "URI1").getCount());
+  }
+
+  private static void assertWithinError(final long expected, final long actual) {
+    assertTrue(actual + " is not within the error of " + expected,
+        Math.abs(actual - expected) <= expected / 16);
+  }
+}
@@ -0,0 +1,158 @@
+/*******************************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ ******************************************************************************/
+package org.apache.olingo.odata2.core.processor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.olingo.odata2.api.processor.ODataContextPropagator;
+import org.apache.olingo.odata2.api.processor.ODataRequestExecutor;
+import org.apache.olingo.odata2.api.rt.RuntimeDelegate;
+import org.apache.olingo.odata2.testutil.fit.BaseTest;
+import org.junit.After;
+import org.junit.Test;
+
+public class ODataVirtualThreadExecutorTest extends BaseTest {
+
+  private static final ThreadLocal<String> STATE = new ThreadLocal<String>();
+
+  /**
+   * Propagator registered for the tests in META-INF/services.
+   */
+  public static class TestPropagator implements ODataContextPropagator {
+
+    @Override
+    public Object capture() {
+      return STATE.get();
+    }
+
+    @Override
+    public Object install(final Object state) {
+      Object previousState = STATE.get();
+      STATE.set((String) state);
+      return previousState;
+    }
+
+    @Override
+    public void restore(final Object previousState) {
+      STATE.set((String) previousState);
+    }
+  }
+
+  @After
+  public void tearDown() {
+    STATE.remove();
+  }
+
+  @Test
+  public void stateIsPropagated() throws Exception {
+    final ODataRequestExecutor executor = RuntimeDelegate.createVirtualThreadRequestExecutor();
+    final AtomicReference<String> executedState = new AtomicReference<String>();
+    final CountDownLatch done = new CountDownLatch(1);
+    STATE.set("request");
+    executor.execute(new Runnable() {
+      @Override
+      public void run() {
+        executedState.set(STATE.get());
+        done.countDown();
+      }
+    });
+    assertTrue(done.await(10, TimeUnit.SECONDS));
+    assertEquals("request", executedState.get());
+    ((ODataVirtualThreadExecutor) executor).shutdown();
+  }
+
+  @Test
+  public void stateIsRestored() throws Exception {
+    STATE.set("request");
+    Callable<String> task = ODataContextPropagation.wrap(new Callable<String>() {
+      @Override
+      public String call() {
+        return STATE.get();
+      }
+    });
+    STATE.remove();
+    assertEquals("request", task.call());
+    assertNull(STATE.get());
+  }
+
+  @Test
+  public void wrappedTaskIsNotWrappedAgain() {
+    Runnable task = ODataContextPropagation.wrap(new Runnable() {
+      @Override
+      public void run() {}
+    });
+    assertSame(task, ODataContextPropagation.wrap(task));
+  }
+
+  @Test
+  public void platformThreadsAreBounded() throws Exception {
+    ODataVirtualThreadExecutor executor = new ODataVirtualThreadExecutor(1, 1);
+    if (executor.isVirtual()) {
+      executor.shutdown();
+      return;
+    }
+    final CountDownLatch release = new CountDownLatch(1);
+    Runnable blocking = new Runnable() {
+      @Override
+      public void run() {
+        try {
+          release.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      }
+    };
+    try {
+      executor.execute(blocking);
+      executor.execute(blocking);
+      executor.execute(blocking);
+      fail("Expected RejectedExecutionException");
+    } catch (RejectedExecutionException e) {
+      // the thread and the queue are occupied
+    } finally {
+      release.countDown();
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  public void virtualThreadsDependOnRuntime() {
+    boolean available;
+    try {
+      Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+      available = true;
+    } catch (NoSuchMethodException e) {
+      available = false;
+    }
+    ODataVirtualThreadExecutor executor = new ODataVirtualThreadExecutor();
+    assertEquals(available, executor.isVirtual());
+    executor.shutdown();
+  }
+}
@@ -25,13 +25,22 @@ import java.io.InputStream;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.nio.charset.Charset;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Random;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
 import javax.servlet.GenericServlet;
 import javax.servlet.ServletConfig;
+import javax.servlet.ServletContext;
 import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
@@ -46,6 +55,7 @@ import org.apache.olingo.odata2.api.processor.ODataResponse;
 import org.apache.olingo.odata2.core.ODataResponseImpl;
 import org.apache.olingo.odata2.core.rest.ODataServiceFactoryImpl;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 
 /**
@@ -142,6 +152,22 @@ public class ODataServletTest {
     Mockito.verify(respMock).setContentLength(content.getBytes("utf-8").length);
   }
 
+  @Test
+  public void omittedStreamBodyIsClosed() throws Exception {
+    final Method createResponse = ODataServlet.class.getDeclaredMethod("createResponse",
+        HttpServletResponse.class, ODataResponse.class, boolean.class);
+    createResponse.setAccessible(true);
+
+    final ODataServlet servlet = new ODataServlet();
+    final InputStream content = Mockito.mock(InputStream.class);
+    final ODataResponse response = ODataResponseImpl.status(HttpStatusCodes.OK).entity(content).build();
+    prepareServlet(servlet);
+
+    createResponse.invoke(servlet, respMock, response, true);
+    Mockito.verify(content).close();
+    Mockito.verify(respMock, Mockito.never()).getOutputStream();
+  }
+
   @Test
   public void testInputStreamResponse() throws Exception {
     ODataServlet servlet = new ODataServlet();
@@ -153,6 +179,14 @@ public class ODataServletTest {
       public void write(int i) throws IOException {
         bout.write(i);
       }
+
+      @Override
+      public boolean isReady() {
+        return true;
+      }
+
+      @Override
+      public void setWriteListener(final WriteListener writeListener) {}
     };
     Mockito.when(respMock.getOutputStream()).thenReturn(out);
 
@@ -204,6 +238,14 @@ public class ODataServletTest {
       public void write(int i) throws IOException {
         bout.write(i);
       }
+
+      @Override
+      public boolean isReady() {
+        return true;
+      }
+
+      @Override
+      public void setWriteListener(final WriteListener writeListener) {}
     };
     Mockito.when(respMock.getOutputStream()).thenReturn(out);
 
@@ -251,6 +293,8 @@ public class ODataServletTest {
     servlet.service(reqMock, respMock);
 
     Mockito.verify(factory).createService(Mockito.any(ODataContext.class));
+    // not available before Servlet 3.0
+    Mockito.verify(reqMock, Mockito.never()).isAsyncSupported();
   }
 
   @Test
@@ -271,10 +315,160 @@ public class ODataServletTest {
   }
 
 
+  @Test
+  public void handleAsync() throws Exception {
+    ODataServlet servlet = new ODataServlet() {
+      private static final long serialVersionUID = 1L;
+
+      @Override
+      protected Executor getAsyncExecutor() {
+        return new Executor() {
+          @Override
+          public void execute(final Runnable command) {
+            command.run();
+          }
+        };
+      }
+    };
+    prepareServlet(servlet);
+    prepareRequest(reqMock);
+    AsyncContext asyncContext = prepareAsync(servlet, 3, 0);
+
+    servlet.service(reqMock, respMock);
+
+    Mockito.verify(asyncContext).setTimeout(0);
+    Mockito.verify(respMock).setStatus(HttpStatusCodes.TEMPORARY_REDIRECT.getStatusCode());
+    Mockito.verify(asyncContext).complete();
+  }
+
+  @Test
+  public void handleAsyncWithNonBlockingWrite() throws Exception {
+    ODataServlet servlet = new ODataServlet();
+    prepareServlet(servlet);
+    AsyncContext asyncContext = prepareAsync(servlet, 3, 1);
+    final List<Runnable> reads = new ArrayList<Runnable>();
+    ODataAsyncResponse asyncResponse = ODataAsyncResponse.start(reqMock, respMock, 0, new Executor() {
+      @Override
+      public void execute(final Runnable command) {
+        reads.add(command);
+      }
+    });
+    ServletOutputStream out = Mockito.mock(ServletOutputStream.class);
+    Mockito.when(out.isReady()).thenReturn(true);
+    Mockito.when(respMock.getOutputStream()).thenReturn(out);
+    final Method createResponse =
+        ODataServlet.class.getDeclaredMethod("createResponse", HttpServletResponse.class, ODataResponse.class);
+    createResponse.setAccessible(true);
+
+    createResponse.invoke(servlet, asyncResponse,
+        ODataResponseImpl.status(HttpStatusCodes.OK).entity("Test").build());
+    asyncResponse.complete();
+    Mockito.verify(asyncContext, Mockito.never()).complete();
+
+    ArgumentCaptor<WriteListener> listener = ArgumentCaptor.forClass(WriteListener.class);
+    Mockito.verify(out).setWriteListener(listener.capture());
+    listener.getValue().onWritePossible();
+    Mockito.verify(out, Mockito.never()).write(Mockito.any(byte[].class), Mockito.anyInt(), Mockito.anyInt());
+    Assert.assertEquals(1, reads.size());
+    reads.remove(0).run();
+    Mockito.verify(respMock).setContentLength(4);
+    Mockito.verify(out).write(Mockito.any(byte[].class), Mockito.eq(0), Mockito.eq(4));
+    Assert.assertEquals(1, reads.size());
+    reads.remove(0).run();
+    Mockito.verify(asyncContext).complete();
+  }
+
+  @Test
+  public void handleAsyncTimeoutClosesEntity() throws Exception {
+    ODataServlet servlet = new ODataServlet();
+    prepareServlet(servlet);
+    AsyncContext asyncContext = prepareAsync(servlet, 3, 1);
+    final List<Runnable> reads = new ArrayList<Runnable>();
+    ODataAsyncResponse asyncResponse = ODataAsyncResponse.start(reqMock, respMock, 0, new Executor() {
+      @Override
+      public void execute(final Runnable command) {
+        reads.add(command);
+      }
+    });
+    ServletOutputStream out = Mockito.mock(ServletOutputStream.class);
+    Mockito.when(out.isReady()).thenReturn(true);
+    Mockito.when(respMock.getOutputStream()).thenReturn(out);
+    InputStream entity = Mockito.spy(new ByteArrayInputStream("Test".getBytes("UTF-8")));
+    asyncResponse.writeEntity(entity, new byte[4]);
+    ArgumentCaptor<WriteListener> writeListener = ArgumentCaptor.forClass(WriteListener.class);
+    Mockito.verify(out).setWriteListener(writeListener.capture());
+    writeListener.getValue().onWritePossible();
+
+    ArgumentCaptor<AsyncListener> listener = ArgumentCaptor.forClass(AsyncListener.class);
+    Mockito.verify(asyncContext).addListener(listener.capture());
+    listener.getValue().onTimeout(new AsyncEvent(asyncContext));
+    Mockito.verify(asyncContext).complete();
+    // the entity is closed when the pending read has returned
+    Mockito.verify(entity, Mockito.never()).close();
+    reads.remove(0).run();
+    Mockito.verify(entity).close();
+    Mockito.verify(out, Mockito.never()).write(Mockito.any(byte[].class), Mockito.anyInt(), Mockito.anyInt());
+
+    listener.getValue().onComplete(new AsyncEvent(asyncContext));
+    asyncResponse.complete();
+    Mockito.verify(entity).close();
+    Mockito.verify(asyncContext).complete();
+    Assert.assertTrue(reads.isEmpty());
+  }
+
+  @Test
+  public void handleAsyncRejected() throws Exception {
+    ODataServlet servlet = new ODataServlet() {
+      private static final long serialVersionUID = 1L;
+
+      @Override
+      protected Executor getAsyncExecutor() {
+        return new Executor() {
+          @Override
+          public void execute(final Runnable command) {
+            throw new RejectedExecutionException();
+          }
+        };
+      }
+    };
+    prepareServlet(servlet);
+    prepareRequest(reqMock);
+    Mockito.when(reqMock.getRequestURI()).thenReturn("/context-path/servlet-path/");
+    prepareResponseMockToWrite(respMock);
+    AsyncContext asyncContext = prepareAsync(servlet, 3, 1);
+
+    servlet.service(reqMock, respMock);
+
+    Mockito.verify(respMock).setStatus(HttpStatusCodes.SERVICE_UNAVAILABLE.getStatusCode());
+    Mockito.verify(asyncContext).complete();
+  }
+
+  private AsyncContext prepareAsync(final ODataServlet servlet, final int majorVersion, final int minorVersion) {
+    Mockito.when(servlet.getInitParameter("org.apache.olingo.odata2.core.servlet.async")).thenReturn("true");
+    ServletContext servletContext = Mockito.mock(ServletContext.class);
+    Mockito.when(servletContext.getMajorVersion()).thenReturn(majorVersion);
+    Mockito.when(servletContext.getMinorVersion()).thenReturn(minorVersion);
+    Mockito.when(reqMock.getServletContext()).thenReturn(servletContext);
+    Mockito.when(reqMock.isAsyncSupported()).thenReturn(true);
+    AsyncContext asyncContext = Mockito.mock(AsyncContext.class);
+    Mockito.when(asyncContext.getRequest()).thenReturn(reqMock);
+    Mockito.when(asyncContext.getResponse()).thenReturn(respMock);
+    Mockito.when(reqMock.startAsync(reqMock, respMock)).thenReturn(asyncContext);
+    return asyncContext;
+  }
+
   private void prepareResponseMockToWrite(final HttpServletResponse response) throws IOException {
     Mockito.when(response.getOutputStream()).thenReturn(new ServletOutputStream() {
       @Override
       public void write(int b) throws IOException {}
+
+      @Override
+      public boolean isReady() {
+        return true;
+      }
+
+      @Override
+      public void setWriteListener(final WriteListener writeListener) {}
     });
   }
 
@@ -282,7 +476,7 @@ public class ODataServletTest {
     Mockito.when(req.getMethod()).thenReturn("GET");
     Mockito.when(req.getContextPath()).thenReturn(contextPath);
     Mockito.when(req.getServletPath()).thenReturn(servletPath);
-    Mockito.when(req.getHeaderNames()).thenReturn(Collections.enumeration(Collections.emptyList()));
+    Mockito.when(req.getHeaderNames()).thenReturn(Collections.enumeration(Collections.<String> emptyList()));
   }
 
   private void prepareRequest(final HttpServletRequest req) {
@@ -323,6 +517,6 @@ public class ODataServletTest {
     Mockito.when(req.getContextPath()).thenReturn(contextPath);
     Mockito.when(req.getServletPath()).thenReturn(servletPath);
     Mockito.when(req.getRequestURI()).thenReturn(servletPath + ";v=1" + "/Collection");
-    Mockito.when(req.getHeaderNames()).thenReturn(Collections.enumeration(Collections.emptyList()));
+    Mockito.when(req.getHeaderNames()).thenReturn(Collections.enumeration(Collections.<String> emptyList()));
   }
 }
@@ -0,0 +1,89 @@
+/*******************************************************************************
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ ******************************************************************************/
+package org.apache.olingo.odata2.core.uri;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.olingo.odata2.api.exception.ODataBadRequestException;
+import org.apache.olingo.odata2.api.processor.ODataQueryLimits;
+import org.apache.olingo.odata2.testutil.fit.BaseTest;
+import org.apache.olingo.odata2.testutil.mock.MockFacade;
+import org.junit.Test;
+
+public class QueryCostTest extends BaseTest {
+
+  @Test
+  public void expand() throws Exception {
+    QueryCost cost = estimate("$expand", "ne_Team/nt_Employees,ne_Team,ne_Room/nr_Building");
+    assertEquals(2, cost.getExpandDepth());
+    assertEquals(4, cost.getExpandedNavigationProperties());
+    assertEquals(0, cost.getFilterNodes());
+
+    cost.check(new ODataQueryLimits().setMaxExpandDepth(2).setMaxExpandedNavigationProperties(4));
+    checkRejected(cost, new ODataQueryLimits().setMaxExpandDepth(1));
+    checkRejected(cost, new ODataQueryLimits().setMaxExpandedNavigationProperties(3));
+  }
+
+  @Test
+  public void filter() throws Exception {
+    QueryCost cost = estimate("$filter", "substringof('a',EmployeeName) and Age gt 20");
+    assertEquals(7, cost.getFilterNodes());
+    assertEquals(1, cost.getFilterMethodCalls());
+
+    cost.check(new ODataQueryLimits().setMaxFilterNodes(7).setMaxFilterMethodCalls(1));
+    checkRejected(cost, new ODataQueryLimits().setMaxFilterNodes(6));
+    checkRejected(cost, new ODataQueryLimits().setMaxFilterMethodCalls(0).setMaxFilterNodes(5));
+  }
+
+  @Test
+  public void orderByAndTop() throws Exception {
+    QueryCost cost = estimate("$orderby", "EmployeeName desc,Age");
+    assertEquals(2, cost.getOrderByKeys());
+    checkRejected(cost, new ODataQueryLimits().setMaxOrderByKeys(1));
+
+    cost = estimate("$top", "1000");
+    assertEquals(1000, cost.getTop());
+    cost.check(new ODataQueryLimits().setMaxTop(1000).setMaxOrderByKeys(1));
+    checkRejected(cost, new ODataQueryLimits().setMaxTop(100));
+    cost.check(null);
+  }
+
+  private static QueryCost estimate(final String option, final String value) throws Exception {
+    Map<String, List<String>> queryParameters = new HashMap<String, List<String>>();
+    queryParameters.put(option, Collections.singletonList(value));
+    return QueryCost.estimate(new UriParserImpl(MockFacade.getMockEdm()).parseAll(
+        MockFacade.getPathSegmentsAsODataPathSegmentMock(Arrays.asList("Employees")), queryParameters));
+  }
+
+  private static void checkRejected(final QueryCost cost, final ODataQueryLimits limits) {
+    try {
+      cost.check(limits);
+      fail("Expected an ODataBadRequestException");
+    } catch (ODataBadRequestException e) {
+      assertEquals(ODataBadRequestException.QUERY_TOO_EXPENSIVE.getKey(), e.getMessageReference().getKey());
+    }
+  }
+}